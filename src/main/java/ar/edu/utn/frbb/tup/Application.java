@@ -1,20 +1,222 @@
 package ar.edu.utn.frbb.tup;
 
+import ar.edu.utn.frbb.tup.importacion.ImportadorCsv;
+import ar.edu.utn.frbb.tup.importacion.ResultadoImportacion;
+import ar.edu.utn.frbb.tup.metricas.Metricas;
 import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.journal.ArchivoTope;
+import ar.edu.utn.frbb.tup.persistence.journal.Persistencia;
+import ar.edu.utn.frbb.tup.persistence.movimientos.HistorialMovimientos;
+import ar.edu.utn.frbb.tup.presentation.http.ServidorHttp;
 import ar.edu.utn.frbb.tup.presentation.input.MenuInputProcessor;
+import ar.edu.utn.frbb.tup.presentation.lote.ProcesadorLote;
+import ar.edu.utn.frbb.tup.presentation.lote.ResultadoLote;
+import ar.edu.utn.frbb.tup.service.DevengadorIntereses;
+import ar.edu.utn.frbb.tup.service.RegistroIdempotencia;
+import ar.edu.utn.frbb.tup.service.ResultadoDevengamiento;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
 class Application {
 
     public static void main(String args[]) {
 
+        //Historial de movimientos: cuántos bloques llenos (de 256 movimientos) quedan en memoria antes de bajar
+        //los más viejos a un archivo en tup.movimientos.dir (por defecto el directorio temporal).
+        //Va antes de crear el contexto porque TransferenciaService toma la instancia al construirse
+        String directorioMovimientos = System.getProperty("tup.movimientos.dir");
+        HistorialMovimientos historial = new HistorialMovimientos(
+                directorioMovimientos != null ? Paths.get(directorioMovimientos) : null,
+                Integer.getInteger("tup.movimientos.bloquesEnMemoria", HistorialMovimientos.MAXIMO_BLOQUES_EN_MEMORIA));
+        HistorialMovimientos.setInstancia(historial);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                historial.close();
+            } catch (IOException e) {
+                System.out.println("No se pudo borrar el archivo de movimientos: " + e.getMessage());
+            }
+        }));
+
+        //Claves de idempotencia de las altas: cuánto se recuerdan, cuántas como máximo y cada cuánto se barren las
+        //vencidas. También va antes del contexto porque ClienteService y CuentaService toman la instancia
+        long ttlIdempotencia = Long.getLong("tup.idempotencia.ttlSegundos", RegistroIdempotencia.TTL_POR_DEFECTO_SEGUNDOS);
+        RegistroIdempotencia idempotencia = new RegistroIdempotencia(TimeUnit.SECONDS.toMillis(ttlIdempotencia),
+                Integer.getInteger("tup.idempotencia.maximo", RegistroIdempotencia.MAXIMO_ENTRADAS_POR_DEFECTO));
+        RegistroIdempotencia.setInstancia(idempotencia);
+        idempotencia.programarBarrido(TimeUnit.SECONDS.toMillis(Long.getLong("tup.idempotencia.barridoSegundos", 60)));
+
         ConfigurableApplicationContext applicationContext =
                 new AnnotationConfigApplicationContext(ApplicationConfig.class);
 
+        //Cache opcional de clientes y cuentas ya armados (desactivado por defecto)
+        int tamanioCache = Integer.getInteger("tup.cache.tamanio", 0);
+        ClienteDao.configurarCache(tamanioCache);
+        CuentaDao.configurarCache(tamanioCache);
+
+        //Si se indica un archivo, al terminar se vuelcan ahí las métricas de servicios, DAOs y tablas
+        String archivoMetricas = System.getProperty("tup.metricas.archivo");
+        if (archivoMetricas != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> volcarMetricas(Paths.get(archivoMetricas))));
+        }
+
+        //Catálogo de productos opcional, que se vuelve a leer si el archivo cambia
+        String archivoCatalogo = System.getProperty("tup.catalogo.archivo");
+        if (archivoCatalogo != null) {
+            //Como en la recarga, un archivo ilegible o mal armado no corta el arranque: se sigue con el catálogo de la consigna
+            try {
+                CatalogoProductos.getInstancia().cargar(Paths.get(archivoCatalogo));
+            } catch (IOException | RuntimeException e) {
+                System.out.println("No se pudo leer el catálogo de productos, se usa el de la consigna: " + e.getMessage());
+            }
+            CatalogoProductos.getInstancia().programarRecarga(Paths.get(archivoCatalogo),
+                    Long.getLong("tup.catalogo.intervaloSegundos", 30));
+        }
+
+        //Cotización del dólar en pesos para los balances consolidados, por ejemplo -Dtup.cotizacion.dolar=1050.25
+        String cotizacionDolar = System.getProperty("tup.cotizacion.dolar");
+        if (cotizacionDolar != null) {
+            long centavos = Montos.parsear(cotizacionDolar);
+            CotizacionesFijas.getInstancia().setCotizacion(TipoMoneda.DOLARES, TipoMoneda.PESOS,
+                    centavos * (Montos.ESCALA_COTIZACION / Montos.UNIDADES_MENORES));
+        }
+
+        //Tasas anuales de las cajas de ahorro en porcentaje, por ejemplo -Dtup.intereses.tasa.PESOS=35.5
+        for (TipoMoneda moneda : TipoMoneda.values()) {
+            String tasa = System.getProperty("tup.intereses.tasa." + moneda);
+            if (tasa != null) {
+                TasasInteres.getInstancia().setTasaAnual(moneda, Montos.parsear(tasa));
+            }
+        }
+
+        //Si se indica un directorio de datos, se recupera la base (snapshot + journal) y se registran los cambios
+        String directorioDatos = System.getProperty("tup.journal.dir");
+        if (directorioDatos != null) {
+            Persistencia persistencia = Persistencia.iniciar(Paths.get(directorioDatos),
+                    Integer.getInteger("tup.journal.tamanioSegmento", 64 * 1024 * 1024),
+                    Integer.getInteger("tup.journal.fsyncCadaRegistros", 256),
+                    Long.getLong("tup.journal.fsyncCadaMillis", 10),
+                    applicationContext.getBean(ClienteDao.class),
+                    applicationContext.getBean(CuentaDao.class));
+            //El generador de numeros de cuenta guarda su tope junto a los datos para no repetir numeros al reiniciar
+            GeneradorNumeroCuenta.setInstancia(new GeneradorNumeroCuenta(GeneradorNumeroCuenta.SECUENCIA_INICIAL, true,
+                    new ArchivoTope(Paths.get(directorioDatos, "numeros-cuenta.tope"))));
+            persistencia.programarSnapshots(Long.getLong("tup.snapshot.intervaloSegundos", 300));
+            Runtime.getRuntime().addShutdownHook(new Thread(persistencia::close));
+        }
+
+        //API HTTP/JSON opcional, por ejemplo -Dtup.http.puerto=8080. Con -Dtup.http.hilos=N los pedidos se atienden
+        //en un pool fijo; sin indicarlo se usan hilos virtuales si la JVM los tiene
+        Integer puertoHttp = Integer.getInteger("tup.http.puerto");
+        if (puertoHttp != null) {
+            ServidorHttp servidorHttp = applicationContext.getBean(ServidorHttp.class);
+            try {
+                System.out.println("API HTTP escuchando en " + servidorHttp.iniciar(puertoHttp, Integer.getInteger("tup.http.hilos", 0)));
+                Runtime.getRuntime().addShutdownHook(new Thread(servidorHttp::detener));
+            } catch (IOException e) {
+                System.out.println("No se pudo iniciar la API HTTP: " + e.getMessage());
+            }
+        }
+
+        //lote <archivo> ejecuta un script de comandos sin el menú; con "lote -" el script se lee de la entrada estándar.
+        //Los resultados van a la salida estándar y el resumen con el throughput a la de error
+        if (args.length > 0 && args[0].equals("lote")) {
+            procesarLote(applicationContext.getBean(ProcesadorLote.class), args.length > 1 ? args[1] : "-");
+            return;
+        }
+
+        //intereses [AAAA-MM-DD] devenga los intereses de las cajas de ahorro hasta esa fecha (por defecto ayer).
+        //Con -Dtup.intereses.checkpoint=<archivo> (o dentro de tup.journal.dir) una corrida cortada se retoma
+        if (args.length > 0 && args[0].equals("intereses")) {
+            DevengadorIntereses devengador = applicationContext.getBean(DevengadorIntereses.class);
+            String checkpoint = System.getProperty("tup.intereses.checkpoint");
+            if (checkpoint != null) {
+                devengador.setArchivoCheckpoint(Paths.get(checkpoint));
+            } else if (directorioDatos != null) {
+                devengador.setArchivoCheckpoint(Paths.get(directorioDatos, "intereses.checkpoint"));
+            }
+            devengarIntereses(devengador, args.length > 1 ? LocalDate.parse(args[1]) : LocalDate.now().minusDays(1));
+            return;
+        }
+
+        //Con argumentos se importan los archivos indicados en vez de abrir el menú:
+        //importar-clientes <archivo.csv> y/o importar-cuentas <archivo.csv>, en ese orden.
+        //Las filas rechazadas quedan en <archivo.csv>.rechazos
+        if (args.length > 0) {
+            importar(applicationContext.getBean(ImportadorCsv.class), args);
+            return;
+        }
+
         MenuInputProcessor processor = applicationContext.getBean(MenuInputProcessor.class);
         processor.renderMenu();
     }
 
+    private static void volcarMetricas(Path archivo) {
+        try (PrintStream salida = new PrintStream(Files.newOutputStream(archivo), false, StandardCharsets.UTF_8)) {
+            Metricas.getInstancia().volcar(salida);
+        } catch (IOException e) {
+            System.out.println("No se pudieron guardar las métricas: " + e.getMessage());
+        }
+    }
+
+    private static void procesarLote(ProcesadorLote procesador, String archivo) {
+        BufferedWriter salida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+        try (Reader entrada = archivo.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(archivo), StandardCharsets.UTF_8)) {
+            ResultadoLote resultado = procesador.procesar(entrada, salida);
+            System.err.println(resultado);
+        } catch (IOException e) {
+            System.err.println("Error al procesar el lote " + archivo + ": " + e.getMessage());
+        }
+    }
+
+    private static void devengarIntereses(DevengadorIntereses devengador, LocalDate fecha) {
+        try {
+            ResultadoDevengamiento resultado = devengador.devengar(fecha,
+                    Integer.getInteger("tup.intereses.hilos", Runtime.getRuntime().availableProcessors()));
+            System.out.println(resultado);
+        } catch (IOException e) {
+            System.out.println("No se pudo guardar el checkpoint de intereses: " + e.getMessage());
+        } catch (InterruptedException e) {
+            System.out.println("Devengamiento interrumpido; se retoma desde el checkpoint en la próxima corrida");
+        }
+    }
+
+    private static void importar(ImportadorCsv importador, String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            Path archivo = Paths.get(args[i + 1]);
+            Path rechazos = Paths.get(args[i + 1] + ".rechazos");
+            try {
+                ResultadoImportacion resultado;
+                if (args[i].equals("importar-clientes")) {
+                    resultado = importador.importarClientes(archivo, rechazos);
+                } else if (args[i].equals("importar-cuentas")) {
+                    resultado = importador.importarCuentas(archivo, rechazos);
+                } else {
+                    System.out.println("Comando desconocido: " + args[i]);
+                    continue;
+                }
+                System.out.println(archivo + ": " + resultado);
+            } catch (IOException e) {
+                System.out.println("Error al importar " + archivo + ": " + e.getMessage());
+            }
+        }
+    }
+
 
 }
@@ -0,0 +1,57 @@
+package ar.edu.utn.frbb.tup.importacion;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Archivo CSV con las filas rechazadas de una importación: numero de fila, motivo y contenido original.
+ * El archivo se crea recién con el primer rechazo.
+ */
+class ArchivoRechazos implements Closeable {
+
+    private final Path archivo;
+    private BufferedWriter escritor;
+    private long cantidad;
+
+    ArchivoRechazos(Path archivo) {
+        this.archivo = archivo;
+    }
+
+    void agregar(long numeroFila, String motivo, String contenido) throws IOException {
+        if (escritor == null) {
+            escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8);
+            escritor.write("fila,motivo,contenido");
+            escritor.newLine();
+        }
+        escritor.write(Long.toString(numeroFila));
+        escritor.write(',');
+        escribirEntreComillas(motivo);
+        escritor.write(',');
+        escribirEntreComillas(contenido);
+        escritor.newLine();
+        cantidad++;
+    }
+
+    long getCantidad() {
+        return cantidad;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (escritor != null) {
+            escritor.close();
+        }
+    }
+
+    private void escribirEntreComillas(String texto) throws IOException {
+        escritor.write('"');
+        if (texto != null) {
+            escritor.write(texto.replace("\"", "\"\""));
+        }
+        escritor.write('"');
+    }
+}
@@ -0,0 +1,208 @@
+package ar.edu.utn.frbb.tup.importacion;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.CuentaNoSoportadaException;
+import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importación masiva de clientes y cuentas desde archivos CSV con encabezado.
+ *
+ * Clientes: dni,nombre,apellido,tipoPersona (F/J),banco,fechaNacimiento[,fechaAlta]
+ * Cuentas: numeroCuenta,dniTitular,tipoCuenta (C/A),moneda (P/D)[,balance con hasta dos decimales]
+ *
+ * Cada fila pasa por las mismas validaciones que el alta interactiva. Las filas válidas se juntan en lotes
+ * y se guardan juntas; las que no pasan van al archivo de rechazos con el motivo. Las cuentas del lote se
+ * guardan de a una con CuentaService.guardarAltaValidada, que repite el control del titular con su lock
+ * tomado: si otra alta le creó una cuenta del mismo tipo y moneda en el medio, la fila se rechaza.
+ */
+@Service
+public class ImportadorCsv {
+
+    static final int TAMANIO_LOTE = 1024;
+
+    private final ClienteService clienteService;
+    private final CuentaService cuentaService;
+    private final ClienteDao clienteDao;
+
+    public ImportadorCsv(ClienteService clienteService, CuentaService cuentaService, ClienteDao clienteDao) {
+        this.clienteService = clienteService;
+        this.cuentaService = cuentaService;
+        this.clienteDao = clienteDao;
+    }
+
+    public ResultadoImportacion importarClientes(Path archivo, Path rechazos) throws IOException {
+        long inicio = System.nanoTime();
+        long leidas = 0;
+        long importadas = 0;
+        try (LectorCsv lector = new LectorCsv(archivo);
+             ArchivoRechazos rechazados = new ArchivoRechazos(rechazos)) {
+            List<Cliente> lote = new ArrayList<>(TAMANIO_LOTE);
+            long[] filasLote = new long[TAMANIO_LOTE];
+            //Los clientes del lote todavía no están en el DAO, así que los repetidos dentro del lote se buscan acá
+            Set<Long> dnisLote = new HashSet<>();
+            lector.siguienteFila();
+            while (lector.siguienteFila()) {
+                if (lector.filaVacia()) {
+                    continue;
+                }
+                leidas++;
+                try {
+                    Cliente cliente = leerCliente(lector);
+                    clienteService.validarAltaCliente(cliente);
+                    if (!dnisLote.add(cliente.getDni())) {
+                        throw new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + cliente.getDni());
+                    }
+                    filasLote[lote.size()] = lector.getNumeroFila();
+                    lote.add(cliente);
+                } catch (ClienteAlreadyExistsException | RuntimeException e) {
+                    rechazados.agregar(lector.getNumeroFila(), e.getMessage(), lector.filaOriginal());
+                }
+                if (lote.size() == TAMANIO_LOTE) {
+                    importadas += guardarClientes(lote, filasLote, rechazados);
+                    dnisLote.clear();
+                }
+            }
+            importadas += guardarClientes(lote, filasLote, rechazados);
+            return new ResultadoImportacion(leidas, importadas, rechazados.getCantidad(), System.nanoTime() - inicio);
+        }
+    }
+
+    public ResultadoImportacion importarCuentas(Path archivo, Path rechazos) throws IOException {
+        long inicio = System.nanoTime();
+        long leidas = 0;
+        long importadas = 0;
+        try (LectorCsv lector = new LectorCsv(archivo);
+             ArchivoRechazos rechazados = new ArchivoRechazos(rechazos)) {
+            List<Cuenta> lote = new ArrayList<>(TAMANIO_LOTE);
+            long[] filasLote = new long[TAMANIO_LOTE];
+            //Numeros de cuenta y combinaciones titular/tipo/moneda del lote, que todavía no están en el DAO
+            Set<Long> numerosLote = new HashSet<>();
+            Set<Long> tiposLote = new HashSet<>();
+            lector.siguienteFila();
+            while (lector.siguienteFila()) {
+                if (lector.filaVacia()) {
+                    continue;
+                }
+                leidas++;
+                try {
+                    Cuenta cuenta = leerCuenta(lector);
+                    long dniTitular = lector.leerLong(1);
+                    Cliente titular = cuentaService.validarAltaCuenta(cuenta, dniTitular);
+                    if (numerosLote.contains(cuenta.getNumeroCuenta())) {
+                        throw new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe.");
+                    }
+                    long tipo = dniTitular * 4 + cuenta.getTipoCuenta().ordinal() * 2 + cuenta.getMoneda().ordinal();
+                    if (!tiposLote.add(tipo)) {
+                        throw new TipoCuentaAlreadyExistsException("El cliente ya tiene una cuenta del tipo " + cuenta.getTipoCuenta() + " en " + cuenta.getMoneda() + ".");
+                    }
+                    numerosLote.add(cuenta.getNumeroCuenta());
+                    cuenta.setTitular(titular);
+                    filasLote[lote.size()] = lector.getNumeroFila();
+                    lote.add(cuenta);
+                } catch (CuentaAlreadyExistsException | TipoCuentaAlreadyExistsException | CuentaNoSoportadaException | RuntimeException e) {
+                    rechazados.agregar(lector.getNumeroFila(), e.getMessage(), lector.filaOriginal());
+                }
+                if (lote.size() == TAMANIO_LOTE) {
+                    importadas += guardarCuentas(lote, filasLote, rechazados);
+                    numerosLote.clear();
+                    tiposLote.clear();
+                }
+            }
+            importadas += guardarCuentas(lote, filasLote, rechazados);
+            return new ResultadoImportacion(leidas, importadas, rechazados.getCantidad(), System.nanoTime() - inicio);
+        }
+    }
+
+    private Cliente leerCliente(LectorCsv lector) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(lector.leerLong(0));
+        cliente.setNombre(lector.leerTexto(1));
+        cliente.setApellido(lector.leerTexto(2));
+        cliente.setTipoPersona(TipoPersona.fromString(String.valueOf(lector.leerCaracter(3))));
+        cliente.setBanco(lector.leerTexto(4));
+        cliente.setFechaNacimiento(lector.leerFecha(5));
+        cliente.setFechaAlta(lector.campoVacio(6) ? LocalDate.now() : lector.leerFecha(6));
+        return cliente;
+    }
+
+    private Cuenta leerCuenta(LectorCsv lector) {
+        Cuenta cuenta = Cuenta.conNumero(lector.leerLong(0));
+        switch (lector.leerCaracter(2)) {
+            case 'C':
+                cuenta.setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE);
+                break;
+            case 'A':
+                cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de cuenta inválido, debe ser C o A");
+        }
+        switch (lector.leerCaracter(3)) {
+            case 'P':
+                cuenta.setMoneda(TipoMoneda.PESOS);
+                break;
+            case 'D':
+                cuenta.setMoneda(TipoMoneda.DOLARES);
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de moneda inválido, debe ser P o D");
+        }
+        cuenta.setBalance(lector.campoVacio(4) ? 0 : lector.leerMonto(4));
+        cuenta.setFechaCreacion(LocalDateTime.now());
+        return cuenta;
+    }
+
+    //Si otro hilo dio de alta el mismo cliente entre la validación y el guardado, la fila se rechaza
+    private long guardarClientes(List<Cliente> lote, long[] filasLote, ArchivoRechazos rechazados) throws IOException {
+        List<Cliente> existentes = clienteDao.saveAll(lote);
+        for (Cliente existente : existentes) {
+            rechazados.agregar(filasLote[indiceEnLote(lote, existente)], "Ya existe un cliente con DNI " + existente.getDni(), "");
+        }
+        long guardados = lote.size() - existentes.size();
+        lote.clear();
+        return guardados;
+    }
+
+    private long guardarCuentas(List<Cuenta> lote, long[] filasLote, ArchivoRechazos rechazados) throws IOException {
+        long guardadas = 0;
+        for (int i = 0; i < lote.size(); i++) {
+            Cuenta cuenta = lote.get(i);
+            try {
+                cuentaService.guardarAltaValidada(cuenta, cuenta.getTitular().getDni());
+                guardadas++;
+            } catch (CuentaAlreadyExistsException | TipoCuentaAlreadyExistsException | CuentaNoSoportadaException | RuntimeException e) {
+                rechazados.agregar(filasLote[i], e.getMessage(), "");
+            }
+        }
+        lote.clear();
+        return guardadas;
+    }
+
+    private static int indiceEnLote(List<?> lote, Object elemento) {
+        for (int i = 0; i < lote.size(); i++) {
+            if (lote.get(i) == elemento) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("El elemento no está en el lote");
+    }
+}
@@ -0,0 +1,290 @@
+package ar.edu.utn.frbb.tup.importacion;
+
+import ar.edu.utn.frbb.tup.model.Montos;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Lector de archivos CSV en UTF-8 que recorre el archivo de a bloques con un FileChannel.
+ *
+ * Cada fila se separa en campos sobre arreglos que se reutilizan: los numeros, caracteres y fechas
+ * se convierten directo desde los bytes, y solo se arma un String para los campos de texto que se piden.
+ * Acepta campos entre comillas dobles (con "" para una comilla), pero no saltos de línea dentro de un campo.
+ */
+public class LectorCsv implements Closeable {
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocate(TAMANIO_BUFFER);
+    private boolean finArchivo;
+
+    //La fila tal como está en el archivo, y sus campos ya sin comillas
+    private byte[] fila = new byte[256];
+    private int largoFila;
+    private byte[] datos = new byte[256];
+    private int[] inicios = new int[16];
+    private int[] fines = new int[16];
+    private int cantidadCampos;
+    private long numeroFila;
+    private final Campo campoComoTexto = new Campo();
+
+    public LectorCsv(Path archivo) throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        buffer.flip();
+    }
+
+    /**
+     * Avanza a la siguiente fila.
+     * @return false si no quedan filas
+     */
+    public boolean siguienteFila() throws IOException {
+        largoFila = 0;
+        boolean hayFila = false;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                if (finArchivo) {
+                    break;
+                }
+                buffer.clear();
+                int leidos = canal.read(buffer);
+                buffer.flip();
+                if (leidos < 0) {
+                    finArchivo = true;
+                }
+                continue;
+            }
+            byte[] bytes = buffer.array();
+            int desde = buffer.position();
+            int hasta = buffer.limit();
+            int i = desde;
+            while (i < hasta && bytes[i] != '\n') {
+                i++;
+            }
+            agregarAFila(bytes, desde, i - desde);
+            hayFila = true;
+            if (i < hasta) {
+                buffer.position(i + 1);
+                break;
+            }
+            buffer.position(hasta);
+        }
+        if (!hayFila) {
+            return false;
+        }
+        if (largoFila > 0 && fila[largoFila - 1] == '\r') {
+            largoFila--;
+        }
+        numeroFila++;
+        separarCampos();
+        return true;
+    }
+
+    public long getNumeroFila() {
+        return numeroFila;
+    }
+
+    public int getCantidadCampos() {
+        return cantidadCampos;
+    }
+
+    public boolean filaVacia() {
+        return largoFila == 0;
+    }
+
+    public boolean campoVacio(int campo) {
+        return campo >= cantidadCampos || inicios[campo] == fines[campo];
+    }
+
+    public String leerTexto(int campo) {
+        verificarCampo(campo);
+        return new String(datos, inicios[campo], fines[campo] - inicios[campo], StandardCharsets.UTF_8);
+    }
+
+    public long leerLong(int campo) {
+        verificarCampo(campo);
+        int i = inicios[campo];
+        int fin = fines[campo];
+        boolean negativo = i < fin && datos[i] == '-';
+        if (negativo) {
+            i++;
+        }
+        if (i == fin) {
+            throw new NumberFormatException("El campo " + (campo + 1) + " no es un número");
+        }
+        long valor = 0;
+        try {
+            for (; i < fin; i++) {
+                int digito = datos[i] - '0';
+                if (digito < 0 || digito > 9) {
+                    throw new NumberFormatException("El campo " + (campo + 1) + " no es un número");
+                }
+                valor = Math.addExact(Math.multiplyExact(valor, 10), negativo ? -digito : digito);
+            }
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("El campo " + (campo + 1) + " está fuera de rango");
+        }
+        return valor;
+    }
+
+    public int leerInt(int campo) {
+        long valor = leerLong(campo);
+        if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+            throw new NumberFormatException("El campo " + (campo + 1) + " está fuera de rango");
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Lee un monto con punto decimal y hasta dos decimales, en unidades menores. Lo interpreta Montos.parsear,
+     * sobre una vista de los bytes del campo que no copia nada.
+     */
+    public long leerMonto(int campo) {
+        verificarCampo(campo);
+        campoComoTexto.apuntar(inicios[campo], fines[campo]);
+        try {
+            return Montos.parsear(campoComoTexto);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("El campo " + (campo + 1) + " está fuera de rango");
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("El campo " + (campo + 1) + " no es un monto: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee un campo de un solo caracter ASCII, pasado a mayúscula.
+     */
+    public char leerCaracter(int campo) {
+        verificarCampo(campo);
+        if (fines[campo] - inicios[campo] != 1) {
+            throw new IllegalArgumentException("El campo " + (campo + 1) + " debe tener un solo caracter");
+        }
+        return Character.toUpperCase((char) (datos[inicios[campo]] & 0x7F));
+    }
+
+    /**
+     * Lee una fecha en formato YYYY-MM-DD.
+     */
+    public LocalDate leerFecha(int campo) {
+        verificarCampo(campo);
+        int i = inicios[campo];
+        if (fines[campo] - i != 10 || datos[i + 4] != '-' || datos[i + 7] != '-') {
+            throw new IllegalArgumentException("El campo " + (campo + 1) + " no es una fecha YYYY-MM-DD");
+        }
+        return LocalDate.of(digitos(i, 4, campo), digitos(i + 5, 2, campo), digitos(i + 8, 2, campo));
+    }
+
+    /**
+     * Devuelve la fila actual tal como está en el archivo. Arma un String, así que solo conviene usarlo para los rechazos.
+     */
+    public String filaOriginal() {
+        return new String(fila, 0, largoFila, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private int digitos(int desde, int cantidad, int campo) {
+        int valor = 0;
+        for (int i = desde; i < desde + cantidad; i++) {
+            int digito = datos[i] - '0';
+            if (digito < 0 || digito > 9) {
+                throw new IllegalArgumentException("El campo " + (campo + 1) + " no es una fecha YYYY-MM-DD");
+            }
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    private void verificarCampo(int campo) {
+        if (campo >= cantidadCampos) {
+            throw new IllegalArgumentException("Falta el campo " + (campo + 1));
+        }
+    }
+
+    private void agregarAFila(byte[] bytes, int desde, int largo) {
+        if (largoFila + largo > fila.length) {
+            fila = Arrays.copyOf(fila, Math.max(fila.length * 2, largoFila + largo));
+        }
+        System.arraycopy(bytes, desde, fila, largoFila, largo);
+        largoFila += largo;
+    }
+
+    private void separarCampos() {
+        if (datos.length < largoFila) {
+            datos = new byte[fila.length];
+        }
+        int n = 0;
+        int campo = 0;
+        boolean entreComillas = false;
+        inicios[0] = 0;
+        for (int i = 0; i < largoFila; i++) {
+            byte b = fila[i];
+            if (entreComillas) {
+                if (b != '"') {
+                    datos[n++] = b;
+                } else if (i + 1 < largoFila && fila[i + 1] == '"') {
+                    datos[n++] = '"';
+                    i++;
+                } else {
+                    entreComillas = false;
+                }
+            } else if (b == '"') {
+                entreComillas = true;
+            } else if (b == ',') {
+                fines[campo++] = n;
+                if (campo == inicios.length) {
+                    inicios = Arrays.copyOf(inicios, campo * 2);
+                    fines = Arrays.copyOf(fines, campo * 2);
+                }
+                inicios[campo] = n;
+            } else {
+                datos[n++] = b;
+            }
+        }
+        fines[campo] = n;
+        cantidadCampos = campo + 1;
+    }
+
+    //Un campo de la fila vista como texto, sin armar un String. Los bytes fuera de ASCII quedan como caracteres
+    //que ningún parser de numeros acepta, así que no hace falta decodificar UTF-8
+    private final class Campo implements CharSequence {
+        private int inicio;
+        private int fin;
+
+        void apuntar(int inicio, int fin) {
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        @Override
+        public int length() {
+            return fin - inicio;
+        }
+
+        @Override
+        public char charAt(int indice) {
+            return (char) (datos[inicio + indice] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int desde, int hasta) {
+            return toString().subSequence(desde, hasta);
+        }
+
+        @Override
+        public String toString() {
+            return new String(datos, inicio, fin - inicio, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ar.edu.utn.frbb.tup.importacion;
+
+/**
+ * Resumen de una importación: filas leídas, importadas y rechazadas, y el tiempo que llevó.
+ */
+public class ResultadoImportacion {
+
+    private final long leidas;
+    private final long importadas;
+    private final long rechazadas;
+    private final long nanos;
+
+    public ResultadoImportacion(long leidas, long importadas, long rechazadas, long nanos) {
+        this.leidas = leidas;
+        this.importadas = importadas;
+        this.rechazadas = rechazadas;
+        this.nanos = nanos;
+    }
+
+    public long getLeidas() {
+        return leidas;
+    }
+
+    public long getImportadas() {
+        return importadas;
+    }
+
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double filasPorSegundo() {
+        return nanos > 0 ? leidas * 1_000_000_000.0 / nanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Filas leídas: %d, importadas: %d, rechazadas: %d, en %.3f s (%.0f filas/s)",
+                leidas, importadas, rechazadas, nanos / 1_000_000_000.0, filasPorSegundo());
+    }
+}
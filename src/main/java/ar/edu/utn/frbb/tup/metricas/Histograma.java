@@ -0,0 +1,122 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de valores long (latencias en nanosegundos) con cubetas log-lineales, al estilo de HdrHistogram.
+ *
+ * Los valores menores a 64 tienen su propia cubeta; a partir de ahí cada potencia de dos se parte en 32 cubetas,
+ * así el error relativo de un percentil es a lo sumo de 1/32 (~3%) en todo el rango de long. Registrar un valor
+ * es calcular el índice con un numberOfLeadingZeros e incrementar un AtomicLongArray, sin crear objetos.
+ * Las cubetas están repetidas en unas pocas franjas elegidas por hilo para que hilos distintos no peleen por
+ * la misma cubeta cuando las latencias se parecen.
+ */
+public class Histograma {
+
+    static final int BITS_SUBCUBETA = 5;
+    static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    static final int CANTIDAD_CUBETAS = (Long.SIZE - BITS_SUBCUBETA) * SUBCUBETAS;
+    private static final int FRANJAS = 4;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(FRANJAS * CANTIDAD_CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public void registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+        int franja = (int) Thread.currentThread().getId() & (FRANJAS - 1);
+        cubetas.incrementAndGet(franja * CANTIDAD_CUBETAS + indice(valor));
+        suma.add(valor);
+        long actual = maximo.get();
+        while (valor > actual && !maximo.compareAndSet(actual, valor)) {
+            actual = maximo.get();
+        }
+    }
+
+    /**
+     * Junta las franjas en un resumen. Los valores que se registran mientras tanto pueden quedar afuera o no.
+     */
+    public Resumen resumen() {
+        long[] conteos = new long[CANTIDAD_CUBETAS];
+        long cantidad = 0;
+        for (int franja = 0; franja < FRANJAS; franja++) {
+            for (int i = 0; i < CANTIDAD_CUBETAS; i++) {
+                long conteo = cubetas.get(franja * CANTIDAD_CUBETAS + i);
+                conteos[i] += conteo;
+                cantidad += conteo;
+            }
+        }
+        return new Resumen(conteos, cantidad, suma.sum(), maximo.get());
+    }
+
+    static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int corrimiento = exponente - BITS_SUBCUBETA;
+        return (corrimiento + 1) * SUBCUBETAS + (int) ((valor >>> corrimiento) & (SUBCUBETAS - 1));
+    }
+
+    //El mayor valor que cae en la cubeta
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int corrimiento = indice / SUBCUBETAS - 1;
+        long inferior = (long) (SUBCUBETAS + indice % SUBCUBETAS) << corrimiento;
+        return inferior + (1L << corrimiento) - 1;
+    }
+
+    /**
+     * Foto de un histograma para reportar.
+     */
+    public static final class Resumen {
+        private final long[] conteos;
+        private final long cantidad;
+        private final long suma;
+        private final long maximo;
+
+        Resumen(long[] conteos, long cantidad, long suma, long maximo) {
+            this.conteos = conteos;
+            this.cantidad = cantidad;
+            this.suma = suma;
+            this.maximo = maximo;
+        }
+
+        public long getCantidad() {
+            return cantidad;
+        }
+
+        public long getMaximo() {
+            return maximo;
+        }
+
+        public double getPromedio() {
+            return cantidad == 0 ? 0 : (double) suma / cantidad;
+        }
+
+        /**
+         * Devuelve el valor por debajo del cual está la fracción pedida de los registros (0.99 = p99),
+         * redondeado hacia arriba al límite de su cubeta y nunca mayor al máximo visto.
+         */
+        public long percentil(double fraccion) {
+            if (cantidad == 0) {
+                return 0;
+            }
+            long objetivo = Math.max(1, (long) Math.ceil(fraccion * cantidad));
+            long acumulado = 0;
+            for (int i = 0; i < conteos.length; i++) {
+                acumulado += conteos[i];
+                if (acumulado >= objetivo) {
+                    return Math.min(limiteSuperior(i), maximo);
+                }
+            }
+            return maximo;
+        }
+    }
+}
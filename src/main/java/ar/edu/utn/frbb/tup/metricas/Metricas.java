@@ -0,0 +1,21 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+/**
+ * Registro de métricas de la aplicación. Los servicios y DAOs piden sus operaciones al crearse, así que
+ * un registro distinto se tiene que instalar antes de crearlos.
+ */
+public final class Metricas {
+
+    private static volatile RegistroMetricas instancia = new RegistroLocal();
+
+    private Metricas() {
+    }
+
+    public static RegistroMetricas getInstancia() {
+        return instancia;
+    }
+
+    public static void setInstancia(RegistroMetricas registro) {
+        instancia = registro;
+    }
+}
@@ -0,0 +1,68 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de una operación: latencia de cada llamada, cantidad de llamadas y errores por tipo de excepción.
+ *
+ * Uso típico:
+ * <pre>
+ * long inicio = operacion.iniciar();
+ * try {
+ *     ...
+ * } catch (Throwable e) {
+ *     operacion.error(e);
+ *     throw e;
+ * } finally {
+ *     operacion.terminar(inicio);
+ * }
+ * </pre>
+ * Las llamadas exitosas no crean objetos. El contador de un tipo de excepción se crea la primera vez que aparece.
+ */
+public class Operacion {
+
+    private final String nombre;
+    private final Histograma latencias = new Histograma();
+    private final ConcurrentMap<Class<?>, LongAdder> errores = new ConcurrentHashMap<>();
+
+    public Operacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public long iniciar() {
+        return System.nanoTime();
+    }
+
+    public void terminar(long inicio) {
+        latencias.registrar(System.nanoTime() - inicio);
+    }
+
+    public void error(Throwable error) {
+        LongAdder contador = errores.get(error.getClass());
+        if (contador == null) {
+            contador = errores.computeIfAbsent(error.getClass(), c -> new LongAdder());
+        }
+        contador.increment();
+    }
+
+    public Histograma.Resumen latencias() {
+        return latencias.resumen();
+    }
+
+    /**
+     * Cantidad de errores por nombre simple de la excepción.
+     */
+    public Map<String, Long> errores() {
+        Map<String, Long> porTipo = new TreeMap<>();
+        errores.forEach((tipo, cantidad) -> porTipo.put(tipo.getSimpleName(), cantidad.sum()));
+        return porTipo;
+    }
+}
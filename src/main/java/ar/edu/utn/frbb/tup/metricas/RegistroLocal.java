@@ -0,0 +1,51 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro en memoria que se vuelca como texto: por operación cantidad, ritmo desde el inicio, percentiles
+ * de latencia en microsegundos y errores por tipo, y después el valor de cada medidor.
+ */
+public class RegistroLocal implements RegistroMetricas {
+
+    private final ConcurrentMap<String, Operacion> operaciones = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> medidores = new ConcurrentHashMap<>();
+    private final long inicio = System.nanoTime();
+
+    @Override
+    public Operacion operacion(String nombre) {
+        return operaciones.computeIfAbsent(nombre, Operacion::new);
+    }
+
+    @Override
+    public void medidor(String nombre, LongSupplier valor) {
+        medidores.put(nombre, valor);
+    }
+
+    @Override
+    public void volcar(PrintStream salida) {
+        double segundos = Math.max(1e-9, (System.nanoTime() - inicio) / 1e9);
+        salida.printf("%-28s %10s %10s %10s %10s %10s %10s %10s  %s%n",
+                "operacion", "cantidad", "ops/s", "prom(us)", "p50(us)", "p99(us)", "p999(us)", "max(us)", "errores");
+        for (Operacion operacion : new TreeMap<>(operaciones).values()) {
+            Histograma.Resumen latencias = operacion.latencias();
+            salida.printf("%-28s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f  %s%n",
+                    operacion.getNombre(), latencias.getCantidad(), latencias.getCantidad() / segundos,
+                    latencias.getPromedio() / 1e3, micros(latencias.percentil(0.5)), micros(latencias.percentil(0.99)),
+                    micros(latencias.percentil(0.999)), micros(latencias.getMaximo()), operacion.errores());
+        }
+        for (Map.Entry<String, LongSupplier> medidor : new TreeMap<>(medidores).entrySet()) {
+            salida.printf("%-28s %10d%n", medidor.getKey(), medidor.getValue().getAsLong());
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+}
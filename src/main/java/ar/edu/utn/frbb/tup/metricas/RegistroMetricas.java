@@ -0,0 +1,24 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import java.io.PrintStream;
+import java.util.function.LongSupplier;
+
+/**
+ * Donde se registran las métricas de la aplicación. La implementación decide cómo se guardan y se publican;
+ * la que viene es RegistroLocal, que las mantiene en memoria y las vuelca como texto.
+ */
+public interface RegistroMetricas {
+
+    /**
+     * Devuelve la operación con ese nombre, creándola la primera vez. Conviene pedirla una sola vez y guardarla.
+     */
+    Operacion operacion(String nombre);
+
+    /**
+     * Registra un valor que se lee recién al volcar, por ejemplo el tamaño de una tabla. Si ya había uno con
+     * ese nombre se reemplaza.
+     */
+    void medidor(String nombre, LongSupplier valor);
+
+    void volcar(PrintStream salida);
+}
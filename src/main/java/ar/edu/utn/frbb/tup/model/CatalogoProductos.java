@@ -0,0 +1,134 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catálogo de productos del banco: qué combinaciones de tipo de cuenta y moneda puede abrir cada tipo de persona.
+ *
+ * Cada combinación es un bit (ver {@link #producto}) y el catálogo guarda una máscara por tipo de persona,
+ * así que consultar si un producto está habilitado es un AND sin crear objetos. Las máscaras se reemplazan
+ * enteras al recargar, así que un lector nunca ve una configuración a medio cargar.
+ *
+ * Formato del archivo, una línea por producto habilitado (las que empiezan con # se ignoran):
+ * tipoPersona (F, J o * para todas),tipoCuenta,moneda
+ */
+public class CatalogoProductos {
+
+    private static final TipoMoneda[] MONEDAS = TipoMoneda.values();
+    private static final TipoPersona[] PERSONAS = TipoPersona.values();
+
+    private static final CatalogoProductos instancia = new CatalogoProductos();
+
+    //Una máscara por TipoPersona (por ordinal) y al final la unión de todas
+    private volatile int[] habilitados;
+
+    /**
+     * Crea el catálogo con los productos de la consigna para todas las personas: CA$, CC$ y CAU$S.
+     */
+    public CatalogoProductos() {
+        int productos = producto(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS)
+                | producto(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS)
+                | producto(TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES);
+        int[] mascaras = new int[PERSONAS.length + 1];
+        Arrays.fill(mascaras, productos);
+        habilitados = mascaras;
+    }
+
+    public static CatalogoProductos getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Devuelve el bit que representa la combinación de tipo de cuenta y moneda.
+     */
+    public static int producto(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        return 1 << (tipoCuenta.ordinal() * MONEDAS.length + moneda.ordinal());
+    }
+
+    public boolean habilitado(TipoPersona tipoPersona, TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        return (habilitados[tipoPersona.ordinal()] & producto(tipoCuenta, moneda)) != 0;
+    }
+
+    /**
+     * Indica si el producto está habilitado para algún tipo de persona.
+     */
+    public boolean habilitadoParaAlguna(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        return (habilitados[PERSONAS.length] & producto(tipoCuenta, moneda)) != 0;
+    }
+
+    /**
+     * Reemplaza la configuración por la del archivo. Si el archivo tiene un error no se cambia nada.
+     */
+    public void cargar(Path archivo) throws IOException {
+        List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        int[] mascaras = new int[PERSONAS.length + 1];
+        for (int i = 0; i < lineas.size(); i++) {
+            String linea = lineas.get(i).trim();
+            if (linea.isEmpty() || linea.startsWith("#")) {
+                continue;
+            }
+            String[] campos = linea.split(",");
+            if (campos.length != 3) {
+                throw new IllegalArgumentException("Línea " + (i + 1) + " de " + archivo + ": se esperaba tipoPersona,tipoCuenta,moneda");
+            }
+            int bit;
+            try {
+                bit = producto(TipoCuenta.valueOf(campos[1].trim()), TipoMoneda.valueOf(campos[2].trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + (i + 1) + " de " + archivo + ": " + e.getMessage());
+            }
+            String persona = campos[0].trim();
+            if (persona.equals("*")) {
+                for (int p = 0; p < PERSONAS.length; p++) {
+                    mascaras[p] |= bit;
+                }
+            } else {
+                mascaras[TipoPersona.fromString(persona).ordinal()] |= bit;
+            }
+        }
+        for (int p = 0; p < PERSONAS.length; p++) {
+            mascaras[PERSONAS.length] |= mascaras[p];
+        }
+        habilitados = mascaras;
+    }
+
+    /**
+     * Revisa el archivo cada tantos segundos y lo vuelve a cargar si cambió. Si la recarga falla
+     * se sigue con la configuración anterior.
+     */
+    public ScheduledExecutorService programarRecarga(Path archivo, long segundos) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "recarga-catalogo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        //Se arranca con la fecha actual del archivo, que ya se cargó al iniciar
+        FileTime[] ultimaModificacion = new FileTime[1];
+        try {
+            ultimaModificacion[0] = Files.getLastModifiedTime(archivo);
+        } catch (IOException e) {
+            ultimaModificacion[0] = null;
+        }
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                FileTime modificacion = Files.getLastModifiedTime(archivo);
+                if (!modificacion.equals(ultimaModificacion[0])) {
+                    cargar(archivo);
+                    ultimaModificacion[0] = modificacion;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("No se pudo recargar el catálogo de productos: " + e.getMessage());
+            }
+        }, segundos, segundos, TimeUnit.SECONDS);
+        return executor;
+    }
+}
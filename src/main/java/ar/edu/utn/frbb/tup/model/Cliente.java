@@ -2,16 +2,28 @@ package ar.edu.utn.frbb.tup.model;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public class Cliente extends Persona{
 
     private TipoPersona tipoPersona;
     private String banco;
     private LocalDate fechaAlta;
-    private Set<Cuenta> cuentas = new HashSet<>();
+    //Con carga a demanda queda en null hasta el primer getCuentas; productos ya está completo desde el principio.
+    //El conjunto no se modifica nunca: addCuenta publica uno nuevo, así que quien lo recorre no choca con un alta
+    //concurrente (el cliente puede estar compartido en el cache de ClienteDao)
+    private volatile Set<Cuenta> cuentas = Collections.emptySet();
+    private Supplier<? extends Collection<Cuenta>> cargadorCuentas;
+    //Cuentas agregadas antes de cargar las demás
+    private List<Cuenta> agregadasSinCargar;
+    //Productos (tipo de cuenta y moneda) que tiene el cliente, como bits de CatalogoProductos.producto.
+    //Se escribe con el lock del cliente y se lee sin él
+    private volatile int productos;
 
     public TipoPersona getTipoPersona() {
         return tipoPersona;
@@ -37,23 +49,95 @@ public class Cliente extends Persona{
         this.fechaAlta = fechaAlta;
     }
 
+    /**
+     * Devuelve las cuentas del cliente, como una foto que no se puede modificar y que no cambia con altas
+     * posteriores. Si se cargan a demanda, la primera llamada las trae del cargador.
+     */
     public Set<Cuenta> getCuentas() {
-        return cuentas;
+        Set<Cuenta> c = cuentas;
+        return c != null ? c : cargarCuentas();
+    }
+
+    /**
+     * Deja las cuentas para cargar recién cuando se pidan. Los productos ya se conocen (salen de una
+     * proyección barata), así que tieneCuenta responde sin cargar nada.
+     * @param productos los productos de las cuentas que va a devolver el cargador, como bits de CatalogoProductos.producto
+     */
+    public void cargarCuentasADemanda(int productos, Supplier<? extends Collection<Cuenta>> cargador) {
+        synchronized (this) {
+            this.productos = productos;
+            this.cargadorCuentas = cargador;
+            this.agregadasSinCargar = null;
+            this.cuentas = null;
+        }
+    }
+
+    public boolean cuentasCargadas() {
+        return cuentas != null;
     }
 
     public void addCuenta(Cuenta cuenta) {
-        this.cuentas.add(cuenta);
         cuenta.setTitular(this);
+        synchronized (this) {
+            if (cuentas != null) {
+                //Los clientes tienen pocas cuentas, así que copiar el conjunto en cada alta es barato
+                Set<Cuenta> nuevas = new HashSet<>(cuentas);
+                nuevas.add(cuenta);
+                cuentas = Collections.unmodifiableSet(nuevas);
+            } else {
+                if (agregadasSinCargar == null) {
+                    agregadasSinCargar = new ArrayList<>(1);
+                }
+                agregadasSinCargar.add(cuenta);
+            }
+            if (cuenta.getTipoCuenta() != null && cuenta.getMoneda() != null) {
+                productos |= CatalogoProductos.producto(cuenta.getTipoCuenta(), cuenta.getMoneda());
+            }
+        }
     }
 
     public boolean tieneCuenta(TipoCuenta tipoCuenta, TipoMoneda moneda) {
-        for (Cuenta cuenta:
-                cuentas) {
-            if (tipoCuenta.equals(cuenta.getTipoCuenta()) && moneda.equals(cuenta.getMoneda())) {
-                return true;
+        return (productos & CatalogoProductos.producto(tipoCuenta, moneda)) != 0;
+    }
+
+    /**
+     * Suma los balances de todas las cuentas del cliente expresados en la moneda pedida, en unidades menores.
+     * Cada cuenta en otra moneda se convierte por separado y se redondea al centavo.
+     */
+    public long balanceConsolidado(TipoMoneda moneda, TablaCotizaciones cotizaciones) {
+        long total = 0;
+        for (Cuenta cuenta : getCuentas()) {
+            long balance = cuenta.getBalance();
+            if (cuenta.getMoneda() != moneda) {
+                balance = Montos.convertir(balance, cotizaciones.cotizacion(cuenta.getMoneda(), moneda));
+            }
+            total = Montos.sumar(total, balance);
+        }
+        return total;
+    }
+
+    //Una cuenta agregada antes de la carga puede haberse guardado también, así que no se repite si el cargador ya la trae
+    private synchronized Set<Cuenta> cargarCuentas() {
+        if (cuentas == null) {
+            Set<Cuenta> cargadas = new HashSet<>();
+            Set<Long> numeros = new HashSet<>();
+            for (Cuenta cuenta : cargadorCuentas.get()) {
+                cuenta.setTitular(this);
+                cargadas.add(cuenta);
+                numeros.add(cuenta.getNumeroCuenta());
             }
+            if (agregadasSinCargar != null) {
+                for (Cuenta cuenta : agregadasSinCargar) {
+                    if (!numeros.contains(cuenta.getNumeroCuenta())) {
+                        cargadas.add(cuenta);
+                    }
+                }
+            }
+            cargadorCuentas = null;
+            agregadasSinCargar = null;
+            cuentas = Collections.unmodifiableSet(cargadas);
         }
-        return false;
+        return cuentas;
     }
 
     @Override
@@ -62,7 +146,7 @@ public class Cliente extends Persona{
                 "tipoPersona=" + tipoPersona +
                 ", banco='" + banco + '\'' +
                 ", fechaAlta=" + fechaAlta +
-                ", cuentas=" + cuentas +
+                ", cuentas=" + (cuentasCargadas() ? cuentas : "[sin cargar]") +
                 '}';
     }
 }
@@ -0,0 +1,49 @@
+package ar.edu.utn.frbb.tup.model;
+
+/**
+ * Tabla de cotizaciones cargada a mano. Cada cotización se guarda junto con su inversa, y la tabla entera
+ * se reemplaza en cada cambio, así que un lector siempre ve un par consistente.
+ */
+public class CotizacionesFijas implements TablaCotizaciones {
+
+    private static final int MONEDAS = TipoMoneda.values().length;
+
+    private static final CotizacionesFijas instancia = new CotizacionesFijas();
+
+    private volatile long[] cotizaciones;
+
+    public CotizacionesFijas() {
+        long[] tabla = new long[MONEDAS * MONEDAS];
+        for (int i = 0; i < MONEDAS; i++) {
+            tabla[i * MONEDAS + i] = Montos.ESCALA_COTIZACION;
+        }
+        cotizaciones = tabla;
+    }
+
+    public static CotizacionesFijas getInstancia() {
+        return instancia;
+    }
+
+    @Override
+    public long cotizacion(TipoMoneda origen, TipoMoneda destino) {
+        long cotizacion = cotizaciones[origen.ordinal() * MONEDAS + destino.ordinal()];
+        if (cotizacion == 0) {
+            throw new IllegalStateException("No hay cotización de " + origen + " a " + destino);
+        }
+        return cotizacion;
+    }
+
+    /**
+     * Fija la cotización de origen a destino y la inversa, redondeada a la escala.
+     */
+    public synchronized void setCotizacion(TipoMoneda origen, TipoMoneda destino, long cotizacion) {
+        if (cotizacion <= 0) {
+            throw new IllegalArgumentException("La cotización debe ser positiva");
+        }
+        long[] tabla = cotizaciones.clone();
+        tabla[origen.ordinal() * MONEDAS + destino.ordinal()] = cotizacion;
+        long escalaAlCuadrado = Montos.ESCALA_COTIZACION * Montos.ESCALA_COTIZACION;
+        tabla[destino.ordinal() * MONEDAS + origen.ordinal()] = (escalaAlCuadrado + cotizacion / 2) / cotizacion;
+        cotizaciones = tabla;
+    }
+}
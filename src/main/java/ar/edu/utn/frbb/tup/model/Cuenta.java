@@ -1,22 +1,57 @@
 package ar.edu.utn.frbb.tup.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Random;
 
 public class Cuenta {
+    //El balance se modifica con CAS para que debitos y creditos concurrentes no se pisen.
+    //Está en unidades menores de la moneda (centavos), ver Montos
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Cuenta.class, "balance", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private long numeroCuenta;
     LocalDateTime fechaCreacion;
-    int balance;
+    volatile long balance;
     TipoCuenta tipoCuenta;
     Cliente titular;
     TipoMoneda moneda;
-
+    //Último día hasta el que se devengaron intereses (inclusive), null si nunca se devengaron
+    LocalDate fechaUltimoInteres;
+    //Descubierto autorizado en unidades menores: el balance puede bajar hasta -limiteDescubierto.
+    //Solo se tiene en cuenta en las cuentas corrientes
+    long limiteDescubierto;
+
+    /**
+     * Crea una cuenta nueva con el siguiente numero del generador. Es solo para altas: una cuenta que ya tiene
+     * numero se arma con {@link #conNumero}.
+     */
     public Cuenta() {
-        this.numeroCuenta = new Random().nextLong();
+        this(GeneradorNumeroCuenta.getInstancia().siguiente());
+    }
+
+    private Cuenta(long numeroCuenta) {
+        this.numeroCuenta = numeroCuenta;
         this.balance = 0;
         this.fechaCreacion = LocalDateTime.now();
     }
 
+    /**
+     * Arma una cuenta con un numero ya asignado, sin pedirle uno al generador. La usan las cuentas que se
+     * leen de la base y las altas que traen su propio numero.
+     */
+    public static Cuenta conNumero(long numeroCuenta) {
+        return new Cuenta(numeroCuenta);
+    }
+
     public Cliente getTitular() {
         return titular;
     }
@@ -54,32 +89,91 @@ public class Cuenta {
         return this;
     }
 
-    public int getBalance() {
+    public LocalDate getFechaUltimoInteres() {
+        return fechaUltimoInteres;
+    }
+
+    public Cuenta setFechaUltimoInteres(LocalDate fechaUltimoInteres) {
+        this.fechaUltimoInteres = fechaUltimoInteres;
+        return this;
+    }
+
+    public long getLimiteDescubierto() {
+        return limiteDescubierto;
+    }
+
+    public Cuenta setLimiteDescubierto(long limiteDescubierto) {
+        if (limiteDescubierto < 0) {
+            throw new IllegalArgumentException("El límite de descubierto no puede ser negativo");
+        }
+        this.limiteDescubierto = limiteDescubierto;
+        return this;
+    }
+
+    public long getBalance() {
         return balance;
     }
 
-    public Cuenta setBalance(int balance) {
+    public Cuenta setBalance(long balance) {
         this.balance = balance;
         return this;
     }
 
-    public void debitarDeCuenta(int cantidadADebitar) throws NoAlcanzaException, CantidadNegativaException {
+    public void debitarDeCuenta(long cantidadADebitar) throws NoAlcanzaException, CantidadNegativaException {
         if (cantidadADebitar < 0) {
             throw new CantidadNegativaException();
         }
 
-        if (balance < cantidadADebitar) {
-            throw new NoAlcanzaException();
+        //Saldo mínimo permitido: 0, o menos el descubierto en una cuenta corriente. Se calcula una vez fuera del CAS,
+        //y como piso <= 0 <= cantidadADebitar la suma nunca desborda
+        long piso = tipoCuenta == TipoCuenta.CUENTA_CORRIENTE ? -limiteDescubierto : 0;
+        long minimoNecesario = piso + cantidadADebitar;
+
+        //El chequeo de saldo se repite en cada intento, así nunca se debita sobre un balance viejo
+        long actual = balance;
+        while (true) {
+            if (actual < minimoNecesario) {
+                throw new NoAlcanzaException();
+            }
+            long visto = (long) BALANCE.compareAndExchange(this, actual, actual - cantidadADebitar);
+            if (visto == actual) {
+                return;
+            }
+            actual = visto;
+            Thread.onSpinWait();
+        }
+    }
+
+    public void acreditarEnCuenta(long cantidadAAcreditar) throws CantidadNegativaException {
+        if (cantidadAAcreditar < 0) {
+            throw new CantidadNegativaException();
+        }
+        //No se usa getAndAdd para poder controlar el desborde antes de escribir
+        long actual = balance;
+        while (true) {
+            long visto = (long) BALANCE.compareAndExchange(this, actual, Montos.sumar(actual, cantidadAAcreditar));
+            if (visto == actual) {
+                return;
+            }
+            actual = visto;
+            Thread.onSpinWait();
         }
-        this.balance = this.balance - cantidadADebitar;
     }
 
     public void setNumeroCuenta(long numeroCuenta) {
         this.numeroCuenta = numeroCuenta;
     }
 
-    public void forzaDebitoDeCuenta(int i) {
-        this.balance = this.balance - i;
+    public void forzaDebitoDeCuenta(long i) {
+        long actual = balance;
+        while (true) {
+            long visto = (long) BALANCE.compareAndExchange(this, actual, Montos.restar(actual, i));
+            if (visto == actual) {
+                return;
+            }
+            actual = visto;
+            Thread.onSpinWait();
+        }
     }
 
     public long getNumeroCuenta() {
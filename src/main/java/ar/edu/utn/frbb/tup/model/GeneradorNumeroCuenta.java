@@ -0,0 +1,150 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Genera numeros de cuenta únicos a partir de una secuencia creciente.
+ *
+ * Las secuencias se reparten desde unas pocas franjas compartidas, cada una con su bloque reservado con un
+ * getAndAdd sobre un contador compartido, así que no hay un lock global por numero. Las franjas no dependen
+ * del hilo: con hilos virtuales cada pedido HTTP es un hilo nuevo, y un bloque por hilo gastaba un bloque
+ * entero por cuenta. Se prueba primero la franja 0, así un solo hilo entrega numeros consecutivos, y ante
+ * contención se pasa a la siguiente libre. Si hay un almacén, antes de usar un bloque se guarda un tope por
+ * encima de él: al reiniciar se arranca desde ese tope y nunca se repite un numero ya entregado (a lo sumo
+ * quedan huecos, como mucho un bloque por franja).
+ *
+ * Opcionalmente se agrega al final un dígito verificador de Luhn, que detecta cualquier dígito mal tipeado
+ * y la mayoría de las transposiciones.
+ */
+public class GeneradorNumeroCuenta {
+
+    /**
+     * Donde se guarda el tope de secuencias reservadas para sobrevivir a un reinicio.
+     */
+    public interface AlmacenTope {
+        long leer();
+
+        void guardar(long tope);
+    }
+
+    //Los numeros generados arrancan en 10 dígitos, lejos de los numeros chicos cargados a mano o importados
+    public static final long SECUENCIA_INICIAL = 1_000_000_000L;
+    static final int TAMANIO_BLOQUE = 1024;
+    //El tope se guarda de a muchos bloques para no escribir el almacén en cada reserva
+    static final long RESERVA_ALMACEN = 64L * TAMANIO_BLOQUE;
+    private static final int FRANJAS = 16;
+
+    private static volatile GeneradorNumeroCuenta instancia = new GeneradorNumeroCuenta(SECUENCIA_INICIAL, true, null);
+
+    private final boolean digitoVerificador;
+    private final AlmacenTope almacen;
+    private final AtomicLong proximoBloque;
+    private volatile long topeGuardado;
+    //ReentrantLock y no synchronized: guardar el tope hace fsync y no debe fijar un hilo virtual a su portador
+    private final ReentrantLock lockTope = new ReentrantLock();
+    private final Franja[] franjas = new Franja[FRANJAS];
+
+    //Bloque de secuencias en uso: proximo es la siguiente a entregar y fin el fin (exclusivo) del bloque.
+    //Se leen y escriben con el lock de la franja tomado
+    private static final class Franja extends ReentrantLock {
+        long proximo;
+        long fin;
+    }
+
+    public GeneradorNumeroCuenta(long secuenciaInicial, boolean digitoVerificador, AlmacenTope almacen) {
+        this.digitoVerificador = digitoVerificador;
+        this.almacen = almacen;
+        long inicio = secuenciaInicial;
+        if (almacen != null) {
+            inicio = Math.max(inicio, almacen.leer());
+            topeGuardado = inicio;
+        } else {
+            topeGuardado = Long.MAX_VALUE;
+        }
+        proximoBloque = new AtomicLong(inicio);
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Franja();
+        }
+    }
+
+    public static GeneradorNumeroCuenta getInstancia() {
+        return instancia;
+    }
+
+    public static void setInstancia(GeneradorNumeroCuenta generador) {
+        instancia = generador;
+    }
+
+    public long siguiente() {
+        Franja franja = tomarFranja();
+        long secuencia;
+        try {
+            if (franja.proximo == franja.fin) {
+                long inicio = proximoBloque.getAndAdd(TAMANIO_BLOQUE);
+                long fin = inicio + TAMANIO_BLOQUE;
+                if (fin > topeGuardado) {
+                    guardarTope(fin);
+                }
+                franja.proximo = inicio;
+                franja.fin = fin;
+            }
+            secuencia = franja.proximo++;
+        } finally {
+            franja.unlock();
+        }
+        return digitoVerificador ? secuencia * 10 + digitoLuhn(secuencia) : secuencia;
+    }
+
+    //Devuelve la primera franja libre, o si están todas ocupadas espera en una al azar
+    private Franja tomarFranja() {
+        for (Franja franja : franjas) {
+            if (franja.tryLock()) {
+                return franja;
+            }
+        }
+        Franja franja = franjas[ThreadLocalRandom.current().nextInt(FRANJAS)];
+        franja.lock();
+        return franja;
+    }
+
+    /**
+     * Indica si el ultimo dígito del numero es el verificador de Luhn del resto.
+     */
+    public static boolean digitoValido(long numero) {
+        return numero > 0 && digitoLuhn(numero / 10) == numero % 10;
+    }
+
+    static int digitoLuhn(long secuencia) {
+        int suma = 0;
+        boolean doblar = true;
+        for (long resto = secuencia; resto > 0; resto /= 10) {
+            int digito = (int) (resto % 10);
+            if (doblar) {
+                digito *= 2;
+                if (digito > 9) {
+                    digito -= 9;
+                }
+            }
+            suma += digito;
+            doblar = !doblar;
+        }
+        return (10 - suma % 10) % 10;
+    }
+
+    //Solo se entra cada RESERVA_ALMACEN secuencias, así que alcanza con un lock
+    private void guardarTope(long fin) {
+        lockTope.lock();
+        try {
+            if (fin <= topeGuardado) {
+                return;
+            }
+            long tope = fin + RESERVA_ALMACEN;
+            almacen.guardar(tope);
+            topeGuardado = tope;
+        } finally {
+            lockTope.unlock();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.math.BigInteger;
+
+/**
+ * Operaciones sobre montos de dinero representados como long en unidades menores (centavos).
+ *
+ * Los montos son long primitivos y no un objeto, así que las cuentas pueden sumar y restar sin crear nada
+ * en el camino caliente. Toda la aritmética controla el desborde y lanza ArithmeticException en vez de
+ * dar la vuelta en silencio.
+ */
+public final class Montos {
+
+    public static final int DECIMALES = 2;
+    public static final long UNIDADES_MENORES = 100;
+
+    //Las cotizaciones son numeros de punto fijo con 6 decimales: 1 unidad de la moneda origen = tasa / 1e6 de la destino
+    public static final long ESCALA_COTIZACION = 1_000_000;
+
+    //Las tasas de interés son anuales en puntos básicos (centésimos de punto porcentual): 35.5% = 3550
+    public static final long ESCALA_TASA = 10_000;
+    public static final int DIAS_POR_ANIO = 365;
+    private static final long DIVISOR_INTERES = ESCALA_TASA * DIAS_POR_ANIO;
+
+    private Montos() {
+    }
+
+    public static long sumar(long monto, long otro) {
+        return Math.addExact(monto, otro);
+    }
+
+    public static long restar(long monto, long otro) {
+        return Math.subtractExact(monto, otro);
+    }
+
+    public static long desdeUnidades(long unidades) {
+        return Math.multiplyExact(unidades, UNIDADES_MENORES);
+    }
+
+    /**
+     * Convierte un monto con una cotización en punto fijo (ver ESCALA_COTIZACION), redondeando al centavo
+     * más cercano (las mitades se alejan del cero).
+     */
+    public static long convertir(long monto, long cotizacion) {
+        long producto;
+        try {
+            producto = Math.multiplyExact(monto, cotizacion);
+        } catch (ArithmeticException e) {
+            //Con montos grandes el producto intermedio no entra en un long aunque el resultado sí
+            BigInteger[] division = BigInteger.valueOf(monto).multiply(BigInteger.valueOf(cotizacion))
+                    .divideAndRemainder(BigInteger.valueOf(ESCALA_COTIZACION));
+            BigInteger cociente = division[0];
+            if (division[1].abs().shiftLeft(1).compareTo(BigInteger.valueOf(ESCALA_COTIZACION)) >= 0) {
+                cociente = cociente.add(BigInteger.valueOf(division[1].signum()));
+            }
+            return cociente.longValueExact();
+        }
+        long cociente = producto / ESCALA_COTIZACION;
+        long resto = producto % ESCALA_COTIZACION;
+        if (Math.abs(resto) * 2 >= ESCALA_COTIZACION) {
+            cociente += Long.signum(producto);
+        }
+        return cociente;
+    }
+
+    /**
+     * Interés simple de un monto a una tasa anual en puntos básicos (ver ESCALA_TASA) durante la cantidad de días
+     * indicada, con años de 365 días. Se trunca al centavo, así nunca se paga de más por redondeo.
+     */
+    public static long interes(long monto, long tasaAnual, long dias) {
+        try {
+            return Math.multiplyExact(Math.multiplyExact(monto, tasaAnual), dias) / DIVISOR_INTERES;
+        } catch (ArithmeticException e) {
+            //Solo con balances muy grandes el producto intermedio no entra en un long
+            return BigInteger.valueOf(monto).multiply(BigInteger.valueOf(tasaAnual)).multiply(BigInteger.valueOf(dias))
+                    .divide(BigInteger.valueOf(DIVISOR_INTERES)).longValueExact();
+        }
+    }
+
+    /**
+     * Lee un monto escrito con punto decimal y hasta dos decimales, por ejemplo "1500", "-3.5" o "12.34".
+     */
+    public static long parsear(CharSequence texto) {
+        int largo = texto.length();
+        int i = 0;
+        boolean negativo = largo > 0 && texto.charAt(0) == '-';
+        if (negativo) {
+            i++;
+        }
+        long unidades = 0;
+        long menores = 0;
+        int decimales = -1;
+        int digitos = 0;
+        for (; i < largo; i++) {
+            char c = texto.charAt(i);
+            if (c == '.' && decimales < 0) {
+                decimales = 0;
+            } else if (c >= '0' && c <= '9') {
+                digitos++;
+                if (decimales < 0) {
+                    unidades = Math.addExact(Math.multiplyExact(unidades, 10), c - '0');
+                } else if (++decimales <= DECIMALES) {
+                    menores = menores * 10 + (c - '0');
+                } else {
+                    throw new NumberFormatException("El monto " + texto + " tiene más de " + DECIMALES + " decimales");
+                }
+            } else {
+                throw new NumberFormatException("El monto " + texto + " no es válido");
+            }
+        }
+        if (digitos == 0) {
+            throw new NumberFormatException("El monto " + texto + " no es válido");
+        }
+        for (int d = Math.max(decimales, 0); d < DECIMALES; d++) {
+            menores *= 10;
+        }
+        long monto = Math.addExact(desdeUnidades(unidades), menores);
+        return negativo ? -monto : monto;
+    }
+
+    public static String formatear(long monto) {
+        long absoluto = Math.abs(monto / UNIDADES_MENORES);
+        long menores = Math.abs(monto % UNIDADES_MENORES);
+        return (monto < 0 ? "-" : "") + absoluto + "." + (menores < 10 ? "0" : "") + menores;
+    }
+}
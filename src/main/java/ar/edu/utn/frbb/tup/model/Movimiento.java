@@ -0,0 +1,69 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Un movimiento de una cuenta: un crédito (monto positivo) o un débito (monto negativo), con el saldo
+ * que quedó después y la cuenta del otro lado, o 0 si no hay.
+ * El instante va en milisegundos desde 1970 y los montos en unidades menores (ver Montos).
+ */
+public class Movimiento {
+
+    private final long numeroCuenta;
+    private final long instante;
+    private final long monto;
+    private final long saldo;
+    private final long contraparte;
+
+    public Movimiento(long numeroCuenta, long instante, long monto, long saldo, long contraparte) {
+        this.numeroCuenta = numeroCuenta;
+        this.instante = instante;
+        this.monto = monto;
+        this.saldo = saldo;
+        this.contraparte = contraparte;
+    }
+
+    /**
+     * Convierte una fecha al instante con que se guardan los movimientos. Las fechas del banco se toman en UTC.
+     */
+    public static long instante(LocalDateTime fecha) {
+        return fecha.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public long getNumeroCuenta() {
+        return numeroCuenta;
+    }
+
+    public long getInstante() {
+        return instante;
+    }
+
+    public LocalDateTime getFecha() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(instante), ZoneOffset.UTC);
+    }
+
+    public long getMonto() {
+        return monto;
+    }
+
+    public long getSaldo() {
+        return saldo;
+    }
+
+    public long getContraparte() {
+        return contraparte;
+    }
+
+    @Override
+    public String toString() {
+        return "Movimiento{" +
+                "numeroCuenta=" + numeroCuenta +
+                ", fecha=" + getFecha() +
+                ", monto=" + Montos.formatear(monto) +
+                ", saldo=" + Montos.formatear(saldo) +
+                ", contraparte=" + contraparte +
+                '}';
+    }
+}
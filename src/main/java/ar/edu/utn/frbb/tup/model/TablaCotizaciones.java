@@ -0,0 +1,12 @@
+package ar.edu.utn.frbb.tup.model;
+
+/**
+ * Fuente de cotizaciones entre monedas, en punto fijo con Montos.ESCALA_COTIZACION.
+ */
+public interface TablaCotizaciones {
+
+    /**
+     * Devuelve cuánto vale una unidad de la moneda origen en la moneda destino, multiplicado por Montos.ESCALA_COTIZACION.
+     */
+    long cotizacion(TipoMoneda origen, TipoMoneda destino);
+}
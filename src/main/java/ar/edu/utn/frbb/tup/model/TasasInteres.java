@@ -0,0 +1,30 @@
+package ar.edu.utn.frbb.tup.model;
+
+/**
+ * Tasas anuales de interés de las cajas de ahorro por moneda, en puntos básicos (ver Montos.ESCALA_TASA).
+ * Sin configurar, la tasa de una moneda es 0. La tabla entera se reemplaza en cada cambio, así que un
+ * devengamiento en curso lee siempre tasas consistentes.
+ */
+public class TasasInteres {
+
+    private static final TasasInteres instancia = new TasasInteres();
+
+    private volatile long[] tasas = new long[TipoMoneda.values().length];
+
+    public static TasasInteres getInstancia() {
+        return instancia;
+    }
+
+    public long getTasaAnual(TipoMoneda moneda) {
+        return tasas[moneda.ordinal()];
+    }
+
+    public synchronized void setTasaAnual(TipoMoneda moneda, long tasaAnual) {
+        if (tasaAnual < 0) {
+            throw new IllegalArgumentException("La tasa de interés no puede ser negativa");
+        }
+        long[] tabla = tasas.clone();
+        tabla[moneda.ordinal()] = tasaAnual;
+        tasas = tabla;
+    }
+}
@@ -1,16 +1,101 @@
 package ar.edu.utn.frbb.tup.persistence;
 
-import java.util.HashMap;
-import java.util.Map;
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public abstract class AbstractBaseDao<E extends BaseEntity> {
+    protected static ConcurrentMap<String, LongEntityTable<? extends BaseEntity>> poorMansDatabase = new ConcurrentHashMap<>();
+
+    //Locks por fila repartidos en franjas (lock striping). Solo los toman las escrituras compuestas,
+    //las lecturas van directo a la tabla sin bloquear.
+    private static final int CANTIDAD_LOCKS = 256;
+    private static final Lock[] locks = new Lock[CANTIDAD_LOCKS];
+
+    static {
+        for (int i = 0; i < CANTIDAD_LOCKS; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    //Las tablas nunca se sacan de poorMansDatabase, así que cada DAO puede quedarse con la suya
+    private LongEntityTable<E> tabla;
 
-public abstract class AbstractBaseDao {
-    protected static Map<String, Map<Long, Object>> poorMansDatabase = new HashMap<>();
     protected abstract String getEntityName();
 
-    protected Map<Long, Object> getInMemoryDatabase() {
-        if (poorMansDatabase.get(getEntityName()) == null) {
-            poorMansDatabase.put(getEntityName(),new HashMap<>());
+    @SuppressWarnings("unchecked")
+    protected LongEntityTable<E> getInMemoryDatabase() {
+        LongEntityTable<E> t = tabla;
+        if (t == null) {
+            t = (LongEntityTable<E>) poorMansDatabase.computeIfAbsent(getEntityName(), AbstractBaseDao::crearTabla);
+            tabla = t;
+        }
+        return t;
+    }
+
+    //Cada tabla publica su cantidad de filas como medidor, con el nombre tabla.<entidad>.filas
+    private static LongEntityTable<? extends BaseEntity> crearTabla(String entidad) {
+        LongEntityTable<? extends BaseEntity> tabla = new LongEntityTable<>();
+        Metricas.getInstancia().medidor("tabla." + entidad.toLowerCase() + ".filas", tabla::size);
+        return tabla;
+    }
+
+    /**
+     * Devuelve el lock de la franja que protege la fila con ese id.
+     * Dos ids distintos pueden compartir lock, pero un mismo id siempre usa el mismo.
+     */
+    public Lock lockFor(long id) {
+        return locks[indiceLock(id)];
+    }
+
+    /**
+     * Devuelve los locks de dos filas en un orden global fijo (el de las franjas), sin repetir.
+     * Tomándolos en este orden dos operaciones sobre el mismo par de filas no se bloquean mutuamente,
+     * aunque una pida (a, b) y la otra (b, a).
+     */
+    public List<Lock> locksEnOrden(long primerId, long segundoId) {
+        int primero = indiceLock(primerId);
+        int segundo = indiceLock(segundoId);
+        if (primero == segundo) {
+            return List.of(locks[primero]);
         }
-        return poorMansDatabase.get(getEntityName());
+        return primero < segundo
+                ? List.of(locks[primero], locks[segundo])
+                : List.of(locks[segundo], locks[primero]);
+    }
+
+    private int indiceLock(long id) {
+        long h = (id ^ getEntityName().hashCode()) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 56) & (CANTIDAD_LOCKS - 1);
+    }
+
+    /**
+     * Recorre todas las filas de la tabla sin bloquear a los escritores.
+     * Cada segmento se ve como estaba al empezar a recorrerlo.
+     */
+    public void recorrer(LongEntityTable.Visitante<? super E> visitante) {
+        getInMemoryDatabase().forEach(visitante);
+    }
+
+    /**
+     * Recorre un solo segmento de la tabla, como recorrer. Los segmentos no comparten filas,
+     * así que se pueden recorrer en paralelo de a uno por hilo.
+     */
+    public void recorrerSegmento(int indiceSegmento, LongEntityTable.Visitante<? super E> visitante) {
+        getInMemoryDatabase().forEachEnSegmento(indiceSegmento, visitante);
+    }
+
+    public int cantidadSegmentos() {
+        return getInMemoryDatabase().cantidadSegmentos();
+    }
+
+    //Vacía la tabla de la entidad. Lo usan los tests y benchmarks para arrancar de cero.
+    void limpiar() {
+        getInMemoryDatabase().clear();
     }
 }
@@ -0,0 +1,171 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totales de todo el banco por moneda y tipo de cuenta que se mantienen al guardar cada cuenta,
+ * así que un reporte no tiene que recorrer la tabla de cuentas.
+ *
+ * Cada combinación tiene su suma de balances y su cantidad de cuentas en LongAdder, y el mínimo y máximo
+ * en LongAccumulator, que reparten las escrituras concurrentes en celdas por hilo. Por cada cuenta guardada
+ * se suma la diferencia con la version anterior. Como las operaciones que tocan varias cuentas (por ejemplo
+ * una transferencia) las guardan de a una, un lector puede ver un total entre medio de dos de esos guardados.
+ *
+ * El mínimo y el máximo son históricos (marcas de agua): el menor y el mayor balance que tuvo alguna cuenta de
+ * la combinación desde que se cargó la base, no los de las cuentas actuales. Mantener los extremos actuales
+ * pediría volver a recorrer la combinación cada vez que la cuenta que los tiene se aleja de ellos.
+ *
+ * La exposición del banco por descubiertos se lleva por moneda: lo utilizado (la suma de los balances negativos,
+ * en positivo) y lo otorgado (la suma de los límites de descubierto). Se actualizan igual que los totales,
+ * restando lo que aportaba la version anterior de la cuenta y sumando lo de la nueva.
+ */
+public class AgregadosCuentas implements CuentaListener {
+
+    private static final TipoCuenta[] TIPOS_CUENTA = TipoCuenta.values();
+    private static final TipoMoneda[] MONEDAS = TipoMoneda.values();
+
+    private final LongAdder[] totales = new LongAdder[MONEDAS.length * TIPOS_CUENTA.length];
+    private final LongAdder[] cantidades = new LongAdder[totales.length];
+    private final LongAccumulator[] minimos = new LongAccumulator[totales.length];
+    private final LongAccumulator[] maximos = new LongAccumulator[totales.length];
+    private final LongAdder[] descubiertoUtilizado = new LongAdder[MONEDAS.length];
+    private final LongAdder[] descubiertoOtorgado = new LongAdder[MONEDAS.length];
+
+    public AgregadosCuentas() {
+        for (int i = 0; i < totales.length; i++) {
+            totales[i] = new LongAdder();
+            cantidades[i] = new LongAdder();
+            minimos[i] = new LongAccumulator(Math::min, Long.MAX_VALUE);
+            maximos[i] = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        }
+        for (int i = 0; i < MONEDAS.length; i++) {
+            descubiertoUtilizado[i] = new LongAdder();
+            descubiertoOtorgado[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void cuentaGuardada(CuentaEntity anterior, CuentaEntity nueva) {
+        if (anterior != null) {
+            sumarDescubierto(anterior, -1);
+        }
+        sumarDescubierto(nueva, 1);
+        int celdaAnterior = anterior != null ? celda(anterior.getMoneda(), anterior.getTipoCuenta()) : -1;
+        int celdaNueva = celda(nueva.getMoneda(), nueva.getTipoCuenta());
+        if (celdaAnterior == celdaNueva) {
+            if (celdaNueva >= 0) {
+                totales[celdaNueva].add(nueva.getBalance() - anterior.getBalance());
+                registrarBalance(celdaNueva, nueva.getBalance());
+            }
+            return;
+        }
+        //La cuenta cambió de tipo o de moneda (o es nueva): sale de una combinación y entra en la otra
+        if (celdaAnterior >= 0) {
+            totales[celdaAnterior].add(-anterior.getBalance());
+            cantidades[celdaAnterior].decrement();
+        }
+        if (celdaNueva >= 0) {
+            totales[celdaNueva].add(nueva.getBalance());
+            cantidades[celdaNueva].increment();
+            registrarBalance(celdaNueva, nueva.getBalance());
+        }
+    }
+
+    /**
+     * Suma de los balances de las cuentas de esa moneda y tipo, en unidades menores.
+     */
+    public long total(TipoMoneda moneda, TipoCuenta tipoCuenta) {
+        return totales[celda(moneda, tipoCuenta)].sum();
+    }
+
+    /**
+     * Suma de los balances de todas las cuentas de esa moneda, en unidades menores.
+     */
+    public long total(TipoMoneda moneda) {
+        long total = 0;
+        for (TipoCuenta tipoCuenta : TIPOS_CUENTA) {
+            total += total(moneda, tipoCuenta);
+        }
+        return total;
+    }
+
+    public long cantidad(TipoMoneda moneda, TipoCuenta tipoCuenta) {
+        return cantidades[celda(moneda, tipoCuenta)].sum();
+    }
+
+    /**
+     * Menor balance que tuvo alguna cuenta de esa moneda y tipo desde que se cargó la base, aunque después haya
+     * cambiado, o Long.MAX_VALUE si todavía no hubo ninguna cuenta.
+     */
+    public long minimoHistorico(TipoMoneda moneda, TipoCuenta tipoCuenta) {
+        return minimos[celda(moneda, tipoCuenta)].get();
+    }
+
+    /**
+     * Mayor balance que tuvo alguna cuenta de esa moneda y tipo desde que se cargó la base, aunque después haya
+     * cambiado, o Long.MIN_VALUE si todavía no hubo ninguna cuenta.
+     */
+    public long maximoHistorico(TipoMoneda moneda, TipoCuenta tipoCuenta) {
+        return maximos[celda(moneda, tipoCuenta)].get();
+    }
+
+    /**
+     * Descubierto en uso en esa moneda: la suma de los balances negativos, en unidades menores y en positivo.
+     */
+    public long descubiertoUtilizado(TipoMoneda moneda) {
+        return descubiertoUtilizado[moneda.ordinal()].sum();
+    }
+
+    /**
+     * Suma de los límites de descubierto otorgados en esa moneda, en unidades menores.
+     */
+    public long descubiertoOtorgado(TipoMoneda moneda) {
+        return descubiertoOtorgado[moneda.ordinal()].sum();
+    }
+
+    //No es atómico respecto de los escritores; solo se usa cuando se vacía la tabla
+    void limpiar() {
+        for (int i = 0; i < totales.length; i++) {
+            totales[i].reset();
+            cantidades[i].reset();
+            minimos[i].reset();
+            maximos[i].reset();
+        }
+        for (int i = 0; i < MONEDAS.length; i++) {
+            descubiertoUtilizado[i].reset();
+            descubiertoOtorgado[i].reset();
+        }
+    }
+
+    //Lo más común es una cuenta sin saldo negativo ni límite, que no toca ningún contador
+    private void sumarDescubierto(CuentaEntity cuenta, int signo) {
+        if (cuenta.getMoneda() == null) {
+            return;
+        }
+        int moneda = cuenta.getMoneda().ordinal();
+        if (cuenta.getBalance() < 0) {
+            descubiertoUtilizado[moneda].add(-signo * cuenta.getBalance());
+        }
+        if (cuenta.getLimiteDescubierto() != 0) {
+            descubiertoOtorgado[moneda].add(signo * cuenta.getLimiteDescubierto());
+        }
+    }
+
+    private void registrarBalance(int celda, long balance) {
+        minimos[celda].accumulate(balance);
+        maximos[celda].accumulate(balance);
+    }
+
+    //Las cuentas sin moneda o sin tipo no se cuentan en ninguna combinación
+    private static int celda(TipoMoneda moneda, TipoCuenta tipoCuenta) {
+        if (moneda == null || tipoCuenta == null) {
+            return -1;
+        }
+        return moneda.ordinal() * TIPOS_CUENTA.length + tipoCuenta.ordinal();
+    }
+}
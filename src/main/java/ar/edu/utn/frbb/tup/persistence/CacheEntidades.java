@@ -0,0 +1,148 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache acotado de objetos del modelo ya armados, con clave long y desalojo LRU.
+ *
+ * Está dividido en franjas, cada una un LinkedHashMap en orden de acceso con su propio monitor,
+ * así que dos hilos solo compiten si caen en la misma franja. Cada franja lleva además un numero de
+ * version que sube en cada invalidación: quien arma un objeto después de un fallo pide la version antes
+ * de leer la tabla y solo lo guarda si nadie invalidó esa franja mientras tanto. Así un lector lento
+ * no puede dejar en el cache un objeto armado con datos viejos.
+ */
+public class CacheEntidades<V> {
+
+    private final Franja<V>[] franjas;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public CacheEntidades(int tamanioMaximo) {
+        if (tamanioMaximo <= 0) {
+            throw new IllegalArgumentException("El tamaño del cache debe ser positivo");
+        }
+        //Con pocos elementos una sola franja mantiene el LRU exacto
+        int cantidadFranjas = tamanioMaximo >= 1024 ? 16 : 1;
+        int tamanioFranja = (tamanioMaximo + cantidadFranjas - 1) / cantidadFranjas;
+        franjas = new Franja[cantidadFranjas];
+        for (int i = 0; i < cantidadFranjas; i++) {
+            franjas[i] = new Franja<>(tamanioFranja, desalojos);
+        }
+    }
+
+    public V get(long clave) {
+        Franja<V> franja = franjaDe(clave);
+        V valor;
+        synchronized (franja) {
+            valor = franja.get(clave);
+        }
+        if (valor != null) {
+            aciertos.increment();
+        } else {
+            fallos.increment();
+        }
+        return valor;
+    }
+
+    /**
+     * Devuelve la version actual de la franja de la clave. Hay que pedirla antes de leer la tabla
+     * y pasarla a {@link #put}.
+     */
+    public long version(long clave) {
+        Franja<V> franja = franjaDe(clave);
+        synchronized (franja) {
+            return franja.version;
+        }
+    }
+
+    /**
+     * Guarda el valor solo si la franja no se invalidó desde que se pidió la version.
+     */
+    public void put(long clave, V valor, long version) {
+        Franja<V> franja = franjaDe(clave);
+        synchronized (franja) {
+            if (franja.version == version) {
+                franja.put(clave, valor);
+            }
+        }
+    }
+
+    public void invalidar(long clave) {
+        Franja<V> franja = franjaDe(clave);
+        synchronized (franja) {
+            franja.version++;
+            franja.remove(clave);
+        }
+    }
+
+    public void limpiar() {
+        for (Franja<V> franja : franjas) {
+            synchronized (franja) {
+                franja.version++;
+                franja.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Franja<V> franja : franjas) {
+            synchronized (franja) {
+                total += franja.size();
+            }
+        }
+        return total;
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getDesalojos() {
+        return desalojos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CacheEntidades{" +
+                "tamanio=" + size() +
+                ", aciertos=" + getAciertos() +
+                ", fallos=" + getFallos() +
+                ", desalojos=" + getDesalojos() +
+                '}';
+    }
+
+    private Franja<V> franjaDe(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return franjas[(int) (h >>> 32) & (franjas.length - 1)];
+    }
+
+    private static final class Franja<V> extends LinkedHashMap<Long, V> {
+        private final int tamanioMaximo;
+        private final LongAdder desalojos;
+        private long version;
+
+        Franja(int tamanioMaximo, LongAdder desalojos) {
+            super(16, 0.75f, true);
+            this.tamanioMaximo = tamanioMaximo;
+            this.desalojos = desalojos;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, V> mayor) {
+            if (size() > tamanioMaximo) {
+                desalojos.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,38 +1,182 @@
 package ar.edu.utn.frbb.tup.persistence;
 
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+import ar.edu.utn.frbb.tup.metricas.Operacion;
 import ar.edu.utn.frbb.tup.model.Cliente;
-import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+
 @Service
-public class ClienteDao extends AbstractBaseDao{
+public class ClienteDao extends AbstractBaseDao<ClienteEntity>{
+
+    private static final List<ClienteListener> listeners = new CopyOnWriteArrayList<>();
+
+    //Cache opcional de clientes ya armados; null si está desactivado.
+    //Los clientes con sus cuentas se guardan con el dni como clave y los que no con ~dni.
+    private static volatile CacheEntidades<Cliente> cache;
 
     @Autowired
     CuentaDao cuentaDao;
 
+    private final Operacion metricaFind = Metricas.getInstancia().operacion("dao.cliente.find");
+    private final Operacion metricaSave = Metricas.getInstancia().operacion("dao.cliente.save");
+
+    public ClienteDao() {}
+
+    public ClienteDao(CuentaDao cuentaDao) {
+        this.cuentaDao = cuentaDao;
+    }
+
+    /**
+     * Activa el cache de clientes con el tamaño máximo indicado, o lo desactiva si el tamaño es 0.
+     * Los clientes cacheados se comparten entre quienes los buscan: solo se deben modificar con el lock
+     * de la fila tomado y guardándolos después. Sus cuentas se pueden recorrer sin lock, porque getCuentas
+     * devuelve una foto que las altas no modifican.
+     */
+    public static void configurarCache(int tamanioMaximo) {
+        cache = tamanioMaximo > 0 ? new CacheEntidades<>(tamanioMaximo) : null;
+    }
+
+    public static CacheEntidades<Cliente> getCache() {
+        return cache;
+    }
+
+    //Lo llama también CuentaDao, porque el cliente cacheado con sus cuentas queda viejo al guardar una de ellas
+    static void invalidarCache(long dni) {
+        CacheEntidades<Cliente> c = cache;
+        if (c != null) {
+            c.invalidar(dni);
+            c.invalidar(~dni);
+        }
+    }
+
+    public static void agregarListener(ClienteListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void quitarListener(ClienteListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Busca un cliente. Con loadComplete las cuentas se cargan recién cuando se piden (ver Cliente.getCuentas),
+     * pero los productos que tiene ya vienen completos, así que tieneCuenta no arma ninguna Cuenta.
+     */
     public Cliente find(long dni, boolean loadComplete) {
-        if (getInMemoryDatabase().get(dni) == null)
+        long inicio = metricaFind.iniciar();
+        try {
+            return buscar(dni, loadComplete);
+        } finally {
+            metricaFind.terminar(inicio);
+        }
+    }
+
+    private Cliente buscar(long dni, boolean loadComplete) {
+        CacheEntidades<Cliente> c = cache;
+        long clave = loadComplete ? dni : ~dni;
+        long version = 0;
+        if (c != null) {
+            Cliente cacheado = c.get(clave);
+            if (cacheado != null) {
+                return cacheado;
+            }
+            version = c.version(clave);
+        }
+        ClienteEntity entity = getInMemoryDatabase().get(dni);
+        if (entity == null)
             return null;
-        Cliente cliente =   ((ClienteEntity) getInMemoryDatabase().get(dni)).toCliente();
+        Cliente cliente = entity.toCliente();
         if (loadComplete) {
-            for (Cuenta cuenta :
-                    cuentaDao.getCuentasByCliente(dni)) {
-                cliente.addCuenta(cuenta);
-            }
+            CuentaDao cuentas = cuentaDao;
+            cliente.cargarCuentasADemanda(cuentas.productosDeTitular(dni), () -> cuentas.getCuentasByCliente(dni));
+        }
+        if (c != null) {
+            c.put(clave, cliente, version);
         }
         return cliente;
 
     }
 
     public void save(Cliente cliente) {
+        long inicio = metricaSave.iniciar();
         ClienteEntity entity = new ClienteEntity(cliente);
+        Lock lock = lockFor(entity.getId());
+        lock.lock();
+        try {
+            ClienteEntity anterior = getInMemoryDatabase().put(entity.getId(), entity);
+            invalidarCache(entity.getId());
+            avisarListeners(anterior, entity);
+        } finally {
+            lock.unlock();
+            metricaSave.terminar(inicio);
+        }
+    }
+
+    /**
+     * Guarda el cliente solo si no existe otro con el mismo dni.
+     * @return true si el cliente se guardó, false si ya existía
+     */
+    public boolean saveIfAbsent(Cliente cliente) {
+        ClienteEntity entity = new ClienteEntity(cliente);
+        Lock lock = lockFor(entity.getId());
+        lock.lock();
+        try {
+            if (getInMemoryDatabase().putIfAbsent(entity.getId(), entity) != null) {
+                return false;
+            }
+            invalidarCache(entity.getId());
+            avisarListeners(null, entity);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Guarda un lote de clientes sin pisar los que ya existen.
+     * @return los clientes del lote que no se guardaron porque ya había otro con el mismo dni
+     */
+    public List<Cliente> saveAll(List<Cliente> clientes) {
+        List<Cliente> existentes = new ArrayList<>();
+        for (Cliente cliente : clientes) {
+            if (!saveIfAbsent(cliente)) {
+                existentes.add(cliente);
+            }
+        }
+        return existentes;
+    }
+
+    /**
+     * Vuelve a cargar un cliente ya persistido (por ejemplo al recuperar el journal), sin avisar a los listeners.
+     */
+    public void restaurar(ClienteEntity entity) {
         getInMemoryDatabase().put(entity.getId(), entity);
+        invalidarCache(entity.getId());
+    }
+
+    @Override
+    void limpiar() {
+        super.limpiar();
+        CacheEntidades<Cliente> c = cache;
+        if (c != null) {
+            c.limpiar();
+        }
     }
 
     @Override
     protected String getEntityName() {
         return "CLIENTE";
     }
+
+    private void avisarListeners(ClienteEntity anterior, ClienteEntity nuevo) {
+        for (ClienteListener listener : listeners) {
+            listener.clienteGuardado(anterior, nuevo);
+        }
+    }
 }
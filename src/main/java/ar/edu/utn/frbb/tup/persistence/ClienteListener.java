@@ -0,0 +1,10 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+
+/**
+ * Recibe cada cliente que se guarda en ClienteDao. Se llama con el lock del cliente tomado.
+ */
+public interface ClienteListener {
+    void clienteGuardado(ClienteEntity anterior, ClienteEntity nuevo);
+}
@@ -1,39 +1,345 @@
 package ar.edu.utn.frbb.tup.persistence;
 
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+import ar.edu.utn.frbb.tup.metricas.Operacion;
+import ar.edu.utn.frbb.tup.model.CatalogoProductos;
 import ar.edu.utn.frbb.tup.model.Cuenta;
-import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
 import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+
+@Service
+public class CuentaDao  extends AbstractBaseDao<CuentaEntity>{
+
+    //Indice secundario: dni del titular -> numeros de cuenta. Se mantiene en cada save
+    //para no recorrer toda la tabla de cuentas al buscar las cuentas de un cliente.
+    //Cada cliente tiene pocas cuentas, así que se guardan en un long[] que se reemplaza entero en cada cambio.
+    protected static ConcurrentMap<Long, long[]> cuentasPorTitular = new ConcurrentHashMap<>();
+
+    /**
+     * Cambio a aplicar sobre una fila en actualizarLote.
+     */
+    public interface Actualizacion {
+        /**
+         * Se llama con el lock de la fila tomado.
+         * @return la nueva version de la fila, o null para dejarla como está
+         */
+        CuentaEntity aplicar(CuentaEntity actual);
+    }
+
+    private static final List<CuentaListener> listeners = new CopyOnWriteArrayList<>();
+
+    //Totales por moneda y tipo de cuenta. Se actualizan en cada escritura, también al restaurar,
+    //así siempre corresponden a lo que hay en la tabla
+    private static final AgregadosCuentas agregados = new AgregadosCuentas();
+
+    //Cache opcional de cuentas ya armadas; null si está desactivado
+    private static volatile CacheEntidades<Cuenta> cache;
+
+    private final Operacion metricaFind = Metricas.getInstancia().operacion("dao.cuenta.find");
+    private final Operacion metricaSave = Metricas.getInstancia().operacion("dao.cuenta.save");
+
+    /**
+     * Activa el cache de cuentas con el tamaño máximo indicado, o lo desactiva si el tamaño es 0.
+     * Las cuentas cacheadas se comparten entre quienes las buscan: solo se deben modificar con el lock
+     * de la fila tomado y guardándolas después, como hace TransferenciaService.
+     */
+    public static void configurarCache(int tamanioMaximo) {
+        cache = tamanioMaximo > 0 ? new CacheEntidades<>(tamanioMaximo) : null;
+    }
+
+    public static CacheEntidades<Cuenta> getCache() {
+        return cache;
+    }
+
+    public static AgregadosCuentas getAgregados() {
+        return agregados;
+    }
+
+    public static void agregarListener(CuentaListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void quitarListener(CuentaListener listener) {
+        listeners.remove(listener);
+    }
 
-public class CuentaDao  extends AbstractBaseDao{
     @Override
     protected String getEntityName() {
         return "CUENTA";
     }
 
     public void save(Cuenta cuenta) {
+        long inicio = metricaSave.iniciar();
+        CuentaEntity entity = new CuentaEntity(cuenta);
+        Lock lock = lockFor(entity.getId());
+        lock.lock();
+        try {
+            escribir(entity);
+        } finally {
+            lock.unlock();
+            metricaSave.terminar(inicio);
+        }
+    }
+
+    /**
+     * Guarda dos cuentas como un solo cambio: los listeners reciben las dos juntas en cuentasGuardadas,
+     * así el journal las escribe en un mismo registro y al recuperar nunca aparece una sin la otra.
+     */
+    public void saveJuntas(Cuenta primera, Cuenta segunda) {
+        long inicio = metricaSave.iniciar();
+        CuentaEntity[] nuevas = {new CuentaEntity(primera), new CuentaEntity(segunda)};
+        CuentaEntity[] anteriores = new CuentaEntity[2];
+        List<Lock> locks = locksEnOrden(nuevas[0].getId(), nuevas[1].getId());
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+        try {
+            for (int i = 0; i < nuevas.length; i++) {
+                anteriores[i] = escribirSinAvisar(nuevas[i]);
+            }
+            for (CuentaListener listener : listeners) {
+                listener.cuentasGuardadas(anteriores, nuevas);
+            }
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+            metricaSave.terminar(inicio);
+        }
+    }
+
+    /**
+     * Aplica un cambio a cada una de las cuentas indicadas, leyendo y escribiendo la fila con su lock tomado.
+     * Trabaja directo sobre las filas, sin armar una Cuenta por cada una, y cada fila que cambia se guarda
+     * como en save (indice, cache, totales y listeners). Las cuentas que ya no existen se saltean.
+     * @return cuántas cuentas se modificaron
+     */
+    public int actualizarLote(long[] numerosDeCuenta, int cantidad, Actualizacion actualizacion) {
+        int modificadas = 0;
+        for (int i = 0; i < cantidad; i++) {
+            long numero = numerosDeCuenta[i];
+            Lock lock = lockFor(numero);
+            lock.lock();
+            try {
+                CuentaEntity actual = getInMemoryDatabase().get(numero);
+                if (actual == null) {
+                    continue;
+                }
+                CuentaEntity nueva = actualizacion.aplicar(actual);
+                if (nueva != null) {
+                    escribir(nueva);
+                    modificadas++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return modificadas;
+    }
+
+    /**
+     * Guarda la cuenta solo si no existe otra con el mismo numero.
+     * @return true si la cuenta se guardó, false si ya existía
+     */
+    public boolean saveIfAbsent(Cuenta cuenta) {
         CuentaEntity entity = new CuentaEntity(cuenta);
-        getInMemoryDatabase().put(entity.getId(), entity);
+        Lock lock = lockFor(entity.getId());
+        lock.lock();
+        try {
+            if (getInMemoryDatabase().putIfAbsent(entity.getId(), entity) != null) {
+                return false;
+            }
+            actualizarIndice(null, entity);
+            invalidarCache(null, entity);
+            agregados.cuentaGuardada(null, entity);
+            avisarListeners(null, entity);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Guarda un lote de cuentas sin pisar las que ya existen.
+     * @return las cuentas del lote que no se guardaron porque ya había otra con el mismo numero
+     */
+    public List<Cuenta> saveAll(List<Cuenta> cuentas) {
+        List<Cuenta> existentes = new ArrayList<>();
+        for (Cuenta cuenta : cuentas) {
+            if (!saveIfAbsent(cuenta)) {
+                existentes.add(cuenta);
+            }
+        }
+        return existentes;
+    }
+
+    /**
+     * Vuelve a cargar una cuenta ya persistida (por ejemplo al recuperar el journal), sin avisar a los listeners.
+     */
+    public void restaurar(CuentaEntity entity) {
+        Lock lock = lockFor(entity.getId());
+        lock.lock();
+        try {
+            CuentaEntity anterior = getInMemoryDatabase().put(entity.getId(), entity);
+            actualizarIndice(anterior, entity);
+            invalidarCache(anterior, entity);
+            agregados.cuentaGuardada(anterior, entity);
+        } finally {
+            lock.unlock();
+        }
     }
 
     public Cuenta find(long id) {
-        if (getInMemoryDatabase().get(id) == null) {
+        long inicio = metricaFind.iniciar();
+        try {
+            return buscar(id);
+        } finally {
+            metricaFind.terminar(inicio);
+        }
+    }
+
+    private Cuenta buscar(long id) {
+        CacheEntidades<Cuenta> c = cache;
+        if (c == null) {
+            CuentaEntity entity = getInMemoryDatabase().get(id);
+            return entity != null ? entity.toCuenta() : null;
+        }
+        Cuenta cuenta = c.get(id);
+        if (cuenta != null) {
+            return cuenta;
+        }
+        long version = c.version(id);
+        CuentaEntity entity = getInMemoryDatabase().get(id);
+        if (entity == null) {
             return null;
         }
-        return ((CuentaEntity) getInMemoryDatabase().get(id)).toCuenta();
+        cuenta = entity.toCuenta();
+        c.put(id, cuenta, version);
+        return cuenta;
     }
 
     public List<Cuenta> getCuentasByCliente(long dni) {
         List<Cuenta> cuentasDelCliente = new ArrayList<>();
-        for (Object object:
-                getInMemoryDatabase().values()) {
-            CuentaEntity cuenta = ((CuentaEntity) object);
-            if (cuenta.getTitular().equals(dni)) {
+        long[] numerosDeCuenta = cuentasPorTitular.get(dni);
+        if (numerosDeCuenta == null) {
+            return cuentasDelCliente;
+        }
+        for (long numeroCuenta :
+                numerosDeCuenta) {
+            CuentaEntity cuenta = getInMemoryDatabase().get(numeroCuenta);
+            if (cuenta != null) {
                 cuentasDelCliente.add(cuenta.toCuenta());
             }
         }
         return cuentasDelCliente;
     }
+
+    /**
+     * Proyección de las cuentas de un titular: qué productos (tipo de cuenta y moneda) tiene, como bits de
+     * CatalogoProductos.producto. Lee el indice y las filas sin armar ninguna Cuenta.
+     */
+    public int productosDeTitular(long dni) {
+        long[] numerosDeCuenta = cuentasPorTitular.get(dni);
+        if (numerosDeCuenta == null) {
+            return 0;
+        }
+        int productos = 0;
+        for (long numeroCuenta : numerosDeCuenta) {
+            CuentaEntity cuenta = getInMemoryDatabase().get(numeroCuenta);
+            if (cuenta != null && cuenta.getTipoCuenta() != null && cuenta.getMoneda() != null) {
+                productos |= CatalogoProductos.producto(cuenta.getTipoCuenta(), cuenta.getMoneda());
+            }
+        }
+        return productos;
+    }
+
+    @Override
+    void limpiar() {
+        super.limpiar();
+        cuentasPorTitular.clear();
+        agregados.limpiar();
+        CacheEntidades<Cuenta> c = cache;
+        if (c != null) {
+            c.limpiar();
+        }
+    }
+
+    //Se llama con el lock de la fila tomado
+    private void escribir(CuentaEntity entity) {
+        avisarListeners(escribirSinAvisar(entity), entity);
+    }
+
+    //Se llama con el lock de la fila tomado. Devuelve la version anterior de la fila
+    private CuentaEntity escribirSinAvisar(CuentaEntity entity) {
+        CuentaEntity anterior = getInMemoryDatabase().put(entity.getId(), entity);
+        actualizarIndice(anterior, entity);
+        invalidarCache(anterior, entity);
+        agregados.cuentaGuardada(anterior, entity);
+        return anterior;
+    }
+
+    //Se llama después de escribir la tabla, así un lector que arme la cuenta con la version nueva
+    //del cache ya ve la fila nueva. Los clientes cacheados con sus cuentas también quedan viejos.
+    private void invalidarCache(CuentaEntity anterior, CuentaEntity nueva) {
+        CacheEntidades<Cuenta> c = cache;
+        if (c != null) {
+            c.invalidar(nueva.getId());
+        }
+        if (anterior != null && !anterior.getTitular().equals(nueva.getTitular())) {
+            ClienteDao.invalidarCache(anterior.getTitular());
+        }
+        ClienteDao.invalidarCache(nueva.getTitular());
+    }
+
+    private void avisarListeners(CuentaEntity anterior, CuentaEntity nueva) {
+        for (CuentaListener listener : listeners) {
+            listener.cuentaGuardada(anterior, nueva);
+        }
+    }
+
+    //Se llama con el lock de la cuenta tomado. compute/computeIfPresent son atómicos por dni,
+    //así que dos cuentas del mismo titular en franjas distintas no se pisan el arreglo.
+    private void actualizarIndice(CuentaEntity anterior, CuentaEntity nueva) {
+        if (anterior != null && !anterior.getTitular().equals(nueva.getTitular())) {
+            cuentasPorTitular.computeIfPresent(anterior.getTitular(), (dni, numeros) -> quitar(numeros, anterior.getId()));
+        }
+        cuentasPorTitular.compute(nueva.getTitular(), (dni, numeros) -> agregar(numeros, nueva.getId()));
+    }
+
+    private static long[] agregar(long[] numeros, long numeroCuenta) {
+        if (numeros == null) {
+            return new long[]{numeroCuenta};
+        }
+        for (long numero : numeros) {
+            if (numero == numeroCuenta) {
+                return numeros;
+            }
+        }
+        long[] nuevos = Arrays.copyOf(numeros, numeros.length + 1);
+        nuevos[numeros.length] = numeroCuenta;
+        return nuevos;
+    }
+
+    private static long[] quitar(long[] numeros, long numeroCuenta) {
+        for (int i = 0; i < numeros.length; i++) {
+            if (numeros[i] == numeroCuenta) {
+                if (numeros.length == 1) {
+                    return null;
+                }
+                long[] nuevos = new long[numeros.length - 1];
+                System.arraycopy(numeros, 0, nuevos, 0, i);
+                System.arraycopy(numeros, i + 1, nuevos, i, numeros.length - i - 1);
+                return nuevos;
+            }
+        }
+        return numeros;
+    }
 }
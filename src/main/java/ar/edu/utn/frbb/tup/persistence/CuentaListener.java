@@ -0,0 +1,21 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+
+/**
+ * Recibe cada cuenta que se guarda en CuentaDao. Se llama con el lock de la cuenta tomado,
+ * así que los avisos de una misma cuenta llegan en el mismo orden en que se guardó.
+ */
+public interface CuentaListener {
+    void cuentaGuardada(CuentaEntity anterior, CuentaEntity nueva);
+
+    /**
+     * Recibe varias cuentas guardadas juntas en un mismo cambio (por ejemplo las dos puntas de una
+     * transferencia), con los locks de todas tomados. Por defecto se avisa cada una por separado.
+     */
+    default void cuentasGuardadas(CuentaEntity[] anteriores, CuentaEntity[] nuevas) {
+        for (int i = 0; i < nuevas.length; i++) {
+            cuentaGuardada(anteriores[i], nuevas[i]);
+        }
+    }
+}
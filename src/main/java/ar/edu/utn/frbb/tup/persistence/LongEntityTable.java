@@ -0,0 +1,264 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Tabla de entidades con clave long primitiva, pensada para reemplazar a Map&lt;Long, Object&gt; en los DAO.
+ *
+ * Guarda claves y valores en dos arreglos paralelos con direccionamiento abierto (sondeo lineal),
+ * así que no hay un Long ni un nodo por entrada. La tabla está dividida en segmentos: cada uno tiene
+ * su StampedLock, las escrituras toman el lock del segmento y las lecturas son optimistas (sin lock)
+ * salvo que choquen con una escritura en curso.
+ */
+public class LongEntityTable<E> {
+
+    public interface Visitante<E> {
+        void visitar(long clave, E entidad);
+    }
+
+    private static final int CANTIDAD_SEGMENTOS = 32;
+    private static final int CAPACIDAD_INICIAL_SEGMENTO = 16;
+
+    private final Segmento<E>[] segmentos;
+
+    @SuppressWarnings("unchecked")
+    public LongEntityTable() {
+        segmentos = new Segmento[CANTIDAD_SEGMENTOS];
+        for (int i = 0; i < CANTIDAD_SEGMENTOS; i++) {
+            segmentos[i] = new Segmento<>();
+        }
+    }
+
+    public E get(long clave) {
+        long hash = mezclar(clave);
+        return segmentoDe(hash).get(clave, hash);
+    }
+
+    public E put(long clave, E entidad) {
+        long hash = mezclar(clave);
+        return segmentoDe(hash).put(clave, hash, entidad, false);
+    }
+
+    /**
+     * Guarda la entidad solo si la clave no existe.
+     * @return la entidad que ya estaba guardada, o null si se guardó la nueva
+     */
+    public E putIfAbsent(long clave, E entidad) {
+        long hash = mezclar(clave);
+        return segmentoDe(hash).put(clave, hash, entidad, true);
+    }
+
+    public E remove(long clave) {
+        long hash = mezclar(clave);
+        return segmentoDe(hash).remove(clave, hash);
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segmento<E> segmento : segmentos) {
+            total += segmento.tamanio;
+        }
+        return total;
+    }
+
+    public void clear() {
+        for (Segmento<E> segmento : segmentos) {
+            segmento.clear();
+        }
+    }
+
+    public int cantidadSegmentos() {
+        return CANTIDAD_SEGMENTOS;
+    }
+
+    /**
+     * Recorre un segmento sobre una copia de sus arreglos, así que no bloquea a los escritores
+     * y ve el segmento tal como estaba al empezar el recorrido.
+     */
+    public void forEachEnSegmento(int indiceSegmento, Visitante<? super E> visitante) {
+        segmentos[indiceSegmento].forEach(visitante);
+    }
+
+    public void forEach(Visitante<? super E> visitante) {
+        for (int i = 0; i < CANTIDAD_SEGMENTOS; i++) {
+            forEachEnSegmento(i, visitante);
+        }
+    }
+
+    private Segmento<E> segmentoDe(long hash) {
+        return segmentos[(int) (hash >>> 59)];
+    }
+
+    //Finalizador de MurmurHash3: reparte bien claves consecutivas como los dni o numeros de cuenta
+    private static long mezclar(long clave) {
+        long h = clave;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Segmento<E> {
+        private final StampedLock lock = new StampedLock();
+        //Un casillero está vacío cuando su valor es null
+        private long[] claves = new long[CAPACIDAD_INICIAL_SEGMENTO];
+        private Object[] valores = new Object[CAPACIDAD_INICIAL_SEGMENTO];
+        private volatile int tamanio;
+
+        E get(long clave, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            E resultado = buscar(clave, hash);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    resultado = buscar(clave, hash);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return resultado;
+        }
+
+        //En una lectura optimista los arreglos pueden estar cambiando: se leen una sola vez en locales
+        //y se corta el sondeo a lo sumo en una vuelta completa. Si hubo escritura, validate() lo detecta.
+        @SuppressWarnings("unchecked")
+        private E buscar(long clave, long hash) {
+            long[] c = claves;
+            Object[] v = valores;
+            if (c.length != v.length) {
+                return null;
+            }
+            int mascara = c.length - 1;
+            int i = (int) hash & mascara;
+            for (int sondeos = 0; sondeos <= mascara; sondeos++) {
+                Object valor = v[i];
+                if (valor == null) {
+                    return null;
+                }
+                if (c[i] == clave) {
+                    return (E) valor;
+                }
+                i = (i + 1) & mascara;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        E put(long clave, long hash, E entidad, boolean soloSiNoExiste) {
+            long stamp = lock.writeLock();
+            try {
+                int mascara = claves.length - 1;
+                int i = (int) hash & mascara;
+                while (valores[i] != null) {
+                    if (claves[i] == clave) {
+                        E anterior = (E) valores[i];
+                        if (!soloSiNoExiste) {
+                            valores[i] = entidad;
+                        }
+                        return anterior;
+                    }
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clave;
+                valores[i] = entidad;
+                tamanio++;
+                //Factor de carga 2/3
+                if (tamanio * 3 >= claves.length * 2) {
+                    agrandar();
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        E remove(long clave, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                int mascara = claves.length - 1;
+                int i = (int) hash & mascara;
+                while (valores[i] != null) {
+                    if (claves[i] == clave) {
+                        E anterior = (E) valores[i];
+                        correrHaciaAtras(i);
+                        tamanio--;
+                        return anterior;
+                    }
+                    i = (i + 1) & mascara;
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                claves = new long[CAPACIDAD_INICIAL_SEGMENTO];
+                valores = new Object[CAPACIDAD_INICIAL_SEGMENTO];
+                tamanio = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEach(Visitante<? super E> visitante) {
+            long[] c;
+            Object[] v;
+            long stamp = lock.readLock();
+            try {
+                c = claves.clone();
+                v = valores.clone();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (int i = 0; i < v.length; i++) {
+                if (v[i] != null) {
+                    visitante.visitar(c[i], (E) v[i]);
+                }
+            }
+        }
+
+        //Borrado sin lápidas: se corren hacia atrás las entradas que quedarían inalcanzables
+        private void correrHaciaAtras(int libre) {
+            int mascara = claves.length - 1;
+            int i = (libre + 1) & mascara;
+            while (valores[i] != null) {
+                int ideal = (int) mezclar(claves[i]) & mascara;
+                //Se mueve si su posición ideal no está en el tramo (libre, i]
+                if (((i - ideal) & mascara) >= ((i - libre) & mascara)) {
+                    claves[libre] = claves[i];
+                    valores[libre] = valores[i];
+                    libre = i;
+                }
+                i = (i + 1) & mascara;
+            }
+            valores[libre] = null;
+        }
+
+        private void agrandar() {
+            long[] clavesViejas = claves;
+            Object[] valoresViejos = valores;
+            long[] c = new long[clavesViejas.length * 2];
+            Object[] v = new Object[valoresViejos.length * 2];
+            int mascara = c.length - 1;
+            for (int j = 0; j < valoresViejos.length; j++) {
+                if (valoresViejos[j] != null) {
+                    int i = (int) mezclar(clavesViejas[j]) & mascara;
+                    while (v[i] != null) {
+                        i = (i + 1) & mascara;
+                    }
+                    c[i] = clavesViejas[j];
+                    v[i] = valoresViejos[j];
+                }
+            }
+            claves = c;
+            valores = v;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ar.edu.utn.frbb.tup.persistence.codec;
+
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Codificación binaria de ClienteEntity:
+ * [version byte][dni long][tipoPersona byte][fechaAlta int][fechaNacimiento int][nombre][apellido].
+ * Las fechas van en días epoch (Integer.MIN_VALUE para null) y los textos en UTF-8 con su largo adelante.
+ * Las cuentas del cliente no se guardan: salen del indice por titular de CuentaDao.
+ */
+public final class ClienteEntityCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final TipoPersona[] TIPOS_PERSONA = TipoPersona.values();
+    private static final int SIN_FECHA = Integer.MIN_VALUE;
+
+    private ClienteEntityCodec() {
+    }
+
+    public static int largo(ClienteEntity cliente) {
+        return 1 + 8 + 1 + 4 + 4 + TextoUtf8.largo(cliente.getNombre()) + TextoUtf8.largo(cliente.getApellido());
+    }
+
+    public static void escribir(ClienteEntity cliente, ByteBuffer buffer) {
+        buffer.put(VERSION);
+        buffer.putLong(cliente.getId());
+        buffer.put(cliente.getTipoPersona() != null ? (byte) cliente.getTipoPersona().ordinal() : -1);
+        buffer.putInt(diaEpoch(cliente.getFechaAlta()));
+        buffer.putInt(diaEpoch(cliente.getFechaNacimiento()));
+        TextoUtf8.escribir(cliente.getNombre(), buffer);
+        TextoUtf8.escribir(cliente.getApellido(), buffer);
+    }
+
+    public static ClienteEntity leer(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de ClienteEntity no soportada: " + version);
+        }
+        long dni = buffer.getLong();
+        byte tipoPersona = buffer.get();
+        int fechaAlta = buffer.getInt();
+        int fechaNacimiento = buffer.getInt();
+        String nombre = TextoUtf8.leer(buffer);
+        String apellido = TextoUtf8.leer(buffer);
+        return new ClienteEntity(dni,
+                tipoPersona >= 0 ? TIPOS_PERSONA[tipoPersona] : null,
+                nombre,
+                apellido,
+                fechaAlta != SIN_FECHA ? LocalDate.ofEpochDay(fechaAlta) : null,
+                fechaNacimiento != SIN_FECHA ? LocalDate.ofEpochDay(fechaNacimiento) : null);
+    }
+
+    private static int diaEpoch(LocalDate fecha) {
+        return fecha != null ? Math.toIntExact(fecha.toEpochDay()) : SIN_FECHA;
+    }
+}
@@ -0,0 +1,78 @@
+package ar.edu.utn.frbb.tup.persistence.codec;
+
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Codificación binaria de CuentaEntity, de largo fijo:
+ * [version byte][numeroCuenta long][titular long][tipoCuenta byte][moneda byte][balance long]
+ * [fechaCreacion en segundos epoch long][nanos int][fechaUltimoInteres en días epoch long][limiteDescubierto long].
+ * Los enums van como ordinal (-1 para null).
+ *
+ * La versión 4 agrega el límite de descubierto; las anteriores se leen con límite 0. La versión 3 agrega la fecha del último devengamiento de intereses; las versiones anteriores se leen con
+ * esa fecha en null. La versión 2 guarda el balance en centavos como long. La versión 1 lo guardaba como int
+ * en unidades enteras; se sigue pudiendo leer y se convierte a centavos.
+ * Snapshot y journal guardan el largo de cada registro, así que conviven registros de distintas versiones.
+ */
+public final class CuentaEntityCodec {
+
+    public static final byte VERSION = 4;
+    public static final int LARGO = 1 + 8 + 8 + 1 + 1 + 8 + 8 + 4 + 8 + 8;
+
+    static final byte VERSION_BALANCE_INT = 1;
+    static final byte VERSION_SIN_INTERES = 2;
+    static final byte VERSION_SIN_DESCUBIERTO = 3;
+
+    private static final TipoCuenta[] TIPOS_CUENTA = TipoCuenta.values();
+    private static final TipoMoneda[] MONEDAS = TipoMoneda.values();
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+
+    private CuentaEntityCodec() {
+    }
+
+    public static void escribir(CuentaEntity cuenta, ByteBuffer buffer) {
+        buffer.put(VERSION);
+        buffer.putLong(cuenta.getNumeroCuenta());
+        buffer.putLong(cuenta.getTitular());
+        buffer.put(cuenta.getTipoCuenta() != null ? (byte) cuenta.getTipoCuenta().ordinal() : -1);
+        buffer.put(cuenta.getMoneda() != null ? (byte) cuenta.getMoneda().ordinal() : -1);
+        buffer.putLong(cuenta.getBalance());
+        LocalDateTime fecha = cuenta.getFechaCreacion();
+        buffer.putLong(fecha != null ? fecha.toEpochSecond(ZoneOffset.UTC) : SIN_FECHA);
+        buffer.putInt(fecha != null ? fecha.getNano() : 0);
+        LocalDate ultimoInteres = cuenta.getFechaUltimoInteres();
+        buffer.putLong(ultimoInteres != null ? ultimoInteres.toEpochDay() : SIN_FECHA);
+        buffer.putLong(cuenta.getLimiteDescubierto());
+    }
+
+    public static CuentaEntity leer(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version < VERSION_BALANCE_INT || version > VERSION) {
+            throw new IllegalArgumentException("Versión de CuentaEntity no soportada: " + version);
+        }
+        long numeroCuenta = buffer.getLong();
+        long titular = buffer.getLong();
+        byte tipoCuenta = buffer.get();
+        byte moneda = buffer.get();
+        long balance = version != VERSION_BALANCE_INT ? buffer.getLong() : Montos.desdeUnidades(buffer.getInt());
+        long segundos = buffer.getLong();
+        int nanos = buffer.getInt();
+        long ultimoInteres = version >= VERSION_SIN_DESCUBIERTO ? buffer.getLong() : SIN_FECHA;
+        long limiteDescubierto = version == VERSION ? buffer.getLong() : 0;
+        CuentaEntity cuenta = new CuentaEntity(numeroCuenta, titular,
+                tipoCuenta >= 0 ? TIPOS_CUENTA[tipoCuenta] : null,
+                moneda >= 0 ? MONEDAS[moneda] : null,
+                balance,
+                segundos != SIN_FECHA ? LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC) : null,
+                ultimoInteres != SIN_FECHA ? LocalDate.ofEpochDay(ultimoInteres) : null);
+        cuenta.setLimiteDescubierto(limiteDescubierto);
+        return cuenta;
+    }
+}
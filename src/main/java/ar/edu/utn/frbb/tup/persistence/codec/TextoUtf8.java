@@ -0,0 +1,101 @@
+package ar.edu.utn.frbb.tup.persistence.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Textos en UTF-8 con el largo en bytes adelante (-1 para null). Se codifican caracter por caracter
+ * directo al buffer, sin pasar por un byte[] intermedio; al leer se decodifica sobre un char[] reutilizado.
+ */
+final class TextoUtf8 {
+
+    private static final ThreadLocal<char[]> caracteres = ThreadLocal.withInitial(() -> new char[64]);
+
+    private TextoUtf8() {
+    }
+
+    static int largo(String texto) {
+        if (texto == null) {
+            return 4;
+        }
+        int bytes = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length() && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                //Un surrogate suelto se escribe como '?', igual que String.getBytes
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return 4 + bytes;
+    }
+
+    static void escribir(String texto, ByteBuffer buffer) {
+        if (texto == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        int posicionLargo = buffer.position();
+        buffer.putInt(0);
+        int inicio = buffer.position();
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length() && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int codigo = Character.toCodePoint(c, texto.charAt(++i));
+                buffer.put((byte) (0xF0 | (codigo >> 18)));
+                buffer.put((byte) (0x80 | ((codigo >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codigo >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codigo & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        buffer.putInt(posicionLargo, buffer.position() - inicio);
+    }
+
+    static String leer(ByteBuffer buffer) {
+        int largo = buffer.getInt();
+        if (largo < 0) {
+            return null;
+        }
+        //Nunca hay más caracteres que bytes
+        char[] destino = caracteres.get();
+        if (destino.length < largo) {
+            destino = new char[largo];
+            caracteres.set(destino);
+        }
+        int fin = buffer.position() + largo;
+        int n = 0;
+        while (buffer.position() < fin) {
+            int b = buffer.get() & 0xFF;
+            if (b < 0x80) {
+                destino[n++] = (char) b;
+            } else if (b < 0xE0) {
+                destino[n++] = (char) (((b & 0x1F) << 6) | (buffer.get() & 0x3F));
+            } else if (b < 0xF0) {
+                destino[n++] = (char) (((b & 0x0F) << 12) | ((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F));
+            } else {
+                int codigo = ((b & 0x07) << 18) | ((buffer.get() & 0x3F) << 12) | ((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F);
+                destino[n++] = Character.highSurrogate(codigo);
+                destino[n++] = Character.lowSurrogate(codigo);
+            }
+        }
+        return new String(destino, 0, n);
+    }
+}
@@ -1,13 +1,13 @@
 package ar.edu.utn.frbb.tup.persistence.entity;
 
 public class BaseEntity {
-    private final Long Id;
+    private final long Id;
 
     public BaseEntity(long id) {
         Id = id;
     }
 
-    public Long getId() {
+    public long getId() {
         return Id;
     }
 
@@ -1,49 +1,68 @@
 package ar.edu.utn.frbb.tup.persistence.entity;
 
 import ar.edu.utn.frbb.tup.model.Cliente;
-import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.model.TipoPersona;
-import ar.edu.utn.frbb.tup.persistence.CuentaDao;
-import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 
 public class ClienteEntity extends BaseEntity {
 
-    private final String tipoPersona;
+    private final TipoPersona tipoPersona;
     private final String nombre;
     private final String apellido;
     private final LocalDate fechaAlta;
     private final LocalDate fechaNacimiento;
-    private List<Long> cuentas;
 
     public ClienteEntity(Cliente cliente) {
         super(cliente.getDni());
-        this.tipoPersona = cliente.getTipoPersona() != null ? cliente.getTipoPersona().getDescripcion() : null;
+        this.tipoPersona = cliente.getTipoPersona();
         this.nombre = cliente.getNombre();
         this.apellido = cliente.getApellido();
         this.fechaAlta = cliente.getFechaAlta();
         this.fechaNacimiento = cliente.getFechaNacimiento();
-        this.cuentas = new ArrayList<>();
-        if (cliente.getCuentas() != null && !cliente.getCuentas().isEmpty()) {
-            for (Cuenta c: cliente.getCuentas()) {
-                cuentas.add(c.getNumeroCuenta());
-            }
-        }
+        //Las cuentas no se copian: salen del indice por titular de CuentaDao, y recorrerlas obligaría a cargar
+        //las de un cliente con carga a demanda en cada save
     }
 
 
+    public ClienteEntity(long dni, TipoPersona tipoPersona, String nombre, String apellido, LocalDate fechaAlta, LocalDate fechaNacimiento) {
+        super(dni);
+        this.tipoPersona = tipoPersona;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.fechaAlta = fechaAlta;
+        this.fechaNacimiento = fechaNacimiento;
+    }
+
     public Cliente toCliente() {
         Cliente cliente = new Cliente();
         cliente.setDni(this.getId());
         cliente.setNombre(this.nombre);
         cliente.setApellido(this.apellido);
-        cliente.setTipoPersona(TipoPersona.fromString(this.tipoPersona));
+        cliente.setTipoPersona(this.tipoPersona);
         cliente.setFechaAlta(this.fechaAlta);
         cliente.setFechaNacimiento(this.fechaNacimiento);
 
         return cliente;
     }
+
+    public TipoPersona getTipoPersona() {
+        return tipoPersona;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getApellido() {
+        return apellido;
+    }
+
+    public LocalDate getFechaAlta() {
+        return fechaAlta;
+    }
+
+    public LocalDate getFechaNacimiento() {
+        return fechaNacimiento;
+    }
 }
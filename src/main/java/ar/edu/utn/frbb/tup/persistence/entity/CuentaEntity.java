@@ -3,32 +3,63 @@ package ar.edu.utn.frbb.tup.persistence.entity;
 import ar.edu.utn.frbb.tup.model.Cliente;
 import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.model.TipoCuenta;
-import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public class CuentaEntity extends BaseEntity{
     String nombre;
     LocalDateTime fechaCreacion;
-    int balance;
-    String tipoCuenta;
+    long balance;
+    TipoCuenta tipoCuenta;
+    TipoMoneda moneda;
     Long titular;
     long numeroCuenta;
+    LocalDate fechaUltimoInteres;
+    long limiteDescubierto;
 
     public CuentaEntity(Cuenta cuenta) {
         super(cuenta.getNumeroCuenta());
         this.balance = cuenta.getBalance();
-        this.tipoCuenta = cuenta.getTipoCuenta().toString();
+        this.tipoCuenta = cuenta.getTipoCuenta();
+        this.moneda = cuenta.getMoneda();
         this.titular = cuenta.getTitular().getDni();
         this.fechaCreacion = cuenta.getFechaCreacion();
+        this.numeroCuenta = cuenta.getNumeroCuenta();
+        this.fechaUltimoInteres = cuenta.getFechaUltimoInteres();
+        this.limiteDescubierto = cuenta.getLimiteDescubierto();
+    }
+
+    public CuentaEntity(long numeroCuenta, long titular, TipoCuenta tipoCuenta, TipoMoneda moneda, long balance, LocalDateTime fechaCreacion) {
+        this(numeroCuenta, titular, tipoCuenta, moneda, balance, fechaCreacion, null);
+    }
+
+    public CuentaEntity(long numeroCuenta, long titular, TipoCuenta tipoCuenta, TipoMoneda moneda, long balance,
+                        LocalDateTime fechaCreacion, LocalDate fechaUltimoInteres) {
+        super(numeroCuenta);
+        this.numeroCuenta = numeroCuenta;
+        this.titular = titular;
+        this.tipoCuenta = tipoCuenta;
+        this.moneda = moneda;
+        this.balance = balance;
+        this.fechaCreacion = fechaCreacion;
+        this.fechaUltimoInteres = fechaUltimoInteres;
     }
 
     public Cuenta toCuenta() {
-        Cuenta cuenta = new Cuenta();
+        //Leer una cuenta no debe gastar un numero del generador
+        Cuenta cuenta = Cuenta.conNumero(this.numeroCuenta);
         cuenta.setBalance(this.balance);
-        cuenta.setNumeroCuenta(this.numeroCuenta);
-        cuenta.setTipoCuenta(TipoCuenta.valueOf(this.tipoCuenta));
+        cuenta.setTipoCuenta(this.tipoCuenta);
+        cuenta.setMoneda(this.moneda);
         cuenta.setFechaCreacion(this.fechaCreacion);
+        cuenta.setFechaUltimoInteres(this.fechaUltimoInteres);
+        cuenta.setLimiteDescubierto(this.limiteDescubierto);
+        //El titular se devuelve solo con el dni, para que la cuenta se pueda volver a guardar
+        Cliente titular = new Cliente();
+        titular.setDni(this.titular);
+        cuenta.setTitular(titular);
         return cuenta;
     }
 
@@ -48,22 +79,30 @@ public class CuentaEntity extends BaseEntity{
         this.fechaCreacion = fechaCreacion;
     }
 
-    public int getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(int balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
-    public String getTipoCuenta() {
+    public TipoCuenta getTipoCuenta() {
         return tipoCuenta;
     }
 
-    public void setTipoCuenta(String tipoCuenta) {
+    public void setTipoCuenta(TipoCuenta tipoCuenta) {
         this.tipoCuenta = tipoCuenta;
     }
 
+    public TipoMoneda getMoneda() {
+        return moneda;
+    }
+
+    public void setMoneda(TipoMoneda moneda) {
+        this.moneda = moneda;
+    }
+
     public Long getTitular() {
         return titular;
     }
@@ -72,6 +111,22 @@ public class CuentaEntity extends BaseEntity{
         this.titular = titular;
     }
 
+    public LocalDate getFechaUltimoInteres() {
+        return fechaUltimoInteres;
+    }
+
+    public void setFechaUltimoInteres(LocalDate fechaUltimoInteres) {
+        this.fechaUltimoInteres = fechaUltimoInteres;
+    }
+
+    public long getLimiteDescubierto() {
+        return limiteDescubierto;
+    }
+
+    public void setLimiteDescubierto(long limiteDescubierto) {
+        this.limiteDescubierto = limiteDescubierto;
+    }
+
     public long getNumeroCuenta() {
         return numeroCuenta;
     }
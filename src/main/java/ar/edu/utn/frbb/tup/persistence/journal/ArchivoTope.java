@@ -0,0 +1,83 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import ar.edu.utn.frbb.tup.model.GeneradorNumeroCuenta;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Guarda el tope del generador de numeros de cuenta en un archivo de 8 bytes.
+ * Se escribe en un temporal con force y se renombra, así el archivo nunca queda con un tope a medias.
+ * Usa un ReentrantLock en vez de synchronized para no fijar un hilo virtual a su portador durante el force.
+ */
+public class ArchivoTope implements GeneradorNumeroCuenta.AlmacenTope {
+
+    private final Path archivo;
+    private final ByteBuffer buffer = ByteBuffer.allocate(8);
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ArchivoTope(Path archivo) {
+        this.archivo = archivo;
+    }
+
+    @Override
+    public long leer() {
+        lock.lock();
+        try {
+            return leerArchivo();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void guardar(long tope) {
+        lock.lock();
+        try {
+            guardarArchivo(tope);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long leerArchivo() {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (buffer.hasRemaining() && canal.read(buffer) >= 0) {
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("El archivo " + archivo + " está incompleto");
+            }
+            return buffer.getLong(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void guardarArchivo(long tope) {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                buffer.clear();
+                buffer.putLong(tope).flip();
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(true);
+            }
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
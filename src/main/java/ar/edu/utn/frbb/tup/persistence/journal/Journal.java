@@ -0,0 +1,292 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal de solo agregado (write-ahead log) sobre archivos de segmento de tamaño fijo mapeados en memoria.
+ *
+ * Cada registro se guarda como [largo int][crc int][secuencia long][tipo byte][datos]. Un largo 0 marca
+ * el final de lo escrito en un segmento. Al abrir el journal se recorren los segmentos y se descarta
+ * lo que haya después del primer registro incompleto o con crc inválido (una escritura cortada).
+ *
+ * El fsync se hace por lotes (group commit): cada fsyncCadaRegistros registros, o cada fsyncCadaMillis
+ * desde un hilo de fondo si hay registros pendientes. Quien necesite confirmar un cambio recién cuando
+ * está en disco usa la secuencia que devuelve agregar y espera con esperarDurable.
+ */
+public class Journal implements Closeable {
+
+    public interface Lector {
+        void leer(long secuencia, byte tipo, ByteBuffer datos);
+    }
+
+    private static final String PREFIJO = "journal-";
+    private static final String SUFIJO = ".seg";
+    private static final int ENCABEZADO = 4 + 4 + 8 + 1;
+
+    private final Path directorio;
+    private final int tamanioSegmento;
+    private final int fsyncCadaRegistros;
+    private final ScheduledExecutorService sincronizador;
+
+    private MappedByteBuffer segmentoActual;
+    private long numeroSegmentoActual;
+    private long proximaSecuencia;
+    private int pendientesDeSync;
+    //Todos los registros con secuencia menor a esta ya están en disco
+    private long secuenciaDurable;
+    private final CRC32C crc = new CRC32C();
+
+    public Journal(Path directorio, int tamanioSegmento, int fsyncCadaRegistros, long fsyncCadaMillis) {
+        this.directorio = directorio;
+        this.tamanioSegmento = tamanioSegmento;
+        this.fsyncCadaRegistros = fsyncCadaRegistros;
+        try {
+            Files.createDirectories(directorio);
+            abrirUltimoSegmento();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (fsyncCadaMillis > 0) {
+            sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "journal-fsync");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            sincronizador.scheduleWithFixedDelay(this::sincronizarSiHayPendientes, fsyncCadaMillis, fsyncCadaMillis, TimeUnit.MILLISECONDS);
+        } else {
+            sincronizador = null;
+        }
+    }
+
+    /**
+     * Agrega un registro al journal.
+     * @return la secuencia asignada al registro
+     */
+    public synchronized long agregar(byte tipo, ByteBuffer datos) {
+        int largo = ENCABEZADO + datos.remaining();
+        if (largo + 4 > tamanioSegmento) {
+            throw new IllegalArgumentException("El registro no entra en un segmento del journal");
+        }
+        //Se deja siempre lugar para el largo 0 que marca el final del segmento
+        if (segmentoActual.position() + largo + 4 > tamanioSegmento) {
+            rotarSegmento();
+        }
+        long secuencia = proximaSecuencia++;
+        int inicio = segmentoActual.position();
+
+        segmentoActual.position(inicio + 8);
+        segmentoActual.putLong(secuencia);
+        segmentoActual.put(tipo);
+        segmentoActual.put(datos);
+
+        crc.reset();
+        crc.update(segmentoActual.duplicate().position(inicio + 8).limit(inicio + largo));
+        segmentoActual.putInt(inicio + 4, (int) crc.getValue());
+        //El largo se escribe al final: hasta ese momento el registro no es visible al recuperar
+        segmentoActual.putInt(inicio, largo);
+
+        if (++pendientesDeSync >= fsyncCadaRegistros) {
+            sincronizar();
+        }
+        return secuencia;
+    }
+
+    /**
+     * Fuerza a disco todo lo escrito en el segmento actual.
+     */
+    public synchronized void sincronizar() {
+        if (pendientesDeSync > 0) {
+            segmentoActual.force();
+            pendientesDeSync = 0;
+        }
+        marcarDurable();
+    }
+
+    /**
+     * Espera hasta que el registro con la secuencia indicada (y todos los anteriores) esté en disco.
+     * Si hay hilo de fondo se espera a su próximo fsync, que cubre a todos los que esperan a la vez;
+     * si no lo hay, el fsync lo hace quien llama.
+     */
+    public synchronized void esperarDurable(long secuencia) throws InterruptedException {
+        if (secuencia >= proximaSecuencia) {
+            throw new IllegalArgumentException("La secuencia " + secuencia + " todavía no se agregó al journal");
+        }
+        if (sincronizador == null) {
+            if (secuencia >= secuenciaDurable) {
+                sincronizar();
+            }
+            return;
+        }
+        while (secuencia >= secuenciaDurable) {
+            wait();
+        }
+    }
+
+    /**
+     * Recorre en orden todos los registros con secuencia mayor o igual a desdeSecuencia.
+     */
+    public synchronized void recorrer(long desdeSecuencia, Lector lector) {
+        try {
+            long[] ultimaSecuencia = {-1};
+            for (long numero : numerosDeSegmento()) {
+                ByteBuffer segmento = numero == numeroSegmentoActual
+                        ? segmentoActual.duplicate().position(0)
+                        : mapear(numero, FileChannel.MapMode.READ_ONLY);
+                leerSegmento(segmento, desdeSecuencia, lector, ultimaSecuencia);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Borra los segmentos cerrados cuyos registros tienen todos secuencia menor a la indicada,
+     * por ejemplo porque ya están cubiertos por un snapshot.
+     */
+    public synchronized void descartarAnterioresA(long secuencia) {
+        try {
+            long[] ultimaSecuencia = {-1};
+            for (long numero : numerosDeSegmento()) {
+                if (numero == numeroSegmentoActual) {
+                    return;
+                }
+                Path archivo = archivoDeSegmento(numero);
+                leerSegmento(mapear(numero, FileChannel.MapMode.READ_ONLY), 0, null, ultimaSecuencia);
+                if (ultimaSecuencia[0] >= secuencia) {
+                    return;
+                }
+                Files.delete(archivo);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized long getProximaSecuencia() {
+        return proximaSecuencia;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sincronizador != null) {
+            sincronizador.shutdownNow();
+        }
+        sincronizar();
+    }
+
+    //Se llama con el monitor tomado, después de cada fsync
+    private void marcarDurable() {
+        if (secuenciaDurable != proximaSecuencia) {
+            secuenciaDurable = proximaSecuencia;
+            notifyAll();
+        }
+    }
+
+    private void sincronizarSiHayPendientes() {
+        sincronizar();
+    }
+
+    //Devuelve la posición donde termina el último registro válido. Las secuencias tienen que ser
+    //estrictamente crecientes; ultimaSecuencia[0] trae la última leída en los segmentos anteriores.
+    private int leerSegmento(ByteBuffer segmento, long desdeSecuencia, Lector lector, long[] ultimaSecuencia) {
+        int posicion = 0;
+        CRC32C crcLectura = new CRC32C();
+        while (posicion + ENCABEZADO <= segmento.limit()) {
+            int largo = segmento.getInt(posicion);
+            if (largo < ENCABEZADO || posicion + largo > segmento.limit()) {
+                break;
+            }
+            crcLectura.reset();
+            crcLectura.update(segmento.duplicate().position(posicion + 8).limit(posicion + largo));
+            if ((int) crcLectura.getValue() != segmento.getInt(posicion + 4)) {
+                break;
+            }
+            long secuencia = segmento.getLong(posicion + 8);
+            if (secuencia <= ultimaSecuencia[0]) {
+                break;
+            }
+            if (lector != null && secuencia >= desdeSecuencia) {
+                byte tipo = segmento.get(posicion + 16);
+                lector.leer(secuencia, tipo, segmento.duplicate().position(posicion + ENCABEZADO).limit(posicion + largo).slice());
+            }
+            ultimaSecuencia[0] = secuencia;
+            posicion += largo;
+        }
+        return posicion;
+    }
+
+    private void abrirUltimoSegmento() throws IOException {
+        List<Long> numeros = numerosDeSegmento();
+        long[] ultimaSecuencia = {-1};
+        for (int i = 0; i < numeros.size() - 1; i++) {
+            leerSegmento(mapear(numeros.get(i), FileChannel.MapMode.READ_ONLY), 0, null, ultimaSecuencia);
+        }
+        numeroSegmentoActual = numeros.isEmpty() ? 1 : numeros.get(numeros.size() - 1);
+        segmentoActual = mapear(numeroSegmentoActual, FileChannel.MapMode.READ_WRITE);
+        int fin = leerSegmento(segmentoActual, 0, null, ultimaSecuencia);
+        proximaSecuencia = ultimaSecuencia[0] + 1;
+        secuenciaDurable = proximaSecuencia;
+        //Se limpia el resto del segmento: si el sistema bajó a disco páginas fuera de orden podrían quedar
+        //registros viejos pero válidos después de una escritura cortada
+        byte[] ceros = new byte[64 * 1024];
+        segmentoActual.position(fin);
+        while (segmentoActual.hasRemaining()) {
+            segmentoActual.put(ceros, 0, Math.min(ceros.length, segmentoActual.remaining()));
+        }
+        segmentoActual.position(fin);
+    }
+
+    private void rotarSegmento() {
+        segmentoActual.force();
+        pendientesDeSync = 0;
+        marcarDurable();
+        numeroSegmentoActual++;
+        try {
+            segmentoActual = mapear(numeroSegmentoActual, FileChannel.MapMode.READ_WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer mapear(long numero, FileChannel.MapMode modo) throws IOException {
+        Path archivo = archivoDeSegmento(numero);
+        if (modo == FileChannel.MapMode.READ_ONLY) {
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                return canal.map(modo, 0, canal.size());
+            }
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return canal.map(modo, 0, tamanioSegmento);
+        }
+    }
+
+    private Path archivoDeSegmento(long numero) {
+        return directorio.resolve(String.format("%s%012d%s", PREFIJO, numero, SUFIJO));
+    }
+
+    private List<Long> numerosDeSegmento() throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIJO) && n.endsWith(SUFIJO))
+                    .forEach(n -> numeros.add(Long.parseLong(n.substring(PREFIJO.length(), n.length() - SUFIJO.length()))));
+        }
+        numeros.sort(null);
+        return numeros;
+    }
+}
@@ -0,0 +1,36 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import ar.edu.utn.frbb.tup.persistence.ClienteListener;
+import ar.edu.utn.frbb.tup.persistence.codec.ClienteEntityCodec;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Escribe en el journal el estado completo de cada cliente que se guarda.
+ */
+public class JournalClientes implements ClienteListener {
+
+    static final byte TIPO_CLIENTE = 2;
+
+    private final Journal journal;
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(256));
+
+    public JournalClientes(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void clienteGuardado(ClienteEntity anterior, ClienteEntity nuevo) {
+        int largo = ClienteEntityCodec.largo(nuevo);
+        ByteBuffer buffer = buffers.get();
+        if (buffer.capacity() < largo) {
+            buffer = ByteBuffer.allocate(largo);
+            buffers.set(buffer);
+        }
+        buffer.clear();
+        ClienteEntityCodec.escribir(nuevo, buffer);
+        buffer.flip();
+        journal.agregar(TIPO_CLIENTE, buffer);
+    }
+}
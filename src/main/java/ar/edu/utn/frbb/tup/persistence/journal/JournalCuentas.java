@@ -0,0 +1,46 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import ar.edu.utn.frbb.tup.persistence.CuentaListener;
+import ar.edu.utn.frbb.tup.persistence.codec.CuentaEntityCodec;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Escribe en el journal el estado completo de cada cuenta que se guarda, incluido su balance.
+ * Como cada registro tiene el estado completo, reaplicar un registro más de una vez deja la cuenta igual.
+ * Las cuentas que se guardan juntas (las dos puntas de una transferencia) van en un solo registro
+ * TIPO_CUENTAS, [cantidad int][cuenta]..., así una escritura cortada se descarta entera.
+ */
+public class JournalCuentas implements CuentaListener {
+
+    static final byte TIPO_CUENTA = 1;
+    static final byte TIPO_CUENTAS = 3;
+
+    private final Journal journal;
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(CuentaEntityCodec.LARGO));
+
+    public JournalCuentas(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void cuentaGuardada(CuentaEntity anterior, CuentaEntity nueva) {
+        ByteBuffer buffer = buffers.get();
+        buffer.clear();
+        CuentaEntityCodec.escribir(nueva, buffer);
+        buffer.flip();
+        journal.agregar(TIPO_CUENTA, buffer);
+    }
+
+    @Override
+    public void cuentasGuardadas(CuentaEntity[] anteriores, CuentaEntity[] nuevas) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + nuevas.length * CuentaEntityCodec.LARGO);
+        buffer.putInt(nuevas.length);
+        for (CuentaEntity nueva : nuevas) {
+            CuentaEntityCodec.escribir(nueva, buffer);
+        }
+        buffer.flip();
+        journal.agregar(TIPO_CUENTAS, buffer);
+    }
+}
@@ -0,0 +1,119 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.codec.ClienteEntityCodec;
+import ar.edu.utn.frbb.tup.persistence.codec.CuentaEntityCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arma la persistencia de la base en memoria: al arrancar carga el último snapshot y reaplica la cola
+ * del journal, y de ahí en adelante registra cada cliente y cuenta que se guarda y toma snapshots periódicos.
+ */
+public class Persistencia implements Closeable {
+
+    private final Path directorioSnapshots;
+    private final Journal journal;
+    private final ClienteDao clienteDao;
+    private final CuentaDao cuentaDao;
+    private final JournalClientes journalClientes;
+    private final JournalCuentas journalCuentas;
+    private ScheduledExecutorService programador;
+
+    private Persistencia(Path directorio, Journal journal, ClienteDao clienteDao, CuentaDao cuentaDao) {
+        this.directorioSnapshots = directorio.resolve("snapshots");
+        this.journal = journal;
+        this.clienteDao = clienteDao;
+        this.cuentaDao = cuentaDao;
+        this.journalClientes = new JournalClientes(journal);
+        this.journalCuentas = new JournalCuentas(journal);
+    }
+
+    public static Persistencia iniciar(Path directorio, int tamanioSegmento, int fsyncCadaRegistros, long fsyncCadaMillis,
+                                       ClienteDao clienteDao, CuentaDao cuentaDao) {
+        Journal journal = new Journal(directorio.resolve("journal"), tamanioSegmento, fsyncCadaRegistros, fsyncCadaMillis);
+        Persistencia persistencia = new Persistencia(directorio, journal, clienteDao, cuentaDao);
+        persistencia.recuperar();
+        ClienteDao.agregarListener(persistencia.journalClientes);
+        CuentaDao.agregarListener(persistencia.journalCuentas);
+        return persistencia;
+    }
+
+    /**
+     * Toma un snapshot sin frenar a los escritores y después borra lo que ya no hace falta para recuperar:
+     * los segmentos del journal anteriores a la foto y las fotos viejas.
+     */
+    public synchronized Path tomarSnapshot() throws IOException {
+        long secuencia = journal.getProximaSecuencia();
+        Path archivo = Snapshot.escribir(directorioSnapshots, secuencia, clienteDao, cuentaDao);
+        journal.descartarAnterioresA(secuencia);
+        for (Path viejo : Snapshot.listar(directorioSnapshots)) {
+            if (!viejo.equals(archivo)) {
+                Files.delete(viejo);
+            }
+        }
+        return archivo;
+    }
+
+    public synchronized void programarSnapshots(long intervaloSegundos) {
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "snapshot");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                tomarSnapshot();
+            } catch (IOException e) {
+                System.err.println("No se pudo tomar el snapshot: " + e.getMessage());
+            }
+        }, intervaloSegundos, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (programador != null) {
+            programador.shutdownNow();
+        }
+        ClienteDao.quitarListener(journalClientes);
+        CuentaDao.quitarListener(journalCuentas);
+        journal.close();
+    }
+
+    private void recuperar() {
+        long desdeSecuencia = 0;
+        try {
+            //Solo se conserva la foto más nueva: el journal anterior a ella ya se borró
+            List<Path> snapshots = Snapshot.listar(directorioSnapshots);
+            if (!snapshots.isEmpty()) {
+                desdeSecuencia = Snapshot.cargar(snapshots.get(0), clienteDao, cuentaDao);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        journal.recorrer(desdeSecuencia, (secuencia, tipo, datos) -> {
+            if (tipo == JournalClientes.TIPO_CLIENTE) {
+                clienteDao.restaurar(ClienteEntityCodec.leer(datos));
+            } else if (tipo == JournalCuentas.TIPO_CUENTA) {
+                cuentaDao.restaurar(CuentaEntityCodec.leer(datos));
+            } else if (tipo == JournalCuentas.TIPO_CUENTAS) {
+                for (int i = datos.getInt(); i > 0; i--) {
+                    cuentaDao.restaurar(CuentaEntityCodec.leer(datos));
+                }
+            }
+        });
+    }
+}
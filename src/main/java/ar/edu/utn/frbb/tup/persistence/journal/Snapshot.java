@@ -0,0 +1,187 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.codec.ClienteEntityCodec;
+import ar.edu.utn.frbb.tup.persistence.codec.CuentaEntityCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Foto binaria de las tablas CLIENTE y CUENTA.
+ *
+ * Es un checkpoint difuso: las tablas se recorren mientras los escritores siguen trabajando, y en el
+ * encabezado se guarda la secuencia del journal tomada antes de empezar. Al cargar, alcanza con
+ * reaplicar el journal desde esa secuencia: cualquier cambio que la foto haya visto a medias vuelve
+ * a aparecer ahí, y como los registros tienen el estado completo se pueden aplicar de nuevo.
+ *
+ * Formato: [magico int][version byte][secuencia long], registros [tipo byte][largo int][datos],
+ * y al final [FIN byte][cantidad long][crc int] con el crc de todos los registros.
+ * Los datos de cada registro van con ClienteEntityCodec o CuentaEntityCodec (versión 2 del formato).
+ */
+public class Snapshot {
+
+    private static final int MAGICO = 0x54555053;
+    private static final byte VERSION = 2;
+    private static final byte FIN = 0;
+    private static final int ENCABEZADO = 4 + 1 + 8;
+    private static final int TAMANIO_BUFFER = 1024 * 1024;
+    private static final String PREFIJO = "snapshot-";
+    private static final String SUFIJO = ".bin";
+
+    private Snapshot() {
+    }
+
+    /**
+     * Escribe la foto en un archivo temporal y lo renombra al terminar, así nunca queda una foto a medias.
+     */
+    public static Path escribir(Path directorio, long secuenciaJournal, ClienteDao clienteDao, CuentaDao cuentaDao) throws IOException {
+        Files.createDirectories(directorio);
+        Path archivo = directorio.resolve(String.format("%s%020d%s", PREFIJO, secuenciaJournal, SUFIJO));
+        Path temporal = directorio.resolve(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Escritor escritor = new Escritor(canal);
+            escritor.buffer.putInt(MAGICO).put(VERSION).putLong(secuenciaJournal);
+            escritor.inicioRegistros = escritor.buffer.position();
+            try {
+                clienteDao.recorrer((dni, cliente) -> {
+                    escritor.registro(JournalClientes.TIPO_CLIENTE, ClienteEntityCodec.largo(cliente));
+                    ClienteEntityCodec.escribir(cliente, escritor.buffer);
+                });
+                cuentaDao.recorrer((numero, cuenta) -> {
+                    escritor.registro(JournalCuentas.TIPO_CUENTA, CuentaEntityCodec.LARGO);
+                    CuentaEntityCodec.escribir(cuenta, escritor.buffer);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            escritor.terminar();
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+        return archivo;
+    }
+
+    /**
+     * Carga la foto en los DAO.
+     * @return la secuencia del journal desde la que hay que reaplicar
+     */
+    public static long cargar(Path archivo, ClienteDao clienteDao, CuentaDao cuentaDao) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (datos.getInt() != MAGICO || datos.get() != VERSION) {
+                throw new IOException("El archivo " + archivo + " no es un snapshot válido");
+            }
+            long secuencia = datos.getLong();
+            verificarCrc(datos.duplicate(), archivo);
+            while (true) {
+                byte tipo = datos.get();
+                if (tipo == FIN) {
+                    return secuencia;
+                }
+                int largo = datos.getInt();
+                ByteBuffer registro = datos.slice().limit(largo);
+                if (tipo == JournalClientes.TIPO_CLIENTE) {
+                    clienteDao.restaurar(ClienteEntityCodec.leer(registro));
+                } else if (tipo == JournalCuentas.TIPO_CUENTA) {
+                    cuentaDao.restaurar(CuentaEntityCodec.leer(registro));
+                }
+                datos.position(datos.position() + largo);
+            }
+        }
+    }
+
+    /**
+     * Devuelve las fotos del directorio, de la más nueva a la más vieja.
+     */
+    public static List<Path> listar(Path directorio) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directorio)) {
+            return snapshots;
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(p -> p.getFileName().toString().startsWith(PREFIJO) && p.getFileName().toString().endsWith(SUFIJO))
+                    .forEach(snapshots::add);
+        }
+        //El nombre lleva la secuencia con ceros a la izquierda, así que el orden alfabético sirve
+        snapshots.sort((a, b) -> b.getFileName().toString().compareTo(a.getFileName().toString()));
+        return snapshots;
+    }
+
+    private static void verificarCrc(ByteBuffer datos, Path archivo) throws IOException {
+        int inicio = datos.position();
+        long cantidad = 0;
+        while (datos.get() != FIN) {
+            int largo = datos.getInt();
+            datos.position(datos.position() + largo);
+            cantidad++;
+        }
+        int fin = datos.position() - 1;
+        if (datos.getLong() != cantidad) {
+            throw new IOException("El snapshot " + archivo + " está incompleto");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(datos.duplicate().position(inicio).limit(fin));
+        if ((int) crc.getValue() != datos.getInt()) {
+            throw new IOException("El snapshot " + archivo + " tiene un crc inválido");
+        }
+    }
+
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        private final CRC32C crc = new CRC32C();
+        private int inicioRegistros;
+        private long cantidad;
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void registro(byte tipo, int largo) {
+            if (buffer.remaining() < 1 + 4 + largo) {
+                vaciar();
+            }
+            buffer.put(tipo).putInt(largo);
+            cantidad++;
+        }
+
+        void terminar() throws IOException {
+            try {
+                vaciar();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            buffer.put(FIN).putLong(cantidad).putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+        }
+
+        private void vaciar() {
+            buffer.flip();
+            crc.update(buffer.duplicate().position(inicioRegistros));
+            inicioRegistros = 0;
+            try {
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package ar.edu.utn.frbb.tup.persistence.movimientos;
+
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.persistence.LongEntityTable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Historial de movimientos por numero de cuenta, ordenado por tiempo y guardado por columnas.
+ *
+ * Los movimientos de cada cuenta van en bloques de TAMANIO_BLOQUE con un arreglo primitivo por columna
+ * (instante, monto, saldo y contraparte), y de cada bloque se guarda aparte su instante mínimo y máximo.
+ * Una consulta por rango busca el primer bloque con búsqueda binaria sobre esos resúmenes y después busca
+ * dentro del bloque, sin recorrer el historial; como los bloques llenos tienen todos el mismo tamaño, el
+ * desplazamiento de una página se resuelve con una división.
+ *
+ * Un bloque lleno ya no cambia. Cuando hay más de maximoBloquesEnMemoria bloques llenos en memoria, los más
+ * viejos se bajan a un archivo del directorio indicado y en memoria queda solo su resumen; al consultarlos
+ * se leen del archivo (solo la columna de instantes si es para buscar). El archivo es un desborde de memoria,
+ * no un respaldo: se borra al cerrar y el historial no sobrevive a un reinicio.
+ *
+ * Lo que no se baja nunca es el bloque que se está llenando de cada cuenta, así que maximoBloquesEnMemoria
+ * no acota todo el historial. Cada cuenta con movimientos tiene en memoria, además de los bloques llenos:
+ * - su último bloque incompleto, de a lo sumo TAMANIO_BLOQUE - 1 movimientos. Arranca con capacidad para
+ *   CAPACIDAD_INICIAL y se duplica al llenarse, así que ocupa entre 256 bytes y 8 KB (4 columnas de 8 bytes);
+ * - el resumen de cada uno de sus bloques, también de los que están en disco: unos 50 bytes por bloque.
+ * Con un millón de cuentas activas el peor caso de los bloques incompletos son 8 GB, aunque lo común es que
+ * una cuenta con pocos movimientos ocupe cerca del mínimo. Para acotarlo más hay que achicar TAMANIO_BLOQUE.
+ */
+public class HistorialMovimientos implements Closeable {
+
+    static final int TAMANIO_BLOQUE = 256;
+    public static final int MAXIMO_BLOQUES_EN_MEMORIA = 4096;
+    private static final int CAPACIDAD_INICIAL = 8;
+    private static final int COLUMNAS = 4;
+    private static final int INSTANTE = 0;
+    private static final int MONTO = 1;
+    private static final int SALDO = 2;
+    private static final int CONTRAPARTE = 3;
+    private static final int BYTES_COLUMNA = TAMANIO_BLOQUE * Long.BYTES;
+
+    private static volatile HistorialMovimientos instancia = new HistorialMovimientos(null, MAXIMO_BLOQUES_EN_MEMORIA);
+
+    private final LongEntityTable<HistorialCuenta> historiales = new LongEntityTable<>();
+    private final Path directorio;
+    private final int maximoBloquesEnMemoria;
+    //Bloques llenos todavía en memoria, del más viejo al más nuevo
+    private final Queue<Bloque> llenos = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger llenosEnMemoria = new AtomicInteger();
+    private final AtomicLong finArchivo = new AtomicLong();
+    private volatile FileChannel archivo;
+    private Path rutaArchivo;
+
+    /**
+     * @param directorio donde se crea el archivo de desborde, o null para el directorio temporal del sistema
+     * @param maximoBloquesEnMemoria cuántos bloques llenos se mantienen en memoria antes de bajar los más viejos
+     */
+    public HistorialMovimientos(Path directorio, int maximoBloquesEnMemoria) {
+        this.directorio = directorio;
+        this.maximoBloquesEnMemoria = maximoBloquesEnMemoria;
+    }
+
+    public static HistorialMovimientos getInstancia() {
+        return instancia;
+    }
+
+    public static void setInstancia(HistorialMovimientos historial) {
+        instancia = historial;
+    }
+
+    /**
+     * Agrega un movimiento al final del historial de la cuenta. Si el instante es anterior al último
+     * registrado (el reloj retrocedió) se usa el último, para que el historial siga ordenado.
+     */
+    public void registrar(long numeroCuenta, long instante, long monto, long saldo, long contraparte) {
+        HistorialCuenta historial = historiales.get(numeroCuenta);
+        if (historial == null) {
+            HistorialCuenta nuevo = new HistorialCuenta();
+            historial = historiales.putIfAbsent(numeroCuenta, nuevo);
+            if (historial == null) {
+                historial = nuevo;
+            }
+        }
+        Bloque lleno = historial.agregar(instante, monto, saldo, contraparte);
+        //Se baja a disco después de soltar el monitor de la cuenta, que el desborde puede tomar el de otra
+        if (lleno != null) {
+            llenos.add(lleno);
+            if (llenosEnMemoria.incrementAndGet() > maximoBloquesEnMemoria) {
+                bajarBloquesViejos();
+            }
+        }
+    }
+
+    /**
+     * Devuelve una página de los movimientos de la cuenta con instante en [desde, hasta), en orden de tiempo.
+     * @param desplazamiento cuántos movimientos del rango saltear
+     * @param limite cuántos movimientos devolver como máximo
+     */
+    public List<Movimiento> consultar(long numeroCuenta, long desde, long hasta, long desplazamiento, int limite) {
+        HistorialCuenta historial = historiales.get(numeroCuenta);
+        if (historial == null || desde >= hasta || limite <= 0) {
+            return new ArrayList<>();
+        }
+        Vista vista = historial.vista();
+        long inicio = vista.primeroDesde(desde) + Math.max(desplazamiento, 0);
+        long fin = Math.min(vista.primeroDesde(hasta), inicio + limite);
+        List<Movimiento> movimientos = new ArrayList<>((int) Math.max(fin - inicio, 0));
+        long indice = inicio;
+        while (indice < fin) {
+            int numeroBloque = (int) (indice / TAMANIO_BLOQUE);
+            long[][] columnas = vista.columnas(numeroBloque);
+            int hastaEnBloque = (int) Math.min(fin - (long) numeroBloque * TAMANIO_BLOQUE, TAMANIO_BLOQUE);
+            for (int i = (int) (indice % TAMANIO_BLOQUE); i < hastaEnBloque; i++) {
+                movimientos.add(new Movimiento(numeroCuenta, columnas[INSTANTE][i], columnas[MONTO][i],
+                        columnas[SALDO][i], columnas[CONTRAPARTE][i]));
+                indice++;
+            }
+        }
+        return movimientos;
+    }
+
+    /**
+     * Cuenta los movimientos de la cuenta con instante en [desde, hasta), sin armarlos.
+     */
+    public long contar(long numeroCuenta, long desde, long hasta) {
+        HistorialCuenta historial = historiales.get(numeroCuenta);
+        if (historial == null || desde >= hasta) {
+            return 0;
+        }
+        Vista vista = historial.vista();
+        return vista.primeroDesde(hasta) - vista.primeroDesde(desde);
+    }
+
+    public int bloquesEnMemoria() {
+        return llenosEnMemoria.get();
+    }
+
+    public long bytesEnArchivo() {
+        return finArchivo.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        FileChannel canal = archivo;
+        if (canal != null) {
+            canal.close();
+            Files.deleteIfExists(rutaArchivo);
+        }
+    }
+
+    private void bajarBloquesViejos() {
+        while (llenosEnMemoria.get() > maximoBloquesEnMemoria) {
+            Bloque bloque = llenos.poll();
+            if (bloque == null) {
+                return;
+            }
+            try {
+                bajar(bloque);
+            } catch (IOException e) {
+                //El bloque sigue en memoria; se vuelve a intentar con el próximo que se llene
+                llenos.add(bloque);
+                System.out.println("No se pudo bajar un bloque de movimientos a disco: " + e.getMessage());
+                return;
+            }
+            llenosEnMemoria.decrementAndGet();
+        }
+    }
+
+    //Un bloque lleno no cambia más, así que se escribe sin tomar el monitor de su cuenta
+    private void bajar(Bloque bloque) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(COLUMNAS * BYTES_COLUMNA);
+        long[][] columnas = bloque.columnas;
+        for (long[] columna : columnas) {
+            buffer.asLongBuffer().put(columna, 0, TAMANIO_BLOQUE);
+            buffer.position(buffer.position() + BYTES_COLUMNA);
+        }
+        buffer.flip();
+        long posicion = finArchivo.getAndAdd(buffer.remaining());
+        FileChannel canal = abrirArchivo();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer, posicion + buffer.position());
+        }
+        bloque.posicion = posicion;
+        bloque.columnas = null;
+    }
+
+    private FileChannel abrirArchivo() throws IOException {
+        FileChannel canal = archivo;
+        if (canal != null) {
+            return canal;
+        }
+        synchronized (this) {
+            if (archivo == null) {
+                rutaArchivo = directorio != null
+                        ? Files.createTempFile(Files.createDirectories(directorio), "movimientos-", ".bloques")
+                        : Files.createTempFile("movimientos-", ".bloques");
+                archivo = FileChannel.open(rutaArchivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return archivo;
+        }
+    }
+
+    private long[] leerColumna(Bloque bloque, int columna) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(BYTES_COLUMNA);
+            long posicion = bloque.posicion + (long) columna * BYTES_COLUMNA;
+            while (buffer.hasRemaining()) {
+                if (archivo.read(buffer, posicion + buffer.position()) < 0) {
+                    throw new EOFException("Bloque de movimientos incompleto en " + rutaArchivo);
+                }
+            }
+            buffer.flip();
+            long[] valores = new long[TAMANIO_BLOQUE];
+            buffer.asLongBuffer().get(valores);
+            return valores;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Bloque {
+        //null una vez que el bloque se bajó a disco; desde ahí vale posicion
+        volatile long[][] columnas;
+        volatile long posicion = -1;
+        int cantidad;
+
+        Bloque(int capacidad) {
+            columnas = new long[COLUMNAS][capacidad];
+        }
+    }
+
+    private final class HistorialCuenta {
+        private Bloque[] bloques = new Bloque[1];
+        private long[] minimos = new long[1];
+        private long[] maximos = new long[1];
+        private int cantidadBloques;
+
+        synchronized Bloque agregar(long instante, long monto, long saldo, long contraparte) {
+            Bloque bloque;
+            if (cantidadBloques == 0 || bloques[cantidadBloques - 1].cantidad == TAMANIO_BLOQUE) {
+                if (cantidadBloques == bloques.length) {
+                    bloques = Arrays.copyOf(bloques, cantidadBloques * 2);
+                    minimos = Arrays.copyOf(minimos, cantidadBloques * 2);
+                    maximos = Arrays.copyOf(maximos, cantidadBloques * 2);
+                }
+                if (cantidadBloques > 0) {
+                    instante = Math.max(instante, maximos[cantidadBloques - 1]);
+                }
+                bloque = new Bloque(CAPACIDAD_INICIAL);
+                bloques[cantidadBloques] = bloque;
+                minimos[cantidadBloques] = instante;
+                cantidadBloques++;
+            } else {
+                bloque = bloques[cantidadBloques - 1];
+                instante = Math.max(instante, maximos[cantidadBloques - 1]);
+            }
+            long[][] columnas = bloque.columnas;
+            if (bloque.cantidad == columnas[INSTANTE].length) {
+                long[][] mayores = new long[COLUMNAS][];
+                for (int c = 0; c < COLUMNAS; c++) {
+                    mayores[c] = Arrays.copyOf(columnas[c], Math.min(columnas[c].length * 2, TAMANIO_BLOQUE));
+                }
+                bloque.columnas = columnas = mayores;
+            }
+            int i = bloque.cantidad;
+            columnas[INSTANTE][i] = instante;
+            columnas[MONTO][i] = monto;
+            columnas[SALDO][i] = saldo;
+            columnas[CONTRAPARTE][i] = contraparte;
+            bloque.cantidad = i + 1;
+            maximos[cantidadBloques - 1] = instante;
+            return bloque.cantidad == TAMANIO_BLOQUE ? bloque : null;
+        }
+
+        //Lo agregado después de armar la vista no se ve. La vista comparte los arreglos de resúmenes sin copiarlos:
+        //al crecer se reemplazan por copias y lo de los bloques anteriores al último ya no cambia, así que solo
+        //hace falta guardar aparte el estado del último. Si el último está lleno puede bajarse a disco en cualquier
+        //momento: ahí sus columnas quedan en null y la vista lo lee como a cualquier otro bloque lleno
+        synchronized Vista vista() {
+            Bloque ultimo = bloques[cantidadBloques - 1];
+            return new Vista(bloques, minimos, maximos, cantidadBloques, maximos[cantidadBloques - 1],
+                    ultimo.cantidad, ultimo.columnas);
+        }
+    }
+
+    private final class Vista {
+        private final Bloque[] bloques;
+        private final long[] minimos;
+        private final long[] maximos;
+        private final int cantidadBloques;
+        private final long maximoUltimo;
+        private final int cantidadUltimo;
+        private final long[][] columnasUltimo;
+
+        Vista(Bloque[] bloques, long[] minimos, long[] maximos, int cantidadBloques, long maximoUltimo,
+              int cantidadUltimo, long[][] columnasUltimo) {
+            this.bloques = bloques;
+            this.minimos = minimos;
+            this.maximos = maximos;
+            this.cantidadBloques = cantidadBloques;
+            this.maximoUltimo = maximoUltimo;
+            this.cantidadUltimo = cantidadUltimo;
+            this.columnasUltimo = columnasUltimo;
+        }
+
+        long cantidad() {
+            return (long) (cantidadBloques - 1) * TAMANIO_BLOQUE + cantidadUltimo;
+        }
+
+        /**
+         * Índice del primer movimiento con instante mayor o igual al pedido, o la cantidad si no hay.
+         */
+        long primeroDesde(long instante) {
+            //Primer bloque cuyo máximo llega al instante
+            int desde = 0;
+            int hasta = cantidadBloques;
+            while (desde < hasta) {
+                int medio = (desde + hasta) >>> 1;
+                long maximo = medio == cantidadBloques - 1 ? maximoUltimo : maximos[medio];
+                if (maximo < instante) {
+                    desde = medio + 1;
+                } else {
+                    hasta = medio;
+                }
+            }
+            if (desde == cantidadBloques) {
+                return cantidad();
+            }
+            //Si el bloque entero cae en el rango no hace falta mirar sus instantes (ni leerlos de disco)
+            if (minimos[desde] >= instante) {
+                return (long) desde * TAMANIO_BLOQUE;
+            }
+            long[] instantes = instantes(desde);
+            int enBloque = cantidadEn(desde);
+            int izquierda = 0;
+            int derecha = enBloque;
+            while (izquierda < derecha) {
+                int medio = (izquierda + derecha) >>> 1;
+                if (instantes[medio] < instante) {
+                    izquierda = medio + 1;
+                } else {
+                    derecha = medio;
+                }
+            }
+            return (long) desde * TAMANIO_BLOQUE + izquierda;
+        }
+
+        private int cantidadEn(int numeroBloque) {
+            return numeroBloque == cantidadBloques - 1 ? cantidadUltimo : TAMANIO_BLOQUE;
+        }
+
+        private long[] instantes(int numeroBloque) {
+            if (numeroBloque == cantidadBloques - 1 && columnasUltimo != null) {
+                return columnasUltimo[INSTANTE];
+            }
+            Bloque bloque = bloques[numeroBloque];
+            long[][] columnas = bloque.columnas;
+            return columnas != null ? columnas[INSTANTE] : leerColumna(bloque, INSTANTE);
+        }
+
+        long[][] columnas(int numeroBloque) {
+            if (numeroBloque == cantidadBloques - 1 && columnasUltimo != null) {
+                return columnasUltimo;
+            }
+            Bloque bloque = bloques[numeroBloque];
+            long[][] columnas = bloque.columnas;
+            if (columnas != null) {
+                return columnas;
+            }
+            columnas = new long[COLUMNAS][];
+            for (int c = 0; c < COLUMNAS; c++) {
+                columnas[c] = leerColumna(bloque, c);
+            }
+            return columnas;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ar.edu.utn.frbb.tup.presentation.extracto;
+
+public enum FormatoExtracto {
+    //Columnas alineadas para leer en pantalla
+    TEXTO,
+    //Una fila por movimiento: cuenta,fecha,monto,saldo,contraparte
+    CSV;
+
+    public static FormatoExtracto fromString(String texto) {
+        for (FormatoExtracto formato : values()) {
+            if (formato.name().equalsIgnoreCase(texto)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato de extracto inválido: " + texto + ", debe ser texto o csv");
+    }
+}
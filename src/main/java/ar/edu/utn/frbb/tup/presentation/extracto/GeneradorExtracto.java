@@ -0,0 +1,127 @@
+package ar.edu.utn.frbb.tup.presentation.extracto;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.persistence.movimientos.HistorialMovimientos;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Genera extractos de cuentas y clientes en texto o CSV, escribiéndolos a medida que se arman.
+ *
+ * Los movimientos se piden al historial de a una página y la página siguiente se pide recién cuando la
+ * anterior ya se escribió en el canal, así que la memoria usada es la de una página y los buffers de la
+ * salida, sin importar cuán largo sea el historial ni cuán lento lea el que recibe el extracto.
+ * Los rangos de tiempo son [desde, hasta) en milisegundos desde 1970 (ver Movimiento.instante).
+ */
+@Component
+public class GeneradorExtracto {
+
+    static final int MOVIMIENTOS_POR_PAGINA = 256;
+    private static final int TAMANIO_BUFFER = 16 * 1024;
+
+    HistorialMovimientos historial = HistorialMovimientos.getInstancia();
+
+    /**
+     * @return la cantidad de bytes escritos
+     */
+    public long escribirCuenta(Cuenta cuenta, long desde, long hasta, FormatoExtracto formato, WritableByteChannel canal) throws IOException {
+        SalidaExtracto salida = new SalidaExtracto(canal, TAMANIO_BUFFER);
+        if (formato == FormatoExtracto.CSV) {
+            encabezadoCsv(salida);
+        }
+        cuenta(salida, cuenta, desde, hasta, formato);
+        salida.terminar();
+        return salida.getBytesEscritos();
+    }
+
+    public long escribirCuenta(Cuenta cuenta, long desde, long hasta, FormatoExtracto formato, OutputStream salida) throws IOException {
+        return escribirCuenta(cuenta, desde, hasta, formato, Channels.newChannel(salida));
+    }
+
+    /**
+     * Escribe los datos del cliente y el extracto de cada una de sus cuentas. En CSV solo van los movimientos,
+     * con un único encabezado.
+     * @return la cantidad de bytes escritos
+     */
+    public long escribirCliente(Cliente cliente, long desde, long hasta, FormatoExtracto formato, WritableByteChannel canal) throws IOException {
+        SalidaExtracto salida = new SalidaExtracto(canal, TAMANIO_BUFFER);
+        if (formato == FormatoExtracto.CSV) {
+            encabezadoCsv(salida);
+        } else {
+            salida.texto("Cliente ").numero(cliente.getDni()).texto(" - ").texto(cliente.getNombre()).caracter(' ').texto(cliente.getApellido()).linea();
+            salida.texto("Tipo de persona: ").texto(String.valueOf(cliente.getTipoPersona()))
+                    .texto(" | Banco: ").texto(cliente.getBanco())
+                    .texto(" | Nacimiento: ").texto(String.valueOf(cliente.getFechaNacimiento()));
+            if (cliente.getFechaNacimiento() != null) {
+                salida.texto(" | Edad: ").numero(cliente.getEdad());
+            }
+            salida.linea();
+            if (cliente.getCuentas().isEmpty()) {
+                salida.texto("El cliente no tiene cuentas asociadas.").linea();
+            } else {
+                salida.texto("Cuentas: ").numero(cliente.getCuentas().size()).linea();
+            }
+        }
+        for (Cuenta cuenta : cliente.getCuentas()) {
+            if (formato == FormatoExtracto.TEXTO) {
+                salida.linea();
+            }
+            cuenta(salida, cuenta, desde, hasta, formato);
+        }
+        salida.terminar();
+        return salida.getBytesEscritos();
+    }
+
+    public long escribirCliente(Cliente cliente, long desde, long hasta, FormatoExtracto formato, OutputStream salida) throws IOException {
+        return escribirCliente(cliente, desde, hasta, formato, Channels.newChannel(salida));
+    }
+
+    private void cuenta(SalidaExtracto salida, Cuenta cuenta, long desde, long hasta, FormatoExtracto formato) throws IOException {
+        long numero = cuenta.getNumeroCuenta();
+        if (formato == FormatoExtracto.TEXTO) {
+            salida.texto("Cuenta ").numero(numero).texto(" - ").texto(String.valueOf(cuenta.getTipoCuenta()))
+                    .texto(" en ").texto(String.valueOf(cuenta.getMoneda())).linea();
+            salida.texto("Titular: ");
+            if (cuenta.getTitular() != null) {
+                salida.numero(cuenta.getTitular().getDni());
+            } else {
+                salida.caracter('-');
+            }
+            salida.texto(" | Creada: ").texto(String.valueOf(cuenta.getFechaCreacion()))
+                    .texto(" | Saldo: ").monto(cuenta.getBalance()).linea();
+            salida.texto("Fecha                         Monto           Saldo    Contraparte").linea();
+        }
+        long cantidad = 0;
+        List<Movimiento> pagina;
+        do {
+            pagina = historial.consultar(numero, desde, hasta, cantidad, MOVIMIENTOS_POR_PAGINA);
+            for (Movimiento movimiento : pagina) {
+                if (formato == FormatoExtracto.CSV) {
+                    salida.numero(numero).caracter(',').fecha(movimiento.getInstante(), 'T').caracter(',')
+                            .monto(movimiento.getMonto()).caracter(',').monto(movimiento.getSaldo()).caracter(',')
+                            .numero(movimiento.getContraparte()).linea();
+                } else {
+                    salida.fecha(movimiento.getInstante(), ' ').monto(movimiento.getMonto(), 16)
+                            .monto(movimiento.getSaldo(), 16).numero(movimiento.getContraparte(), 15).linea();
+                }
+            }
+            cantidad += pagina.size();
+            //Antes de pedir la página siguiente se espera a que el canal tome esta
+            salida.vaciar();
+        } while (pagina.size() == MOVIMIENTOS_POR_PAGINA);
+        if (formato == FormatoExtracto.TEXTO) {
+            salida.numero(cantidad).texto(cantidad == 1 ? " movimiento" : " movimientos").linea();
+        }
+    }
+
+    private static void encabezadoCsv(SalidaExtracto salida) throws IOException {
+        salida.texto("cuenta,fecha,monto,saldo,contraparte").linea();
+    }
+}
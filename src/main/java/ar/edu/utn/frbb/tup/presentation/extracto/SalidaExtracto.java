@@ -0,0 +1,191 @@
+package ar.edu.utn.frbb.tup.presentation.extracto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escribe texto en un canal a través de dos buffers fijos que se reusan: los caracteres se juntan en uno,
+ * se codifican en UTF-8 al otro y ese se vacía en el canal cuando se llena. Los números, montos y fechas se
+ * escriben dígito por dígito, sin armar Strings.
+ *
+ * Control de flujo: no se acepta más texto hasta que el canal tomó los bytes pendientes. Un canal bloqueante
+ * frena al que escribe en el write; con uno no bloqueante que devuelve 0 se espera un poco y se reintenta.
+ */
+final class SalidaExtracto {
+
+    private static final long ESPERA_CANAL_LLENO_NANOS = 100_000;
+
+    private final WritableByteChannel canal;
+    private final CharBuffer caracteres;
+    private final ByteBuffer bytes;
+    private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder();
+    private final char[] digitos = new char[20];
+    private long bytesEscritos;
+
+    SalidaExtracto(WritableByteChannel canal, int tamanioBuffer) {
+        this.canal = canal;
+        this.caracteres = CharBuffer.allocate(tamanioBuffer / 4);
+        this.bytes = ByteBuffer.allocate(tamanioBuffer);
+    }
+
+    SalidaExtracto texto(CharSequence texto) throws IOException {
+        String valor = texto == null ? "-" : texto.toString();
+        int desde = 0;
+        while (desde < valor.length()) {
+            if (!caracteres.hasRemaining()) {
+                codificar();
+            }
+            int hasta = Math.min(valor.length(), desde + caracteres.remaining());
+            caracteres.put(valor, desde, hasta);
+            desde = hasta;
+        }
+        return this;
+    }
+
+    SalidaExtracto caracter(char c) throws IOException {
+        if (!caracteres.hasRemaining()) {
+            codificar();
+        }
+        caracteres.put(c);
+        return this;
+    }
+
+    SalidaExtracto linea() throws IOException {
+        return caracter('\n');
+    }
+
+    SalidaExtracto espacios(int cantidad) throws IOException {
+        for (int i = 0; i < cantidad; i++) {
+            caracter(' ');
+        }
+        return this;
+    }
+
+    SalidaExtracto numero(long valor) throws IOException {
+        //Se trabaja en negativo para que Long.MIN_VALUE no desborde
+        long resto = valor < 0 ? valor : -valor;
+        int i = digitos.length;
+        do {
+            digitos[--i] = (char) ('0' - resto % 10);
+            resto /= 10;
+        } while (resto != 0);
+        if (valor < 0) {
+            caracter('-');
+        }
+        for (; i < digitos.length; i++) {
+            caracter(digitos[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Escribe el numero alineado a la derecha en el ancho indicado.
+     */
+    SalidaExtracto numero(long valor, int ancho) throws IOException {
+        return espacios(ancho - largo(valor)).numero(valor);
+    }
+
+    /**
+     * Escribe un monto en unidades menores con dos decimales, igual que Montos.formatear.
+     */
+    SalidaExtracto monto(long monto) throws IOException {
+        long enteros = monto / 100;
+        int centavos = (int) Math.abs(monto % 100);
+        if (monto < 0 && enteros == 0) {
+            caracter('-');
+        }
+        numero(enteros).caracter('.');
+        return caracter((char) ('0' + centavos / 10)).caracter((char) ('0' + centavos % 10));
+    }
+
+    SalidaExtracto monto(long monto, int ancho) throws IOException {
+        long enteros = monto / 100;
+        int largo = largo(enteros) + 3 + (monto < 0 && enteros == 0 ? 1 : 0);
+        return espacios(ancho - largo).monto(monto);
+    }
+
+    /**
+     * Escribe el instante (milisegundos desde 1970, en UTC) como AAAA-MM-DD, el separador y HH:MM:SS.
+     */
+    SalidaExtracto fecha(long instante, char separador) throws IOException {
+        LocalDateTime fecha = LocalDateTime.ofEpochSecond(Math.floorDiv(instante, 1000), 0, ZoneOffset.UTC);
+        numero(fecha.getYear()).caracter('-');
+        dosDigitos(fecha.getMonthValue()).caracter('-');
+        dosDigitos(fecha.getDayOfMonth()).caracter(separador);
+        dosDigitos(fecha.getHour()).caracter(':');
+        dosDigitos(fecha.getMinute()).caracter(':');
+        return dosDigitos(fecha.getSecond());
+    }
+
+    /**
+     * Codifica lo pendiente y lo manda al canal, esperando a que lo tome entero.
+     */
+    void vaciar() throws IOException {
+        codificar();
+        escribirBytes();
+    }
+
+    /**
+     * Termina la codificación y vacía todo. No cierra el canal, que es de quien lo pasó.
+     */
+    void terminar() throws IOException {
+        caracteres.flip();
+        while (codificador.encode(caracteres, bytes, true).isOverflow()) {
+            escribirBytes();
+        }
+        while (codificador.flush(bytes).isOverflow()) {
+            escribirBytes();
+        }
+        caracteres.clear();
+        escribirBytes();
+    }
+
+    long getBytesEscritos() {
+        return bytesEscritos;
+    }
+
+    private SalidaExtracto dosDigitos(int valor) throws IOException {
+        return caracter((char) ('0' + valor / 10)).caracter((char) ('0' + valor % 10));
+    }
+
+    private static int largo(long valor) {
+        int largo = valor < 0 ? 2 : 1;
+        for (long resto = valor / 10; resto != 0; resto /= 10) {
+            largo++;
+        }
+        return largo;
+    }
+
+    //Un surrogate alto suelto al final del buffer queda sin codificar hasta que llegue su pareja
+    private void codificar() throws IOException {
+        caracteres.flip();
+        CoderResult resultado;
+        while ((resultado = codificador.encode(caracteres, bytes, false)).isOverflow()) {
+            escribirBytes();
+        }
+        if (resultado.isError()) {
+            resultado.throwException();
+        }
+        caracteres.compact();
+    }
+
+    private void escribirBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            int escritos = canal.write(bytes);
+            if (escritos == 0) {
+                LockSupport.parkNanos(ESPERA_CANAL_LLENO_NANOS);
+            }
+            bytesEscritos += escritos;
+        }
+        bytes.clear();
+    }
+}
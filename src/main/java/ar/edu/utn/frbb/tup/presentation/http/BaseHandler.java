@@ -0,0 +1,193 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+import ar.edu.utn.frbb.tup.metricas.Operacion;
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.CuentaNoSoportadaException;
+import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Base de los handlers de la API: lee el cuerpo, arma las respuestas JSON y traduce las excepciones
+ * del dominio a códigos HTTP (409 si ya existe, 422 si el producto no está soportado, 400 si el pedido
+ * está mal armado y 500 para el resto).
+ */
+abstract class BaseHandler implements HttpHandler {
+
+    private static final int MAXIMO_CUERPO = 64 * 1024;
+    private static final String IDEMPOTENCIA = "Idempotency-Key";
+    private static final int MAXIMO_CLAVE_IDEMPOTENCIA = 255;
+
+    private final Operacion errorInterno = Metricas.getInstancia().operacion("http.error");
+
+    @Override
+    public final void handle(HttpExchange intercambio) throws IOException {
+        try {
+            atender(intercambio);
+        } catch (ClienteAlreadyExistsException | CuentaAlreadyExistsException | TipoCuentaAlreadyExistsException e) {
+            responderError(intercambio, 409, e.getMessage());
+        } catch (CuentaNoSoportadaException e) {
+            responderError(intercambio, 422, e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException | ClassCastException e) {
+            responderError(intercambio, 400, e.getMessage());
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable e) {
+            //El error se cuenta por tipo en las métricas; al cliente no le llega nada del error ni de su traza
+            errorInterno.error(e);
+            responderError(intercambio, 500, "Error interno");
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    protected abstract void atender(HttpExchange intercambio) throws Throwable;
+
+    protected static String leerCuerpo(HttpExchange intercambio) throws IOException {
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            byte[] bytes = entrada.readNBytes(MAXIMO_CUERPO + 1);
+            if (bytes.length > MAXIMO_CUERPO) {
+                throw new IllegalArgumentException("El cuerpo supera los " + MAXIMO_CUERPO + " bytes");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Devuelve el id numérico que sigue al prefijo en la ruta (por ejemplo /clientes/123), o -1 si la ruta
+     * es exactamente el prefijo.
+     */
+    protected static long idDeRuta(HttpExchange intercambio, String prefijo) {
+        String ruta = intercambio.getRequestURI().getPath();
+        if (ruta.equals(prefijo) || ruta.equals(prefijo + "/")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(ruta.substring(prefijo.length() + 1));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Ruta inválida: " + ruta);
+        }
+    }
+
+    /**
+     * Devuelve el valor de un parámetro de la query string, o null si no viene.
+     */
+    protected static String parametro(HttpExchange intercambio, String nombre) {
+        String query = intercambio.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String par : query.split("&")) {
+            int igual = par.indexOf('=');
+            String clave = igual < 0 ? par : par.substring(0, igual);
+            if (URLDecoder.decode(clave, StandardCharsets.UTF_8).equals(nombre)) {
+                return igual < 0 ? "" : URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Devuelve la clave de idempotencia del encabezado Idempotency-Key, o null si no viene.
+     */
+    protected static String claveIdempotencia(HttpExchange intercambio) {
+        String clave = intercambio.getRequestHeaders().getFirst(IDEMPOTENCIA);
+        if (clave == null) {
+            return null;
+        }
+        if (clave.isEmpty() || clave.length() > MAXIMO_CLAVE_IDEMPOTENCIA) {
+            throw new IllegalArgumentException("La clave " + IDEMPOTENCIA + " debe tener entre 1 y " + MAXIMO_CLAVE_IDEMPOTENCIA + " caracteres");
+        }
+        return clave;
+    }
+
+    protected static String texto(Map<String, Object> cuerpo, String campo) {
+        Object valor = cuerpo.get(campo);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el campo " + campo);
+        }
+        return (String) valor;
+    }
+
+    protected static long numero(Map<String, Object> cuerpo, String campo) {
+        Object valor = cuerpo.get(campo);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el campo " + campo);
+        }
+        return (Long) valor;
+    }
+
+    protected static void responder(HttpExchange intercambio, int estado, CharSequence json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    protected static void responderError(HttpExchange intercambio, int estado, String mensaje) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.escribirTexto(json, mensaje);
+        responder(intercambio, estado, json.append('}'));
+    }
+
+    protected static void metodoNoPermitido(HttpExchange intercambio) throws IOException {
+        intercambio.getResponseHeaders().set("Allow", "GET, POST");
+        responderError(intercambio, 405, "Método no permitido: " + intercambio.getRequestMethod());
+    }
+
+    protected static void escribirCliente(StringBuilder json, Cliente cliente) {
+        json.append("{\"dni\":").append(cliente.getDni()).append(",\"nombre\":");
+        Json.escribirTexto(json, cliente.getNombre());
+        json.append(",\"apellido\":");
+        Json.escribirTexto(json, cliente.getApellido());
+        json.append(",\"tipoPersona\":");
+        Json.escribirTexto(json, cliente.getTipoPersona() != null ? cliente.getTipoPersona().getDescripcion() : null);
+        json.append(",\"banco\":");
+        Json.escribirTexto(json, cliente.getBanco());
+        json.append(",\"fechaNacimiento\":");
+        Json.escribirTexto(json, cliente.getFechaNacimiento() != null ? cliente.getFechaNacimiento().toString() : null);
+        json.append(",\"fechaAlta\":");
+        Json.escribirTexto(json, cliente.getFechaAlta() != null ? cliente.getFechaAlta().toString() : null);
+        json.append(",\"cuentas\":[");
+        boolean primera = true;
+        for (Cuenta cuenta : cliente.getCuentas()) {
+            if (!primera) {
+                json.append(',');
+            }
+            escribirCuenta(json, cuenta);
+            primera = false;
+        }
+        json.append("]}");
+    }
+
+    //El balance va como texto con dos decimales para no perder precisión en clientes que lo lean como double
+    protected static void escribirCuenta(StringBuilder json, Cuenta cuenta) {
+        json.append("{\"numeroCuenta\":").append(cuenta.getNumeroCuenta()).append(",\"tipoCuenta\":");
+        Json.escribirTexto(json, cuenta.getTipoCuenta() != null ? cuenta.getTipoCuenta().name() : null);
+        json.append(",\"moneda\":");
+        Json.escribirTexto(json, cuenta.getMoneda() != null ? cuenta.getMoneda().name() : null);
+        json.append(",\"balance\":");
+        Json.escribirTexto(json, Montos.formatear(cuenta.getBalance()));
+        json.append(",\"limiteDescubierto\":");
+        Json.escribirTexto(json, Montos.formatear(cuenta.getLimiteDescubierto()));
+        json.append(",\"titular\":").append(cuenta.getTitular() != null ? cuenta.getTitular().getDni() : null);
+        json.append(",\"fechaCreacion\":");
+        Json.escribirTexto(json, cuenta.getFechaCreacion() != null ? cuenta.getFechaCreacion().toString() : null);
+        json.append('}');
+    }
+}
@@ -0,0 +1,70 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * POST /clientes da de alta un cliente y GET /clientes/{dni} lo devuelve con sus cuentas.
+ * Cuerpo del alta: {"dni":..., "nombre":..., "apellido":..., "tipoPersona":"F" o "J", "banco":..., "fechaNacimiento":"YYYY-MM-DD"}
+ * Si el alta trae el encabezado Idempotency-Key, repetirla con la misma clave devuelve el mismo cliente.
+ */
+class ClienteHandler extends BaseHandler {
+
+    static final String RUTA = "/clientes";
+
+    private final ClienteService clienteService;
+
+    ClienteHandler(ClienteService clienteService) {
+        this.clienteService = clienteService;
+    }
+
+    @Override
+    protected void atender(HttpExchange intercambio) throws Throwable {
+        long dni = idDeRuta(intercambio, RUTA);
+        String metodo = intercambio.getRequestMethod();
+        if (dni < 0 && metodo.equals("POST")) {
+            alta(intercambio);
+        } else if (dni >= 0 && metodo.equals("GET")) {
+            buscar(intercambio, dni);
+        } else {
+            metodoNoPermitido(intercambio);
+        }
+    }
+
+    private void alta(HttpExchange intercambio) throws Throwable {
+        Map<String, Object> cuerpo = Json.leerObjeto(leerCuerpo(intercambio));
+        Cliente cliente = new Cliente();
+        cliente.setDni(numero(cuerpo, "dni"));
+        cliente.setNombre(texto(cuerpo, "nombre"));
+        cliente.setApellido(texto(cuerpo, "apellido"));
+        cliente.setTipoPersona(TipoPersona.fromString(texto(cuerpo, "tipoPersona")));
+        cliente.setBanco((String) cuerpo.get("banco"));
+        cliente.setFechaNacimiento(LocalDate.parse(texto(cuerpo, "fechaNacimiento")));
+        cliente.setFechaAlta(LocalDate.now());
+
+        //Con Idempotency-Key un reintento recibe el cliente del primer pedido
+        Cliente creado = clienteService.darDeAltaCliente(claveIdempotencia(intercambio), cliente);
+
+        StringBuilder json = new StringBuilder(256);
+        escribirCliente(json, creado);
+        responder(intercambio, 201, json);
+    }
+
+    private void buscar(HttpExchange intercambio, long dni) throws Throwable {
+        Cliente cliente;
+        try {
+            cliente = clienteService.buscarClientePorDni(dni);
+        } catch (IllegalArgumentException e) {
+            responderError(intercambio, 404, e.getMessage());
+            return;
+        }
+        StringBuilder json = new StringBuilder(512);
+        escribirCliente(json, cliente);
+        responder(intercambio, 200, json);
+    }
+}
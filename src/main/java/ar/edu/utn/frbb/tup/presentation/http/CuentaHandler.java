@@ -0,0 +1,122 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.presentation.extracto.FormatoExtracto;
+import ar.edu.utn.frbb.tup.presentation.extracto.GeneradorExtracto;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * POST /cuentas da de alta una cuenta y GET /cuentas/{numero} la devuelve.
+ * Cuerpo del alta: {"dniTitular":..., "tipoCuenta":"CAJA_AHORRO" o "CUENTA_CORRIENTE", "moneda":"PESOS" o "DOLARES"}
+ * y opcionalmente "numeroCuenta" (si no viene se genera uno) y, en cuentas corrientes, "limiteDescubierto" como
+ * texto con dos decimales. Si el alta trae el encabezado Idempotency-Key, repetirla con la misma clave devuelve
+ * la misma cuenta en vez de crear otra.
+ * GET /cuentas/{numero}/extracto?formato=texto|csv&desde=AAAA-MM-DD&hasta=AAAA-MM-DD devuelve los movimientos
+ * de la cuenta (hasta es inclusive); la respuesta va en chunks a medida que se genera.
+ */
+class CuentaHandler extends BaseHandler {
+
+    static final String RUTA = "/cuentas";
+    private static final String EXTRACTO = "/extracto";
+
+    private final CuentaService cuentaService;
+    private final GeneradorExtracto generadorExtracto;
+
+    CuentaHandler(CuentaService cuentaService, GeneradorExtracto generadorExtracto) {
+        this.cuentaService = cuentaService;
+        this.generadorExtracto = generadorExtracto;
+    }
+
+    @Override
+    protected void atender(HttpExchange intercambio) throws Throwable {
+        String ruta = intercambio.getRequestURI().getPath();
+        if (ruta.endsWith(EXTRACTO)) {
+            if (!intercambio.getRequestMethod().equals("GET")) {
+                metodoNoPermitido(intercambio);
+                return;
+            }
+            extracto(intercambio, numeroDeExtracto(ruta));
+            return;
+        }
+        long numero = idDeRuta(intercambio, RUTA);
+        String metodo = intercambio.getRequestMethod();
+        if (numero < 0 && metodo.equals("POST")) {
+            alta(intercambio);
+        } else if (numero >= 0 && metodo.equals("GET")) {
+            buscar(intercambio, numero);
+        } else {
+            metodoNoPermitido(intercambio);
+        }
+    }
+
+    private void alta(HttpExchange intercambio) throws Throwable {
+        Map<String, Object> cuerpo = Json.leerObjeto(leerCuerpo(intercambio));
+        //Solo se pide un numero al generador si el pedido no trae uno
+        boolean numeroPedido = cuerpo.get("numeroCuenta") != null;
+        Cuenta cuenta = (numeroPedido ? Cuenta.conNumero(numero(cuerpo, "numeroCuenta")) : new Cuenta())
+                .setTipoCuenta(TipoCuenta.valueOf(texto(cuerpo, "tipoCuenta")))
+                .setMoneda(TipoMoneda.valueOf(texto(cuerpo, "moneda")))
+                .setFechaCreacion(LocalDateTime.now());
+        if (cuerpo.get("limiteDescubierto") != null) {
+            cuenta.setLimiteDescubierto(Montos.parsear(texto(cuerpo, "limiteDescubierto")));
+        }
+
+        //Con Idempotency-Key un reintento recibe la cuenta del primer pedido, con el mismo número
+        Cuenta creada = cuentaService.darDeAltaCuenta(claveIdempotencia(intercambio), cuenta, numero(cuerpo, "dniTitular"), numeroPedido);
+
+        StringBuilder json = new StringBuilder(192);
+        escribirCuenta(json, creada);
+        responder(intercambio, 201, json);
+    }
+
+    private void buscar(HttpExchange intercambio, long numero) throws Throwable {
+        Cuenta cuenta = cuentaService.find(numero);
+        if (cuenta == null) {
+            responderError(intercambio, 404, "La cuenta " + numero + " no existe");
+            return;
+        }
+        StringBuilder json = new StringBuilder(192);
+        escribirCuenta(json, cuenta);
+        responder(intercambio, 200, json);
+    }
+
+    private void extracto(HttpExchange intercambio, long numero) throws Throwable {
+        Cuenta cuenta = cuentaService.find(numero);
+        if (cuenta == null) {
+            responderError(intercambio, 404, "La cuenta " + numero + " no existe");
+            return;
+        }
+        String formatoPedido = parametro(intercambio, "formato");
+        FormatoExtracto formato = formatoPedido == null ? FormatoExtracto.TEXTO : FormatoExtracto.fromString(formatoPedido);
+        String desde = parametro(intercambio, "desde");
+        String hasta = parametro(intercambio, "hasta");
+        long instanteDesde = desde == null ? Long.MIN_VALUE : Movimiento.instante(LocalDate.parse(desde).atStartOfDay());
+        long instanteHasta = hasta == null ? Long.MAX_VALUE : Movimiento.instante(LocalDate.parse(hasta).plusDays(1).atStartOfDay());
+
+        intercambio.getResponseHeaders().set("Content-Type",
+                (formato == FormatoExtracto.CSV ? "text/csv" : "text/plain") + "; charset=utf-8");
+        //Largo 0: la respuesta va en chunks, el extracto no se arma entero en memoria
+        intercambio.sendResponseHeaders(200, 0);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            generadorExtracto.escribirCuenta(cuenta, instanteDesde, instanteHasta, formato, salida);
+        }
+    }
+
+    private static long numeroDeExtracto(String ruta) {
+        try {
+            return Long.parseLong(ruta.substring(RUTA.length() + 1, ruta.length() - EXTRACTO.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Ruta inválida: " + ruta);
+        }
+    }
+}
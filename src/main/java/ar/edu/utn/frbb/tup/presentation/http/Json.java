@@ -0,0 +1,229 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura y escritura mínima de JSON para la API, sin sumar una dependencia. La usa también el comparador de
+ * resultados de JMH de los benchmarks, así que hay un solo lector de JSON en el proyecto.
+ * Al leer, los objetos quedan como Map, los arreglos como List, los enteros como Long y el resto de los
+ * números como Double.
+ */
+public final class Json {
+
+    private final String texto;
+    private int posicion;
+
+    private Json(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Lee un valor JSON cualquiera. Lanza IllegalArgumentException si el texto no es JSON válido.
+     */
+    public static Object leer(String texto) {
+        Json lector = new Json(texto);
+        try {
+            Object valor = lector.valor();
+            lector.saltearEspacios();
+            if (lector.posicion != texto.length()) {
+                throw new IllegalArgumentException("JSON inválido en la posición " + lector.posicion);
+            }
+            return valor;
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("JSON inválido");
+        }
+    }
+
+    /**
+     * Lee un objeto JSON. Lanza IllegalArgumentException si el texto no es un objeto válido.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> leerObjeto(String texto) {
+        Object valor = leer(texto);
+        if (!(valor instanceof Map)) {
+            throw new IllegalArgumentException("Se esperaba un objeto JSON");
+        }
+        return (Map<String, Object>) valor;
+    }
+
+    static void escribirTexto(StringBuilder salida, String valor) {
+        if (valor == null) {
+            salida.append("null");
+            return;
+        }
+        salida.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"':
+                    salida.append("\\\"");
+                    break;
+                case '\\':
+                    salida.append("\\\\");
+                    break;
+                case '\n':
+                    salida.append("\\n");
+                    break;
+                case '\r':
+                    salida.append("\\r");
+                    break;
+                case '\t':
+                    salida.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        salida.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        salida.append(c);
+                    }
+            }
+        }
+        salida.append('"');
+    }
+
+    private Object valor() {
+        saltearEspacios();
+        char c = texto.charAt(posicion);
+        switch (c) {
+            case '{':
+                return objeto();
+            case '[':
+                return arreglo();
+            case '"':
+                return cadena();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                return numero();
+        }
+    }
+
+    private Map<String, Object> objeto() {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        posicion++;
+        saltearEspacios();
+        if (texto.charAt(posicion) == '}') {
+            posicion++;
+            return objeto;
+        }
+        while (true) {
+            saltearEspacios();
+            String clave = cadena();
+            saltearEspacios();
+            esperar(':');
+            objeto.put(clave, valor());
+            saltearEspacios();
+            char c = texto.charAt(posicion++);
+            if (c == '}') {
+                return objeto;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("JSON inválido en la posición " + (posicion - 1));
+            }
+        }
+    }
+
+    private List<Object> arreglo() {
+        List<Object> arreglo = new ArrayList<>();
+        posicion++;
+        saltearEspacios();
+        if (texto.charAt(posicion) == ']') {
+            posicion++;
+            return arreglo;
+        }
+        while (true) {
+            arreglo.add(valor());
+            saltearEspacios();
+            char c = texto.charAt(posicion++);
+            if (c == ']') {
+                return arreglo;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("JSON inválido en la posición " + (posicion - 1));
+            }
+        }
+    }
+
+    private String cadena() {
+        esperar('"');
+        StringBuilder cadena = new StringBuilder();
+        while (true) {
+            char c = texto.charAt(posicion++);
+            if (c == '"') {
+                return cadena.toString();
+            }
+            if (c != '\\') {
+                cadena.append(c);
+                continue;
+            }
+            char escape = texto.charAt(posicion++);
+            switch (escape) {
+                case 'n':
+                    cadena.append('\n');
+                    break;
+                case 't':
+                    cadena.append('\t');
+                    break;
+                case 'r':
+                    cadena.append('\r');
+                    break;
+                case 'b':
+                    cadena.append('\b');
+                    break;
+                case 'f':
+                    cadena.append('\f');
+                    break;
+                case 'u':
+                    cadena.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                    posicion += 4;
+                    break;
+                default:
+                    cadena.append(escape);
+            }
+        }
+    }
+
+    private Object numero() {
+        int inicio = posicion;
+        boolean entero = true;
+        while (posicion < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(posicion)) >= 0) {
+            char c = texto.charAt(posicion++);
+            if (c == '.' || c == 'e' || c == 'E') {
+                entero = false;
+            }
+        }
+        if (inicio == posicion) {
+            throw new IllegalArgumentException("JSON inválido en la posición " + posicion);
+        }
+        String numero = texto.substring(inicio, posicion);
+        return entero ? (Object) Long.valueOf(numero) : (Object) Double.valueOf(numero);
+    }
+
+    private Object literal(String literal, Object valor) {
+        if (!texto.startsWith(literal, posicion)) {
+            throw new IllegalArgumentException("JSON inválido en la posición " + posicion);
+        }
+        posicion += literal.length();
+        return valor;
+    }
+
+    private void esperar(char c) {
+        if (texto.charAt(posicion) != c) {
+            throw new IllegalArgumentException("Se esperaba '" + c + "' en la posición " + posicion);
+        }
+        posicion++;
+    }
+
+    private void saltearEspacios() {
+        while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+            posicion++;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.presentation.extracto.GeneradorExtracto;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API HTTP/JSON para dar de alta y buscar clientes y cuentas, sobre el HttpServer del JDK.
+ *
+ * Un único hilo despachador acepta conexiones y lee los pedidos con un selector; cada pedido se atiende en
+ * el executor, que es uno de hilos virtuales si la JVM los tiene (Java 21 en adelante) o si no un pool fijo.
+ * Los pedidos comparten los servicios con la consola. Dos altas del mismo cliente, o de cuentas del mismo
+ * titular, no pueden quedar duplicadas: el DAO las guarda con saveIfAbsent y las cuentas se agregan con el lock
+ * del titular tomado. Las búsquedas leen las tablas sin bloquear.
+ */
+@Component
+public class ServidorHttp {
+
+    private static final int BACKLOG = 1024;
+
+    static {
+        //El HttpServer del JDK manda los encabezados y el cuerpo en escrituras separadas; con Nagle activo la
+        //segunda espera el ACK demorado del cliente (~40 ms por pedido). Se lee una sola vez al cargar el servidor
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ClienteService clienteService;
+    private final CuentaService cuentaService;
+    private final GeneradorExtracto generadorExtracto;
+    private HttpServer servidor;
+    private ExecutorService executor;
+
+    public ServidorHttp(ClienteService clienteService, CuentaService cuentaService, GeneradorExtracto generadorExtracto) {
+        this.clienteService = clienteService;
+        this.cuentaService = cuentaService;
+        this.generadorExtracto = generadorExtracto;
+    }
+
+    /**
+     * Arranca el servidor.
+     * @param puerto puerto en el que escuchar, o 0 para uno libre cualquiera
+     * @param hilos tamaño del pool que atiende los pedidos, o 0 para usar hilos virtuales si los hay
+     * @return la dirección en la que quedó escuchando
+     */
+    public synchronized InetSocketAddress iniciar(int puerto, int hilos) throws IOException {
+        if (servidor != null) {
+            throw new IllegalStateException("El servidor ya está iniciado");
+        }
+        executor = crearExecutor(hilos);
+        servidor = HttpServer.create(new InetSocketAddress(puerto), BACKLOG);
+        servidor.createContext(ClienteHandler.RUTA, new ClienteHandler(clienteService));
+        servidor.createContext(CuentaHandler.RUTA, new CuentaHandler(cuentaService, generadorExtracto));
+        servidor.setExecutor(executor);
+        servidor.start();
+        return servidor.getAddress();
+    }
+
+    /**
+     * Deja de aceptar pedidos, espera hasta un segundo a que terminen los que están en curso y libera el puerto.
+     */
+    public synchronized void detener() {
+        if (servidor == null) {
+            return;
+        }
+        servidor.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        servidor = null;
+        executor = null;
+    }
+
+    static ExecutorService crearExecutor(int hilos) {
+        if (hilos <= 0) {
+            try {
+                //Se busca por reflexión para seguir compilando con Java 17
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                hilos = Runtime.getRuntime().availableProcessors() * 4;
+            }
+        }
+        AtomicInteger numero = new AtomicInteger();
+        return Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "http-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+}
@@ -4,7 +4,11 @@ import java.util.Scanner;
 
 public class BaseInputProcessor {
 
-    protected Scanner scanner = new Scanner(System.in);
+    //Un solo Scanner para todos los procesadores: cada Scanner lee System.in con su propio buffer, así que con
+    //varios uno se quedaba con líneas que le tocaban a otro cuando la entrada llega de un pipe o un archivo
+    private static final Scanner ENTRADA = new Scanner(System.in);
+
+    protected Scanner scanner = ENTRADA;
 
     protected static void clearScreen() {
         System.out.print("\033[H\033[2J");
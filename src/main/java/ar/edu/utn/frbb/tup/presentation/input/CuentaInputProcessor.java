@@ -7,23 +7,20 @@ import ar.edu.utn.frbb.tup.model.TipoMoneda;
 import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
-import ar.edu.utn.frbb.tup.persistence.CuentaDao;
 import ar.edu.utn.frbb.tup.service.ClienteService;
 import ar.edu.utn.frbb.tup.service.CuentaService;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.util.Scanner;
 
 @Component
 public class CuentaInputProcessor extends BaseInputProcessor{
     ClienteService clienteService;
-    CuentaService cuentaService = new CuentaService();
-    CuentaDao cuentaDao = new CuentaDao();
-    Scanner scanner = new Scanner(System.in);
+    CuentaService cuentaService;
 
-    public CuentaInputProcessor(ClienteService clienteService) {
+    public CuentaInputProcessor(ClienteService clienteService, CuentaService cuentaService) {
         this.clienteService = clienteService;
+        this.cuentaService = cuentaService;
     }
 
     public void altaCuenta() {
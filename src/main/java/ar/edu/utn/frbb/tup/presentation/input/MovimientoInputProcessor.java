@@ -0,0 +1,45 @@
+package ar.edu.utn.frbb.tup.presentation.input;
+
+import ar.edu.utn.frbb.tup.model.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.service.TransferenciaService;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MovimientoInputProcessor extends BaseInputProcessor {
+
+    TransferenciaService transferenciaService;
+
+    public MovimientoInputProcessor(TransferenciaService transferenciaService) {
+        this.transferenciaService = transferenciaService;
+    }
+
+    public void generarMovimiento() {
+        clearScreen();
+
+        System.out.println("Ingrese el número de cuenta de origen: ");
+        long cuentaOrigen = Long.parseLong(scanner.nextLine());
+
+        System.out.println("Ingrese el número de cuenta de destino: ");
+        long cuentaDestino = Long.parseLong(scanner.nextLine());
+
+        System.out.println("Ingrese el monto a transferir (por ejemplo 1500.50): ");
+
+        try {
+            long monto = Montos.parsear(scanner.nextLine().trim());
+            transferenciaService.transferir(cuentaOrigen, cuentaDestino, monto);
+            System.out.println("Transferencia realizada con éxito");
+        } catch (NoAlcanzaException e) {
+            System.out.println("Error: la cuenta de origen no tiene saldo suficiente");
+        } catch (CantidadNegativaException e) {
+            System.out.println("Error: el monto no puede ser negativo");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (ArithmeticException e) {
+            System.out.println("Error: el monto está fuera de rango");
+        } finally {
+            clearScreen();
+        }
+    }
+}
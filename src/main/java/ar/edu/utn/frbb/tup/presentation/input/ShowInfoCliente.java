@@ -1,47 +1,39 @@
 package ar.edu.utn.frbb.tup.presentation.input;
 
 import ar.edu.utn.frbb.tup.model.Cliente;
-import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.presentation.extracto.FormatoExtracto;
+import ar.edu.utn.frbb.tup.presentation.extracto.GeneradorExtracto;
 import ar.edu.utn.frbb.tup.service.ClienteService;
 import org.springframework.stereotype.Component;
 
-import java.sql.Array;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.io.IOException;
 
 @Component
 public class ShowInfoCliente {
     private ClienteService clienteService;
+    private GeneradorExtracto generadorExtracto;
 
-    public ShowInfoCliente(ClienteService clienteService) {
+    public ShowInfoCliente(ClienteService clienteService, GeneradorExtracto generadorExtracto) {
         this.clienteService = clienteService;
+        this.generadorExtracto = generadorExtracto;
     }
 
     public void mostrarInfoCliente(long dni) {
-        Cliente cliente = clienteService.buscarClientePorDni(dni);
-
-        if (cliente == null) {
+        Cliente cliente;
+        try {
+            cliente = clienteService.buscarClientePorDni(dni);
+        } catch (IllegalArgumentException e) {
             System.out.println("Cliente no encontrado");
+            return;
         }
         System.out.println("Información del Cliente: ");
-        System.out.println("Dni: " + cliente.getDni());
-        System.out.println("Nombre y Apellido: " + cliente.getNombre() + " " + cliente.getApellido());
-        System.out.println("Tipo de persona: " + cliente.getTipoPersona());
-        System.out.println("Banco: " + cliente.getBanco());
-        System.out.println("Fecha de nacimiento: " + cliente.getFechaNacimiento());
-        System.out.println("Edad: " + cliente.getEdad());
-
-        if(cliente.getCuentas().isEmpty()) {
-            System.out.println("El cliente no tiene cuentas asociadas.");
-        } else {
-            System.out.println("Cuentas del Cliente: ");
-            System.out.println(cliente.getCuentas());
-            for (Cuenta cuenta : cliente.getCuentas()) {
-                System.out.println("Número de cuenta: " + cuenta.toString());
-            }
+        //Datos del cliente y el extracto de cada cuenta, escritos a medida que se leen los movimientos
+        try {
+            generadorExtracto.escribirCliente(cliente, Long.MIN_VALUE, Long.MAX_VALUE, FormatoExtracto.TEXTO, System.out);
+        } catch (IOException e) {
+            System.out.println("No se pudo mostrar el extracto: " + e.getMessage());
         }
-
+        System.out.flush();
     }
 
 }
@@ -1,14 +1,22 @@
 package ar.edu.utn.frbb.tup.presentation.input;
 
 import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.presentation.extracto.FormatoExtracto;
+import ar.edu.utn.frbb.tup.presentation.extracto.GeneradorExtracto;
 import ar.edu.utn.frbb.tup.service.CuentaService;
+import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+
+@Component
 public class ShowInfoCuenta {
 
     private CuentaService cuentaService;
+    private GeneradorExtracto generadorExtracto;
 
-    public ShowInfoCuenta() {
-        this.cuentaService = new CuentaService();
+    public ShowInfoCuenta(CuentaService cuentaService, GeneradorExtracto generadorExtracto) {
+        this.cuentaService = cuentaService;
+        this.generadorExtracto = generadorExtracto;
     }
 
     public void mostrarInfoCuenta(long id) {
@@ -16,13 +24,15 @@ public class ShowInfoCuenta {
 
         if(cuenta == null) {
             System.out.println("Cuenta no encontrada!");
+            return;
         }
         System.out.println("Información de la Cuenta: ");
-        System.out.println("Cuenta id: " + cuenta.getNumeroCuenta());
-        System.out.println("Tipo de Cuenta: " + cuenta.getTipoCuenta());
-        System.out.println("Tipo de Moneda: " + cuenta.getMoneda());
-        System.out.println("Balance: " + cuenta.getBalance());
-        System.out.println("Titular: " + cuenta.getTitular().getNombre() + " " + cuenta.getTitular().getApellido());
-        System.out.println("Fecha de Creación: " + cuenta.getFechaCreacion());
+        //El extracto se escribe a medida que se leen los movimientos, sin armarlo entero en memoria
+        try {
+            generadorExtracto.escribirCuenta(cuenta, Long.MIN_VALUE, Long.MAX_VALUE, FormatoExtracto.TEXTO, System.out);
+        } catch (IOException e) {
+            System.out.println("No se pudo mostrar el extracto: " + e.getMessage());
+        }
+        System.out.flush();
     }
 }
@@ -0,0 +1,134 @@
+package ar.edu.utn.frbb.tup.presentation.lote;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.service.SolicitudCuenta;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Una línea del script ya interpretada. Si la línea no se pudo interpretar el tipo es INVALIDO y el motivo
+ * queda en error, para informarlo en su lugar dentro de la salida.
+ */
+final class ComandoLote {
+
+    enum Tipo { ALTA_CLIENTE, ALTA_CUENTA, TRANSFERENCIA, CONSULTA_CLIENTE, CONSULTA_CUENTA, INVALIDO }
+
+    final long linea;
+    final Tipo tipo;
+    final Cliente cliente;
+    final SolicitudCuenta solicitud;
+    //Consultas: el dni o numero en primero. Transferencias: origen, destino y monto en unidades menores
+    final long primero;
+    final long segundo;
+    final long monto;
+    final String error;
+
+    private ComandoLote(long linea, Tipo tipo, Cliente cliente, SolicitudCuenta solicitud, long primero, long segundo, long monto, String error) {
+        this.linea = linea;
+        this.tipo = tipo;
+        this.cliente = cliente;
+        this.solicitud = solicitud;
+        this.primero = primero;
+        this.segundo = segundo;
+        this.monto = monto;
+        this.error = error;
+    }
+
+    /**
+     * Interpreta una línea del script. Los campos van separados por punto y coma:
+     * cliente-alta;dni;nombre;apellido;F|J;banco;YYYY-MM-DD
+     * cuenta-alta;dniTitular;C|A;P|D[;numeroCuenta]
+     * transferir;cuentaOrigen;cuentaDestino;monto
+     * cliente;dni
+     * cuenta;numeroCuenta
+     */
+    static ComandoLote interpretar(long linea, String texto) {
+        String[] campos = texto.split(";", -1);
+        try {
+            switch (campos[0].trim()) {
+                case "cliente-alta":
+                    cantidadDeCampos(campos, 7, 7);
+                    Cliente cliente = new Cliente();
+                    cliente.setDni(numero(campos[1]));
+                    cliente.setNombre(campos[2].trim());
+                    cliente.setApellido(campos[3].trim());
+                    cliente.setTipoPersona(TipoPersona.fromString(campos[4].trim().toUpperCase()));
+                    cliente.setBanco(campos[5].trim());
+                    cliente.setFechaNacimiento(LocalDate.parse(campos[6].trim()));
+                    cliente.setFechaAlta(LocalDate.now());
+                    return new ComandoLote(linea, Tipo.ALTA_CLIENTE, cliente, null, 0, 0, 0, null);
+                case "cuenta-alta":
+                    cantidadDeCampos(campos, 4, 5);
+                    //Solo se pide un numero al generador si la línea no trae uno
+                    Cuenta cuenta = (campos.length == 5 ? Cuenta.conNumero(numero(campos[4])) : new Cuenta())
+                            .setTipoCuenta(tipoCuenta(campos[2]))
+                            .setMoneda(moneda(campos[3]))
+                            .setFechaCreacion(LocalDateTime.now());
+                    return new ComandoLote(linea, Tipo.ALTA_CUENTA, null, new SolicitudCuenta(cuenta, numero(campos[1])), 0, 0, 0, null);
+                case "transferir":
+                    cantidadDeCampos(campos, 4, 4);
+                    return new ComandoLote(linea, Tipo.TRANSFERENCIA, null, null, numero(campos[1]), numero(campos[2]),
+                            Montos.parsear(campos[3].trim()), null);
+                case "cliente":
+                    cantidadDeCampos(campos, 2, 2);
+                    return new ComandoLote(linea, Tipo.CONSULTA_CLIENTE, null, null, numero(campos[1]), 0, 0, null);
+                case "cuenta":
+                    cantidadDeCampos(campos, 2, 2);
+                    return new ComandoLote(linea, Tipo.CONSULTA_CUENTA, null, null, numero(campos[1]), 0, 0, null);
+                default:
+                    return invalido(linea, "Comando desconocido: " + campos[0].trim());
+            }
+        } catch (ArithmeticException e) {
+            return invalido(linea, "El monto está fuera de rango");
+        } catch (RuntimeException e) {
+            return invalido(linea, e.getMessage());
+        }
+    }
+
+    private static ComandoLote invalido(long linea, String error) {
+        return new ComandoLote(linea, Tipo.INVALIDO, null, null, 0, 0, 0, error);
+    }
+
+    private static void cantidadDeCampos(String[] campos, int minimo, int maximo) {
+        if (campos.length < minimo || campos.length > maximo) {
+            throw new IllegalArgumentException(campos[0].trim() + " lleva " + (minimo == maximo ? minimo : minimo + " a " + maximo)
+                    + " campos y se recibieron " + campos.length);
+        }
+    }
+
+    private static long numero(String campo) {
+        try {
+            return Long.parseLong(campo.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Numero inválido: " + campo.trim());
+        }
+    }
+
+    private static TipoCuenta tipoCuenta(String campo) {
+        switch (campo.trim().toUpperCase()) {
+            case "C":
+                return TipoCuenta.CUENTA_CORRIENTE;
+            case "A":
+                return TipoCuenta.CAJA_AHORRO;
+            default:
+                throw new IllegalArgumentException("Tipo de cuenta inválido, debe ser C o A");
+        }
+    }
+
+    private static TipoMoneda moneda(String campo) {
+        switch (campo.trim().toUpperCase()) {
+            case "P":
+                return TipoMoneda.PESOS;
+            case "D":
+                return TipoMoneda.DOLARES;
+            default:
+                throw new IllegalArgumentException("Tipo de moneda inválido, debe ser P o D");
+        }
+    }
+}
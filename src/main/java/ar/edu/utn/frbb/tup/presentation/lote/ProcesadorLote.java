@@ -0,0 +1,210 @@
+package ar.edu.utn.frbb.tup.presentation.lote;
+
+import ar.edu.utn.frbb.tup.model.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import ar.edu.utn.frbb.tup.service.ResultadoAltaCuentas;
+import ar.edu.utn.frbb.tup.service.SolicitudCuenta;
+import ar.edu.utn.frbb.tup.service.TransferenciaService;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Ejecuta un script de comandos (ver {@link ComandoLote#interpretar}) sin el menú interactivo: un solo lector
+ * con buffer para toda la entrada, ningún borrado de pantalla y la salida también con buffer.
+ *
+ * La lectura va en un hilo aparte que arma lotes de comandos mientras el hilo que llama ejecuta el lote
+ * anterior. Los comandos se ejecutan en el orden del script, porque uno puede depender de otro (el alta de
+ * una cuenta necesita a su titular); las altas de cuenta seguidas se mandan juntas a
+ * {@link CuentaService#darDeAltaCuentas}, que las procesa en paralelo agrupadas por titular.
+ *
+ * Por cada comando se escribe una línea: numeroDeLinea;OK;detalle o numeroDeLinea;ERROR;motivo.
+ * Las líneas vacías y las que empiezan con # se ignoran.
+ */
+@Component
+public class ProcesadorLote {
+
+    static final int TAMANIO_LOTE = 1024;
+    //Lotes ya leídos esperando ejecución; acota la memoria si la lectura va más rápido que la ejecución
+    private static final int LOTES_EN_VUELO = 4;
+    private static final List<ComandoLote> FIN = Collections.emptyList();
+
+    private final ClienteService clienteService;
+    private final CuentaService cuentaService;
+    private final TransferenciaService transferenciaService;
+
+    public ProcesadorLote(ClienteService clienteService, CuentaService cuentaService, TransferenciaService transferenciaService) {
+        this.clienteService = clienteService;
+        this.cuentaService = cuentaService;
+        this.transferenciaService = transferenciaService;
+    }
+
+    public ResultadoLote procesar(Reader entrada, Writer salida) throws IOException {
+        long inicio = System.nanoTime();
+        BlockingQueue<List<ComandoLote>> lotes = new ArrayBlockingQueue<>(LOTES_EN_VUELO);
+        IOException[] errorLectura = new IOException[1];
+        Thread lector = new Thread(() -> {
+            try {
+                leer(entrada, lotes, errorLectura);
+            } catch (InterruptedException e) {
+                //Se cortó la ejecución, no hace falta seguir leyendo
+            }
+        }, "lote-lector");
+        lector.setDaemon(true);
+        lector.start();
+
+        BufferedWriter escritor = salida instanceof BufferedWriter ? (BufferedWriter) salida : new BufferedWriter(salida, 64 * 1024);
+        long[] contadores = new long[2];
+        try {
+            List<ComandoLote> lote;
+            while ((lote = lotes.take()) != FIN) {
+                ejecutar(lote, escritor, contadores);
+                //Se vacía por lote para que quien lee la salida de un pipe vaya viendo el avance
+                escritor.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Se interrumpió el procesamiento del lote", e);
+        } finally {
+            lector.interrupt();
+        }
+        //El take del FIN ordena esta lectura después de la escritura del hilo lector
+        if (errorLectura[0] != null) {
+            throw errorLectura[0];
+        }
+        return new ResultadoLote(contadores[0] + contadores[1], contadores[0], contadores[1], System.nanoTime() - inicio);
+    }
+
+    private static void leer(Reader entrada, BlockingQueue<List<ComandoLote>> lotes, IOException[] errorLectura) throws InterruptedException {
+        BufferedReader lector = entrada instanceof BufferedReader ? (BufferedReader) entrada : new BufferedReader(entrada, 64 * 1024);
+        List<ComandoLote> lote = new ArrayList<>(TAMANIO_LOTE);
+        long numeroLinea = 0;
+        try {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                String texto = linea.trim();
+                if (texto.isEmpty() || texto.startsWith("#")) {
+                    continue;
+                }
+                lote.add(ComandoLote.interpretar(numeroLinea, texto));
+                if (lote.size() == TAMANIO_LOTE) {
+                    lotes.put(lote);
+                    lote = new ArrayList<>(TAMANIO_LOTE);
+                }
+            }
+        } catch (IOException e) {
+            errorLectura[0] = e;
+        }
+        if (!lote.isEmpty()) {
+            lotes.put(lote);
+        }
+        lotes.put(FIN);
+    }
+
+    private void ejecutar(List<ComandoLote> lote, BufferedWriter salida, long[] contadores) throws IOException {
+        int i = 0;
+        while (i < lote.size()) {
+            if (lote.get(i).tipo == ComandoLote.Tipo.ALTA_CUENTA) {
+                int fin = i + 1;
+                while (fin < lote.size() && lote.get(fin).tipo == ComandoLote.Tipo.ALTA_CUENTA) {
+                    fin++;
+                }
+                altaCuentas(lote.subList(i, fin), salida, contadores);
+                i = fin;
+            } else {
+                ejecutar(lote.get(i), salida, contadores);
+                i++;
+            }
+        }
+    }
+
+    private void ejecutar(ComandoLote comando, BufferedWriter salida, long[] contadores) throws IOException {
+        String detalle;
+        try {
+            switch (comando.tipo) {
+                case ALTA_CLIENTE:
+                    clienteService.darDeAltaCliente(comando.cliente);
+                    detalle = "Cliente " + comando.cliente.getDni() + " creado";
+                    break;
+                case TRANSFERENCIA:
+                    transferenciaService.transferir(comando.primero, comando.segundo, comando.monto);
+                    detalle = "Transferencia de " + Montos.formatear(comando.monto) + " realizada";
+                    break;
+                case CONSULTA_CLIENTE:
+                    Cliente cliente = clienteService.buscarClientePorDni(comando.primero);
+                    detalle = cliente.getDni() + ";" + cliente.getNombre() + ";" + cliente.getApellido() + ";" + cliente.getCuentas().size() + " cuentas";
+                    break;
+                case CONSULTA_CUENTA:
+                    Cuenta cuenta = cuentaService.find(comando.primero);
+                    if (cuenta == null) {
+                        throw new IllegalArgumentException("La cuenta " + comando.primero + " no existe");
+                    }
+                    detalle = cuenta.getNumeroCuenta() + ";" + cuenta.getTipoCuenta() + ";" + cuenta.getMoneda() + ";" + Montos.formatear(cuenta.getBalance());
+                    break;
+                default:
+                    throw new IllegalArgumentException(comando.error);
+            }
+        } catch (Throwable e) {
+            escribir(salida, comando.linea, false, mensaje(e));
+            contadores[1]++;
+            return;
+        }
+        escribir(salida, comando.linea, true, detalle);
+        contadores[0]++;
+    }
+
+    private void altaCuentas(List<ComandoLote> comandos, BufferedWriter salida, long[] contadores) throws IOException {
+        List<SolicitudCuenta> solicitudes = new ArrayList<>(comandos.size());
+        for (ComandoLote comando : comandos) {
+            solicitudes.add(comando.solicitud);
+        }
+        ResultadoAltaCuentas resultado = cuentaService.darDeAltaCuentas(solicitudes);
+        Map<SolicitudCuenta, Throwable> rechazadas = resultado.getRechazadas();
+        for (ComandoLote comando : comandos) {
+            Throwable error = rechazadas.get(comando.solicitud);
+            if (error != null) {
+                escribir(salida, comando.linea, false, mensaje(error));
+                contadores[1]++;
+            } else {
+                escribir(salida, comando.linea, true, "Cuenta " + comando.solicitud.getCuenta().getNumeroCuenta() + " creada");
+                contadores[0]++;
+            }
+        }
+    }
+
+    private static void escribir(BufferedWriter salida, long linea, boolean ok, String detalle) throws IOException {
+        salida.write(Long.toString(linea));
+        salida.write(ok ? ";OK;" : ";ERROR;");
+        salida.write(detalle);
+        salida.newLine();
+    }
+
+    private static String mensaje(Throwable e) {
+        if (e instanceof NoAlcanzaException) {
+            return "La cuenta de origen no tiene saldo suficiente";
+        }
+        if (e instanceof CantidadNegativaException) {
+            return "El monto no puede ser negativo";
+        }
+        if (e instanceof ArithmeticException) {
+            return "El monto está fuera de rango";
+        }
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,45 @@
+package ar.edu.utn.frbb.tup.presentation.lote;
+
+/**
+ * Resumen de una corrida en lote: comandos procesados, cuántos salieron bien y cuántos con error, y el tiempo que llevó.
+ */
+public class ResultadoLote {
+
+    private final long comandos;
+    private final long exitosos;
+    private final long fallidos;
+    private final long nanos;
+
+    public ResultadoLote(long comandos, long exitosos, long fallidos, long nanos) {
+        this.comandos = comandos;
+        this.exitosos = exitosos;
+        this.fallidos = fallidos;
+        this.nanos = nanos;
+    }
+
+    public long getComandos() {
+        return comandos;
+    }
+
+    public long getExitosos() {
+        return exitosos;
+    }
+
+    public long getFallidos() {
+        return fallidos;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double comandosPorSegundo() {
+        return nanos > 0 ? comandos * 1_000_000_000.0 / nanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Comandos: %d, exitosos: %d, con error: %d, en %.3f s (%.0f comandos/s)",
+                comandos, exitosos, fallidos, nanos / 1_000_000_000.0, comandosPorSegundo());
+    }
+}
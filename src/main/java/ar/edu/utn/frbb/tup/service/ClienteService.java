@@ -1,24 +1,87 @@
 package ar.edu.utn.frbb.tup.service;
 
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+import ar.edu.utn.frbb.tup.metricas.Operacion;
 import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.CotizacionesFijas;
 import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TablaCotizaciones;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
 import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.persistence.ClienteDao;
 import ar.edu.utn.frbb.tup.persistence.CuentaDao;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 @Service
 public class ClienteService {
 
+    //Locks de titular en franjas propias, aparte de los locks de fila de los DAOs. Se toman antes que cualquier
+    //lock de fila y nunca con uno tomado; si fueran de las mismas franjas, un alta que tiene la del cliente y
+    //pide la de la cuenta se podría cruzar con una transferencia que toma dos franjas en el orden de locksEnOrden
+    private static final int CANTIDAD_LOCKS_TITULAR = 64;
+    private static final Lock[] locksTitular = new Lock[CANTIDAD_LOCKS_TITULAR];
+
+    static {
+        for (int i = 0; i < CANTIDAD_LOCKS_TITULAR; i++) {
+            locksTitular[i] = new ReentrantLock();
+        }
+    }
+
     ClienteDao clienteDao;
+    TablaCotizaciones cotizaciones = CotizacionesFijas.getInstancia();
+    RegistroIdempotencia idempotencia = RegistroIdempotencia.getInstancia();
+
+    private final Operacion metricaAlta = Metricas.getInstancia().operacion("cliente.alta");
+    private final Operacion metricaBuscar = Metricas.getInstancia().operacion("cliente.buscar");
 
     public ClienteService(ClienteDao clienteDao) {
         this.clienteDao = clienteDao;
     }
 
     public void darDeAltaCliente(Cliente cliente) throws ClienteAlreadyExistsException {
+        long inicio = metricaAlta.iniciar();
+        try {
+            validarAltaCliente(cliente);
+            //La búsqueda de validarAltaCliente solo corta temprano: dos altas simultáneas del mismo dni la pasan
+            //las dos, y es saveIfAbsent el que deja guardar a una sola
+            if (!clienteDao.saveIfAbsent(cliente)) {
+                throw new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + cliente.getDni());
+            }
+        } catch (Throwable e) {
+            metricaAlta.error(e);
+            throw e;
+        } finally {
+            metricaAlta.terminar(inicio);
+        }
+    }
 
+    /**
+     * Alta con clave de idempotencia: si el pedido se repite con la misma clave se devuelve el cliente del primero
+     * (o se lanza su misma excepción) en vez de ClienteAlreadyExistsException. Con clave null es el alta común.
+     */
+    public Cliente darDeAltaCliente(String claveIdempotencia, Cliente cliente) throws ClienteAlreadyExistsException {
+        String clave = claveIdempotencia == null ? null : "cliente:" + claveIdempotencia;
+        return idempotencia.ejecutar(clave, huella(cliente), () -> {
+            darDeAltaCliente(cliente);
+            return cliente;
+        });
+    }
+
+    //La fecha de alta la pone quien arma el pedido, así que no cuenta para saber si es el mismo
+    private static int huella(Cliente cliente) {
+        return Objects.hash(cliente.getDni(), cliente.getNombre(), cliente.getApellido(), cliente.getTipoPersona(),
+                cliente.getBanco(), cliente.getFechaNacimiento());
+    }
+
+    /**
+     * Aplica las reglas de alta de un cliente sin guardarlo. La usan el alta interactiva y la importación masiva.
+     */
+    public void validarAltaCliente(Cliente cliente) throws ClienteAlreadyExistsException {
         if (clienteDao.find(cliente.getDni(), false) != null) {
             throw new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + cliente.getDni());
         }
@@ -31,10 +94,21 @@ public class ClienteService {
         if (cliente.getEdad() < 18) {
             throw new IllegalArgumentException("El cliente debe ser mayor a 18 años");
         }
+    }
 
-        clienteDao.save(cliente);
+    /**
+     * Lock que serializa los cambios en las cuentas de un titular. Mientras se tiene, nadie más le agrega cuentas,
+     * así que lo que se controla sobre sus productos sigue valiendo al guardar.
+     */
+    public Lock lockTitular(long dni) {
+        long h = dni * 0x9E3779B97F4A7C15L;
+        return locksTitular[(int) (h >>> 58) & (CANTIDAD_LOCKS_TITULAR - 1)];
     }
 
+    /**
+     * Asocia la cuenta al titular. Para que el control de tipo y moneda no quede viejo, se llama con
+     * el lock de lockTitular tomado.
+     */
     public void agregarCuenta(Cuenta cuenta, long dniTitular) throws TipoCuentaAlreadyExistsException {
         Cliente titular = buscarClientePorDni(dniTitular);
         cuenta.setTitular(titular);
@@ -45,11 +119,26 @@ public class ClienteService {
         clienteDao.save(titular);
     }
 
+    /**
+     * Devuelve el balance de todas las cuentas del cliente en la moneda pedida, en unidades menores.
+     */
+    public long balanceConsolidado(long dni, TipoMoneda moneda) {
+        return buscarClientePorDni(dni).balanceConsolidado(moneda, cotizaciones);
+    }
+
     public Cliente buscarClientePorDni(long dni) {
-        Cliente cliente = clienteDao.find(dni, true);
-        if(cliente == null) {
-            throw new IllegalArgumentException("El cliente no existe");
+        long inicio = metricaBuscar.iniciar();
+        try {
+            Cliente cliente = clienteDao.find(dni, true);
+            if(cliente == null) {
+                throw new IllegalArgumentException("El cliente no existe");
+            }
+            return cliente;
+        } catch (Throwable e) {
+            metricaBuscar.error(e);
+            throw e;
+        } finally {
+            metricaBuscar.terminar(inicio);
         }
-        return cliente;
     }
 }
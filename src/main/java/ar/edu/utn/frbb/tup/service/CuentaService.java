@@ -1,7 +1,11 @@
 package ar.edu.utn.frbb.tup.service;
 
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+import ar.edu.utn.frbb.tup.metricas.Operacion;
+import ar.edu.utn.frbb.tup.model.CatalogoProductos;
 import ar.edu.utn.frbb.tup.model.Cliente;
 import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
 import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.CuentaNoSoportadaException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
@@ -10,6 +14,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.Lock;
 
 @Component
 public class CuentaService {
@@ -18,14 +25,11 @@ public class CuentaService {
     @Autowired
     ClienteService clienteService;
 
-    //Agrego tipos de cuenta soportados:
-    private static final Set<String> CUENTAS_SOPORTADAS = new HashSet<>();
+    //Productos habilitados por tipo de persona; reemplaza al viejo conjunto de cuentas soportadas
+    CatalogoProductos catalogo = CatalogoProductos.getInstancia();
+    RegistroIdempotencia idempotencia = RegistroIdempotencia.getInstancia();
 
-    static {
-        CUENTAS_SOPORTADAS.add("CAJA_AHORROPESOS");
-        CUENTAS_SOPORTADAS.add("CUENTA_CORRIENTEPESOS");
-        CUENTAS_SOPORTADAS.add("CAJA_AHORRODOLARES");
-    }
+    private final Operacion metricaAlta = Metricas.getInstancia().operacion("cuenta.alta");
 
     public CuentaService() {}
 
@@ -41,6 +45,140 @@ public class CuentaService {
     //    4 - cuenta creada exitosamente
 
     public void darDeAltaCuenta(Cuenta cuenta, long dniTitular) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        long inicio = metricaAlta.iniciar();
+        try {
+            validarCuenta(cuenta);
+
+            Lock lock = clienteService.lockTitular(dniTitular);
+            lock.lock();
+            try {
+                guardarConLockDelTitular(cuenta, clienteService.buscarClientePorDni(dniTitular));
+            } finally {
+                lock.unlock();
+            }
+        } catch (Throwable e) {
+            metricaAlta.error(e);
+            throw e;
+        } finally {
+            metricaAlta.terminar(inicio);
+        }
+    }
+
+    /**
+     * Alta con clave de idempotencia: si el pedido se repite con la misma clave se devuelve la cuenta del primero,
+     * con su número, en vez de crear otra (o se lanza la misma excepción que el primero). Con clave null es el alta común.
+     * @param numeroPedido si el número de la cuenta lo eligió quien pide el alta; en ese caso la misma clave con
+     *                     otro número es otro pedido y se rechaza
+     */
+    public Cuenta darDeAltaCuenta(String claveIdempotencia, Cuenta cuenta, long dniTitular, boolean numeroPedido) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        String clave = claveIdempotencia == null ? null : "cuenta:" + claveIdempotencia;
+        return idempotencia.ejecutarConResultado(clave, huella(cuenta, dniTitular, numeroPedido), () -> {
+                    darDeAltaCuenta(cuenta, dniTitular);
+                    return cuenta;
+                })
+                .relanzar(CuentaAlreadyExistsException.class)
+                .relanzar(TipoCuentaAlreadyExistsException.class)
+                .relanzar(CuentaNoSoportadaException.class)
+                .valor();
+    }
+
+    //Un número generado no cuenta: cada reintento arma una Cuenta nueva, que trae otro número
+    private static int huella(Cuenta cuenta, long dniTitular, boolean numeroPedido) {
+        int huella = Objects.hash(dniTitular, cuenta.getTipoCuenta(), cuenta.getMoneda(), cuenta.getLimiteDescubierto());
+        return numeroPedido ? 31 * huella + Long.hashCode(cuenta.getNumeroCuenta()) : huella;
+    }
+
+    /**
+     * Cambia el descubierto autorizado de una cuenta corriente, en unidades menores. Si el saldo ya está por
+     * debajo del nuevo límite no se le cobra nada: la cuenta solo no puede debitar hasta volver a estar dentro.
+     */
+    public void cambiarLimiteDescubierto(long numeroCuenta, long limite) {
+        Lock lock = cuentaDao.lockFor(numeroCuenta);
+        lock.lock();
+        try {
+            Cuenta cuenta = cuentaDao.find(numeroCuenta);
+            if (cuenta == null) {
+                throw new IllegalArgumentException("La cuenta " + numeroCuenta + " no existe.");
+            }
+            if (cuenta.getTipoCuenta() != TipoCuenta.CUENTA_CORRIENTE) {
+                throw new IllegalArgumentException("Solo las cuentas corrientes pueden tener descubierto.");
+            }
+            cuenta.setLimiteDescubierto(limite);
+            cuentaDao.save(cuenta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aplica las reglas de alta de una cuenta sin guardarla; después se guarda con guardarAltaValidada.
+     * @return el titular, cargado con sus cuentas
+     */
+    public Cliente validarAltaCuenta(Cuenta cuenta, long dniTitular) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        validarCuenta(cuenta);
+        Cliente titular = clienteService.buscarClientePorDni(dniTitular);
+        validarTitular(cuenta, titular);
+        return titular;
+    }
+
+    /**
+     * Guarda una cuenta ya validada con validarAltaCuenta, por ejemplo en la importación masiva, donde entre la
+     * validación y el guardado pasan muchas filas. Con el lock del titular tomado se lo vuelve a buscar y se
+     * repite el control de validarTitular, así otra alta del mismo tipo y moneda que se haya guardado en el
+     * medio hace rechazar esta cuenta.
+     */
+    public void guardarAltaValidada(Cuenta cuenta, long dniTitular) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        Lock lock = clienteService.lockTitular(dniTitular);
+        lock.lock();
+        try {
+            guardarConLockDelTitular(cuenta, clienteService.buscarClientePorDni(dniTitular));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Da de alta un lote de cuentas. Las solicitudes se agrupan por dni del titular y los grupos se procesan
+     * en paralelo en el pool común de ForkJoin. Cada grupo se valida y se guarda con el lock de su titular
+     * tomado, igual que el alta individual, así un lote no crea una cuenta del mismo tipo y moneda que otra
+     * alta simultánea para el mismo titular. Cada cuenta se guarda con su propio saveIfAbsent.
+     */
+    public ResultadoAltaCuentas darDeAltaCuentas(List<SolicitudCuenta> solicitudes) {
+        return darDeAltaCuentas(solicitudes, ForkJoinPool.commonPool());
+    }
+
+    public ResultadoAltaCuentas darDeAltaCuentas(List<SolicitudCuenta> solicitudes, ForkJoinPool pool) {
+        Throwable[] errores = new Throwable[solicitudes.size()];
+
+        //Un mismo numero de cuenta puede venir con titulares distintos, así que se controla antes de agrupar.
+        //Ante repetidos queda la primera solicitud del lote.
+        Map<Long, List<Integer>> porTitular = new HashMap<>();
+        Set<Long> numeros = new HashSet<>();
+        for (int i = 0; i < solicitudes.size(); i++) {
+            SolicitudCuenta solicitud = solicitudes.get(i);
+            if (!numeros.add(solicitud.getCuenta().getNumeroCuenta())) {
+                errores[i] = new CuentaAlreadyExistsException("La cuenta " + solicitud.getCuenta().getNumeroCuenta() + " ya existe.");
+            } else {
+                porTitular.computeIfAbsent(solicitud.getDniTitular(), dni -> new ArrayList<>()).add(i);
+            }
+        }
+        List<List<Integer>> particiones = new ArrayList<>(porTitular.values());
+        pool.invoke(new AltaParticiones(solicitudes, particiones, 0, particiones.size(), errores));
+
+        List<Cuenta> creadas = new ArrayList<>(solicitudes.size());
+        Map<SolicitudCuenta, Throwable> rechazadas = new LinkedHashMap<>();
+        for (int i = 0; i < solicitudes.size(); i++) {
+            SolicitudCuenta solicitud = solicitudes.get(i);
+            if (errores[i] != null) {
+                rechazadas.put(solicitud, errores[i]);
+            } else {
+                creadas.add(solicitud.getCuenta());
+            }
+        }
+        return new ResultadoAltaCuentas(creadas, rechazadas);
+    }
+
+    private void validarCuenta(Cuenta cuenta) throws CuentaAlreadyExistsException, CuentaNoSoportadaException {
         if(cuentaDao.find(cuenta.getNumeroCuenta()) != null) {
             throw new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe.");
         }
@@ -48,16 +186,97 @@ public class CuentaService {
         if (!tipoDeCuentaSoportada(cuenta)) {
             throw new CuentaNoSoportadaException("La cuenta " + cuenta.getTipoCuenta() + " en " + cuenta.getMoneda() + " no está soportada.");
         }
+        if (cuenta.getLimiteDescubierto() > 0 && cuenta.getTipoCuenta() != TipoCuenta.CUENTA_CORRIENTE) {
+            throw new IllegalArgumentException("Solo las cuentas corrientes pueden tener descubierto.");
+        }
+    }
 
-        // Verifico si el cliente ya tiene una cuenta del mismo tipo y moneda
-        Cliente titular = clienteService.buscarClientePorDni(dniTitular);
+    // Verifico si el cliente ya tiene una cuenta del mismo tipo y moneda
+    private void validarTitular(Cuenta cuenta, Cliente titular) throws TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        if (titular.getTipoPersona() != null && !catalogo.habilitado(titular.getTipoPersona(), cuenta.getTipoCuenta(), cuenta.getMoneda())) {
+            throw new CuentaNoSoportadaException("La cuenta " + cuenta.getTipoCuenta() + " en " + cuenta.getMoneda() + " no está habilitada para " + titular.getTipoPersona() + ".");
+        }
         if (titular.tieneCuenta(cuenta.getTipoCuenta(), cuenta.getMoneda())) {
             throw new TipoCuentaAlreadyExistsException("El cliente ya tiene una cuenta del tipo " + cuenta.getTipoCuenta() + " en " + cuenta.getMoneda() + ".");
         }
+    }
 
-        // Asocio cuenta al cliente y guardo
-        clienteService.agregarCuenta(cuenta,dniTitular);
-        cuentaDao.save(cuenta);
+    //Se llama con el lock del titular tomado: así dos altas del mismo tipo y moneda no pasan juntas el control
+    //de validarTitular, y saveIfAbsent cubre a dos altas que piden el mismo numero para titulares distintos.
+    private void guardarConLockDelTitular(Cuenta cuenta, Cliente titular) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        validarTitular(cuenta, titular);
+        cuenta.setTitular(titular);
+        if (!cuentaDao.saveIfAbsent(cuenta)) {
+            throw new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe.");
+        }
+        //Recién con la cuenta guardada se asocia al titular, que puede estar compartido en el cache: un alta
+        //que pierde el numero no le deja una cuenta de más. El cliente no se vuelve a guardar porque
+        //ClienteEntity no tiene las cuentas (salen del indice de CuentaDao) y saveIfAbsent ya invalidó el cache.
+        //Con la cuenta asociada, una segunda del mismo tipo y moneda en el mismo lote ya no pasa validarTitular
+        titular.addCuenta(cuenta);
+    }
+
+    //Da de alta las solicitudes de un titular con su lock tomado: lo busca una sola vez y valida y guarda
+    //cada cuenta como el alta individual.
+    private void altaParticion(List<SolicitudCuenta> solicitudes, List<Integer> indices, Throwable[] errores) {
+        long dni = solicitudes.get(indices.get(0)).getDniTitular();
+        Lock lock = clienteService.lockTitular(dni);
+        lock.lock();
+        try {
+            Cliente titular;
+            try {
+                titular = clienteService.buscarClientePorDni(dni);
+            } catch (IllegalArgumentException e) {
+                for (int indice : indices) {
+                    errores[indice] = e;
+                }
+                return;
+            }
+            for (int indice : indices) {
+                Cuenta cuenta = solicitudes.get(indice).getCuenta();
+                try {
+                    validarCuenta(cuenta);
+                    guardarConLockDelTitular(cuenta, titular);
+                } catch (CuentaAlreadyExistsException | CuentaNoSoportadaException | TipoCuentaAlreadyExistsException | IllegalArgumentException e) {
+                    errores[indice] = e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Divide las particiones por la mitad hasta que quedan pocas por tarea. Cada tarea escribe
+    //solo las posiciones de errores de sus solicitudes, y join() publica esos resultados.
+    private class AltaParticiones extends RecursiveAction {
+        private static final int PARTICIONES_POR_TAREA = 32;
+
+        private final List<SolicitudCuenta> solicitudes;
+        private final List<List<Integer>> particiones;
+        private final int desde;
+        private final int hasta;
+        private final Throwable[] errores;
+
+        AltaParticiones(List<SolicitudCuenta> solicitudes, List<List<Integer>> particiones, int desde, int hasta, Throwable[] errores) {
+            this.solicitudes = solicitudes;
+            this.particiones = particiones;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.errores = errores;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= PARTICIONES_POR_TAREA) {
+                for (int i = desde; i < hasta; i++) {
+                    altaParticion(solicitudes, particiones.get(i), errores);
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new AltaParticiones(solicitudes, particiones, desde, medio, errores),
+                    new AltaParticiones(solicitudes, particiones, medio, hasta, errores));
+        }
     }
 
     public Cuenta find(long id) {
@@ -66,13 +285,7 @@ public class CuentaService {
 
     //agrego método tipoDeCuentaSoportada para comprobar si una cuenta con determinada moneda puede ser generada.
     public boolean tipoDeCuentaSoportada(Cuenta cuenta) throws CuentaNoSoportadaException {
-        String tipoCuenta = cuenta.getTipoCuenta().name();
-        String moneda = cuenta.getMoneda().name();
-        String tipoYMoneda = tipoCuenta + moneda;
-
-        return CUENTAS_SOPORTADAS.contains(tipoYMoneda);
+        return catalogo.habilitadoParaAlguna(cuenta.getTipoCuenta(), cuenta.getMoneda());
     }
 
 }
-
-
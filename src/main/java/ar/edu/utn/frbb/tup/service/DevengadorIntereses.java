@@ -0,0 +1,308 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TasasInteres;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.movimientos.HistorialMovimientos;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Devenga los intereses de las cajas de ahorro hasta una fecha, recorriendo la tabla CUENTA por segmentos en paralelo.
+ *
+ * Cada hilo toma un segmento, junta de a TAMANIO_LOTE las cuentas que deben intereses y las actualiza con
+ * CuentaDao.actualizarLote, sin pasar por find/save. El interés es simple, por los días desde el último
+ * devengamiento (o desde la creación) hasta la fecha, a la tasa de TasasInteres de la moneda, y se calcula día
+ * por día sobre el saldo al cierre de cada día (los saldos negativos no cobran). Ese saldo sale del historial
+ * de movimientos, que guarda el saldo que dejó cada uno: cada tramo entre dos días con movimientos cobra sobre
+ * el saldo que quedó al cierre del primero, y un tramo sin movimientos cobra sobre el saldo actual. Como el
+ * historial no sobrevive a un reinicio, los días anteriores al primer movimiento que quedó usan el saldo previo
+ * a ese movimiento. Cada cuenta guarda la fecha hasta la que devengó, así que volver a correr la misma fecha no
+ * paga dos veces.
+ *
+ * Si se indica un archivo de checkpoint, al terminar cada segmento se guarda qué segmentos ya se hicieron para
+ * esa fecha, y una corrida interrumpida se retoma salteándolos. Aunque el checkpoint quede por delante de lo que
+ * llegó al journal, no se pierde interés: las cuentas que no se guardaron lo devengan en la corrida siguiente.
+ */
+@Service
+public class DevengadorIntereses {
+
+    static final int TAMANIO_LOTE = 1024;
+    //De a cuántos movimientos se lee el historial para armar los saldos diarios
+    static final int MOVIMIENTOS_POR_PAGINA = 256;
+    private static final long MILLIS_POR_DIA = TimeUnit.DAYS.toMillis(1);
+    //Contraparte de los movimientos de interés en el historial: el banco
+    public static final long CONTRAPARTE_BANCO = 0;
+
+    private static final TipoMoneda[] MONEDAS = TipoMoneda.values();
+
+    CuentaDao cuentaDao;
+    TasasInteres tasas = TasasInteres.getInstancia();
+    HistorialMovimientos historial = HistorialMovimientos.getInstancia();
+
+    private volatile Path archivoCheckpoint;
+    private final ByteBuffer bufferCheckpoint = ByteBuffer.allocate(16);
+
+    public DevengadorIntereses(CuentaDao cuentaDao) {
+        this.cuentaDao = cuentaDao;
+    }
+
+    /**
+     * Archivo donde se guardan los segmentos ya devengados; con null no se guarda checkpoint.
+     */
+    public void setArchivoCheckpoint(Path archivoCheckpoint) {
+        this.archivoCheckpoint = archivoCheckpoint;
+    }
+
+    /**
+     * Devenga los intereses de todas las cajas de ahorro hasta la fecha (inclusive), con la cantidad de hilos indicada.
+     * Si se interrumpe al hilo que llama, los segmentos en curso se cortan en el lote siguiente, se espera a que
+     * terminen y se lanza InterruptedException; el checkpoint queda con los segmentos completos.
+     */
+    public ResultadoDevengamiento devengar(LocalDate fecha, int hilos) throws IOException, InterruptedException {
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser positiva");
+        }
+        long inicio = System.nanoTime();
+        int segmentos = cuentaDao.cantidadSegmentos();
+        if (segmentos > Long.SIZE) {
+            throw new IllegalStateException("Los segmentos completos no entran en un long: hay " + segmentos);
+        }
+        long completos = leerCheckpoint(fecha);
+        Corrida corrida = new Corrida(fecha, completos);
+
+        AtomicInteger numero = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(hilos, segmentos), r -> {
+            Thread hilo = new Thread(r, "intereses-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        int salteados = 0;
+        List<Future<?>> pendientes = new ArrayList<>();
+        for (int i = 0; i < segmentos; i++) {
+            if ((completos & (1L << i)) != 0) {
+                salteados++;
+                continue;
+            }
+            int segmento = i;
+            pendientes.add(executor.submit(() -> {
+                devengarSegmento(segmento, corrida);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falló el devengamiento de intereses al " + fecha, e.getCause());
+        } finally {
+            executor.shutdownNow();
+            esperarSinInterrupcion(executor);
+        }
+
+        long[] intereses = new long[MONEDAS.length];
+        for (int i = 0; i < intereses.length; i++) {
+            intereses[i] = corrida.intereses[i].sum();
+        }
+        return new ResultadoDevengamiento(fecha, corrida.recorridas.sum(), corrida.conInteres.sum(), intereses,
+                pendientes.size(), salteados, System.nanoTime() - inicio);
+    }
+
+    private void devengarSegmento(int segmento, Corrida corrida) throws IOException {
+        long[] lote = new long[TAMANIO_LOTE];
+        int[] cantidad = {0};
+        boolean[] interrumpido = {false};
+        cuentaDao.recorrerSegmento(segmento, (numeroCuenta, cuenta) -> {
+            if (interrumpido[0]) {
+                return;
+            }
+            corrida.recorridas.increment();
+            //Filtro sobre la foto del segmento; con el lock tomado se vuelve a mirar la fila actual
+            if (desde(cuenta, corrida.fecha) == null) {
+                return;
+            }
+            lote[cantidad[0]++] = numeroCuenta;
+            if (cantidad[0] == TAMANIO_LOTE) {
+                cuentaDao.actualizarLote(lote, cantidad[0], corrida);
+                cantidad[0] = 0;
+                interrumpido[0] = Thread.currentThread().isInterrupted();
+            }
+        });
+        if (interrumpido[0]) {
+            return;
+        }
+        cuentaDao.actualizarLote(lote, cantidad[0], corrida);
+        marcarCompleto(segmento, corrida);
+    }
+
+    //Desde qué día se deben intereses a la fecha, o null si la cuenta no devenga o ya está al día
+    private static LocalDate desde(CuentaEntity cuenta, LocalDate fecha) {
+        if (cuenta.getTipoCuenta() != TipoCuenta.CAJA_AHORRO || cuenta.getMoneda() == null) {
+            return null;
+        }
+        LocalDate desde;
+        if (cuenta.getFechaUltimoInteres() != null) {
+            desde = cuenta.getFechaUltimoInteres();
+        } else if (cuenta.getFechaCreacion() != null) {
+            desde = cuenta.getFechaCreacion().toLocalDate();
+        } else {
+            //Sin fechas no se sabe desde cuándo deber: solo se marca la fecha, sin interés
+            return fecha;
+        }
+        return desde.isBefore(fecha) ? desde : null;
+    }
+
+    private synchronized void marcarCompleto(int segmento, Corrida corrida) throws IOException {
+        corrida.completos |= 1L << segmento;
+        Path archivo = archivoCheckpoint;
+        if (archivo == null) {
+            return;
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            bufferCheckpoint.clear();
+            bufferCheckpoint.putLong(corrida.fecha.toEpochDay()).putLong(corrida.completos).flip();
+            while (bufferCheckpoint.hasRemaining()) {
+                canal.write(bufferCheckpoint);
+            }
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //Segmentos ya completos para esa fecha; un checkpoint de otra fecha no sirve y se empieza de cero
+    private synchronized long leerCheckpoint(LocalDate fecha) throws IOException {
+        Path archivo = archivoCheckpoint;
+        if (archivo == null || !Files.exists(archivo)) {
+            return 0;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            bufferCheckpoint.clear();
+            while (bufferCheckpoint.hasRemaining() && canal.read(bufferCheckpoint) >= 0) {
+            }
+            if (bufferCheckpoint.hasRemaining()) {
+                throw new IOException("El archivo " + archivo + " está incompleto");
+            }
+        }
+        return bufferCheckpoint.getLong(0) == fecha.toEpochDay() ? bufferCheckpoint.getLong(8) : 0;
+    }
+
+    private static void esperarSinInterrupcion(ExecutorService executor) {
+        boolean interrumpido = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Estado de una corrida. Es la actualización que se aplica a cada cuenta del lote, con su lock tomado.
+     */
+    private final class Corrida implements CuentaDao.Actualizacion {
+        final LocalDate fecha;
+        //Los movimientos de interés quedan al final del día devengado
+        final long instante;
+        final LongAdder recorridas = new LongAdder();
+        final LongAdder conInteres = new LongAdder();
+        final LongAdder[] intereses = new LongAdder[MONEDAS.length];
+        //Bits de los segmentos terminados; se modifica con el lock del devengador
+        long completos;
+
+        Corrida(LocalDate fecha, long completos) {
+            this.fecha = fecha;
+            this.instante = Movimiento.instante(fecha.atTime(LocalTime.MAX));
+            this.completos = completos;
+            for (int i = 0; i < intereses.length; i++) {
+                intereses[i] = new LongAdder();
+            }
+        }
+
+        @Override
+        public CuentaEntity aplicar(CuentaEntity actual) {
+            LocalDate desde = desde(actual, fecha);
+            if (desde == null) {
+                return null;
+            }
+            long interes = interesDiario(actual, desde, fecha, tasas.getTasaAnual(actual.getMoneda()));
+            long balance = Montos.sumar(actual.getBalance(), interes);
+            CuentaEntity nueva = new CuentaEntity(actual.getNumeroCuenta(), actual.getTitular(), actual.getTipoCuenta(),
+                    actual.getMoneda(), balance, actual.getFechaCreacion(), fecha);
+            nueva.setLimiteDescubierto(actual.getLimiteDescubierto());
+            if (interes > 0) {
+                historial.registrar(actual.getNumeroCuenta(), instante, interes, balance, CONTRAPARTE_BANCO);
+                conInteres.increment();
+                intereses[actual.getMoneda().ordinal()].add(interes);
+            }
+            return nueva;
+        }
+    }
+
+    //Suma el interés de los días [desde, fecha), cada uno sobre su saldo al cierre. Se llama con el lock de la
+    //cuenta tomado, así que nadie registra movimientos de la cuenta mientras se lee su historial
+    private long interesDiario(CuentaEntity cuenta, LocalDate desde, LocalDate fecha, long tasaAnual) {
+        long numeroCuenta = cuenta.getNumeroCuenta();
+        long inicio = Movimiento.instante(desde.plusDays(1).atStartOfDay());
+        long fin = Movimiento.instante(fecha.atStartOfDay());
+        //Saldo al cierre del día desde: el previo al primer movimiento posterior, o el actual si no hubo ninguno
+        long saldo = cuenta.getBalance();
+        List<Movimiento> primero = historial.consultar(numeroCuenta, inicio, Long.MAX_VALUE, 0, 1);
+        if (!primero.isEmpty()) {
+            saldo = Montos.restar(primero.get(0).getSaldo(), primero.get(0).getMonto());
+        }
+        long dia = desde.toEpochDay();
+        long interes = 0;
+        if (!primero.isEmpty() && primero.get(0).getInstante() < fin) {
+            long leidos = 0;
+            List<Movimiento> pagina;
+            do {
+                pagina = historial.consultar(numeroCuenta, inicio, fin, leidos, MOVIMIENTOS_POR_PAGINA);
+                for (Movimiento movimiento : pagina) {
+                    long diaMovimiento = Math.floorDiv(movimiento.getInstante(), MILLIS_POR_DIA);
+                    //Los días hasta el del movimiento cerraron con el saldo anterior
+                    if (diaMovimiento > dia && saldo > 0) {
+                        interes = Montos.sumar(interes, Montos.interes(saldo, tasaAnual, diaMovimiento - dia));
+                    }
+                    dia = Math.max(dia, diaMovimiento);
+                    saldo = movimiento.getSaldo();
+                }
+                leidos += pagina.size();
+            } while (pagina.size() == MOVIMIENTOS_POR_PAGINA);
+        }
+        long ultimo = fecha.toEpochDay();
+        if (ultimo > dia && saldo > 0) {
+            interes = Montos.sumar(interes, Montos.interes(saldo, tasaAnual, ultimo - dia));
+        }
+        return interes;
+    }
+}
@@ -0,0 +1,301 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Recuerda por un tiempo el resultado de los pedidos que traen una clave de idempotencia, para que un cliente
+ * que reintenta (por ejemplo después de un timeout) reciba lo mismo que el pedido original en vez de un
+ * "ya existe" o de una segunda cuenta con otro número.
+ *
+ * Las claves viven en un ConcurrentHashMap, así que buscar y registrar no toman ningún lock global. El primer
+ * pedido con una clave ejecuta la acción; los que llegan mientras tanto esperan su resultado y los que llegan
+ * después lo reciben directamente: el mismo objeto o la misma excepción. Se recuerdan los resultados, las
+ * excepciones del dominio y las IllegalArgumentException (el pedido está mal y reintentarlo no lo arregla);
+ * cualquier otro error se olvida para que el reintento vuelva a ejecutar.
+ *
+ * Cada clave guarda además una huella del pedido: si la misma clave llega con otro pedido se rechaza.
+ *
+ * Una entrada vence ttl después de completarse; vencida cuenta como ausente y la quita el barrido de
+ * {@link #programarBarrido}. Si aun así se pasa de maximoEntradas, el pedido que lo nota desaloja entradas
+ * completas hasta bajar al 90%. Las que están en curso no se desalojan, así que el máximo se puede pasar por
+ * a lo sumo la cantidad de altas en vuelo.
+ */
+public class RegistroIdempotencia {
+
+    public static final long TTL_POR_DEFECTO_SEGUNDOS = 60 * 60;
+    public static final int MAXIMO_ENTRADAS_POR_DEFECTO = 100_000;
+
+    private static volatile RegistroIdempotencia instancia =
+            new RegistroIdempotencia(TimeUnit.SECONDS.toMillis(TTL_POR_DEFECTO_SEGUNDOS), MAXIMO_ENTRADAS_POR_DEFECTO);
+
+    /**
+     * Lo que se ejecuta la primera vez que llega una clave.
+     */
+    public interface Accion<T, X extends Throwable> {
+        T ejecutar() throws X;
+    }
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maximoEntradas;
+    private final LongSupplier reloj;
+    //Un solo hilo desaloja por vez; los demás siguen de largo
+    private final AtomicBoolean desalojando = new AtomicBoolean();
+    private final LongAdder repetidos = new LongAdder();
+    private final LongAdder desalojadas = new LongAdder();
+
+    public RegistroIdempotencia(long ttlMillis, int maximoEntradas) {
+        this(ttlMillis, maximoEntradas, System::nanoTime);
+    }
+
+    RegistroIdempotencia(long ttlMillis, int maximoEntradas, LongSupplier reloj) {
+        if (ttlMillis <= 0 || maximoEntradas <= 0) {
+            throw new IllegalArgumentException("El ttl y el máximo de entradas deben ser positivos");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maximoEntradas = maximoEntradas;
+        this.reloj = reloj;
+        Metricas.getInstancia().medidor("idempotencia.entradas", entradas::size);
+        Metricas.getInstancia().medidor("idempotencia.repetidos", repetidos::sum);
+        Metricas.getInstancia().medidor("idempotencia.desalojadas", desalojadas::sum);
+    }
+
+    public static RegistroIdempotencia getInstancia() {
+        return instancia;
+    }
+
+    public static void setInstancia(RegistroIdempotencia registro) {
+        instancia = registro;
+    }
+
+    /**
+     * Ejecuta la acción la primera vez que llega la clave y, mientras no venza, devuelve ese mismo resultado
+     * (o lanza esa misma excepción) a los pedidos repetidos. Con clave null la acción se ejecuta siempre.
+     * @param huella resume el pedido; si la clave ya se usó con otra huella se lanza IllegalArgumentException
+     */
+    public <T, X extends Throwable> T ejecutar(String clave, int huella, Accion<T, X> accion) throws X {
+        if (clave == null) {
+            return accion.ejecutar();
+        }
+        while (true) {
+            Entrada nueva = new Entrada(huella);
+            Entrada existente = entradas.putIfAbsent(clave, nueva);
+            if (existente == null) {
+                if (entradas.size() > maximoEntradas) {
+                    desalojar();
+                }
+                return ejecutarPrimera(clave, nueva, accion);
+            }
+            if (existente.vencida(reloj.getAsLong())) {
+                entradas.remove(clave, existente);
+                continue;
+            }
+            if (existente.huella != huella) {
+                throw new IllegalArgumentException("La clave de idempotencia " + clave + " ya se usó con otro pedido");
+            }
+            Object resultado = existente.<X>esperar();
+            if (resultado == Entrada.REINTENTAR) {
+                continue;
+            }
+            repetidos.increment();
+            return RegistroIdempotencia.<T>comoResultado(resultado);
+        }
+    }
+
+    /**
+     * Como ejecutar, pero para acciones que lanzan varias excepciones del dominio sin un padre común: en vez de
+     * lanzarla, la excepción queda en el Resultado, y quien llama relanza las que declara con
+     * {@link Resultado#relanzar} antes de pedir el {@link Resultado#valor}.
+     */
+    public <T> Resultado<T> ejecutarConResultado(String clave, int huella, Accion<T, ?> accion) {
+        try {
+            return new Resultado<>(ejecutar(clave, huella, accion), null);
+        } catch (Throwable e) {
+            return new Resultado<>(null, e);
+        }
+    }
+
+    private <T, X extends Throwable> T ejecutarPrimera(String clave, Entrada entrada, Accion<T, X> accion) throws X {
+        T resultado;
+        try {
+            resultado = accion.ejecutar();
+        } catch (Throwable e) {
+            if (e instanceof IllegalArgumentException || !(e instanceof RuntimeException || e instanceof Error)) {
+                entrada.completar(e, true, reloj.getAsLong() + ttlNanos);
+            } else {
+                //Error transitorio: se olvida la clave y los que esperaban vuelven a intentar
+                entradas.remove(clave, entrada);
+                entrada.completar(Entrada.REINTENTAR, false, 0);
+            }
+            throw e;
+        }
+        entrada.completar(resultado, false, reloj.getAsLong() + ttlNanos);
+        return resultado;
+    }
+
+    /**
+     * Quita las entradas vencidas. Recorre el mapa sin bloquearlo: cada entrada se quita solo si sigue siendo la misma.
+     * @return cuántas se quitaron
+     */
+    public int barrer() {
+        long ahora = reloj.getAsLong();
+        int quitadas = 0;
+        for (Map.Entry<String, Entrada> entrada : entradas.entrySet()) {
+            if (entrada.getValue().vencida(ahora) && entradas.remove(entrada.getKey(), entrada.getValue())) {
+                quitadas++;
+            }
+        }
+        return quitadas;
+    }
+
+    /**
+     * Barre las entradas vencidas cada tantos milisegundos en un hilo aparte.
+     */
+    public ScheduledExecutorService programarBarrido(long millis) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "barrido-idempotencia");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                barrer();
+            } catch (RuntimeException e) {
+                System.out.println("No se pudieron barrer las claves de idempotencia: " + e.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    public int cantidad() {
+        return entradas.size();
+    }
+
+    //Primero las vencidas y, si no alcanza, las completas en el orden en que aparezcan, hasta bajar al 90%
+    private void desalojar() {
+        if (!desalojando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            barrer();
+            int objetivo = maximoEntradas - maximoEntradas / 10;
+            for (Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator(); it.hasNext() && entradas.size() > objetivo; ) {
+                Map.Entry<String, Entrada> entrada = it.next();
+                if (entrada.getValue().completa() && entradas.remove(entrada.getKey(), entrada.getValue())) {
+                    desalojadas.increment();
+                }
+            }
+        } finally {
+            desalojando.set(false);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T comoResultado(Object resultado) {
+        return (T) resultado;
+    }
+
+    //Relanza la excepción original: es del mismo tipo X que lanzó la acción del primer pedido
+    @SuppressWarnings("unchecked")
+    private static <X extends Throwable> X comoExcepcion(Throwable excepcion) {
+        return (X) excepcion;
+    }
+
+    /**
+     * Lo que devolvió o lanzó una acción. Uso típico:
+     * <pre>
+     * return registro.ejecutarConResultado(clave, huella, accion)
+     *         .relanzar(UnaException.class)
+     *         .relanzar(OtraException.class)
+     *         .valor();
+     * </pre>
+     */
+    public static final class Resultado<T> {
+        private final T valor;
+        private final Throwable excepcion;
+
+        Resultado(T valor, Throwable excepcion) {
+            this.valor = valor;
+            this.excepcion = excepcion;
+        }
+
+        /**
+         * Lanza la excepción de la acción si es de ese tipo; si no, devuelve este mismo resultado.
+         */
+        public <X extends Throwable> Resultado<T> relanzar(Class<X> tipo) throws X {
+            if (tipo.isInstance(excepcion)) {
+                throw tipo.cast(excepcion);
+            }
+            return this;
+        }
+
+        /**
+         * Devuelve lo que devolvió la acción, o lanza su excepción si es unchecked. Una excepción checked que
+         * no se relanzó antes es un error de quien llama y se lanza envuelta en IllegalStateException.
+         */
+        public T valor() {
+            if (excepcion == null) {
+                return valor;
+            }
+            if (excepcion instanceof RuntimeException) {
+                throw (RuntimeException) excepcion;
+            }
+            if (excepcion instanceof Error) {
+                throw (Error) excepcion;
+            }
+            throw new IllegalStateException("La acción lanzó una excepción que no se relanzó", excepcion);
+        }
+    }
+
+    private static final class Entrada {
+        //Marca de que el primer pedido falló sin quedar registrado y hay que volver a intentar
+        static final Object REINTENTAR = new Object();
+
+        final int huella;
+        final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        //0 mientras está en curso; después, el instante (en nanos del reloj) en que vence
+        volatile long vence;
+
+        Entrada(int huella) {
+            this.huella = huella;
+        }
+
+        void completar(Object valor, boolean excepcion, long vence) {
+            this.vence = vence;
+            if (excepcion) {
+                resultado.completeExceptionally((Throwable) valor);
+            } else {
+                resultado.complete(valor);
+            }
+        }
+
+        boolean completa() {
+            return vence != 0;
+        }
+
+        boolean vencida(long ahora) {
+            long vence = this.vence;
+            return vence != 0 && ahora - vence >= 0;
+        }
+
+        <X extends Throwable> Object esperar() throws X {
+            try {
+                return resultado.join();
+            } catch (CompletionException e) {
+                throw RegistroIdempotencia.<X>comoExcepcion(e.getCause());
+            }
+        }
+    }
+}
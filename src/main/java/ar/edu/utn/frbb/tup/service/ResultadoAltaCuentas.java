@@ -0,0 +1,28 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de un alta por lote: las cuentas creadas y, para cada solicitud rechazada, el motivo.
+ */
+public class ResultadoAltaCuentas {
+
+    private final List<Cuenta> creadas;
+    private final Map<SolicitudCuenta, Throwable> rechazadas;
+
+    public ResultadoAltaCuentas(List<Cuenta> creadas, Map<SolicitudCuenta, Throwable> rechazadas) {
+        this.creadas = creadas;
+        this.rechazadas = rechazadas;
+    }
+
+    public List<Cuenta> getCreadas() {
+        return creadas;
+    }
+
+    public Map<SolicitudCuenta, Throwable> getRechazadas() {
+        return rechazadas;
+    }
+}
@@ -0,0 +1,78 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+
+import java.time.LocalDate;
+
+/**
+ * Resumen de un devengamiento de intereses: cuentas recorridas, cuántas cobraron interés, el total pagado
+ * por moneda, los segmentos de la tabla procesados y salteados (por el checkpoint) y el tiempo que llevó.
+ */
+public class ResultadoDevengamiento {
+
+    private final LocalDate fecha;
+    private final long cuentasRecorridas;
+    private final long cuentasConInteres;
+    private final long[] interesesPorMoneda;
+    private final int segmentosProcesados;
+    private final int segmentosSalteados;
+    private final long nanos;
+
+    public ResultadoDevengamiento(LocalDate fecha, long cuentasRecorridas, long cuentasConInteres, long[] interesesPorMoneda,
+                                  int segmentosProcesados, int segmentosSalteados, long nanos) {
+        this.fecha = fecha;
+        this.cuentasRecorridas = cuentasRecorridas;
+        this.cuentasConInteres = cuentasConInteres;
+        this.interesesPorMoneda = interesesPorMoneda;
+        this.segmentosProcesados = segmentosProcesados;
+        this.segmentosSalteados = segmentosSalteados;
+        this.nanos = nanos;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public long getCuentasRecorridas() {
+        return cuentasRecorridas;
+    }
+
+    public long getCuentasConInteres() {
+        return cuentasConInteres;
+    }
+
+    /**
+     * Total de intereses acreditados en esa moneda, en unidades menores.
+     */
+    public long getIntereses(TipoMoneda moneda) {
+        return interesesPorMoneda[moneda.ordinal()];
+    }
+
+    public int getSegmentosProcesados() {
+        return segmentosProcesados;
+    }
+
+    public int getSegmentosSalteados() {
+        return segmentosSalteados;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double cuentasPorSegundo() {
+        return nanos > 0 ? cuentasRecorridas * 1_000_000_000.0 / nanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder intereses = new StringBuilder();
+        for (TipoMoneda moneda : TipoMoneda.values()) {
+            intereses.append(", intereses en ").append(moneda).append(": ").append(Montos.formatear(getIntereses(moneda)));
+        }
+        return String.format("Devengamiento al %s: %d cuentas recorridas, %d con interés%s, %d segmentos procesados y %d salteados, en %.3f s (%.0f cuentas/s)",
+                fecha, cuentasRecorridas, cuentasConInteres, intereses, segmentosProcesados, segmentosSalteados,
+                nanos / 1_000_000_000.0, cuentasPorSegundo());
+    }
+}
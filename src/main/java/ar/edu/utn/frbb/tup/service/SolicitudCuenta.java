@@ -0,0 +1,25 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+
+/**
+ * Pedido de alta de una cuenta para un titular, usado en las altas por lote.
+ */
+public class SolicitudCuenta {
+
+    private final Cuenta cuenta;
+    private final long dniTitular;
+
+    public SolicitudCuenta(Cuenta cuenta, long dniTitular) {
+        this.cuenta = cuenta;
+        this.dniTitular = dniTitular;
+    }
+
+    public Cuenta getCuenta() {
+        return cuenta;
+    }
+
+    public long getDniTitular() {
+        return dniTitular;
+    }
+}
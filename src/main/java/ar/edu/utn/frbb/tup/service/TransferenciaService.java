@@ -0,0 +1,91 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+import ar.edu.utn.frbb.tup.metricas.Operacion;
+import ar.edu.utn.frbb.tup.model.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Montos;
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.movimientos.HistorialMovimientos;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+@Service
+public class TransferenciaService {
+
+    CuentaDao cuentaDao;
+    HistorialMovimientos historial = HistorialMovimientos.getInstancia();
+
+    private final Operacion metricaTransferir = Metricas.getInstancia().operacion("transferencia");
+
+    public TransferenciaService(CuentaDao cuentaDao) {
+        this.cuentaDao = cuentaDao;
+    }
+
+    /**
+     * Debita el monto de la cuenta de origen y lo acredita en la de destino.
+     * Las dos cuentas se leen, modifican y guardan con sus locks tomados, así que ninguna otra
+     * transferencia puede ver ni pisar un estado intermedio de esas cuentas.
+     * El monto va en unidades menores de la moneda (ver Montos). Cada transferencia deja un débito en el
+     * historial de la cuenta de origen y un crédito en el de la de destino.
+     */
+    public void transferir(long numeroCuentaOrigen, long numeroCuentaDestino, long monto) throws NoAlcanzaException, CantidadNegativaException {
+        long inicio = metricaTransferir.iniciar();
+        try {
+            ejecutarTransferencia(numeroCuentaOrigen, numeroCuentaDestino, monto);
+        } catch (Throwable e) {
+            metricaTransferir.error(e);
+            throw e;
+        } finally {
+            metricaTransferir.terminar(inicio);
+        }
+    }
+
+    private void ejecutarTransferencia(long numeroCuentaOrigen, long numeroCuentaDestino, long monto) throws NoAlcanzaException, CantidadNegativaException {
+        if (monto < 0) {
+            throw new CantidadNegativaException();
+        }
+        if (numeroCuentaOrigen == numeroCuentaDestino) {
+            throw new IllegalArgumentException("La cuenta de origen y la de destino no pueden ser la misma");
+        }
+
+        //Los locks se toman siempre en el mismo orden global para evitar deadlocks
+        List<Lock> locks = cuentaDao.locksEnOrden(numeroCuentaOrigen, numeroCuentaDestino);
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+        try {
+            Cuenta origen = buscarCuenta(numeroCuentaOrigen);
+            Cuenta destino = buscarCuenta(numeroCuentaDestino);
+            if (origen.getMoneda() != destino.getMoneda()) {
+                throw new IllegalArgumentException("Las cuentas de origen y destino deben ser de la misma moneda");
+            }
+
+            //Si el destino desbordara se falla antes de debitar, para no dejar la transferencia a medias
+            Montos.sumar(destino.getBalance(), monto);
+            origen.debitarDeCuenta(monto);
+            destino.acreditarEnCuenta(monto);
+            //Débito y crédito van juntos al journal: si se corta entre los dos, al recuperar no se pierde plata
+            cuentaDao.saveJuntas(origen, destino);
+            //Con los locks tomados, así el orden del historial coincide con el de los saldos
+            long ahora = System.currentTimeMillis();
+            historial.registrar(numeroCuentaOrigen, ahora, -monto, origen.getBalance(), numeroCuentaDestino);
+            historial.registrar(numeroCuentaDestino, ahora, monto, destino.getBalance(), numeroCuentaOrigen);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    private Cuenta buscarCuenta(long numeroCuenta) {
+        Cuenta cuenta = cuentaDao.find(numeroCuenta);
+        if (cuenta == null) {
+            throw new IllegalArgumentException("La cuenta " + numeroCuenta + " no existe");
+        }
+        return cuenta;
+    }
+}
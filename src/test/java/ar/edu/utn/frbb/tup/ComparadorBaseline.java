@@ -0,0 +1,158 @@
+package ar.edu.utn.frbb.tup;
+
+import ar.edu.utn.frbb.tup.presentation.http.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara el resultado JSON de una corrida de JMH contra una corrida guardada (la baseline).
+ *
+ * Uso: ComparadorBaseline resultado.json baseline.json tolerancia [actualizar]
+ *
+ * Cada benchmark se identifica por nombre, modo y parámetros. Se marca como regresión si el puntaje empeoró
+ * más que la tolerancia (0.10 = 10%), teniendo en cuenta que en throughput más es mejor y en los modos de
+ * tiempo menos es mejor, o si con -prof gc los bytes por operación crecieron más que la tolerancia.
+ * Si no hay baseline, o si se pide actualizar, el resultado se copia como nueva baseline.
+ * Termina con código 1 si hubo alguna regresión, para que falle el build.
+ */
+public class ComparadorBaseline {
+
+    static final String ALOCACION = "gc.alloc.rate.norm";
+    //Por debajo de esto los bytes por operación son ruido del profiler, no alocaciones reales
+    private static final double ALOCACION_MINIMA = 16;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Uso: ComparadorBaseline resultado.json baseline.json tolerancia [actualizar]");
+            System.exit(2);
+        }
+        Path resultado = Paths.get(args[0]);
+        Path baseline = Paths.get(args[1]);
+        double tolerancia = Double.parseDouble(args[2]);
+        boolean actualizar = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        if (actualizar || !Files.exists(baseline)) {
+            if (baseline.getParent() != null) {
+                Files.createDirectories(baseline.getParent());
+            }
+            Files.copy(resultado, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Se guardó " + resultado + " como baseline en " + baseline);
+            return;
+        }
+
+        Comparacion comparacion = comparar(leer(resultado), leer(baseline), tolerancia);
+        comparacion.informe.forEach(System.out::println);
+        List<String> regresiones = comparacion.regresiones;
+        if (!regresiones.isEmpty()) {
+            System.out.println();
+            System.out.println(regresiones.size() + " regresiones respecto de " + baseline + ":");
+            regresiones.forEach(r -> System.out.println("  " + r));
+            System.exit(1);
+        }
+        System.out.println("Sin regresiones respecto de " + baseline);
+    }
+
+    /**
+     * Compara cada benchmark presente en las dos corridas. No imprime nada: el informe lo muestra main.
+     */
+    static Comparacion comparar(Map<String, Medicion> actual, Map<String, Medicion> base, double tolerancia) {
+        Comparacion comparacion = new Comparacion();
+        comparacion.informe.add(String.format("%-90s %14s %14s %-8s %9s %12s",
+                "Benchmark", "Baseline", "Actual", "Unidad", "Cambio", "B/op"));
+        for (Map.Entry<String, Medicion> entrada : actual.entrySet()) {
+            Medicion medicion = entrada.getValue();
+            Medicion anterior = base.get(entrada.getKey());
+            if (anterior == null) {
+                comparacion.informe.add(String.format("%-90s %14s %14.3f %-8s %9s", entrada.getKey(), "-",
+                        medicion.puntaje, medicion.unidad, "nuevo"));
+                continue;
+            }
+            //Cambio positivo = mejor, sin importar si el modo es de throughput o de tiempo
+            double cambio = medicion.masEsMejor()
+                    ? medicion.puntaje / anterior.puntaje - 1
+                    : anterior.puntaje / medicion.puntaje - 1;
+            String alocacion = Double.isNaN(medicion.alocacion) ? "" : String.format("%.1f", medicion.alocacion);
+            comparacion.informe.add(String.format("%-90s %14.3f %14.3f %-8s %+8.1f%% %12s", entrada.getKey(),
+                    anterior.puntaje, medicion.puntaje, medicion.unidad, cambio * 100, alocacion));
+            if (cambio < -tolerancia) {
+                comparacion.regresiones.add(String.format("%s: %.3f -> %.3f %s (%+.1f%%)", entrada.getKey(),
+                        anterior.puntaje, medicion.puntaje, medicion.unidad, cambio * 100));
+            }
+            if (!Double.isNaN(medicion.alocacion) && !Double.isNaN(anterior.alocacion)
+                    && medicion.alocacion > ALOCACION_MINIMA
+                    && medicion.alocacion > Math.max(anterior.alocacion, ALOCACION_MINIMA) * (1 + tolerancia)) {
+                comparacion.regresiones.add(String.format("%s: alocación %.1f -> %.1f B/op", entrada.getKey(),
+                        anterior.alocacion, medicion.alocacion));
+            }
+        }
+        return comparacion;
+    }
+
+    static Map<String, Medicion> leer(Path archivo) throws IOException {
+        return interpretar(new String(Files.readAllBytes(archivo), StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Medicion> interpretar(String json) {
+        Map<String, Medicion> mediciones = new LinkedHashMap<>();
+        for (Object elemento : (List<Object>) Json.leer(json)) {
+            Map<String, Object> corrida = (Map<String, Object>) elemento;
+            String modo = (String) corrida.get("mode");
+            StringBuilder clave = new StringBuilder((String) corrida.get("benchmark")).append(" [").append(modo);
+            Object params = corrida.get("params");
+            if (params != null) {
+                new TreeMap<>((Map<String, Object>) params).forEach((nombre, valor) -> clave.append(", ").append(nombre).append('=').append(valor));
+            }
+            clave.append(']');
+            Map<String, Object> principal = (Map<String, Object>) corrida.get("primaryMetric");
+            double alocacion = Double.NaN;
+            Map<String, Object> secundarias = (Map<String, Object>) corrida.get("secondaryMetrics");
+            if (secundarias != null && secundarias.containsKey(ALOCACION)) {
+                alocacion = numero(((Map<String, Object>) secundarias.get(ALOCACION)).get("score"));
+            }
+            mediciones.put(clave.toString(), new Medicion(modo, numero(principal.get("score")),
+                    (String) principal.get("scoreUnit"), alocacion));
+        }
+        return mediciones;
+    }
+
+    //JMH escribe NaN e infinitos como texto; los puntajes enteros llegan como Long
+    private static double numero(Object valor) {
+        return valor instanceof Number ? ((Number) valor).doubleValue() : Double.parseDouble(String.valueOf(valor));
+    }
+
+    static final class Comparacion {
+        //Una línea por benchmark, con el encabezado primero
+        final List<String> informe = new ArrayList<>();
+        //La descripción de cada regresión encontrada
+        final List<String> regresiones = new ArrayList<>();
+    }
+
+    static final class Medicion {
+        final String modo;
+        final double puntaje;
+        final String unidad;
+        final double alocacion;
+
+        Medicion(String modo, double puntaje, String unidad, double alocacion) {
+            this.modo = modo;
+            this.puntaje = puntaje;
+            this.unidad = unidad;
+            this.alocacion = alocacion;
+        }
+
+        boolean masEsMejor() {
+            return "thrpt".equals(modo);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ar.edu.utn.frbb.tup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComparadorBaselineTest {
+
+    /**
+     * Testeo que se lea el formato JSON de JMH, con parámetros, NaN como texto y la alocación de -prof gc
+     */
+    @Test
+    public void testInterpretarResultadoJmh() {
+        Map<String, ComparadorBaseline.Medicion> mediciones = ComparadorBaseline.interpretar(resultado(
+                "a.Bench.op", "avgt", "\"cantidad\" : \"10\", \"cache\" : \"0\"", 120.5, "ns/op", 48));
+
+        ComparadorBaseline.Medicion medicion = mediciones.get("a.Bench.op [avgt, cache=0, cantidad=10]");
+        assertNotNull(medicion);
+        assertEquals(120.5, medicion.puntaje);
+        assertEquals("ns/op", medicion.unidad);
+        assertEquals(48, medicion.alocacion);
+        assertFalse(medicion.masEsMejor());
+    }
+
+    /**
+     * Testeo que la regresión se mida en la dirección del modo: más tiempo es peor y menos throughput es peor
+     */
+    @Test
+    public void testRegresionSegunModo() {
+        Map<String, ComparadorBaseline.Medicion> base = ComparadorBaseline.interpretar(
+                "[" + entrada("a.Bench.tiempo", "avgt", "", 100, "ns/op", 0) + ","
+                        + entrada("a.Bench.ops", "thrpt", "", 100, "ops/us", 0) + "]");
+
+        Map<String, ComparadorBaseline.Medicion> mejor = ComparadorBaseline.interpretar(
+                "[" + entrada("a.Bench.tiempo", "avgt", "", 80, "ns/op", 0) + ","
+                        + entrada("a.Bench.ops", "thrpt", "", 120, "ops/us", 0) + "]");
+        assertTrue(ComparadorBaseline.comparar(mejor, base, 0.1).regresiones.isEmpty());
+
+        Map<String, ComparadorBaseline.Medicion> peor = ComparadorBaseline.interpretar(
+                "[" + entrada("a.Bench.tiempo", "avgt", "", 130, "ns/op", 0) + ","
+                        + entrada("a.Bench.ops", "thrpt", "", 80, "ops/us", 0) + "]");
+        assertEquals(2, ComparadorBaseline.comparar(peor, base, 0.1).regresiones.size());
+    }
+
+    /**
+     * Testeo que crecer en bytes por operación cuente como regresión, pero no el ruido cerca de cero
+     */
+    @Test
+    public void testRegresionDeAlocacion() {
+        Map<String, ComparadorBaseline.Medicion> base = ComparadorBaseline.interpretar(resultado("a.Bench.op", "avgt", "", 100, "ns/op", 0.001));
+
+        List<String> ruido = ComparadorBaseline.comparar(
+                ComparadorBaseline.interpretar(resultado("a.Bench.op", "avgt", "", 100, "ns/op", 0.5)), base, 0.1).regresiones;
+        assertTrue(ruido.isEmpty());
+
+        List<String> alocando = ComparadorBaseline.comparar(
+                ComparadorBaseline.interpretar(resultado("a.Bench.op", "avgt", "", 100, "ns/op", 32)), base, 0.1).regresiones;
+        assertEquals(1, alocando.size());
+    }
+
+    /**
+     * Testeo que el informe tenga una línea por benchmark con la unidad del puntaje en su columna
+     * y los bytes por operación sin unidad
+     */
+    @Test
+    public void testInforme() {
+        Map<String, ComparadorBaseline.Medicion> base = ComparadorBaseline.interpretar(resultado("a.Bench.op", "avgt", "", 100, "ns/op", 24));
+        Map<String, ComparadorBaseline.Medicion> actual = ComparadorBaseline.interpretar(
+                "[" + entrada("a.Bench.op", "avgt", "", 100, "ns/op", 24) + ","
+                        + entrada("a.Bench.nuevo", "thrpt", "", 5, "ops/us", 0) + "]");
+
+        List<String> informe = ComparadorBaseline.comparar(actual, base, 0.1).informe;
+        assertEquals(3, informe.size());
+        assertTrue(informe.get(0).trim().endsWith("B/op"));
+        String fila = informe.get(1);
+        assertTrue(fila.startsWith("a.Bench.op [avgt]"));
+        assertTrue(fila.contains(" ns/op "));
+        assertTrue(fila.trim().endsWith(String.format("%.1f", 24.0)), fila);
+        assertTrue(informe.get(2).contains("nuevo"));
+    }
+
+    private static String resultado(String benchmark, String modo, String params, double puntaje, String unidad, double alocacion) {
+        return "[" + entrada(benchmark, modo, params, puntaje, unidad, alocacion) + "]";
+    }
+
+    private static String entrada(String benchmark, String modo, String params, double puntaje, String unidad, double alocacion) {
+        return "{\n"
+                + "  \"jmhVersion\" : \"1.37\", \"benchmark\" : \"" + benchmark + "\", \"mode\" : \"" + modo + "\",\n"
+                + "  \"threads\" : 1, \"forks\" : 1, \"jvmArgs\" : [ ],\n"
+                + (params.isEmpty() ? "" : "  \"params\" : { " + params + " },\n")
+                + "  \"primaryMetric\" : { \"score\" : " + puntaje + ", \"scoreError\" : \"NaN\",\n"
+                + "    \"scoreConfidence\" : [ \"NaN\", \"NaN\" ], \"scoreUnit\" : \"" + unidad + "\",\n"
+                + "    \"rawData\" : [ [ " + puntaje + " ] ] },\n"
+                + "  \"secondaryMetrics\" : { \"" + ComparadorBaseline.ALOCACION + "\" : { \"score\" : " + alocacion
+                + ", \"scoreUnit\" : \"B/op\" }, \"\\u00b7gc.count\" : { \"score\" : 0.0, \"scoreUnit\" : \"counts\" } }\n"
+                + "}";
+    }
+}
@@ -0,0 +1,166 @@
+package ar.edu.utn.frbb.tup.importacion;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.CuentaNoSoportadaException;
+import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImportadorCsvTest {
+
+    //Dni y numeros de cuenta altos para no chocar con los datos guardados por otros tests
+    private static final long PRIMER_DNI = 80_000_000L;
+    private static final long PRIMERA_CUENTA = 8_000_000_000L;
+
+    @TempDir
+    Path directorio;
+
+    private ClienteDao clienteDao;
+    private CuentaDao cuentaDao;
+    private CuentaService cuentaService;
+    private ImportadorCsv importador;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao();
+        clienteDao = new ClienteDao(cuentaDao);
+        ClienteService clienteService = new ClienteService(clienteDao);
+        cuentaService = new CuentaService(cuentaDao, clienteService);
+        importador = new ImportadorCsv(clienteService, cuentaService, clienteDao);
+    }
+
+    /**
+     * Testeo que se importen los clientes válidos y se rechacen los menores, los repetidos y las filas mal formadas
+     */
+    @Test
+    public void testImportarClientes() throws IOException {
+        long dni = PRIMER_DNI;
+        Path archivo = escribir("clientes.csv",
+                "dni,nombre,apellido,tipoPersona,banco,fechaNacimiento,fechaAlta",
+                dni + ",Ana,García,F,Nación,1980-05-10,2020-01-01",
+                (dni + 1) + ",\"Perez, SA\",-,J,Galicia,1990-01-01",
+                (dni + 2) + ",Beto,Menor,F,Nación,2015-01-01",
+                dni + ",Ana,Repetida,F,Nación,1980-05-10",
+                "abc,Sin,Dni,F,Nación,1980-05-10");
+        Path rechazos = directorio.resolve("clientes.rechazos");
+
+        ResultadoImportacion resultado = importador.importarClientes(archivo, rechazos);
+
+        assertEquals(5, resultado.getLeidas());
+        assertEquals(2, resultado.getImportadas());
+        assertEquals(3, resultado.getRechazadas());
+        assertEquals("García", clienteDao.find(dni, false).getApellido());
+        assertEquals("Perez, SA", clienteDao.find(dni + 1, false).getNombre());
+        assertNull(clienteDao.find(dni + 2, false));
+
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertEquals(4, lineas.size());
+        assertTrue(lineas.get(1).startsWith("4,\"El cliente debe ser mayor a 18 años\""));
+        assertTrue(lineas.get(2).startsWith("5,\"Ya existe un cliente con DNI " + dni + "\""));
+        assertTrue(lineas.get(3).startsWith("6,"));
+    }
+
+    /**
+     * Testeo que las cuentas se validen igual que en el alta interactiva, incluyendo repetidas dentro del mismo archivo
+     */
+    @Test
+    public void testImportarCuentas() throws IOException {
+        long dni = PRIMER_DNI + 100;
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Carla");
+        cliente.setApellido("López");
+        cliente.setFechaNacimiento(LocalDate.of(1985, 3, 3));
+        clienteDao.save(cliente);
+
+        long cuenta = PRIMERA_CUENTA;
+        Path archivo = escribir("cuentas.csv",
+                "numeroCuenta,dniTitular,tipoCuenta,moneda,balance",
+                cuenta + "," + dni + ",A,P,1500.25",
+                (cuenta + 1) + "," + dni + ",A,D",
+                (cuenta + 2) + "," + dni + ",C,D",
+                (cuenta + 3) + "," + dni + ",A,P",
+                cuenta + "," + dni + ",C,P",
+                (cuenta + 4) + "," + (dni + 1) + ",C,P");
+        Path rechazos = directorio.resolve("cuentas.rechazos");
+
+        ResultadoImportacion resultado = importador.importarCuentas(archivo, rechazos);
+
+        assertEquals(6, resultado.getLeidas());
+        assertEquals(2, resultado.getImportadas());
+        assertEquals(4, resultado.getRechazadas());
+        assertEquals(150025, cuentaDao.find(cuenta).getBalance());
+        assertEquals(TipoMoneda.DOLARES, cuentaDao.find(cuenta + 1).getMoneda());
+        assertEquals(TipoCuenta.CAJA_AHORRO, cuentaDao.find(cuenta + 1).getTipoCuenta());
+        assertEquals(2, cuentaDao.getCuentasByCliente(dni).size());
+
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertTrue(lineas.get(1).startsWith("4,\"La cuenta CUENTA_CORRIENTE en DOLARES no está soportada.\""));
+        assertTrue(lineas.get(2).startsWith("5,\"El cliente ya tiene una cuenta del tipo CAJA_AHORRO en PESOS.\""));
+        assertTrue(lineas.get(3).startsWith("6,\"La cuenta " + cuenta + " ya existe.\""));
+        assertTrue(lineas.get(4).startsWith("7,\"El cliente no existe\""));
+    }
+
+    /**
+     * Testeo que una fila ya validada se rechace si antes de guardarla otra alta le creó al titular una cuenta
+     * del mismo tipo y moneda
+     */
+    @Test
+    public void testImportarCuentaGanadaPorOtraAlta() throws Throwable {
+        long dni = PRIMER_DNI + 200;
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Diego");
+        cliente.setApellido("Sosa");
+        cliente.setFechaNacimiento(LocalDate.of(1982, 7, 7));
+        clienteDao.save(cliente);
+
+        //Después de validar la fila, y antes de que el lote se guarde, otra alta crea la misma caja de ahorro
+        CuentaService conAltaEnElMedio = new CuentaService(cuentaDao, new ClienteService(clienteDao)) {
+            @Override
+            public Cliente validarAltaCuenta(Cuenta cuenta, long dniTitular) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+                Cliente titular = super.validarAltaCuenta(cuenta, dniTitular);
+                cuentaService.darDeAltaCuenta(Cuenta.conNumero(PRIMERA_CUENTA + 201).setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS), dniTitular);
+                return titular;
+            }
+        };
+        ImportadorCsv conCarrera = new ImportadorCsv(new ClienteService(clienteDao), conAltaEnElMedio, clienteDao);
+        Path archivo = escribir("cuentas.csv",
+                "numeroCuenta,dniTitular,tipoCuenta,moneda",
+                (PRIMERA_CUENTA + 200) + "," + dni + ",A,P");
+        Path rechazos = directorio.resolve("cuentas.rechazos");
+
+        ResultadoImportacion resultado = conCarrera.importarCuentas(archivo, rechazos);
+
+        assertEquals(0, resultado.getImportadas());
+        assertEquals(1, resultado.getRechazadas());
+        assertNull(cuentaDao.find(PRIMERA_CUENTA + 200));
+        assertEquals(1, cuentaDao.getCuentasByCliente(dni).size());
+        List<String> lineas = Files.readAllLines(rechazos, StandardCharsets.UTF_8);
+        assertTrue(lineas.get(1).startsWith("2,\"El cliente ya tiene una cuenta del tipo CAJA_AHORRO en PESOS.\""));
+    }
+
+    private Path escribir(String nombre, String... lineas) throws IOException {
+        Path archivo = directorio.resolve(nombre);
+        Files.write(archivo, List.of(lineas), StandardCharsets.UTF_8);
+        return archivo;
+    }
+}
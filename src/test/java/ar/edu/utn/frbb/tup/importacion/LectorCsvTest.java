@@ -0,0 +1,109 @@
+package ar.edu.utn.frbb.tup.importacion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LectorCsvTest {
+
+    @TempDir
+    Path directorio;
+
+    /**
+     * Testeo que se lean números, textos con comillas, fechas y filas con fin de línea CRLF o sin fin de línea
+     */
+    @Test
+    public void testLeerCampos() throws IOException {
+        Path archivo = escribir("40022659,\"Pérez, \"\"Pepe\"\"\",2000-02-29\r\n-15,,1999-12-31\n\n7,x,2001-01-01");
+
+        try (LectorCsv lector = new LectorCsv(archivo)) {
+            assertTrue(lector.siguienteFila());
+            assertEquals(3, lector.getCantidadCampos());
+            assertEquals(40022659L, lector.leerLong(0));
+            assertEquals("Pérez, \"Pepe\"", lector.leerTexto(1));
+            assertEquals(LocalDate.of(2000, 2, 29), lector.leerFecha(2));
+
+            assertTrue(lector.siguienteFila());
+            assertEquals(-15, lector.leerInt(0));
+            assertTrue(lector.campoVacio(1));
+            assertEquals(LocalDate.of(1999, 12, 31), lector.leerFecha(2));
+
+            assertTrue(lector.siguienteFila());
+            assertTrue(lector.filaVacia());
+
+            assertTrue(lector.siguienteFila());
+            assertEquals(7L, lector.leerLong(0));
+            assertEquals(4, lector.getNumeroFila());
+            assertFalse(lector.siguienteFila());
+        }
+    }
+
+    /**
+     * Testeo que los montos se lean en centavos con cero, uno o dos decimales
+     */
+    @Test
+    public void testLeerMonto() throws IOException {
+        Path archivo = escribir("1500,1500.5,-0.25,1.234,1.2.3,.");
+
+        try (LectorCsv lector = new LectorCsv(archivo)) {
+            assertTrue(lector.siguienteFila());
+            assertEquals(150000, lector.leerMonto(0));
+            assertEquals(150050, lector.leerMonto(1));
+            assertEquals(-25, lector.leerMonto(2));
+            assertThrows(NumberFormatException.class, () -> lector.leerMonto(3));
+            assertThrows(NumberFormatException.class, () -> lector.leerMonto(4));
+            assertThrows(NumberFormatException.class, () -> lector.leerMonto(5));
+        }
+    }
+
+    /**
+     * Testeo que los campos mal formados se rechacen con un error
+     */
+    @Test
+    public void testCamposInvalidos() throws IOException {
+        Path archivo = escribir("12a,99999999999999999999,2000-13-01,AB");
+
+        try (LectorCsv lector = new LectorCsv(archivo)) {
+            assertTrue(lector.siguienteFila());
+            assertThrows(NumberFormatException.class, () -> lector.leerLong(0));
+            assertThrows(NumberFormatException.class, () -> lector.leerLong(1));
+            assertThrows(RuntimeException.class, () -> lector.leerFecha(2));
+            assertThrows(IllegalArgumentException.class, () -> lector.leerCaracter(3));
+            assertThrows(IllegalArgumentException.class, () -> lector.leerTexto(4));
+        }
+    }
+
+    /**
+     * Testeo que las filas que quedan partidas entre dos bloques de lectura se lean completas
+     */
+    @Test
+    public void testFilasEntreBloques() throws IOException {
+        StringBuilder contenido = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            contenido.append(i).append(",nombre").append(i).append('\n');
+        }
+        Path archivo = escribir(contenido.toString());
+
+        try (LectorCsv lector = new LectorCsv(archivo)) {
+            for (int i = 0; i < 20_000; i++) {
+                assertTrue(lector.siguienteFila());
+                assertEquals(i, lector.leerLong(0));
+                assertEquals("nombre" + i, lector.leerTexto(1));
+            }
+            assertFalse(lector.siguienteFila());
+        }
+    }
+
+    private Path escribir(String contenido) throws IOException {
+        Path archivo = directorio.resolve("datos.csv");
+        Files.write(archivo, contenido.getBytes(StandardCharsets.UTF_8));
+        return archivo;
+    }
+}
@@ -0,0 +1,80 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramaTest {
+
+    /**
+     * Testeo que cada valor caiga en una cubeta cuyo límite superior lo cubra con menos de 1/32 de error,
+     * y que los índices crezcan con el valor
+     */
+    @Test
+    public void testCubetas() {
+        int anterior = -1;
+        for (long valor : new long[]{0, 1, 31, 32, 63, 64, 65, 1000, 123_456, 1L << 40, Long.MAX_VALUE}) {
+            int indice = Histograma.indice(valor);
+            assertTrue(indice >= anterior);
+            assertTrue(indice < Histograma.CANTIDAD_CUBETAS);
+            long limite = Histograma.limiteSuperior(indice);
+            assertTrue(limite >= valor);
+            assertTrue(limite - valor <= valor / Histograma.SUBCUBETAS, "valor " + valor);
+            anterior = indice;
+        }
+        for (int i = 0; i + 1 < Histograma.CANTIDAD_CUBETAS; i++) {
+            assertEquals(i + 1, Histograma.indice(Histograma.limiteSuperior(i) + 1));
+        }
+    }
+
+    /**
+     * Testeo que los percentiles de 1..10000 den el valor esperado con el error de una cubeta
+     */
+    @Test
+    public void testPercentiles() {
+        Histograma histograma = new Histograma();
+        for (int valor = 1; valor <= 10_000; valor++) {
+            histograma.registrar(valor);
+        }
+
+        Histograma.Resumen resumen = histograma.resumen();
+        assertEquals(10_000, resumen.getCantidad());
+        assertEquals(10_000, resumen.getMaximo());
+        assertEquals(5000.5, resumen.getPromedio(), 0.001);
+        assertEquals(5000, resumen.percentil(0.5), 5000 / 32.0);
+        assertEquals(9900, resumen.percentil(0.99), 9900 / 32.0);
+        assertEquals(10_000, resumen.percentil(1.0));
+        assertEquals(0, new Histograma().resumen().percentil(0.99));
+    }
+
+    /**
+     * Testeo que con varios hilos registrando no se pierdan valores
+     */
+    @Test
+    public void testRegistrosConcurrentes() throws Exception {
+        Histograma histograma = new Histograma();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            tareas.add(executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histograma.registrar(100);
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(400_000, histograma.resumen().getCantidad());
+        assertEquals(100, histograma.resumen().percentil(0.5), 100 / 32.0);
+    }
+}
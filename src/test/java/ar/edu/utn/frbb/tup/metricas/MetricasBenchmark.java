@@ -0,0 +1,39 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el costo de instrumentar una operación: registrar un valor en el histograma y el par iniciar/terminar
+ * completo, con uno y con todos los hilos. Correrlo con -prof gc: gc.alloc.rate.norm tiene que dar 0 B/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricasBenchmark {
+
+    private final Histograma histograma = new Histograma();
+    private final Operacion operacion = new Operacion("benchmark");
+
+    @Benchmark
+    @Threads(1)
+    public void registrarUnHilo() {
+        histograma.registrar(ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void registrarTodosLosHilos() {
+        histograma.registrar(ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    @Benchmark
+    public void iniciarYTerminar() {
+        operacion.terminar(operacion.iniciar());
+    }
+}
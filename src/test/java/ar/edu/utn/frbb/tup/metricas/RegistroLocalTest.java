@@ -0,0 +1,53 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistroLocalTest {
+
+    /**
+     * Testeo que una operación cuente llamadas y errores por tipo, y que pedirla dos veces devuelva la misma
+     */
+    @Test
+    public void testOperacion() {
+        RegistroLocal registro = new RegistroLocal();
+        Operacion operacion = registro.operacion("cliente.alta");
+        assertSame(operacion, registro.operacion("cliente.alta"));
+
+        for (int i = 0; i < 3; i++) {
+            operacion.terminar(operacion.iniciar());
+        }
+        operacion.error(new ClienteAlreadyExistsException("repetido"));
+        operacion.error(new ClienteAlreadyExistsException("repetido"));
+        operacion.error(new IllegalArgumentException());
+
+        assertEquals(3, operacion.latencias().getCantidad());
+        assertEquals(Map.of("ClienteAlreadyExistsException", 2L, "IllegalArgumentException", 1L), operacion.errores());
+    }
+
+    /**
+     * Testeo que el volcado incluya las operaciones y el valor actual de los medidores
+     */
+    @Test
+    public void testVolcar() {
+        RegistroLocal registro = new RegistroLocal();
+        registro.operacion("dao.cuenta.find").terminar(System.nanoTime());
+        long[] filas = {5};
+        registro.medidor("tabla.cuenta.filas", () -> filas[0]);
+        filas[0] = 7;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        registro.volcar(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        String volcado = bytes.toString(StandardCharsets.UTF_8);
+
+        assertTrue(volcado.contains("dao.cuenta.find"));
+        assertTrue(volcado.matches("(?s).*tabla\\.cuenta\\.filas\\s+7\\s.*"));
+    }
+}
@@ -0,0 +1,61 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el chequeo de producto soportado y de cuenta repetida con máscaras de bits contra lo que se
+ * hacía antes: concatenar los nombres y buscar en un HashSet, y recorrer las cuentas del cliente.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogoProductosBenchmark {
+
+    private static final Set<String> CUENTAS_SOPORTADAS = Set.of("CAJA_AHORROPESOS", "CUENTA_CORRIENTEPESOS", "CAJA_AHORRODOLARES");
+
+    private final CatalogoProductos catalogo = new CatalogoProductos();
+    private Cliente cliente;
+    private Set<Cuenta> cuentas;
+    private TipoCuenta tipoCuenta = TipoCuenta.CAJA_AHORRO;
+    private TipoMoneda moneda = TipoMoneda.DOLARES;
+
+    @Setup
+    public void preparar() {
+        cliente = new Cliente();
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS));
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE).setMoneda(TipoMoneda.PESOS));
+        cuentas = new HashSet<>(cliente.getCuentas());
+    }
+
+    @Benchmark
+    public boolean soportadaConStrings() {
+        return CUENTAS_SOPORTADAS.contains(tipoCuenta.name() + moneda.name());
+    }
+
+    @Benchmark
+    public boolean soportadaConCatalogo() {
+        return catalogo.habilitado(TipoPersona.PERSONA_FISICA, tipoCuenta, moneda);
+    }
+
+    @Benchmark
+    public boolean tieneCuentaRecorriendo() {
+        for (Cuenta cuenta : cuentas) {
+            if (tipoCuenta.equals(cuenta.getTipoCuenta()) && moneda.equals(cuenta.getMoneda())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean tieneCuentaConMascara() {
+        return cliente.tieneCuenta(tipoCuenta, moneda);
+    }
+}
@@ -0,0 +1,83 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogoProductosTest {
+
+    @TempDir
+    Path directorio;
+
+    /**
+     * Testeo que el catálogo por defecto tenga los productos de la consigna para todas las personas
+     */
+    @Test
+    public void testCatalogoPorDefecto() {
+        CatalogoProductos catalogo = new CatalogoProductos();
+
+        for (TipoPersona persona : TipoPersona.values()) {
+            assertTrue(catalogo.habilitado(persona, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+            assertTrue(catalogo.habilitado(persona, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
+            assertTrue(catalogo.habilitado(persona, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES));
+            assertFalse(catalogo.habilitado(persona, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES));
+        }
+    }
+
+    /**
+     * Testeo que al cargar un archivo se habiliten productos distintos por tipo de persona
+     */
+    @Test
+    public void testCargarArchivo() throws IOException {
+        CatalogoProductos catalogo = new CatalogoProductos();
+        Path archivo = escribir("# productos", "*,CAJA_AHORRO,PESOS", "J,CUENTA_CORRIENTE,DOLARES", "");
+
+        catalogo.cargar(archivo);
+
+        assertTrue(catalogo.habilitado(TipoPersona.PERSONA_FISICA, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        assertFalse(catalogo.habilitado(TipoPersona.PERSONA_FISICA, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES));
+        assertTrue(catalogo.habilitado(TipoPersona.PERSONA_JURIDICA, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES));
+        assertTrue(catalogo.habilitadoParaAlguna(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES));
+        assertFalse(catalogo.habilitadoParaAlguna(TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES));
+    }
+
+    /**
+     * Testeo que un archivo con errores no cambie la configuración anterior
+     */
+    @Test
+    public void testArchivoInvalido() throws IOException {
+        CatalogoProductos catalogo = new CatalogoProductos();
+        Path archivo = escribir("*,CAJA_AHORRO,PESOS", "F,PLAZO_FIJO,PESOS");
+
+        assertThrows(IllegalArgumentException.class, () -> catalogo.cargar(archivo));
+        assertTrue(catalogo.habilitado(TipoPersona.PERSONA_FISICA, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES));
+    }
+
+    /**
+     * Testeo que el cliente lleve la cuenta de sus productos al agregar cuentas
+     */
+    @Test
+    public void testProductosDelCliente() {
+        Cliente cliente = new Cliente();
+        assertFalse(cliente.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES));
+
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.DOLARES));
+
+        assertTrue(cliente.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES));
+        assertFalse(cliente.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        assertFalse(cliente.tieneCuenta(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES));
+    }
+
+    private Path escribir(String... lineas) throws IOException {
+        Path archivo = directorio.resolve("catalogo.csv");
+        Files.write(archivo, List.of(lineas), StandardCharsets.UTF_8);
+        return archivo;
+    }
+}
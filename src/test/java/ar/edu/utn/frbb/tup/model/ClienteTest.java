@@ -0,0 +1,86 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClienteTest {
+
+    /**
+     * Testeo que con carga a demanda el cargador se llame una sola vez y recién al pedir las cuentas
+     */
+    @Test
+    public void testCargaADemanda() {
+        Cliente cliente = new Cliente();
+        AtomicInteger cargas = new AtomicInteger();
+        cliente.cargarCuentasADemanda(CatalogoProductos.producto(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS), () -> {
+            cargas.incrementAndGet();
+            return List.of(crearCuenta(1L, TipoCuenta.CAJA_AHORRO));
+        });
+
+        assertTrue(cliente.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        assertEquals(0, cargas.get());
+
+        assertEquals(1, cliente.getCuentas().size());
+        assertEquals(1, cliente.getCuentas().size());
+        assertEquals(1, cargas.get());
+    }
+
+    /**
+     * Testeo que una cuenta agregada antes de la carga se sume a las cargadas sin repetirse si el cargador ya la trae
+     */
+    @Test
+    public void testAgregarAntesDeCargar() {
+        Cliente cliente = new Cliente();
+        Cuenta guardada = crearCuenta(1L, TipoCuenta.CAJA_AHORRO);
+        cliente.cargarCuentasADemanda(CatalogoProductos.producto(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS),
+                () -> List.of(crearCuenta(1L, TipoCuenta.CAJA_AHORRO), crearCuenta(2L, TipoCuenta.CUENTA_CORRIENTE)));
+
+        cliente.addCuenta(guardada);
+        cliente.addCuenta(crearCuenta(3L, TipoCuenta.CUENTA_CORRIENTE));
+
+        assertFalse(cliente.cuentasCargadas());
+        assertTrue(cliente.tieneCuenta(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
+        assertEquals(3, cliente.getCuentas().size());
+    }
+
+    /**
+     * Testeo que getCuentas devuelva una foto: no se puede modificar y no cambia con las altas posteriores,
+     * así que se puede recorrer mientras otro hilo agrega cuentas
+     */
+    @Test
+    public void testCuentasComoFoto() throws Exception {
+        Cliente cliente = new Cliente();
+        cliente.addCuenta(crearCuenta(1L, TipoCuenta.CAJA_AHORRO));
+        Set<Cuenta> foto = cliente.getCuentas();
+
+        assertThrows(UnsupportedOperationException.class, () -> foto.add(crearCuenta(2L, TipoCuenta.CUENTA_CORRIENTE)));
+        cliente.addCuenta(crearCuenta(2L, TipoCuenta.CUENTA_CORRIENTE));
+        assertEquals(1, foto.size());
+        assertEquals(2, cliente.getCuentas().size());
+
+        Thread altas = new Thread(() -> {
+            for (long numero = 3; numero < 2_000; numero++) {
+                cliente.addCuenta(crearCuenta(numero, TipoCuenta.CAJA_AHORRO));
+            }
+        });
+        altas.start();
+        while (altas.isAlive()) {
+            for (Cuenta cuenta : cliente.getCuentas()) {
+                assertSame(cliente, cuenta.getTitular());
+            }
+        }
+        altas.join();
+        assertEquals(1_999, cliente.getCuentas().size());
+    }
+
+    private static Cuenta crearCuenta(long numero, TipoCuenta tipo) {
+        Cuenta cuenta = new Cuenta().setTipoCuenta(tipo).setMoneda(TipoMoneda.PESOS);
+        cuenta.setNumeroCuenta(numero);
+        return cuenta;
+    }
+}
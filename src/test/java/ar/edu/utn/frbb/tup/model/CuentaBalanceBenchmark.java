@@ -0,0 +1,49 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide debitos y creditos con uno y con todos los hilos, sobre una cuenta elegida al azar entre cantidadCuentas.
+ * Con una sola cuenta todos los hilos compiten por la misma ("cuenta caliente"); con muchas casi nunca chocan.
+ * Cada operación debita y vuelve a acreditar 1, así el balance no se agota durante la medición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CuentaBalanceBenchmark {
+
+    @Param({"1", "10000", "1000000"})
+    public int cantidadCuentas;
+
+    private Cuenta[] cuentas;
+
+    @Setup(Level.Iteration)
+    public void crearCuentas() {
+        cuentas = new Cuenta[cantidadCuentas];
+        for (int i = 0; i < cantidadCuentas; i++) {
+            cuentas[i] = new Cuenta().setBalance(1_000_000);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void debitarYAcreditarUnHilo() throws NoAlcanzaException, CantidadNegativaException {
+        Cuenta cuenta = cuentas[ThreadLocalRandom.current().nextInt(cantidadCuentas)];
+        cuenta.debitarDeCuenta(1);
+        cuenta.acreditarEnCuenta(1);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void debitarYAcreditarTodosLosHilos() throws NoAlcanzaException, CantidadNegativaException {
+        Cuenta cuenta = cuentas[ThreadLocalRandom.current().nextInt(cantidadCuentas)];
+        cuenta.debitarDeCuenta(1);
+        cuenta.acreditarEnCuenta(1);
+    }
+}
@@ -0,0 +1,48 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el costo del chequeo de descubierto en el débito. Cada operación debita y vuelve a acreditar 1:
+ * en la caja de ahorro el balance va de 1 a 0, en la cuenta corriente va de 0 a -1 usando el descubierto.
+ * forzarDebito es la referencia sin ningún chequeo de saldo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CuentaDescubiertoBenchmark {
+
+    @Param({"CAJA_AHORRO", "CUENTA_CORRIENTE"})
+    public TipoCuenta tipoCuenta;
+
+    private Cuenta cuenta;
+
+    @Setup(Level.Iteration)
+    public void crearCuenta() {
+        cuenta = new Cuenta().setTipoCuenta(tipoCuenta);
+        if (tipoCuenta == TipoCuenta.CUENTA_CORRIENTE) {
+            cuenta.setBalance(0).setLimiteDescubierto(1_000_000);
+        } else {
+            cuenta.setBalance(1);
+        }
+    }
+
+    @Benchmark
+    public long debitarYAcreditar() throws NoAlcanzaException, CantidadNegativaException {
+        cuenta.debitarDeCuenta(1);
+        cuenta.acreditarEnCuenta(1);
+        return cuenta.getBalance();
+    }
+
+    @Benchmark
+    public long forzarDebitoYAcreditar() throws CantidadNegativaException {
+        cuenta.forzaDebitoDeCuenta(1);
+        cuenta.acreditarEnCuenta(1);
+        return cuenta.getBalance();
+    }
+}
@@ -0,0 +1,161 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CuentaTest {
+
+    private static final int HILOS = 8;
+
+    /**
+     * Testeo que debitar una cantidad negativa lance CantidadNegativaException
+     */
+    @Test
+    public void testDebitoNegativo() {
+        Cuenta cuenta = new Cuenta().setBalance(100);
+        assertThrows(CantidadNegativaException.class, () -> cuenta.debitarDeCuenta(-1));
+        assertThrows(CantidadNegativaException.class, () -> cuenta.acreditarEnCuenta(-1));
+        assertEquals(100, cuenta.getBalance());
+    }
+
+    /**
+     * Testeo que no se pueda debitar mas que el balance
+     */
+    @Test
+    public void testNoAlcanza() throws NoAlcanzaException, CantidadNegativaException {
+        Cuenta cuenta = new Cuenta().setBalance(100);
+        cuenta.debitarDeCuenta(60);
+        assertThrows(NoAlcanzaException.class, () -> cuenta.debitarDeCuenta(41));
+        cuenta.acreditarEnCuenta(1);
+        cuenta.debitarDeCuenta(41);
+        assertEquals(0, cuenta.getBalance());
+    }
+
+    /**
+     * Testeo que una cuenta corriente pueda debitar hasta su descubierto y no más, y que en una caja de ahorro
+     * el límite no se tenga en cuenta
+     */
+    @Test
+    public void testDescubierto() throws NoAlcanzaException, CantidadNegativaException {
+        Cuenta corriente = new Cuenta().setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE).setBalance(100).setLimiteDescubierto(500);
+        corriente.debitarDeCuenta(400);
+        assertEquals(-300, corriente.getBalance());
+        assertThrows(NoAlcanzaException.class, () -> corriente.debitarDeCuenta(201));
+        corriente.debitarDeCuenta(200);
+        assertEquals(-500, corriente.getBalance());
+        assertThrows(NoAlcanzaException.class, () -> corriente.debitarDeCuenta(1));
+        corriente.debitarDeCuenta(0);
+        assertThrows(NoAlcanzaException.class, () -> corriente.debitarDeCuenta(Long.MAX_VALUE));
+
+        Cuenta ahorro = new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setBalance(100).setLimiteDescubierto(500);
+        assertThrows(NoAlcanzaException.class, () -> ahorro.debitarDeCuenta(101));
+        assertEquals(100, ahorro.getBalance());
+        assertThrows(IllegalArgumentException.class, () -> corriente.setLimiteDescubierto(-1));
+    }
+
+    /**
+     * Testeo que con muchos hilos debitando de una cuenta corriente el balance nunca pase el descubierto
+     */
+    @Test
+    public void testDescubiertoConcurrente() throws Exception {
+        int limite = 50000;
+        Cuenta cuenta = new Cuenta().setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE).setBalance(1000).setLimiteDescubierto(limite);
+        AtomicInteger debitosOk = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < 10000; i++) {
+                    try {
+                        cuenta.debitarDeCuenta(3);
+                        debitosOk.incrementAndGet();
+                    } catch (NoAlcanzaException e) {
+                        //Rechazado por el límite
+                    } catch (CantidadNegativaException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //1000 de saldo más 50000 de descubierto alcanzan justo para 17000 débitos de 3
+        assertEquals(17000, debitosOk.get());
+        assertEquals(1000 - 3 * 17000, cuenta.getBalance());
+        assertTrue(cuenta.getBalance() >= -limite);
+    }
+
+    /**
+     * Testeo que con muchos hilos debitando de la misma cuenta no se sobregire ni se pierdan debitos
+     */
+    @Test
+    public void testDebitosConcurrentes() throws Exception {
+        int balanceInicial = 100000;
+        Cuenta cuenta = new Cuenta().setBalance(balanceInicial);
+        AtomicInteger debitosOk = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < 20000; i++) {
+                    try {
+                        cuenta.debitarDeCuenta(1);
+                        debitosOk.incrementAndGet();
+                    } catch (NoAlcanzaException e) {
+                        rechazados.incrementAndGet();
+                    } catch (CantidadNegativaException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(balanceInicial, debitosOk.get());
+        assertEquals(HILOS * 20000 - balanceInicial, rechazados.get());
+        assertEquals(0, cuenta.getBalance());
+    }
+
+    /**
+     * Testeo que un crédito o débito forzado que desborda el balance falle sin modificarlo
+     */
+    @Test
+    public void testDesbordeDeBalance() throws CantidadNegativaException {
+        Cuenta cuenta = new Cuenta().setBalance(Long.MAX_VALUE - 10);
+        assertThrows(ArithmeticException.class, () -> cuenta.acreditarEnCuenta(11));
+        assertEquals(Long.MAX_VALUE - 10, cuenta.getBalance());
+        cuenta.acreditarEnCuenta(10);
+        assertEquals(Long.MAX_VALUE, cuenta.getBalance());
+
+        Cuenta deudora = new Cuenta().setBalance(Long.MIN_VALUE + 5);
+        assertThrows(ArithmeticException.class, () -> deudora.forzaDebitoDeCuenta(6));
+        assertEquals(Long.MIN_VALUE + 5, deudora.getBalance());
+    }
+}
@@ -0,0 +1,51 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el generador de numeros de cuenta con lo que hacía antes el constructor de Cuenta
+ * (un Random nuevo por cuenta), solo el numero y la cuenta completa, con uno y con todos los hilos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneradorNumeroCuentaBenchmark {
+
+    private final GeneradorNumeroCuenta generador = new GeneradorNumeroCuenta(GeneradorNumeroCuenta.SECUENCIA_INICIAL, true, null);
+
+    @Benchmark
+    @Threads(1)
+    public long randomNuevoUnHilo() {
+        return new Random().nextLong();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long randomNuevoTodosLosHilos() {
+        return new Random().nextLong();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long generadorUnHilo() {
+        return generador.siguiente();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long generadorTodosLosHilos() {
+        return generador.siguiente();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Cuenta constructorCuenta() {
+        return new Cuenta();
+    }
+}
@@ -0,0 +1,120 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeneradorNumeroCuentaTest {
+
+    /**
+     * Testeo que varios hilos generando a la vez nunca repitan un numero y que todos tengan el dígito verificador bien
+     */
+    @Test
+    public void testNumerosUnicosEntreHilos() throws Exception {
+        GeneradorNumeroCuenta generador = new GeneradorNumeroCuenta(GeneradorNumeroCuenta.SECUENCIA_INICIAL, true, null);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int h = 0; h < 4; h++) {
+                resultados.add(executor.submit(() -> {
+                    long[] numeros = new long[10_000];
+                    for (int i = 0; i < numeros.length; i++) {
+                        numeros[i] = generador.siguiente();
+                    }
+                    return numeros;
+                }));
+            }
+            Set<Long> vistos = new HashSet<>();
+            for (Future<long[]> resultado : resultados) {
+                for (long numero : resultado.get()) {
+                    assertTrue(numero > 0);
+                    assertTrue(GeneradorNumeroCuenta.digitoValido(numero));
+                    assertTrue(vistos.add(numero), "Numero repetido: " + numero);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Testeo que muchos hilos de vida corta, como los virtuales de cada pedido HTTP, compartan el bloque en vez
+     * de reservar uno cada uno: salen numeros consecutivos y el tope se guarda una sola vez
+     */
+    @Test
+    public void testHilosCortosCompartenBloque() throws Exception {
+        AtomicInteger guardados = new AtomicInteger();
+        GeneradorNumeroCuenta.AlmacenTope almacen = new GeneradorNumeroCuenta.AlmacenTope() {
+            @Override
+            public long leer() {
+                return 0;
+            }
+
+            @Override
+            public void guardar(long tope) {
+                guardados.incrementAndGet();
+            }
+        };
+        GeneradorNumeroCuenta generador = new GeneradorNumeroCuenta(100, false, almacen);
+        long[] numeros = new long[2000];
+        for (int i = 0; i < numeros.length; i++) {
+            int indice = i;
+            Thread hilo = new Thread(() -> numeros[indice] = generador.siguiente());
+            hilo.start();
+            hilo.join();
+        }
+        for (int i = 0; i < numeros.length; i++) {
+            assertEquals(100 + i, numeros[i]);
+        }
+        assertEquals(1, guardados.get());
+    }
+
+    /**
+     * Testeo el dígito de Luhn con un numero conocido y que detecte un dígito cambiado
+     */
+    @Test
+    public void testDigitoLuhn() {
+        assertEquals(3, GeneradorNumeroCuenta.digitoLuhn(7992739871L));
+        assertTrue(GeneradorNumeroCuenta.digitoValido(79927398713L));
+        assertFalse(GeneradorNumeroCuenta.digitoValido(79927398813L));
+    }
+
+    /**
+     * Testeo que después de un reinicio los numeros nuevos sean mayores a todos los entregados antes,
+     * aunque el hilo no haya terminado su bloque
+     */
+    @Test
+    public void testReinicioNoRepiteNumeros() {
+        AtomicLong tope = new AtomicLong();
+        GeneradorNumeroCuenta.AlmacenTope almacen = new GeneradorNumeroCuenta.AlmacenTope() {
+            @Override
+            public long leer() {
+                return tope.get();
+            }
+
+            @Override
+            public void guardar(long nuevoTope) {
+                tope.set(nuevoTope);
+            }
+        };
+
+        GeneradorNumeroCuenta antes = new GeneradorNumeroCuenta(100, false, almacen);
+        long maximo = 0;
+        for (int i = 0; i < GeneradorNumeroCuenta.RESERVA_ALMACEN + 10; i++) {
+            maximo = Math.max(maximo, antes.siguiente());
+        }
+
+        GeneradorNumeroCuenta despues = new GeneradorNumeroCuenta(100, false, almacen);
+        assertTrue(despues.siguiente() > maximo);
+    }
+}
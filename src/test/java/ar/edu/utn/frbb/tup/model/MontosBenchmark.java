@@ -0,0 +1,58 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la aritmética de montos y el balance consolidado de un cliente con cuentas en pesos y dólares.
+ * Correrlo con -prof gc: gc.alloc.rate.norm tiene que dar 0 B/op en sumar, convertir y acreditar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MontosBenchmark {
+
+    private static final long COTIZACION = 1_050_250_000L;
+
+    private long monto = 123_45;
+    private Cuenta cuenta;
+    private Cliente cliente;
+    private CotizacionesFijas cotizaciones;
+
+    @Setup
+    public void crearCliente() {
+        cuenta = new Cuenta().setBalance(1_000_000_00);
+        cotizaciones = new CotizacionesFijas();
+        cotizaciones.setCotizacion(TipoMoneda.DOLARES, TipoMoneda.PESOS, COTIZACION);
+        cliente = new Cliente();
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS).setBalance(5_000_00));
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE).setMoneda(TipoMoneda.PESOS).setBalance(-1_200_50));
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.DOLARES).setBalance(310_75));
+    }
+
+    @Benchmark
+    public long sumar() {
+        return Montos.sumar(monto, 99_99);
+    }
+
+    @Benchmark
+    public long convertir() {
+        return Montos.convertir(monto, COTIZACION);
+    }
+
+    @Benchmark
+    public long debitarYAcreditar() throws NoAlcanzaException, CantidadNegativaException {
+        cuenta.debitarDeCuenta(monto);
+        cuenta.acreditarEnCuenta(monto);
+        return cuenta.getBalance();
+    }
+
+    @Benchmark
+    public long balanceConsolidado() {
+        return cliente.balanceConsolidado(TipoMoneda.PESOS, cotizaciones);
+    }
+}
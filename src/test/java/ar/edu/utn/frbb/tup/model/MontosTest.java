@@ -0,0 +1,115 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MontosTest {
+
+    /**
+     * Testeo que sumar y restar desbordados lancen ArithmeticException en vez de dar la vuelta
+     */
+    @Test
+    public void testDesborde() {
+        assertEquals(300, Montos.sumar(100, 200));
+        assertThrows(ArithmeticException.class, () -> Montos.sumar(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Montos.restar(Long.MIN_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Montos.convertir(Long.MAX_VALUE / 2, 3 * Montos.ESCALA_COTIZACION));
+    }
+
+    /**
+     * Testeo que parsear lea montos con y sin decimales y rechace los inválidos
+     */
+    @Test
+    public void testParsear() {
+        assertEquals(150000, Montos.parsear("1500"));
+        assertEquals(150050, Montos.parsear("1500.5"));
+        assertEquals(150055, Montos.parsear("1500.55"));
+        assertEquals(-350, Montos.parsear("-3.50"));
+        assertEquals(5, Montos.parsear(".05"));
+        assertThrows(NumberFormatException.class, () -> Montos.parsear("1.234"));
+        assertThrows(NumberFormatException.class, () -> Montos.parsear("12a"));
+        assertThrows(NumberFormatException.class, () -> Montos.parsear("-"));
+        assertThrows(NumberFormatException.class, () -> Montos.parsear(""));
+        assertThrows(ArithmeticException.class, () -> Montos.parsear("99999999999999999999"));
+    }
+
+    /**
+     * Testeo que formatear siempre muestre dos decimales, también para negativos menores a una unidad
+     */
+    @Test
+    public void testFormatear() {
+        assertEquals("1500.00", Montos.formatear(150000));
+        assertEquals("0.05", Montos.formatear(5));
+        assertEquals("-0.50", Montos.formatear(-50));
+        assertEquals("-12.34", Montos.formatear(-1234));
+        assertEquals(-1234, Montos.parsear(Montos.formatear(-1234)));
+    }
+
+    /**
+     * Testeo que el interés se trunque al centavo y que un balance enorme no desborde el cálculo intermedio
+     */
+    @Test
+    public void testInteres() {
+        //1000 al 10% anual durante 365 días
+        assertEquals(100_00, Montos.interes(1000_00, 1000, 365));
+        //1.00 al 10% por un día son 0.027 centavos
+        assertEquals(0, Montos.interes(1_00, 1000, 1));
+        assertEquals(2, Montos.interes(10_00, 1000, 10));
+        assertEquals(0, Montos.interes(1000_00, 0, 30));
+        long grande = Long.MAX_VALUE / 10;
+        assertEquals(grande / 10, Montos.interes(grande, 1000, 365));
+    }
+
+    /**
+     * Testeo que convertir redondee al centavo más cercano, con las mitades alejándose del cero
+     */
+    @Test
+    public void testConvertirRedondea() {
+        //1 dólar = 1000.125 pesos
+        long cotizacion = 1_000_125_000L;
+        assertEquals(1_000_13, Montos.convertir(1_00, cotizacion));
+        assertEquals(-1_000_13, Montos.convertir(-1_00, cotizacion));
+        assertEquals(0, Montos.convertir(0, cotizacion));
+    }
+
+    /**
+     * Testeo que un monto válido cuyo producto con la cotización no entra en un long se convierta igual, con el mismo redondeo
+     */
+    @Test
+    public void testConvertirMontoGrande() {
+        assertEquals(10_502_500_000_000_000L, Montos.convertir(10_000_000_000_000L, 1_050_250_000L));
+        //1 dólar = 1000.125 pesos, como arriba: ...1000.125 se redondea a ...1000
+        assertEquals(10_001_250_000_001_000L, Montos.convertir(10_000_000_000_001L, 1_000_125_000L));
+        assertEquals(-10_001_250_000_001_000L, Montos.convertir(-10_000_000_000_001L, 1_000_125_000L));
+        //1 dólar = 1000.5 pesos: la mitad se aleja del cero
+        assertEquals(10_005_000_000_001_001L, Montos.convertir(10_000_000_000_001L, 1_000_500_000L));
+    }
+
+    /**
+     * Testeo que el balance consolidado convierta cada cuenta a la moneda pedida y sume el resto directo
+     */
+    @Test
+    public void testBalanceConsolidado() {
+        CotizacionesFijas cotizaciones = new CotizacionesFijas();
+        cotizaciones.setCotizacion(TipoMoneda.DOLARES, TipoMoneda.PESOS, 1000 * Montos.ESCALA_COTIZACION);
+
+        Cliente cliente = new Cliente();
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS).setBalance(250_00));
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE).setMoneda(TipoMoneda.PESOS).setBalance(-50_00));
+        cliente.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.DOLARES).setBalance(2_50));
+
+        assertEquals(2700_00, cliente.balanceConsolidado(TipoMoneda.PESOS, cotizaciones));
+        assertEquals(2_70, cliente.balanceConsolidado(TipoMoneda.DOLARES, cotizaciones));
+    }
+
+    /**
+     * Testeo que sin cotización cargada la conversión falle en vez de tratar la cuenta como cero
+     */
+    @Test
+    public void testSinCotizacion() {
+        CotizacionesFijas cotizaciones = new CotizacionesFijas();
+        assertEquals(Montos.ESCALA_COTIZACION, cotizaciones.cotizacion(TipoMoneda.PESOS, TipoMoneda.PESOS));
+        assertThrows(IllegalStateException.class, () -> cotizaciones.cotizacion(TipoMoneda.DOLARES, TipoMoneda.PESOS));
+    }
+}
@@ -0,0 +1,73 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el costo de actualizar los agregados en cada guardado, con uno y con todos los hilos escribiendo
+ * sobre la misma combinación, y el de consultar un total contra recorrer toda la tabla de cuentas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgregadosCuentasBenchmark {
+
+    private static final int CUENTAS = 100_000;
+
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private AgregadosCuentas agregados;
+    private CuentaEntity anterior;
+    private CuentaEntity nueva;
+
+    @Setup(Level.Trial)
+    public void cargarCuentas() {
+        cuentaDao.limpiar();
+        for (int i = 0; i < CUENTAS; i++) {
+            cuentaDao.restaurar(new CuentaEntity(i, i, TipoCuenta.CAJA_AHORRO,
+                    i % 2 == 0 ? TipoMoneda.PESOS : TipoMoneda.DOLARES, i, null));
+        }
+        agregados = new AgregadosCuentas();
+        anterior = new CuentaEntity(1L, 1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 100, null);
+        nueva = new CuentaEntity(1L, 1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 101, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        cuentaDao.limpiar();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void actualizarUnHilo() {
+        agregados.cuentaGuardada(anterior, nueva);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void actualizarTodosLosHilos() {
+        agregados.cuentaGuardada(anterior, nueva);
+    }
+
+    @Benchmark
+    public long consultarTotal() {
+        return CuentaDao.getAgregados().total(TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO);
+    }
+
+    @Benchmark
+    public long recorrerTabla() {
+        long[] total = new long[1];
+        cuentaDao.recorrer((numero, cuenta) -> {
+            if (cuenta.getMoneda() == TipoMoneda.DOLARES && cuenta.getTipoCuenta() == TipoCuenta.CAJA_AHORRO) {
+                total[0] += cuenta.getBalance();
+            }
+        });
+        return total[0];
+    }
+}
@@ -0,0 +1,144 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgregadosCuentasTest {
+
+    private CuentaDao cuentaDao;
+    private AgregadosCuentas agregados;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao();
+        cuentaDao.limpiar();
+        agregados = CuentaDao.getAgregados();
+    }
+
+    /**
+     * Testeo que altas y modificaciones de balance actualicen suma, cantidad y marcas de agua de su combinación
+     */
+    @Test
+    public void testAltasYModificaciones() {
+        cuentaDao.save(crearCuenta(1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 100_00));
+        cuentaDao.save(crearCuenta(2L, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 50_00));
+        cuentaDao.save(crearCuenta(3L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, -20_00));
+        cuentaDao.save(crearCuenta(1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 10_00));
+
+        assertEquals(60_00, agregados.total(TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO));
+        assertEquals(2, agregados.cantidad(TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO));
+        assertEquals(10_00, agregados.minimoHistorico(TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO));
+        //La cuenta 1 ya bajó a 10, pero el máximo histórico sigue siendo el 100 que tuvo
+        assertEquals(100_00, agregados.maximoHistorico(TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO));
+        assertEquals(-20_00, agregados.total(TipoMoneda.PESOS));
+        assertEquals(0, agregados.cantidad(TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO));
+        assertEquals(Long.MAX_VALUE, agregados.minimoHistorico(TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO));
+    }
+
+    /**
+     * Testeo que una cuenta que cambia de moneda pase su balance y su cuenta a la otra combinación,
+     * y que guardar una que ya existe con saveIfAbsent no cambie nada
+     */
+    @Test
+    public void testCambioDeCombinacion() {
+        cuentaDao.save(crearCuenta(1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 300_00));
+        cuentaDao.save(crearCuenta(1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 5_00));
+        assertFalse(cuentaDao.saveIfAbsent(crearCuenta(1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 999_00)));
+
+        assertEquals(0, agregados.total(TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO));
+        assertEquals(0, agregados.cantidad(TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO));
+        assertEquals(5_00, agregados.total(TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO));
+        assertEquals(1, agregados.cantidad(TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO));
+    }
+
+    /**
+     * Testeo que las cuentas restauradas desde el journal también se cuenten
+     */
+    @Test
+    public void testRestaurar() {
+        cuentaDao.restaurar(new CuentaEntity(1L, 40022659L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, 70_00, null));
+        cuentaDao.restaurar(new CuentaEntity(1L, 40022659L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, 75_00, null));
+
+        assertEquals(75_00, agregados.total(TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE));
+        assertEquals(1, agregados.cantidad(TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE));
+    }
+
+    /**
+     * Testeo que con muchos hilos guardando balances al azar el total termine igual a la suma de la tabla
+     */
+    @Test
+    public void testGuardadosConcurrentes() throws Exception {
+        int cuentas = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            tareas.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 5000; i++) {
+                    long numero = random.nextInt(cuentas);
+                    cuentaDao.save(crearCuenta(numero, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, random.nextInt(10_000)));
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        long[] suma = new long[1];
+        cuentaDao.recorrer((numero, cuenta) -> suma[0] += cuenta.getBalance());
+        assertEquals(suma[0], agregados.total(TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO));
+        assertEquals(cuentas, agregados.cantidad(TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO));
+    }
+
+    /**
+     * Testeo la exposición por descubiertos: límites otorgados y saldos negativos en uso, al entrar y
+     * salir del descubierto y al cambiar el límite
+     */
+    @Test
+    public void testExposicionPorDescubiertos() {
+        Cuenta corriente = crearCuenta(1L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, 100_00).setLimiteDescubierto(1000_00);
+        cuentaDao.save(corriente);
+        cuentaDao.save(crearCuenta(2L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES, -30_00).setLimiteDescubierto(50_00));
+        assertEquals(1000_00, agregados.descubiertoOtorgado(TipoMoneda.PESOS));
+        assertEquals(0, agregados.descubiertoUtilizado(TipoMoneda.PESOS));
+        assertEquals(50_00, agregados.descubiertoOtorgado(TipoMoneda.DOLARES));
+        assertEquals(30_00, agregados.descubiertoUtilizado(TipoMoneda.DOLARES));
+
+        cuentaDao.save(corriente.setBalance(-400_00));
+        assertEquals(400_00, agregados.descubiertoUtilizado(TipoMoneda.PESOS));
+        cuentaDao.save(corriente.setBalance(-250_00).setLimiteDescubierto(300_00));
+        assertEquals(250_00, agregados.descubiertoUtilizado(TipoMoneda.PESOS));
+        assertEquals(300_00, agregados.descubiertoOtorgado(TipoMoneda.PESOS));
+        cuentaDao.save(corriente.setBalance(10_00));
+        assertEquals(0, agregados.descubiertoUtilizado(TipoMoneda.PESOS));
+        assertEquals(30_00, agregados.descubiertoUtilizado(TipoMoneda.DOLARES));
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta, TipoCuenta tipoCuenta, TipoMoneda moneda, long balance) {
+        Cuenta cuenta = new Cuenta()
+                .setTipoCuenta(tipoCuenta)
+                .setMoneda(moneda)
+                .setBalance(balance);
+        cuenta.setNumeroCuenta(numeroCuenta);
+        Cliente titular = new Cliente();
+        titular.setDni(40022659);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+}
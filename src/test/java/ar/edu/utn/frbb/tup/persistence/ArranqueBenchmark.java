@@ -0,0 +1,106 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.journal.Persistencia;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Mide el arranque en frío: cargar el último snapshot y reaplicar la cola del journal (1% de las cuentas
+ * modificadas después de la foto). Para probar con 10M de cuentas: -p cantidadCuentas=10000000 -jvmArgs -Xmx16g
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ArranqueBenchmark {
+
+    private static final int CUENTAS_POR_CLIENTE = 2;
+
+    @Param({"1000000"})
+    public int cantidadCuentas;
+
+    private final ClienteDao clienteDao = new ClienteDao();
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private Path directorio;
+
+    @Setup(Level.Trial)
+    public void generarDatos() throws IOException {
+        directorio = Files.createTempDirectory("arranque-benchmark");
+        try (Persistencia persistencia = Persistencia.iniciar(directorio, 64 * 1024 * 1024, 4096, 0, clienteDao, cuentaDao)) {
+            int cantidadClientes = cantidadCuentas / CUENTAS_POR_CLIENTE;
+            for (int i = 0; i < cantidadClientes; i++) {
+                clienteDao.restaurar(new ClienteEntity(crearCliente(i)));
+            }
+            Cliente titular = new Cliente();
+            for (int i = 0; i < cantidadCuentas; i++) {
+                titular.setDni(i % cantidadClientes);
+                cuentaDao.restaurar(new CuentaEntity(crearCuenta(i, titular, 1000)));
+            }
+            persistencia.tomarSnapshot();
+            for (int i = 0; i < cantidadCuentas / 100; i++) {
+                titular.setDni(i % cantidadClientes);
+                cuentaDao.save(crearCuenta(i, titular, 2000));
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void vaciarBase() {
+        clienteDao.limpiar();
+        cuentaDao.limpiar();
+        System.gc();
+    }
+
+    @TearDown(Level.Trial)
+    public void borrarDatos() throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int arrancar() {
+        try (Persistencia persistencia = Persistencia.iniciar(directorio, 64 * 1024 * 1024, 4096, 0, clienteDao, cuentaDao)) {
+            return cuentaDao.getInMemoryDatabase().size();
+        }
+    }
+
+    private Cliente crearCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Nombre" + dni);
+        cliente.setApellido("Apellido");
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setFechaNacimiento(LocalDate.of(1980, 5, 10));
+        cliente.setFechaAlta(LocalDate.of(2024, 1, 2));
+        return cliente;
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta, Cliente titular, int balance) {
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setBalance(balance)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO)
+                .setFechaCreacion(LocalDateTime.of(2024, 5, 10, 12, 30));
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+}
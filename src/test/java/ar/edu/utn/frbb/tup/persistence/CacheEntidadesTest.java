@@ -0,0 +1,135 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheEntidadesTest {
+
+    private CuentaDao cuentaDao;
+    private ClienteDao clienteDao;
+
+    @BeforeEach
+    public void setUp() {
+        ClienteDao.configurarCache(100);
+        CuentaDao.configurarCache(100);
+        cuentaDao = new CuentaDao();
+        clienteDao = new ClienteDao();
+        clienteDao.cuentaDao = cuentaDao;
+        cuentaDao.limpiar();
+        clienteDao.limpiar();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ClienteDao.configurarCache(0);
+        CuentaDao.configurarCache(0);
+    }
+
+    /**
+     * Testeo que se desaloje el elemento usado hace más tiempo y que se cuenten aciertos, fallos y desalojos
+     */
+    @Test
+    public void testDesalojoLru() {
+        CacheEntidades<String> cache = new CacheEntidades<>(2);
+        cache.put(1, "uno", cache.version(1));
+        cache.put(2, "dos", cache.version(2));
+        assertEquals("uno", cache.get(1));
+        cache.put(3, "tres", cache.version(3));
+
+        assertNull(cache.get(2));
+        assertEquals("uno", cache.get(1));
+        assertEquals("tres", cache.get(3));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getAciertos());
+        assertEquals(1, cache.getFallos());
+        assertEquals(1, cache.getDesalojos());
+    }
+
+    /**
+     * Testeo que no se guarde un valor armado antes de una invalidación
+     */
+    @Test
+    public void testPutDespuesDeInvalidar() {
+        CacheEntidades<String> cache = new CacheEntidades<>(10);
+        long version = cache.version(1);
+        cache.invalidar(1);
+        cache.put(1, "viejo", version);
+
+        assertNull(cache.get(1));
+    }
+
+    /**
+     * Testeo que find devuelva la cuenta cacheada y que save la invalide
+     */
+    @Test
+    public void testCuentaCacheadaSeInvalidaAlGuardar() {
+        cuentaDao.save(crearCuenta(1L, crearCliente(40022659)));
+        Cuenta primera = cuentaDao.find(1L);
+        assertSame(primera, cuentaDao.find(1L));
+
+        cuentaDao.save(crearCuenta(1L, crearCliente(40022659)).setBalance(500));
+        Cuenta nueva = cuentaDao.find(1L);
+
+        assertNotSame(primera, nueva);
+        assertEquals(500, nueva.getBalance());
+        assertEquals(1, CuentaDao.getCache().getAciertos());
+    }
+
+    /**
+     * Testeo que guardar una cuenta invalide al cliente cacheado con sus cuentas
+     */
+    @Test
+    public void testClienteCacheadoSeInvalidaAlGuardarCuenta() {
+        clienteDao.save(crearCliente(40022659));
+        cuentaDao.save(crearCuenta(1L, crearCliente(40022659)));
+        Cliente cliente = clienteDao.find(40022659, true);
+        assertSame(cliente, clienteDao.find(40022659, true));
+        assertEquals(1, cliente.getCuentas().size());
+
+        cuentaDao.save(crearCuenta(2L, crearCliente(40022659)));
+        Cliente recargado = clienteDao.find(40022659, true);
+
+        assertNotSame(cliente, recargado);
+        assertEquals(2, recargado.getCuentas().size());
+    }
+
+    /**
+     * Testeo que el cliente sin cuentas y el cliente completo se cacheen por separado
+     */
+    @Test
+    public void testClienteSimpleYCompleto() {
+        clienteDao.save(crearCliente(40022659));
+        cuentaDao.save(crearCuenta(1L, crearCliente(40022659)));
+
+        Cliente simple = clienteDao.find(40022659, false);
+        Cliente completo = clienteDao.find(40022659, true);
+
+        assertTrue(simple.getCuentas().isEmpty());
+        assertEquals(1, completo.getCuentas().size());
+        assertSame(simple, clienteDao.find(40022659, false));
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta, Cliente titular) {
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+
+    private Cliente crearCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        return cliente;
+    }
+}
@@ -0,0 +1,101 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide find(dni, true) sobre clientes con dos cuentas, sin cache y con cache, con uno y con todos los hilos.
+ * Los dni buscados salen de un conjunto chico (los clientes "calientes") que entra en el cache.
+ * find(dni, true) deja las cuentas para cargar a demanda: findCompletoTieneCuenta mide la validación de un alta
+ * (solo la proyección de productos) y findCompletoConCuentas el costo de armar además todas las cuentas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClienteDaoBenchmark {
+
+    private static final int CLIENTES_CALIENTES = 10_000;
+
+    @Param({"0", "20000"})
+    public int tamanioCache;
+
+    @Param({"10000", "1000000"})
+    public int cantidadClientes;
+
+    private ClienteDao clienteDao;
+    private int calientes;
+
+    @Setup(Level.Trial)
+    public void cargar() {
+        ClienteDao.configurarCache(tamanioCache);
+        CuentaDao.configurarCache(tamanioCache);
+        CuentaDao cuentaDao = new CuentaDao();
+        clienteDao = new ClienteDao();
+        clienteDao.cuentaDao = cuentaDao;
+        cuentaDao.limpiar();
+        clienteDao.limpiar();
+        calientes = Math.min(CLIENTES_CALIENTES, cantidadClientes);
+        for (int dni = 0; dni < cantidadClientes; dni++) {
+            Cliente cliente = new Cliente();
+            cliente.setDni(dni);
+            cliente.setNombre("Nombre" + dni);
+            cliente.setApellido("Apellido" + dni);
+            cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+            cliente.setFechaAlta(LocalDate.of(2020, 1, 1));
+            cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+            clienteDao.save(cliente);
+            for (int i = 0; i < 2; i++) {
+                Cuenta cuenta = new Cuenta()
+                        .setMoneda(TipoMoneda.PESOS)
+                        .setTipoCuenta(i == 0 ? TipoCuenta.CAJA_AHORRO : TipoCuenta.CUENTA_CORRIENTE);
+                cuenta.setNumeroCuenta(dni * 2L + i);
+                cuenta.setTitular(cliente);
+                cuentaDao.save(cuenta);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        ClienteDao.configurarCache(0);
+        CuentaDao.configurarCache(0);
+        clienteDao.cuentaDao.limpiar();
+        clienteDao.limpiar();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Cliente findCompleto() {
+        return clienteDao.find(ThreadLocalRandom.current().nextInt(calientes), true);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean findCompletoTieneCuenta() {
+        return clienteDao.find(ThreadLocalRandom.current().nextInt(calientes), true)
+                .tieneCuenta(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int findCompletoConCuentas() {
+        return clienteDao.find(ThreadLocalRandom.current().nextInt(calientes), true).getCuentas().size();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cliente findCompletoTodosLosHilos() {
+        return clienteDao.find(ThreadLocalRandom.current().nextInt(calientes), true);
+    }
+}
@@ -0,0 +1,115 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrenciaDaoTest {
+
+    private static final int HILOS = 8;
+    private static final int CUENTAS_POR_HILO = 20000;
+    private static final int CLIENTES = 100;
+
+    private CuentaDao cuentaDao;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao();
+        cuentaDao.limpiar();
+    }
+
+    /**
+     * Testeo que muchos hilos guardando cuentas a la vez no pierdan escrituras ni en la tabla ni en el indice
+     */
+    @Test
+    public void testAltasConcurrentesSinPerdidas() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            final int hilo = h;
+            tareas.add(executor.submit(() -> {
+                largada.await();
+                Cliente titular = new Cliente();
+                for (int i = 0; i < CUENTAS_POR_HILO; i++) {
+                    long numeroCuenta = (long) hilo * CUENTAS_POR_HILO + i;
+                    titular.setDni(numeroCuenta % CLIENTES);
+                    cuentaDao.save(crearCuenta(numeroCuenta, titular));
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int total = 0;
+        for (long dni = 0; dni < CLIENTES; dni++) {
+            total += cuentaDao.getCuentasByCliente(dni).size();
+        }
+        assertEquals(HILOS * CUENTAS_POR_HILO, total);
+        for (long numeroCuenta = 0; numeroCuenta < HILOS * CUENTAS_POR_HILO; numeroCuenta++) {
+            assertNotNull(cuentaDao.find(numeroCuenta));
+        }
+    }
+
+    /**
+     * Testeo que de varios saveIfAbsent concurrentes sobre el mismo numero gane uno solo
+     */
+    @Test
+    public void testSaveIfAbsentConcurrente() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger ganadores = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            final long dni = h;
+            tareas.add(executor.submit(() -> {
+                largada.await();
+                Cliente titular = new Cliente();
+                titular.setDni(dni);
+                if (cuentaDao.saveIfAbsent(crearCuenta(99L, titular))) {
+                    ganadores.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(1, ganadores.get());
+        int enIndice = 0;
+        for (long dni = 0; dni < HILOS; dni++) {
+            enIndice += cuentaDao.getCuentasByCliente(dni).size();
+        }
+        assertEquals(1, enIndice);
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta, Cliente titular) {
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+}
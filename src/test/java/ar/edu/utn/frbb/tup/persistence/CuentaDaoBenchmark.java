@@ -0,0 +1,66 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide getCuentasByCliente con distintas cantidades de cuentas cargadas, con uno y con todos los hilos.
+ * Con el indice por titular el tiempo por busqueda no deberia crecer con la cantidad de cuentas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CuentaDaoBenchmark {
+
+    private static final int CUENTAS_POR_CLIENTE = 2;
+
+    @Param({"10000", "100000", "1000000"})
+    public int cantidadCuentas;
+
+    private CuentaDao cuentaDao;
+    private int cantidadClientes;
+
+    @Setup(Level.Trial)
+    public void cargarCuentas() {
+        cuentaDao = new CuentaDao();
+        cuentaDao.limpiar();
+        cantidadClientes = cantidadCuentas / CUENTAS_POR_CLIENTE;
+        Cliente cliente = new Cliente();
+        for (int i = 0; i < cantidadCuentas; i++) {
+            cliente.setDni(i % cantidadClientes);
+            Cuenta cuenta = new Cuenta()
+                    .setMoneda(TipoMoneda.PESOS)
+                    .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+            cuenta.setNumeroCuenta(i);
+            cuenta.setTitular(cliente);
+            cuentaDao.save(cuenta);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        cuentaDao.limpiar();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<Cuenta> getCuentasByCliente() {
+        return cuentaDao.getCuentasByCliente(ThreadLocalRandom.current().nextInt(cantidadClientes));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Cuenta> getCuentasByClienteTodosLosHilos() {
+        return cuentaDao.getCuentasByCliente(ThreadLocalRandom.current().nextInt(cantidadClientes));
+    }
+}
@@ -0,0 +1,140 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.CatalogoProductos;
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.GeneradorNumeroCuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CuentaDaoTest {
+
+    private CuentaDao cuentaDao;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao();
+        cuentaDao.limpiar();
+    }
+
+    /**
+     * Testeo que getCuentasByCliente devuelva solo las cuentas del titular pedido
+     */
+    @Test
+    public void testCuentasByCliente() {
+        cuentaDao.save(crearCuenta(1L, crearCliente(40022659)));
+        cuentaDao.save(crearCuenta(2L, crearCliente(40022659)));
+        cuentaDao.save(crearCuenta(3L, crearCliente(29857643)));
+
+        List<Cuenta> cuentas = cuentaDao.getCuentasByCliente(40022659);
+
+        assertEquals(2, cuentas.size());
+        assertTrue(cuentas.stream().anyMatch(c -> c.getNumeroCuenta() == 1L));
+        assertTrue(cuentas.stream().anyMatch(c -> c.getNumeroCuenta() == 2L));
+        assertTrue(cuentaDao.getCuentasByCliente(11111111).isEmpty());
+    }
+
+    /**
+     * Testeo que leer cuentas no gaste numeros del generador: solo las altas los piden
+     */
+    @Test
+    public void testLeerNoGastaNumeros() {
+        cuentaDao.save(crearCuenta(1L, crearCliente(40022659)));
+        GeneradorNumeroCuenta anterior = GeneradorNumeroCuenta.getInstancia();
+        GeneradorNumeroCuenta generador = new GeneradorNumeroCuenta(GeneradorNumeroCuenta.SECUENCIA_INICIAL, false, null);
+        GeneradorNumeroCuenta.setInstancia(generador);
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                assertEquals(1L, cuentaDao.find(1L).getNumeroCuenta());
+                assertEquals(1, cuentaDao.getCuentasByCliente(40022659).size());
+            }
+            assertEquals(GeneradorNumeroCuenta.SECUENCIA_INICIAL, generador.siguiente());
+        } finally {
+            GeneradorNumeroCuenta.setInstancia(anterior);
+        }
+    }
+
+    /**
+     * Testeo que sobreescribir una cuenta no la duplique en el indice
+     */
+    @Test
+    public void testSobreescribirCuenta() {
+        Cliente cliente = crearCliente(40022659);
+        cuentaDao.save(crearCuenta(1L, cliente));
+        cuentaDao.save(crearCuenta(1L, cliente).setBalance(500));
+
+        List<Cuenta> cuentas = cuentaDao.getCuentasByCliente(40022659);
+
+        assertEquals(1, cuentas.size());
+        assertEquals(500, cuentas.get(0).getBalance());
+    }
+
+    /**
+     * Testeo que al cambiar el titular la cuenta pase al indice del nuevo titular
+     */
+    @Test
+    public void testCambioDeTitular() {
+        cuentaDao.save(crearCuenta(1L, crearCliente(40022659)));
+        cuentaDao.save(crearCuenta(1L, crearCliente(29857643)));
+
+        assertTrue(cuentaDao.getCuentasByCliente(40022659).isEmpty());
+        assertEquals(1, cuentaDao.getCuentasByCliente(29857643).size());
+    }
+
+    /**
+     * Testeo que la proyección de productos refleje los tipos y monedas de las cuentas del titular
+     */
+    @Test
+    public void testProductosDeTitular() {
+        Cliente cliente = crearCliente(40022659);
+        cuentaDao.save(crearCuenta(1L, cliente));
+        cuentaDao.save(crearCuenta(2L, cliente).setMoneda(TipoMoneda.DOLARES));
+
+        int productos = cuentaDao.productosDeTitular(40022659);
+
+        assertEquals(CatalogoProductos.producto(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS)
+                | CatalogoProductos.producto(TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES), productos);
+        assertEquals(0, cuentaDao.productosDeTitular(11111111));
+    }
+
+    /**
+     * Testeo que find(dni, true) responda tieneCuenta sin cargar las cuentas y las cargue al pedirlas
+     */
+    @Test
+    public void testClienteConCuentasADemanda() {
+        ClienteDao clienteDao = new ClienteDao(cuentaDao);
+        Cliente cliente = crearCliente(40022659);
+        clienteDao.save(cliente);
+        cuentaDao.save(crearCuenta(1L, cliente));
+
+        Cliente encontrado = clienteDao.find(40022659, true);
+
+        assertTrue(encontrado.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        assertFalse(encontrado.tieneCuenta(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
+        assertFalse(encontrado.cuentasCargadas());
+        assertEquals(1, encontrado.getCuentas().size());
+        assertSame(encontrado, encontrado.getCuentas().iterator().next().getTitular());
+        assertTrue(encontrado.cuentasCargadas());
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta, Cliente titular) {
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+
+    private Cliente crearCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        return cliente;
+    }
+}
@@ -0,0 +1,52 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compara cuánto heap ocupa cada entrada en un HashMap&lt;Long, Object&gt; (lo que usaba poorMansDatabase)
+ * y en LongEntityTable. Todas las entradas apuntan a la misma entidad, así se mide solo el contenedor.
+ *
+ * Uso: java -cp target/test-classes:target/classes ar.edu.utn.frbb.tup.persistence.LongEntityTableFootprint [entradas]
+ */
+public class LongEntityTableFootprint {
+
+    private static final Object ENTIDAD = new Object();
+
+    public static void main(String[] args) {
+        int entradas = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        long antes = heapUsado();
+        Map<Long, Object> hashMap = new HashMap<>();
+        for (long i = 0; i < entradas; i++) {
+            hashMap.put(40_000_000L + i, ENTIDAD);
+        }
+        long bytesHashMap = heapUsado() - antes;
+        System.out.println("HashMap: " + hashMap.size() + " entradas");
+        hashMap = null;
+
+        antes = heapUsado();
+        LongEntityTable<Object> tabla = new LongEntityTable<>();
+        for (long i = 0; i < entradas; i++) {
+            tabla.put(40_000_000L + i, ENTIDAD);
+        }
+        long bytesTabla = heapUsado() - antes;
+        System.out.println("LongEntityTable: " + tabla.size() + " entradas");
+
+        System.out.printf("HashMap<Long, Object>: %.1f bytes por entrada%n", (double) bytesHashMap / entradas);
+        System.out.printf("LongEntityTable:       %.1f bytes por entrada%n", (double) bytesTabla / entradas);
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
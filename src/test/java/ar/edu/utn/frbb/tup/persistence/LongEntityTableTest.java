@@ -0,0 +1,62 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongEntityTableTest {
+
+    /**
+     * Testeo put, get y remove basicos, incluyendo claves cero y negativas
+     */
+    @Test
+    public void testOperacionesBasicas() {
+        LongEntityTable<String> tabla = new LongEntityTable<>();
+
+        assertNull(tabla.put(0L, "cero"));
+        assertNull(tabla.put(-5L, "negativo"));
+        assertEquals("cero", tabla.put(0L, "cero bis"));
+        assertEquals("cero bis", tabla.putIfAbsent(0L, "otro"));
+
+        assertEquals("cero bis", tabla.get(0L));
+        assertEquals("negativo", tabla.get(-5L));
+        assertNull(tabla.get(7L));
+        assertEquals(2, tabla.size());
+
+        assertEquals("negativo", tabla.remove(-5L));
+        assertNull(tabla.get(-5L));
+        assertEquals(1, tabla.size());
+    }
+
+    /**
+     * Testeo la tabla contra un HashMap con una secuencia aleatoria de operaciones que fuerza crecimientos y borrados
+     */
+    @Test
+    public void testContraHashMap() {
+        LongEntityTable<Long> tabla = new LongEntityTable<>();
+        Map<Long, Long> esperado = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200000; i++) {
+            long clave = random.nextInt(20000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(esperado.remove(clave), tabla.remove(clave));
+            } else {
+                long valor = random.nextLong();
+                assertEquals(esperado.put(clave, valor), tabla.put(clave, valor));
+            }
+        }
+
+        assertEquals(esperado.size(), tabla.size());
+        for (long clave = 0; clave < 20000; clave++) {
+            assertEquals(esperado.get(clave), tabla.get(clave));
+        }
+        Map<Long, Long> recorrido = new HashMap<>();
+        tabla.forEach(recorrido::put);
+        assertEquals(esperado, recorrido);
+    }
+}
@@ -0,0 +1,70 @@
+package ar.edu.utn.frbb.tup.persistence.codec;
+
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide entidades codificadas y decodificadas por segundo, para cuentas y clientes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+    private CuentaEntity cuenta;
+    private ClienteEntity cliente;
+    private ByteBuffer cuentaCodificada;
+    private ByteBuffer clienteCodificado;
+
+    @Setup
+    public void preparar() {
+        cuenta = new CuentaEntity(123456789L, 29857643L, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 150000, LocalDateTime.of(2024, 3, 15, 10, 30));
+        cliente = new ClienteEntity(29857643L, TipoPersona.PERSONA_FISICA, "María José", "Fernández",
+                LocalDate.of(2020, 1, 1), LocalDate.of(1985, 12, 31));
+        cuentaCodificada = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+        CuentaEntityCodec.escribir(cuenta, cuentaCodificada);
+        cuentaCodificada.flip();
+        clienteCodificado = ByteBuffer.allocate(ClienteEntityCodec.largo(cliente));
+        ClienteEntityCodec.escribir(cliente, clienteCodificado);
+        clienteCodificado.flip();
+    }
+
+    @Benchmark
+    public int codificarCuenta() {
+        buffer.clear();
+        CuentaEntityCodec.escribir(cuenta, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public CuentaEntity decodificarCuenta() {
+        cuentaCodificada.rewind();
+        return CuentaEntityCodec.leer(cuentaCodificada);
+    }
+
+    @Benchmark
+    public int codificarCliente() {
+        buffer.clear();
+        ClienteEntityCodec.escribir(cliente, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public ClienteEntity decodificarCliente() {
+        clienteCodificado.rewind();
+        return ClienteEntityCodec.leer(clienteCodificado);
+    }
+}
@@ -0,0 +1,229 @@
+package ar.edu.utn.frbb.tup.persistence.codec;
+
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodecTest {
+
+    /**
+     * Testeo que una cuenta codificada se lea igual y ocupe exactamente LARGO bytes
+     */
+    @Test
+    public void testCuentaIdaYVuelta() {
+        LocalDateTime fecha = LocalDateTime.of(2024, 3, 15, 10, 30, 45, 123456789);
+        CuentaEntity cuenta = new CuentaEntity(123456789L, 29857643L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES, -500, fecha);
+
+        ByteBuffer buffer = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+        CuentaEntityCodec.escribir(cuenta, buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        CuentaEntity leida = CuentaEntityCodec.leer(buffer);
+
+        assertEquals(123456789L, leida.getNumeroCuenta());
+        assertEquals(29857643L, leida.getTitular());
+        assertEquals(TipoCuenta.CUENTA_CORRIENTE, leida.getTipoCuenta());
+        assertEquals(TipoMoneda.DOLARES, leida.getMoneda());
+        assertEquals(-500, leida.getBalance());
+        assertEquals(fecha, leida.getFechaCreacion());
+        assertNull(leida.getFechaUltimoInteres());
+    }
+
+    /**
+     * Testeo que la fecha del último devengamiento de intereses se guarde
+     */
+    @Test
+    public void testCuentaConFechaUltimoInteres() {
+        CuentaEntity cuenta = new CuentaEntity(5L, 6L, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 100,
+                LocalDateTime.of(2024, 1, 2, 3, 4), LocalDate.of(2024, 6, 30));
+
+        ByteBuffer buffer = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+        CuentaEntityCodec.escribir(cuenta, buffer);
+        buffer.flip();
+
+        assertEquals(LocalDate.of(2024, 6, 30), CuentaEntityCodec.leer(buffer).getFechaUltimoInteres());
+    }
+
+    /**
+     * Testeo que el límite de descubierto se guarde, y que una cuenta de la versión 3 se lea con límite 0
+     */
+    @Test
+    public void testCuentaConDescubierto() {
+        CuentaEntity cuenta = new CuentaEntity(5L, 6L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, -100, null);
+        cuenta.setLimiteDescubierto(25_000_00L);
+
+        ByteBuffer buffer = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+        CuentaEntityCodec.escribir(cuenta, buffer);
+        buffer.flip();
+        assertEquals(25_000_00L, CuentaEntityCodec.leer(buffer).getLimiteDescubierto());
+
+        //La versión 3 es la actual sin los últimos 8 bytes
+        buffer.clear();
+        buffer.put(0, CuentaEntityCodec.VERSION_SIN_DESCUBIERTO).limit(CuentaEntityCodec.LARGO - 8);
+        CuentaEntity leida = CuentaEntityCodec.leer(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(-100, leida.getBalance());
+        assertEquals(0, leida.getLimiteDescubierto());
+    }
+
+    /**
+     * Testeo que una cuenta de la versión 2 (sin fecha de intereses) se siga leyendo
+     */
+    @Test
+    public void testCuentaVersion2() {
+        ByteBuffer buffer = ByteBuffer.allocate(39);
+        buffer.put(CuentaEntityCodec.VERSION_SIN_INTERES);
+        buffer.putLong(10L);
+        buffer.putLong(20L);
+        buffer.put((byte) TipoCuenta.CAJA_AHORRO.ordinal());
+        buffer.put((byte) TipoMoneda.PESOS.ordinal());
+        buffer.putLong(1234_56L);
+        buffer.putLong(LocalDateTime.of(2024, 3, 15, 10, 30).toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(0);
+        buffer.flip();
+
+        CuentaEntity leida = CuentaEntityCodec.leer(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(1234_56L, leida.getBalance());
+        assertEquals(LocalDateTime.of(2024, 3, 15, 10, 30), leida.getFechaCreacion());
+        assertNull(leida.getFechaUltimoInteres());
+    }
+
+    /**
+     * Testeo que un balance que no entra en un int se guarde completo
+     */
+    @Test
+    public void testCuentaConBalanceGrande() {
+        CuentaEntity cuenta = new CuentaEntity(7L, 8L, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 5_000_000_000_00L, null);
+
+        ByteBuffer buffer = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+        CuentaEntityCodec.escribir(cuenta, buffer);
+        buffer.flip();
+
+        assertEquals(5_000_000_000_00L, CuentaEntityCodec.leer(buffer).getBalance());
+    }
+
+    /**
+     * Testeo que una cuenta de la versión 1 (balance int en unidades enteras) se lea con el balance en centavos
+     */
+    @Test
+    public void testCuentaVersion1() {
+        ByteBuffer buffer = ByteBuffer.allocate(35);
+        buffer.put(CuentaEntityCodec.VERSION_BALANCE_INT);
+        buffer.putLong(10L);
+        buffer.putLong(20L);
+        buffer.put((byte) TipoCuenta.CAJA_AHORRO.ordinal());
+        buffer.put((byte) TipoMoneda.DOLARES.ordinal());
+        buffer.putInt(-1500);
+        buffer.putLong(Long.MIN_VALUE);
+        buffer.putInt(0);
+        buffer.flip();
+
+        CuentaEntity leida = CuentaEntityCodec.leer(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(10L, leida.getNumeroCuenta());
+        assertEquals(TipoMoneda.DOLARES, leida.getMoneda());
+        assertEquals(-150000, leida.getBalance());
+        assertNull(leida.getFechaCreacion());
+    }
+
+    /**
+     * Testeo que los campos null de una cuenta se mantengan null
+     */
+    @Test
+    public void testCuentaConCamposNull() {
+        CuentaEntity cuenta = new CuentaEntity(1L, 2L, null, null, 0, null);
+
+        ByteBuffer buffer = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+        CuentaEntityCodec.escribir(cuenta, buffer);
+        buffer.flip();
+        CuentaEntity leida = CuentaEntityCodec.leer(buffer);
+
+        assertNull(leida.getTipoCuenta());
+        assertNull(leida.getMoneda());
+        assertNull(leida.getFechaCreacion());
+    }
+
+    /**
+     * Testeo que un cliente con textos no ASCII (acentos, ideogramas y emojis) se lea igual
+     * y que largo() coincida con los bytes escritos
+     */
+    @Test
+    public void testClienteIdaYVueltaConTextoNoAscii() {
+        ClienteEntity cliente = new ClienteEntity(29857643L, TipoPersona.PERSONA_FISICA, "José Ñandú 日本", "Pérez 😀",
+                LocalDate.of(2020, 1, 1), LocalDate.of(1985, 12, 31));
+
+        ByteBuffer buffer = ByteBuffer.allocate(ClienteEntityCodec.largo(cliente));
+        ClienteEntityCodec.escribir(cliente, buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        ClienteEntity leido = ClienteEntityCodec.leer(buffer);
+
+        assertEquals(29857643L, leido.getId());
+        assertEquals(TipoPersona.PERSONA_FISICA, leido.getTipoPersona());
+        assertEquals("José Ñandú 日本", leido.getNombre());
+        assertEquals("Pérez 😀", leido.getApellido());
+        assertEquals(LocalDate.of(2020, 1, 1), leido.getFechaAlta());
+        assertEquals(LocalDate.of(1985, 12, 31), leido.getFechaNacimiento());
+    }
+
+    /**
+     * Testeo que los campos null de un cliente se mantengan null
+     */
+    @Test
+    public void testClienteConCamposNull() {
+        ClienteEntity cliente = new ClienteEntity(5L, null, null, null, null, null);
+
+        ByteBuffer buffer = ByteBuffer.allocate(ClienteEntityCodec.largo(cliente));
+        ClienteEntityCodec.escribir(cliente, buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        ClienteEntity leido = ClienteEntityCodec.leer(buffer);
+
+        assertEquals(5L, leido.getId());
+        assertNull(leido.getTipoPersona());
+        assertNull(leido.getNombre());
+        assertNull(leido.getApellido());
+        assertNull(leido.getFechaAlta());
+        assertNull(leido.getFechaNacimiento());
+    }
+
+    /**
+     * Testeo que un surrogate suelto se escriba como '?' sin desfasar el largo calculado
+     */
+    @Test
+    public void testSurrogateSuelto() {
+        ClienteEntity cliente = new ClienteEntity(6L, TipoPersona.PERSONA_JURIDICA, "a\uD83Db", "c", null, null);
+
+        ByteBuffer buffer = ByteBuffer.allocate(ClienteEntityCodec.largo(cliente));
+        ClienteEntityCodec.escribir(cliente, buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+
+        assertEquals("a?b", ClienteEntityCodec.leer(buffer).getNombre());
+    }
+
+    /**
+     * Testeo que una versión desconocida se rechace
+     */
+    @Test
+    public void testVersionDesconocida() {
+        ByteBuffer cuenta = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+        cuenta.put(0, (byte) 99);
+        assertThrows(IllegalArgumentException.class, () -> CuentaEntityCodec.leer(cuenta));
+
+        ByteBuffer cliente = ByteBuffer.allocate(64);
+        cliente.put(0, (byte) 99);
+        assertThrows(IllegalArgumentException.class, () -> ClienteEntityCodec.leer(cliente));
+    }
+}
@@ -0,0 +1,60 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import ar.edu.utn.frbb.tup.persistence.codec.CuentaEntityCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Mide registros agregados por segundo al journal con distintos tamaños de lote de fsync.
+ * Los registros tienen el mismo tamaño que los que escribe JournalCuentas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    @Param({"1", "64", "1024"})
+    public int fsyncCadaRegistros;
+
+    private Path directorio;
+    private Journal journal;
+    private final ByteBuffer registro = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+
+    @Setup(Level.Iteration)
+    public void abrir() throws IOException {
+        directorio = Files.createTempDirectory("journal-benchmark");
+        journal = new Journal(directorio, 64 * 1024 * 1024, fsyncCadaRegistros, 0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void cerrar() throws IOException {
+        journal.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long agregarUnHilo() {
+        registro.clear();
+        return journal.agregar(JournalCuentas.TIPO_CUENTA, registro);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long agregarCuatroHilos() {
+        ByteBuffer datos = ByteBuffer.allocate(CuentaEntityCodec.LARGO);
+        return journal.agregar(JournalCuentas.TIPO_CUENTA, datos);
+    }
+}
@@ -0,0 +1,103 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+
+    private static final int TAMANIO_SEGMENTO = 4096;
+
+    @TempDir
+    Path directorio;
+
+    /**
+     * Testeo que los registros se lean en orden al reabrir el journal, aunque ocupen varios segmentos
+     */
+    @Test
+    public void testReabrirConVariosSegmentos() {
+        try (Journal journal = new Journal(directorio, TAMANIO_SEGMENTO, 1000, 0)) {
+            for (int i = 0; i < 1000; i++) {
+                journal.agregar((byte) 7, ByteBuffer.allocate(8).putLong(0, i));
+            }
+        }
+
+        try (Journal journal = new Journal(directorio, TAMANIO_SEGMENTO, 1000, 0)) {
+            List<Long> leidos = new ArrayList<>();
+            journal.recorrer(0, (secuencia, tipo, datos) -> {
+                assertEquals(7, tipo);
+                assertEquals(secuencia, datos.getLong(0));
+                leidos.add(secuencia);
+            });
+            assertEquals(1000, leidos.size());
+            assertEquals(1000, journal.getProximaSecuencia());
+            assertTrue(cantidadDeSegmentos() > 1);
+        }
+    }
+
+    /**
+     * Testeo que un registro cortado al final se descarte y el journal siga escribiendo desde ahí
+     */
+    @Test
+    public void testEscrituraCortada() throws Exception {
+        try (Journal journal = new Journal(directorio, TAMANIO_SEGMENTO, 1, 0)) {
+            journal.agregar((byte) 1, ByteBuffer.allocate(8).putLong(0, 10));
+            journal.agregar((byte) 1, ByteBuffer.allocate(8).putLong(0, 20));
+        }
+        //Rompo el ultimo byte de datos del segundo registro
+        Path segmento;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            segmento = archivos.findFirst().orElseThrow();
+        }
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 2L * (17 + 8) - 1);
+        }
+
+        try (Journal journal = new Journal(directorio, TAMANIO_SEGMENTO, 1, 0)) {
+            assertEquals(1, journal.getProximaSecuencia());
+            journal.agregar((byte) 1, ByteBuffer.allocate(8).putLong(0, 30));
+            List<Long> valores = new ArrayList<>();
+            journal.recorrer(0, (secuencia, tipo, datos) -> valores.add(datos.getLong(0)));
+            assertEquals(List.of(10L, 30L), valores);
+        }
+    }
+
+    /**
+     * Testeo que esperarDurable vuelva recién con el registro en disco, tanto esperando al hilo de fondo
+     * como haciendo el fsync quien espera cuando no hay hilo
+     */
+    @Test
+    public void testEsperarDurable() throws Exception {
+        try (Journal journal = new Journal(directorio.resolve("con-hilo"), TAMANIO_SEGMENTO, 1000, 5)) {
+            long secuencia = journal.agregar((byte) 1, ByteBuffer.allocate(8).putLong(0, 10));
+            journal.esperarDurable(secuencia);
+            //Una vez durable, volver a esperar no bloquea
+            journal.esperarDurable(secuencia);
+        }
+        try (Journal journal = new Journal(directorio.resolve("sin-hilo"), TAMANIO_SEGMENTO, 1000, 0)) {
+            long secuencia = journal.agregar((byte) 1, ByteBuffer.allocate(8).putLong(0, 10));
+            journal.esperarDurable(secuencia);
+            assertThrows(IllegalArgumentException.class, () -> journal.esperarDurable(secuencia + 1));
+        }
+    }
+
+    private long cantidadDeSegmentos() {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
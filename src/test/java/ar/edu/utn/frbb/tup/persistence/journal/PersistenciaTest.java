@@ -0,0 +1,164 @@
+package ar.edu.utn.frbb.tup.persistence.journal;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.GeneradorNumeroCuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenciaTest {
+
+    private static final int TAMANIO_SEGMENTO = 4096;
+    private static final long DNI = 31_000_001L;
+    private static final long NUMERO_CUENTA = 9_000_000_001L;
+
+    @TempDir
+    Path directorio;
+
+    private final ClienteDao clienteDao = new ClienteDao();
+    private final CuentaDao cuentaDao = new CuentaDao();
+
+    /**
+     * Testeo que al recuperar solo con el journal las cuentas vuelvan con su ultimo balance
+     */
+    @Test
+    public void testRecuperarDesdeJournal() {
+        try (Persistencia persistencia = iniciar()) {
+            cuentaDao.save(crearCuenta(NUMERO_CUENTA, 100));
+            cuentaDao.save(crearCuenta(NUMERO_CUENTA, 250));
+        }
+        simularReinicio();
+
+        try (Persistencia persistencia = iniciar()) {
+            Cuenta recuperada = cuentaDao.find(NUMERO_CUENTA);
+            assertEquals(250, recuperada.getBalance());
+            assertEquals(TipoMoneda.DOLARES, recuperada.getMoneda());
+            assertEquals(TipoCuenta.CAJA_AHORRO, recuperada.getTipoCuenta());
+            assertEquals(DNI, recuperada.getTitular().getDni());
+            assertEquals(LocalDateTime.of(2024, 5, 10, 12, 30), recuperada.getFechaCreacion());
+        }
+    }
+
+    /**
+     * Testeo que al arrancar se cargue el snapshot y encima la cola del journal escrita despues de la foto
+     */
+    @Test
+    public void testRecuperarSnapshotMasJournal() throws IOException {
+        try (Persistencia persistencia = iniciar()) {
+            clienteDao.save(crearCliente("Carla"));
+            for (int i = 0; i < 500; i++) {
+                cuentaDao.save(crearCuenta(NUMERO_CUENTA, i));
+            }
+            persistencia.tomarSnapshot();
+            //Los segmentos anteriores a la foto se borran
+            assertEquals(1, cantidadDeArchivos(directorio.resolve("journal")));
+
+            clienteDao.save(crearCliente("Carla Beatriz"));
+            cuentaDao.save(crearCuenta(NUMERO_CUENTA, 999));
+            cuentaDao.save(crearCuenta(NUMERO_CUENTA + 1, 5));
+        }
+        simularReinicio();
+
+        try (Persistencia persistencia = iniciar()) {
+            assertEquals("Carla Beatriz", clienteDao.find(DNI, false).getNombre());
+            assertEquals(LocalDate.of(1980, 5, 10), clienteDao.find(DNI, false).getFechaNacimiento());
+            assertEquals(999, cuentaDao.find(NUMERO_CUENTA).getBalance());
+            assertEquals(5, cuentaDao.find(NUMERO_CUENTA + 1).getBalance());
+        }
+    }
+
+    /**
+     * Testeo que dos cuentas guardadas juntas queden en un solo registro del journal y se recuperen las dos
+     */
+    @Test
+    public void testCuentasGuardadasJuntas() {
+        try (Persistencia persistencia = iniciar()) {
+            long desde = persistencia.getJournal().getProximaSecuencia();
+            cuentaDao.saveJuntas(crearCuenta(NUMERO_CUENTA, 70), crearCuenta(NUMERO_CUENTA + 1, 30));
+
+            List<Byte> tipos = new ArrayList<>();
+            persistencia.getJournal().recorrer(desde, (secuencia, tipo, datos) -> tipos.add(tipo));
+            assertEquals(List.of(JournalCuentas.TIPO_CUENTAS), tipos);
+        }
+        simularReinicio();
+
+        try (Persistencia persistencia = iniciar()) {
+            assertEquals(70, cuentaDao.find(NUMERO_CUENTA).getBalance());
+            assertEquals(30, cuentaDao.find(NUMERO_CUENTA + 1).getBalance());
+        }
+    }
+
+    /**
+     * Testeo que el tope del generador de numeros de cuenta se lea como se guardó
+     */
+    @Test
+    public void testArchivoTope() {
+        ArchivoTope archivo = new ArchivoTope(directorio.resolve("numeros-cuenta.tope"));
+        assertEquals(0, archivo.leer());
+
+        GeneradorNumeroCuenta generador = new GeneradorNumeroCuenta(1000, true, archivo);
+        long numero = generador.siguiente();
+
+        assertTrue(archivo.leer() > numero / 10);
+        assertTrue(new GeneradorNumeroCuenta(1000, true, archivo).siguiente() > numero);
+    }
+
+    private Persistencia iniciar() {
+        return Persistencia.iniciar(directorio, TAMANIO_SEGMENTO, 64, 0, clienteDao, cuentaDao);
+    }
+
+    //La base en memoria es estática: piso las filas con otros valores para ver que la recuperación las repone
+    private void simularReinicio() {
+        clienteDao.restaurar(new ClienteEntity(crearCliente("Otro")));
+        cuentaDao.restaurar(new CuentaEntity(crearCuenta(NUMERO_CUENTA, -1)));
+        cuentaDao.restaurar(new CuentaEntity(crearCuenta(NUMERO_CUENTA + 1, -1)));
+    }
+
+    private Cliente crearCliente(String nombre) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(DNI);
+        cliente.setNombre(nombre);
+        cliente.setApellido("Racciatti");
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setFechaNacimiento(LocalDate.of(1980, 5, 10));
+        cliente.setFechaAlta(LocalDate.of(2024, 1, 2));
+        return cliente;
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta, int balance) {
+        Cliente titular = new Cliente();
+        titular.setDni(DNI);
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(TipoMoneda.DOLARES)
+                .setBalance(balance)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO)
+                .setFechaCreacion(LocalDateTime.of(2024, 5, 10, 12, 30));
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+
+    private long cantidadDeArchivos(Path carpeta) throws IOException {
+        try (Stream<Path> archivos = Files.list(carpeta)) {
+            return archivos.count();
+        }
+    }
+}
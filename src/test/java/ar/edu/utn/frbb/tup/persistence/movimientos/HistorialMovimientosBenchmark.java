@@ -0,0 +1,66 @@
+package ar.edu.utn.frbb.tup.persistence.movimientos;
+
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide registrar un movimiento y consultar una página de 50 en un rango de tiempo al azar, sobre cuentas con
+ * historial largo. Con bloquesEnMemoria chico casi todo el historial está en disco y la consulta lo tiene que leer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistorialMovimientosBenchmark {
+
+    private static final int CUENTAS = 100;
+    private static final int MOVIMIENTOS_POR_CUENTA = 100_000;
+
+    @Param({"100000", "16"})
+    public int bloquesEnMemoria;
+
+    private HistorialMovimientos historial;
+    private long instante;
+
+    @Setup(Level.Trial)
+    public void cargar() {
+        historial = new HistorialMovimientos(null, bloquesEnMemoria);
+        for (int i = 0; i < MOVIMIENTOS_POR_CUENTA; i++) {
+            for (int cuenta = 0; cuenta < CUENTAS; cuenta++) {
+                historial.registrar(cuenta, i, 100, i * 100L, cuenta + 1);
+            }
+        }
+        instante = MOVIMIENTOS_POR_CUENTA;
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        historial.close();
+    }
+
+    @Benchmark
+    public void registrar() {
+        historial.registrar(ThreadLocalRandom.current().nextInt(CUENTAS), instante++, 100, 0, 0);
+    }
+
+    @Benchmark
+    public List<Movimiento> consultarPagina() {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        long desde = azar.nextInt(MOVIMIENTOS_POR_CUENTA - 1000);
+        return historial.consultar(azar.nextInt(CUENTAS), desde, desde + 1000, 0, 50);
+    }
+
+    @Benchmark
+    public long contarRango() {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        long desde = azar.nextInt(MOVIMIENTOS_POR_CUENTA / 2);
+        return historial.contar(azar.nextInt(CUENTAS), desde, desde + MOVIMIENTOS_POR_CUENTA / 2);
+    }
+}
@@ -0,0 +1,135 @@
+package ar.edu.utn.frbb.tup.persistence.movimientos;
+
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistorialMovimientosTest {
+
+    private static final int BLOQUE = HistorialMovimientos.TAMANIO_BLOQUE;
+
+    @TempDir
+    Path directorio;
+
+    /**
+     * Testeo consultas por rango y paginadas que cruzan varios bloques, con los bordes del rango
+     */
+    @Test
+    public void testConsultaPorRango() throws IOException {
+        try (HistorialMovimientos historial = new HistorialMovimientos(directorio, 1000)) {
+            //El movimiento i tiene instante 10 * i, así que hay huecos entre instantes
+            int cantidad = BLOQUE * 3 + 17;
+            for (int i = 0; i < cantidad; i++) {
+                historial.registrar(1L, 10L * i, i, i * 2L, 2L);
+            }
+
+            assertEquals(cantidad, historial.contar(1L, Long.MIN_VALUE, Long.MAX_VALUE));
+            //[15, 25) incluye solo el instante 20
+            assertEquals(1, historial.contar(1L, 15, 25));
+            //[20, 30) incluye 20 y no 30
+            List<Movimiento> borde = historial.consultar(1L, 20, 30, 0, 10);
+            assertEquals(1, borde.size());
+            assertEquals(2, borde.get(0).getMonto());
+
+            long desde = 10L * (BLOQUE - 5);
+            long hasta = 10L * (BLOQUE * 2 + 5);
+            assertEquals(BLOQUE + 10, historial.contar(1L, desde, hasta));
+            List<Movimiento> pagina = historial.consultar(1L, desde, hasta, 3, 100);
+            assertEquals(100, pagina.size());
+            for (int i = 0; i < pagina.size(); i++) {
+                Movimiento movimiento = pagina.get(i);
+                assertEquals(BLOQUE - 5 + 3 + i, movimiento.getMonto());
+                assertEquals(movimiento.getMonto() * 2, movimiento.getSaldo());
+                assertEquals(2L, movimiento.getContraparte());
+                assertEquals(1L, movimiento.getNumeroCuenta());
+            }
+            //La última página queda corta
+            assertEquals(10, historial.consultar(1L, desde, hasta, BLOQUE, 100).size());
+            assertTrue(historial.consultar(1L, desde, hasta, BLOQUE + 10, 100).isEmpty());
+            assertTrue(historial.consultar(2L, desde, hasta, 0, 100).isEmpty());
+            assertEquals(0, historial.contar(1L, 10L * cantidad, Long.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Testeo que con pocos bloques en memoria los viejos se bajen a disco y las consultas den lo mismo
+     */
+    @Test
+    public void testBajadaADisco() throws IOException {
+        try (HistorialMovimientos historial = new HistorialMovimientos(directorio, 2)) {
+            int cantidad = BLOQUE * 10;
+            for (int i = 0; i < cantidad; i++) {
+                historial.registrar(i % 2, i, i, 0, 0);
+            }
+
+            assertEquals(2, historial.bloquesEnMemoria());
+            assertTrue(historial.bytesEnArchivo() > 0);
+            List<Movimiento> movimientos = historial.consultar(0L, 0, cantidad, 0, cantidad);
+            assertEquals(cantidad / 2, movimientos.size());
+            for (int i = 0; i < movimientos.size(); i++) {
+                assertEquals(2L * i, movimientos.get(i).getInstante());
+            }
+            //Un rango que empieza en el medio de un bloque en disco
+            assertEquals(301, historial.consultar(1L, 301, 503, 0, 1000).get(0).getMonto());
+            assertEquals(101, historial.contar(1L, 301, 503));
+        }
+    }
+
+    /**
+     * Testeo que si el reloj retrocede el historial siga ordenado
+     */
+    @Test
+    public void testInstanteAnterior() throws IOException {
+        try (HistorialMovimientos historial = new HistorialMovimientos(directorio, 10)) {
+            historial.registrar(1L, 100, 1, 0, 0);
+            historial.registrar(1L, 50, 2, 0, 0);
+            historial.registrar(1L, 200, 3, 0, 0);
+
+            List<Movimiento> movimientos = historial.consultar(1L, 0, 1000, 0, 10);
+            assertEquals(100, movimientos.get(1).getInstante());
+            assertEquals(2, historial.contar(1L, 100, 101));
+        }
+    }
+
+    /**
+     * Testeo registros concurrentes sobre las mismas cuentas, con bajadas a disco mientras se consulta
+     */
+    @Test
+    public void testConcurrencia() throws Exception {
+        try (HistorialMovimientos historial = new HistorialMovimientos(directorio, 4)) {
+            int hilos = 4;
+            int porHilo = BLOQUE * 8;
+            Thread[] escritores = new Thread[hilos];
+            for (int h = 0; h < hilos; h++) {
+                escritores[h] = new Thread(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        historial.registrar(i % 3, i, 1, 0, 0);
+                        if (i % 100 == 0) {
+                            historial.consultar(i % 3, 0, Long.MAX_VALUE, 0, 50);
+                        }
+                    }
+                });
+                escritores[h].start();
+            }
+            for (Thread escritor : escritores) {
+                escritor.join();
+            }
+
+            long total = 0;
+            for (long cuenta = 0; cuenta < 3; cuenta++) {
+                List<Movimiento> movimientos = historial.consultar(cuenta, Long.MIN_VALUE, Long.MAX_VALUE, 0, hilos * porHilo);
+                for (int i = 1; i < movimientos.size(); i++) {
+                    assertTrue(movimientos.get(i).getInstante() >= movimientos.get(i - 1).getInstante());
+                }
+                total += movimientos.size();
+            }
+            assertEquals((long) hilos * porHilo, total);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package ar.edu.utn.frbb.tup.presentation.extracto;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.movimientos.HistorialMovimientos;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeneradorExtractoTest {
+
+    @TempDir
+    Path directorio;
+
+    private HistorialMovimientos historial;
+    private GeneradorExtracto generador;
+
+    @BeforeEach
+    public void setUp() {
+        historial = new HistorialMovimientos(directorio, 2);
+        generador = new GeneradorExtracto();
+        generador.historial = historial;
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        historial.close();
+    }
+
+    /**
+     * Testeo el extracto en texto de una cuenta, con montos negativos menores a una unidad y columnas alineadas
+     */
+    @Test
+    public void testExtractoTexto() throws IOException {
+        Cuenta cuenta = cuenta(5_100_000_001L, 123_45);
+        long instante = Movimiento.instante(LocalDateTime.of(2024, 3, 5, 9, 7, 1));
+        historial.registrar(cuenta.getNumeroCuenta(), instante, 1000_00, 1000_00, 5_100_000_002L);
+        historial.registrar(cuenta.getNumeroCuenta(), instante + 1000, -50, 999_50, 5_100_000_002L);
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        long bytes = generador.escribirCuenta(cuenta, Long.MIN_VALUE, Long.MAX_VALUE, FormatoExtracto.TEXTO, salida);
+
+        String texto = salida.toString(StandardCharsets.UTF_8);
+        assertEquals(salida.size(), bytes);
+        String[] lineas = texto.split("\n");
+        assertEquals(6, lineas.length);
+        assertEquals("Cuenta 5100000001 - CAJA_AHORRO en PESOS", lineas[0]);
+        assertTrue(lineas[1].contains("Saldo: 123.45"));
+        assertEquals("2024-03-05 09:07:01         1000.00         1000.00     5100000002", lineas[3]);
+        assertEquals("2024-03-05 09:07:02           -0.50          999.50     5100000002", lineas[4]);
+        assertEquals(lineas[2].length(), lineas[3].length());
+        assertEquals("2 movimientos", lineas[5]);
+    }
+
+    /**
+     * Testeo el extracto CSV filtrado por rango: [desde, hasta) y un único encabezado
+     */
+    @Test
+    public void testExtractoCsvPorRango() throws IOException {
+        Cuenta cuenta = cuenta(5_100_000_003L, 0);
+        LocalDate dia = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 10; i++) {
+            historial.registrar(cuenta.getNumeroCuenta(), Movimiento.instante(dia.plusDays(i).atTime(12, 0)),
+                    -(i + 1) * 100L, 10_000 - (i + 1) * 100L, 7L);
+        }
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        generador.escribirCuenta(cuenta, Movimiento.instante(dia.plusDays(2).atStartOfDay()),
+                Movimiento.instante(dia.plusDays(5).atStartOfDay()), FormatoExtracto.CSV, salida);
+
+        assertEquals("cuenta,fecha,monto,saldo,contraparte\n"
+                        + "5100000003,2024-01-03T12:00:00,-3.00,97.00,7\n"
+                        + "5100000003,2024-01-04T12:00:00,-4.00,96.00,7\n"
+                        + "5100000003,2024-01-05T12:00:00,-5.00,95.00,7\n",
+                salida.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Testeo un historial de muchas páginas hacia un canal lento que a veces no acepta bytes:
+     * no se pierde ni se repite ningún movimiento y el nombre con acentos llega en UTF-8
+     */
+    @Test
+    public void testExtractoLargoCanalLento() throws IOException {
+        Cliente cliente = new Cliente();
+        cliente.setDni(51_000_000L);
+        cliente.setNombre("José");
+        cliente.setApellido("Núñez");
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setBanco("Banco Ñandú");
+        cliente.setFechaNacimiento(LocalDate.of(1990, 5, 10));
+        Cuenta cuenta = cuenta(5_100_000_004L, 0);
+        cliente.addCuenta(cuenta);
+
+        int cantidad = GeneradorExtracto.MOVIMIENTOS_POR_PAGINA * 12 + 3;
+        for (int i = 0; i < cantidad; i++) {
+            historial.registrar(cuenta.getNumeroCuenta(), i * 1000L, i, i, 1L);
+        }
+        CanalLento canal = new CanalLento();
+        long bytes = generador.escribirCliente(cliente, Long.MIN_VALUE, Long.MAX_VALUE, FormatoExtracto.CSV, canal);
+
+        String texto = canal.recibido.toString(StandardCharsets.UTF_8);
+        assertEquals(canal.recibido.size(), bytes);
+        assertTrue(canal.rechazos > 0);
+        String[] lineas = texto.split("\n");
+        assertEquals(cantidad + 1, lineas.length);
+        for (int i = 0; i < cantidad; i++) {
+            String[] campos = lineas[i + 1].split(",");
+            assertEquals(cuentaMonto(i), campos[2]);
+        }
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        generador.escribirCliente(cliente, 0, 1, FormatoExtracto.TEXTO, salida);
+        String encabezado = salida.toString(StandardCharsets.UTF_8);
+        assertTrue(encabezado.startsWith("Cliente 51000000 - José Núñez\n"));
+        assertTrue(encabezado.contains("Banco: Banco Ñandú"));
+        assertTrue(encabezado.contains("Cuentas: 1\n"));
+        assertTrue(encabezado.endsWith("1 movimiento\n"));
+    }
+
+    private static String cuentaMonto(int centavos) {
+        return (centavos / 100) + "." + (centavos % 100 < 10 ? "0" : "") + (centavos % 100);
+    }
+
+    private static Cuenta cuenta(long numero, long balance) {
+        Cuenta cuenta = new Cuenta()
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO)
+                .setMoneda(TipoMoneda.PESOS)
+                .setBalance(balance);
+        cuenta.setNumeroCuenta(numero);
+        return cuenta;
+    }
+
+    //Canal no bloqueante lento: una escritura de cada tres no acepta nada y el resto acepta pocos bytes
+    private static final class CanalLento implements WritableByteChannel {
+        final ByteArrayOutputStream recibido = new ByteArrayOutputStream();
+        int escrituras;
+        int rechazos;
+
+        @Override
+        public int write(ByteBuffer origen) {
+            if (++escrituras % 3 == 0) {
+                rechazos++;
+                return 0;
+            }
+            int cantidad = Math.min(origen.remaining(), 1500);
+            byte[] bytes = new byte[cantidad];
+            origen.get(bytes);
+            recibido.write(bytes, 0, cantidad);
+            return cantidad;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
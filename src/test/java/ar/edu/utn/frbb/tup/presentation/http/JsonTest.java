@@ -0,0 +1,30 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTest {
+
+    /** Testeo que se lea cualquier valor, con los enteros como Long y el resto de los números como Double */
+    @Test
+    public void testLeer() {
+        List<?> arreglo = (List<?>) Json.leer(" [ {\"a\" : 1, \"b\" : [2.5, \"NaN\", null]}, true ] ");
+
+        Map<?, ?> objeto = (Map<?, ?>) arreglo.get(0);
+        assertEquals(1L, objeto.get("a"));
+        assertEquals(List.of(2.5, "NaN"), ((List<?>) objeto.get("b")).subList(0, 2));
+        assertEquals(Boolean.TRUE, arreglo.get(1));
+    }
+
+    /** Testeo que el texto inválido o con algo después del valor se rechace con IllegalArgumentException */
+    @Test
+    public void testInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> Json.leer("[1, 2"));
+        assertThrows(IllegalArgumentException.class, () -> Json.leer("{} {}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.leerObjeto("[1]"));
+    }
+}
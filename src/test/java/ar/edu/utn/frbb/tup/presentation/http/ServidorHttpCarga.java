@@ -0,0 +1,103 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.metricas.Histograma;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.presentation.extracto.GeneradorExtracto;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga de la API HTTP: precarga clientes y después varios hilos mezclan búsquedas y altas
+ * durante un tiempo fijo. Informa pedidos por segundo, errores y percentiles de latencia.
+ *
+ * Uso: ServidorHttpCarga [hilosCliente] [segundos] [clientesPrecargados] [porcentajeAltas] [url]
+ * Sin url se levanta un servidor en el mismo proceso, en un puerto libre y con hilos virtuales si los hay
+ * (-Dtup.http.hilos=N para un pool fijo).
+ */
+public class ServidorHttpCarga {
+
+    private static final long DNI_BASE = 80_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int precargados = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int porcentajeAltas = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        ServidorHttp servidor = null;
+        String base;
+        if (args.length > 4) {
+            base = args[4];
+        } else {
+            CuentaDao cuentaDao = new CuentaDao();
+            ClienteService clienteService = new ClienteService(new ClienteDao(cuentaDao));
+            servidor = new ServidorHttp(clienteService, new CuentaService(cuentaDao, clienteService), new GeneradorExtracto());
+            base = "http://localhost:" + servidor.iniciar(0, Integer.getInteger("tup.http.hilos", 0)).getPort();
+        }
+
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (int i = 0; i < precargados; i++) {
+            enviar(cliente, alta(base, DNI_BASE + i));
+        }
+        System.out.println("Precargados " + precargados + " clientes en " + base);
+
+        AtomicLong proximoDni = new AtomicLong(DNI_BASE + precargados);
+        Histograma latencias = new Histograma();
+        LongAdder errores = new LongAdder();
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        Thread[] trabajadores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            trabajadores[h] = new Thread(() -> {
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                while (System.nanoTime() < fin) {
+                    HttpRequest pedido = azar.nextInt(100) < porcentajeAltas
+                            ? alta(base, proximoDni.getAndIncrement())
+                            : HttpRequest.newBuilder(URI.create(base + "/clientes/" + (DNI_BASE + azar.nextInt(Math.max(precargados, 1))))).GET().build();
+                    long inicio = System.nanoTime();
+                    try {
+                        if (enviar(cliente, pedido) >= 400) {
+                            errores.increment();
+                        }
+                    } catch (Exception e) {
+                        errores.increment();
+                    }
+                    latencias.registrar(System.nanoTime() - inicio);
+                }
+            }, "carga-" + h);
+            trabajadores[h].start();
+        }
+        for (Thread trabajador : trabajadores) {
+            trabajador.join();
+        }
+
+        Histograma.Resumen resumen = latencias.resumen();
+        System.out.printf("%d pedidos en %d s con %d hilos: %.0f pedidos/s, %d errores%n", resumen.getCantidad(),
+                segundos, hilos, resumen.getCantidad() / (double) segundos, errores.sum());
+        System.out.printf("latencia p50=%d us p99=%d us p999=%d us max=%d us%n", resumen.percentil(0.50) / 1000,
+                resumen.percentil(0.99) / 1000, resumen.percentil(0.999) / 1000, resumen.getMaximo() / 1000);
+        if (servidor != null) {
+            servidor.detener();
+        }
+    }
+
+    private static HttpRequest alta(String base, long dni) {
+        String cuerpo = "{\"dni\":" + dni + ",\"nombre\":\"Carga\",\"apellido\":\"Prueba\",\"tipoPersona\":\"F\","
+                + "\"banco\":\"Nacion\",\"fechaNacimiento\":\"1980-01-01\"}";
+        return HttpRequest.newBuilder(URI.create(base + "/clientes"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build();
+    }
+
+    private static int enviar(HttpClient cliente, HttpRequest pedido) throws Exception {
+        return cliente.send(pedido, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,214 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.metricas.Metricas;
+import ar.edu.utn.frbb.tup.metricas.Operacion;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.movimientos.HistorialMovimientos;
+import ar.edu.utn.frbb.tup.presentation.extracto.GeneradorExtracto;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ServidorHttpTest {
+
+    //Rango de dni y numeros de cuenta que no usan los otros tests, ya que la base es compartida
+    private static final long DNI_BASE = 70_000_000;
+    private static final long NUMERO_BASE = 7_000_000;
+
+    private ServidorHttp servidor;
+    private HttpClient cliente;
+    private String base;
+
+    @BeforeAll
+    public void setUp() throws Exception {
+        CuentaDao cuentaDao = new CuentaDao();
+        ClienteService clienteService = new ClienteService(new ClienteDao(cuentaDao));
+        servidor = new ServidorHttp(clienteService, new CuentaService(cuentaDao, clienteService), new GeneradorExtracto());
+        base = "http://localhost:" + servidor.iniciar(0, 2).getPort();
+        cliente = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    public void tearDown() {
+        servidor.detener();
+    }
+
+    /** Testeo el alta de un cliente y que después se lo pueda buscar */
+    @Test
+    public void testAltaYBusquedaDeCliente() throws Exception {
+        HttpResponse<String> alta = post("/clientes", clienteJson(DNI_BASE + 1));
+        assertEquals(201, alta.statusCode());
+        assertEquals(DNI_BASE + 1, (Long) Json.leerObjeto(alta.body()).get("dni"));
+
+        HttpResponse<String> busqueda = get("/clientes/" + (DNI_BASE + 1));
+        assertEquals(200, busqueda.statusCode());
+        Map<String, Object> json = Json.leerObjeto(busqueda.body());
+        assertEquals("Ana", json.get("nombre"));
+        assertEquals("F", json.get("tipoPersona"));
+        assertEquals("1990-05-10", json.get("fechaNacimiento"));
+    }
+
+    /** Testeo que un dni repetido devuelva 409 */
+    @Test
+    public void testClienteRepetido() throws Exception {
+        assertEquals(201, post("/clientes", clienteJson(DNI_BASE + 2)).statusCode());
+        assertEquals(409, post("/clientes", clienteJson(DNI_BASE + 2)).statusCode());
+    }
+
+    /** Testeo los pedidos mal armados, los recursos inexistentes y los métodos no permitidos */
+    @Test
+    public void testErrores() throws Exception {
+        assertEquals(400, post("/clientes", "{\"dni\":").statusCode());
+        assertEquals(400, post("/clientes", "{\"dni\":" + (DNI_BASE + 3) + "}").statusCode());
+        assertEquals(400, get("/clientes/abc").statusCode());
+        assertEquals(404, get("/clientes/" + (DNI_BASE + 999)).statusCode());
+        assertEquals(404, get("/cuentas/" + (NUMERO_BASE + 999)).statusCode());
+        assertEquals(405, get("/clientes").statusCode());
+        assertEquals(405, post("/cuentas/" + NUMERO_BASE, "{}").statusCode());
+    }
+
+    /** Testeo que un error inesperado devuelva 500 sin detalles y quede contado en las métricas */
+    @Test
+    public void testErrorInterno() throws Exception {
+        ClienteService fallando = mock(ClienteService.class);
+        when(fallando.buscarClientePorDni(anyLong())).thenThrow(new IllegalStateException("detalle interno"));
+        ServidorHttp otro = new ServidorHttp(fallando, mock(CuentaService.class), new GeneradorExtracto());
+        try {
+            String otraBase = "http://localhost:" + otro.iniciar(0, 1).getPort();
+            Operacion errores = Metricas.getInstancia().operacion("http.error");
+            long antes = errores.errores().getOrDefault("IllegalStateException", 0L);
+
+            HttpResponse<String> respuesta = cliente.send(HttpRequest.newBuilder(URI.create(otraBase + "/clientes/" + (DNI_BASE + 5)))
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(500, respuesta.statusCode());
+            assertFalse(respuesta.body().contains("detalle interno"));
+            assertEquals(antes + 1, errores.errores().get("IllegalStateException"));
+        } finally {
+            otro.detener();
+        }
+    }
+
+    /** Testeo el alta de una cuenta, que aparezca en el cliente y las reglas de negocio del alta */
+    @Test
+    public void testAltaDeCuenta() throws Exception {
+        long dni = DNI_BASE + 4;
+        assertEquals(201, post("/clientes", clienteJson(dni)).statusCode());
+
+        HttpResponse<String> alta = post("/cuentas", "{\"dniTitular\":" + dni + ",\"tipoCuenta\":\"CAJA_AHORRO\","
+                + "\"moneda\":\"PESOS\",\"numeroCuenta\":" + (NUMERO_BASE + 4) + "}");
+        assertEquals(201, alta.statusCode());
+        Map<String, Object> cuenta = Json.leerObjeto(get("/cuentas/" + (NUMERO_BASE + 4)).body());
+        assertEquals("0.00", cuenta.get("balance"));
+        assertEquals(dni, (Long) cuenta.get("titular"));
+        assertTrue(get("/clientes/" + dni).body().contains("\"numeroCuenta\":" + (NUMERO_BASE + 4)));
+
+        //Numero repetido, mismo tipo y moneda para el titular, producto no soportado y titular inexistente
+        assertEquals(409, post("/cuentas", "{\"dniTitular\":" + dni + ",\"tipoCuenta\":\"CUENTA_CORRIENTE\","
+                + "\"moneda\":\"PESOS\",\"numeroCuenta\":" + (NUMERO_BASE + 4) + "}").statusCode());
+        assertEquals(409, post("/cuentas", "{\"dniTitular\":" + dni + ",\"tipoCuenta\":\"CAJA_AHORRO\","
+                + "\"moneda\":\"PESOS\"}").statusCode());
+        assertEquals(422, post("/cuentas", "{\"dniTitular\":" + dni + ",\"tipoCuenta\":\"CUENTA_CORRIENTE\","
+                + "\"moneda\":\"DOLARES\"}").statusCode());
+        assertEquals(400, post("/cuentas", "{\"dniTitular\":" + (DNI_BASE + 998) + ",\"tipoCuenta\":\"CAJA_AHORRO\","
+                + "\"moneda\":\"PESOS\"}").statusCode());
+    }
+
+    /** Testeo que las altas repetidas con Idempotency-Key respondan lo mismo que la primera */
+    @Test
+    public void testAltasIdempotentes() throws Exception {
+        long dni = DNI_BASE + 7;
+        HttpResponse<String> alta = post("/clientes", clienteJson(dni), "cliente-" + dni);
+        assertEquals(201, alta.statusCode());
+        HttpResponse<String> repetida = post("/clientes", clienteJson(dni), "cliente-" + dni);
+        assertEquals(201, repetida.statusCode());
+        assertEquals(alta.body(), repetida.body());
+
+        String cuenta = "{\"dniTitular\":" + dni + ",\"tipoCuenta\":\"CAJA_AHORRO\",\"moneda\":\"PESOS\"}";
+        HttpResponse<String> primera = post("/cuentas", cuenta, "cuenta-" + dni);
+        assertEquals(201, primera.statusCode());
+        HttpResponse<String> segunda = post("/cuentas", cuenta, "cuenta-" + dni);
+        assertEquals(201, segunda.statusCode());
+        assertEquals(Json.leerObjeto(primera.body()).get("numeroCuenta"), Json.leerObjeto(segunda.body()).get("numeroCuenta"));
+        //Sin la clave es un alta nueva, que choca con la cuenta ya creada
+        assertEquals(409, post("/cuentas", cuenta).statusCode());
+        //La misma clave con otro pedido se rechaza
+        assertEquals(400, post("/cuentas", cuenta.replace("PESOS", "DOLARES"), "cuenta-" + dni).statusCode());
+
+        //Con un número pedido, la misma clave con otro número también es otro pedido
+        String conNumero = cuenta.replace("PESOS", "DOLARES").replace("}", ",\"numeroCuenta\":" + (NUMERO_BASE + 7) + "}");
+        assertEquals(201, post("/cuentas", conNumero, "cuenta-numero-" + dni).statusCode());
+        assertEquals(201, post("/cuentas", conNumero, "cuenta-numero-" + dni).statusCode());
+        assertEquals(400, post("/cuentas", conNumero.replace(String.valueOf(NUMERO_BASE + 7), String.valueOf(NUMERO_BASE + 8)),
+                "cuenta-numero-" + dni).statusCode());
+    }
+
+    /** Testeo el extracto de una cuenta en CSV y en texto, y los errores del pedido */
+    @Test
+    public void testExtractoDeCuenta() throws Exception {
+        long dni = DNI_BASE + 5;
+        long numero = NUMERO_BASE + 5;
+        assertEquals(201, post("/clientes", clienteJson(dni)).statusCode());
+        assertEquals(201, post("/cuentas", "{\"dniTitular\":" + dni + ",\"tipoCuenta\":\"CAJA_AHORRO\","
+                + "\"moneda\":\"PESOS\",\"numeroCuenta\":" + numero + "}").statusCode());
+        HistorialMovimientos.getInstancia().registrar(numero,
+                Movimiento.instante(LocalDateTime.of(2024, 6, 1, 10, 30)), 250_00, 250_00, NUMERO_BASE + 6);
+
+        HttpResponse<String> csv = get("/cuentas/" + numero + "/extracto?formato=csv&desde=2024-06-01&hasta=2024-06-01");
+        assertEquals(200, csv.statusCode());
+        assertEquals("text/csv; charset=utf-8", csv.headers().firstValue("Content-Type").orElse(null));
+        assertEquals("cuenta,fecha,monto,saldo,contraparte\n"
+                + numero + ",2024-06-01T10:30:00,250.00,250.00," + (NUMERO_BASE + 6) + "\n", csv.body());
+        assertFalse(get("/cuentas/" + numero + "/extracto?formato=csv&desde=2024-06-02").body().contains("250.00"));
+
+        HttpResponse<String> texto = get("/cuentas/" + numero + "/extracto");
+        assertEquals(200, texto.statusCode());
+        assertTrue(texto.body().startsWith("Cuenta " + numero + " - CAJA_AHORRO en PESOS\n"));
+        assertTrue(texto.body().endsWith("1 movimiento\n"));
+
+        assertEquals(404, get("/cuentas/" + (NUMERO_BASE + 999) + "/extracto").statusCode());
+        assertEquals(400, get("/cuentas/" + numero + "/extracto?formato=pdf").statusCode());
+        assertEquals(400, get("/cuentas/" + numero + "/extracto?desde=ayer").statusCode());
+        assertEquals(400, get("/cuentas/abc/extracto").statusCode());
+        assertEquals(405, post("/cuentas/" + numero + "/extracto", "{}").statusCode());
+    }
+
+    private static String clienteJson(long dni) {
+        return "{\"dni\":" + dni + ",\"nombre\":\"Ana\",\"apellido\":\"P\\u00e9rez\",\"tipoPersona\":\"F\","
+                + "\"banco\":\"Nacion\",\"fechaNacimiento\":\"1990-05-10\"}";
+    }
+
+    private HttpResponse<String> get(String ruta) throws Exception {
+        return cliente.send(HttpRequest.newBuilder(URI.create(base + ruta)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String ruta, String cuerpo) throws Exception {
+        return post(ruta, cuerpo, null);
+    }
+
+    private HttpResponse<String> post(String ruta, String cuerpo, String claveIdempotencia) throws Exception {
+        HttpRequest.Builder pedido = HttpRequest.newBuilder(URI.create(base + ruta))
+                .header("Content-Type", "application/json");
+        if (claveIdempotencia != null) {
+            pedido.header("Idempotency-Key", claveIdempotencia);
+        }
+        return cliente.send(pedido.POST(HttpRequest.BodyPublishers.ofString(cuerpo)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
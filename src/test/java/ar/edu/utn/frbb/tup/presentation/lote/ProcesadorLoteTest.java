@@ -0,0 +1,112 @@
+package ar.edu.utn.frbb.tup.presentation.lote;
+
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import ar.edu.utn.frbb.tup.service.TransferenciaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcesadorLoteTest {
+
+    //Dni y numeros de cuenta que no usan los otros tests, ya que la base es compartida
+    private static final long PRIMER_DNI = 60_000_000L;
+    private static final long PRIMERA_CUENTA = 6_000_000_000L;
+
+    private CuentaDao cuentaDao;
+    private ProcesadorLote procesador;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao();
+        ClienteService clienteService = new ClienteService(new ClienteDao(cuentaDao));
+        procesador = new ProcesadorLote(clienteService, new CuentaService(cuentaDao, clienteService),
+                new TransferenciaService(cuentaDao));
+    }
+
+    /**
+     * Testeo un script con todos los comandos, errores de negocio y líneas mal formadas, y que la salida
+     * respete el orden y la numeración de las líneas
+     */
+    @Test
+    public void testScriptCompleto() throws IOException {
+        long dni = PRIMER_DNI;
+        long cuenta = PRIMERA_CUENTA;
+        String script = String.join("\n",
+                "# alta de clientes",
+                "cliente-alta;" + dni + ";Ana;García;F;Nación;1980-05-10",
+                "cliente-alta;" + dni + ";Ana;Repetida;F;Nación;1980-05-10",
+                "",
+                "cuenta-alta;" + dni + ";A;P;" + cuenta,
+                "cuenta-alta;" + dni + ";C;P;" + (cuenta + 1),
+                "cuenta-alta;" + dni + ";A;P;" + (cuenta + 2),
+                "cuenta-alta;" + (dni + 1) + ";A;P;" + (cuenta + 3),
+                "transferir;" + cuenta + ";" + (cuenta + 1) + ";10.50",
+                "cuenta;" + (cuenta + 1),
+                "cliente;" + dni,
+                "borrar;" + dni,
+                "transferir;" + cuenta + ";" + (cuenta + 1) + ";abc");
+
+        StringWriter salida = new StringWriter();
+        //El saldo inicial se carga antes de transferir, en el medio del script
+        String[] partes = script.split("transferir", 2);
+        ResultadoLote alta = procesador.procesar(new StringReader(partes[0]), salida);
+        cuentaDao.save(cuentaDao.find(cuenta).setBalance(100_00));
+        ResultadoLote resto = procesador.procesar(new StringReader("transferir" + partes[1]), salida);
+
+        assertEquals(6, alta.getComandos());
+        assertEquals(3, alta.getExitosos());
+        assertEquals(3, alta.getFallidos());
+        assertEquals(5, resto.getComandos());
+        assertEquals(3, resto.getExitosos());
+
+        String[] lineas = salida.toString().split("\\R");
+        assertEquals(11, lineas.length);
+        assertTrue(lineas[0].startsWith("2;OK;"));
+        assertTrue(lineas[1].startsWith("3;ERROR;Ya existe un cliente"));
+        assertTrue(lineas[2].startsWith("5;OK;Cuenta " + cuenta));
+        assertTrue(lineas[3].startsWith("6;OK;"));
+        assertTrue(lineas[4].startsWith("7;ERROR;"));
+        assertEquals("8;ERROR;El cliente no existe", lineas[5]);
+        //El segundo script arranca de nuevo en la línea 1
+        assertTrue(lineas[6].startsWith("1;OK;Transferencia de 10.50"));
+        assertEquals("2;OK;" + (cuenta + 1) + ";CUENTA_CORRIENTE;PESOS;10.50", lineas[7]);
+        assertEquals("3;OK;" + dni + ";Ana;García;2 cuentas", lineas[8]);
+        assertEquals("4;ERROR;Comando desconocido: borrar", lineas[9]);
+        assertTrue(lineas[10].startsWith("5;ERROR;"));
+    }
+
+    /**
+     * Testeo un script de varios lotes, donde las altas de cuenta dependen de clientes dados de alta en lotes anteriores
+     */
+    @Test
+    public void testVariosLotes() throws IOException {
+        int cantidad = ProcesadorLote.TAMANIO_LOTE * 2 + 10;
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < cantidad; i++) {
+            script.append("cliente-alta;").append(PRIMER_DNI + 100 + i).append(";Nombre;Apellido;J;Galicia;1970-01-01\n");
+        }
+        for (int i = 0; i < cantidad; i++) {
+            script.append("cuenta-alta;").append(PRIMER_DNI + 100 + i).append(";A;D;").append(PRIMERA_CUENTA + 100 + i).append('\n');
+        }
+
+        StringWriter salida = new StringWriter();
+        ResultadoLote resultado = procesador.procesar(new StringReader(script.toString()), salida);
+
+        assertEquals(cantidad * 2L, resultado.getComandos());
+        assertEquals(cantidad * 2L, resultado.getExitosos());
+        assertTrue(resultado.comandosPorSegundo() > 0);
+        assertNotNull(cuentaDao.find(PRIMERA_CUENTA + 100 + cantidad - 1));
+        String[] lineas = salida.toString().split("\\R");
+        for (int i = 0; i < lineas.length; i++) {
+            assertTrue(lineas[i].startsWith((i + 1) + ";OK;"), lineas[i]);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide darDeAltaCliente con la base ya cargada con distinta cantidad de clientes, con uno y con todos los hilos.
+ * Cada iteración es un lote de ALTAS_POR_ITERACION altas por hilo con clientes nuevos, armados antes de medir,
+ * así la tabla crece de a poco y el tiempo reportado es el del lote entero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = ClienteServiceBenchmark.ALTAS_POR_ITERACION)
+@Measurement(iterations = 5, batchSize = ClienteServiceBenchmark.ALTAS_POR_ITERACION)
+@Fork(1)
+public class ClienteServiceBenchmark {
+
+    static final int ALTAS_POR_ITERACION = 10_000;
+    private static final long PRIMER_DNI_NUEVO = 100_000_000L;
+
+    @Param({"10000", "1000000"})
+    public int cantidadClientes;
+
+    private ClienteService clienteService;
+    private final AtomicLong proximoDni = new AtomicLong(PRIMER_DNI_NUEVO);
+
+    @Setup(Level.Trial)
+    public void cargarClientes() {
+        ClienteDao clienteDao = new ClienteDao();
+        clienteService = new ClienteService(clienteDao);
+        for (int dni = 0; dni < cantidadClientes; dni++) {
+            clienteDao.save(crearCliente(dni));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lote {
+        Cliente[] clientes = new Cliente[ALTAS_POR_ITERACION];
+        int proximo;
+
+        @Setup(Level.Iteration)
+        public void armar(ClienteServiceBenchmark benchmark) {
+            for (int i = 0; i < clientes.length; i++) {
+                clientes[i] = crearCliente(benchmark.proximoDni.getAndIncrement());
+            }
+            proximo = 0;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void darDeAltaClienteUnHilo(Lote lote) throws ClienteAlreadyExistsException {
+        clienteService.darDeAltaCliente(lote.clientes[lote.proximo++]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void darDeAltaClienteTodosLosHilos(Lote lote) throws ClienteAlreadyExistsException {
+        clienteService.darDeAltaCliente(lote.clientes[lote.proximo++]);
+    }
+
+    private static Cliente crearCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Nombre" + dni);
+        cliente.setApellido("Apellido" + dni);
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setFechaAlta(LocalDate.of(2020, 1, 1));
+        cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        return cliente;
+    }
+}
@@ -4,6 +4,7 @@ import ar.edu.utn.frbb.tup.model.*;
 import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
 
 
 
@@ -18,6 +19,7 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.concurrent.locks.Lock;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -51,9 +53,47 @@ public class ClienteServiceTest {
         cliente.setFechaNacimiento(LocalDate.of(1978,3,25));
         cliente.setDni(29857643);
         cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        when(clienteDao.saveIfAbsent(cliente)).thenReturn(true);
         clienteService.darDeAltaCliente(cliente);
 
-        verify(clienteDao, times(1)).save(cliente);
+        verify(clienteDao, times(1)).saveIfAbsent(cliente);
+    }
+
+    /** Testeo que si otra alta del mismo dni gana entre la búsqueda y el guardado se lance ClienteAlreadyExistsException */
+    @Test
+    public void testClienteGuardadoPorOtraAlta() {
+        Cliente cliente = new Cliente();
+        cliente.setFechaNacimiento(LocalDate.of(1978,3,25));
+        cliente.setDni(29857644);
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        when(clienteDao.saveIfAbsent(cliente)).thenReturn(false);
+
+        assertThrows(ClienteAlreadyExistsException.class, () -> clienteService.darDeAltaCliente(cliente));
+        verify(clienteDao, never()).save(cliente);
+    }
+
+    /** Testeo que un alta repetida con la misma clave de idempotencia devuelva el cliente original sin guardar de nuevo */
+    @Test
+    public void testAltaIdempotente() throws ClienteAlreadyExistsException {
+        Cliente cliente = new Cliente();
+        cliente.setFechaNacimiento(LocalDate.of(1980, 1, 15));
+        cliente.setDni(29857650);
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        Cliente reintento = new Cliente();
+        reintento.setFechaNacimiento(LocalDate.of(1980, 1, 15));
+        reintento.setDni(29857650);
+        reintento.setTipoPersona(TipoPersona.PERSONA_FISICA);
+
+        when(clienteDao.saveIfAbsent(cliente)).thenReturn(true);
+
+        assertSame(cliente, clienteService.darDeAltaCliente("alta-29857650", cliente));
+        assertSame(cliente, clienteService.darDeAltaCliente("alta-29857650", reintento));
+        verify(clienteDao, times(1)).saveIfAbsent(cliente);
+        verify(clienteDao, never()).saveIfAbsent(reintento);
+
+        //La misma clave con otro cliente es un error del que llama
+        reintento.setDni(29857651);
+        assertThrows(IllegalArgumentException.class, () -> clienteService.darDeAltaCliente("alta-29857650", reintento));
     }
 
     @Test
@@ -204,6 +244,22 @@ public class ClienteServiceTest {
     /**
      * Testeo el método buscarPorDni: caso de éxito
      */
+    /**
+     * Testeo que el lock de titular no sea ninguno de los locks de fila de los DAOs, para que tomarlo antes
+     * que el de una cuenta no se cruce con el orden de locksEnOrden
+     */
+    @Test
+    public void testLockTitularAparteDeLasFilas() {
+        ClienteDao clientes = new ClienteDao();
+        CuentaDao cuentas = new CuentaDao();
+        for (long dni = 29_000_000; dni < 29_001_000; dni++) {
+            Lock lock = clienteService.lockTitular(dni);
+            assertSame(lock, clienteService.lockTitular(dni));
+            assertNotSame(clientes.lockFor(dni), lock);
+            assertNotSame(cuentas.lockFor(dni), lock);
+        }
+    }
+
     @Test
     public void testBuscarClienteExistente() {
         Cliente cliente = this.crearCliente();
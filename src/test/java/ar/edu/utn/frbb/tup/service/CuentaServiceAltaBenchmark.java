@@ -0,0 +1,107 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.CuentaNoSoportadaException;
+import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide darDeAltaCuenta de a una cuenta, con la base cargada con distinta cantidad de clientes con dos cuentas
+ * cada uno, con uno y con todos los hilos. Los titulares de cada lote se guardan antes de medir y todavía
+ * no tienen cuentas, así todas las altas son válidas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = CuentaServiceAltaBenchmark.ALTAS_POR_ITERACION)
+@Measurement(iterations = 5, batchSize = CuentaServiceAltaBenchmark.ALTAS_POR_ITERACION)
+@Fork(1)
+public class CuentaServiceAltaBenchmark {
+
+    static final int ALTAS_POR_ITERACION = 10_000;
+    private static final long PRIMER_DNI_NUEVO = 100_000_000L;
+    private static final long PRIMERA_CUENTA_NUEVA = 5_000_000_000L;
+
+    @Param({"10000", "1000000"})
+    public int cantidadClientes;
+
+    private ClienteDao clienteDao;
+    private CuentaService cuentaService;
+    private final AtomicLong proximoDni = new AtomicLong(PRIMER_DNI_NUEVO);
+
+    @Setup(Level.Trial)
+    public void cargarClientes() {
+        CuentaDao cuentaDao = new CuentaDao();
+        clienteDao = new ClienteDao(cuentaDao);
+        cuentaService = new CuentaService(cuentaDao, new ClienteService(clienteDao));
+        for (int dni = 0; dni < cantidadClientes; dni++) {
+            Cliente cliente = crearCliente(dni);
+            clienteDao.save(cliente);
+            cuentaDao.save(crearCuenta(dni * 2L, cliente, TipoCuenta.CAJA_AHORRO));
+            cuentaDao.save(crearCuenta(dni * 2L + 1, cliente, TipoCuenta.CUENTA_CORRIENTE));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lote {
+        long[] dnis = new long[ALTAS_POR_ITERACION];
+        Cuenta[] cuentas = new Cuenta[ALTAS_POR_ITERACION];
+        int proximo;
+
+        @Setup(Level.Iteration)
+        public void armar(CuentaServiceAltaBenchmark benchmark) {
+            for (int i = 0; i < dnis.length; i++) {
+                long dni = benchmark.proximoDni.getAndIncrement();
+                benchmark.clienteDao.save(crearCliente(dni));
+                dnis[i] = dni;
+                cuentas[i] = crearCuenta(PRIMERA_CUENTA_NUEVA + dni, null, TipoCuenta.CAJA_AHORRO);
+            }
+            proximo = 0;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void darDeAltaCuentaUnHilo(Lote lote) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        int i = lote.proximo++;
+        cuentaService.darDeAltaCuenta(lote.cuentas[i], lote.dnis[i]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void darDeAltaCuentaTodosLosHilos(Lote lote) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        int i = lote.proximo++;
+        cuentaService.darDeAltaCuenta(lote.cuentas[i], lote.dnis[i]);
+    }
+
+    private static Cliente crearCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Nombre" + dni);
+        cliente.setApellido("Apellido" + dni);
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setFechaAlta(LocalDate.of(2020, 1, 1));
+        cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        return cliente;
+    }
+
+    private static Cuenta crearCuenta(long numero, Cliente titular, TipoCuenta tipoCuenta) {
+        Cuenta cuenta = new Cuenta()
+                .setTipoCuenta(tipoCuenta)
+                .setMoneda(TipoMoneda.PESOS);
+        cuenta.setNumeroCuenta(numero);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+}
@@ -0,0 +1,85 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide darDeAltaCuentas sobre un lote de tres cuentas por cliente con distintos grados de paralelismo.
+ * Cada iteración usa clientes nuevos, así todas las solicitudes del lote son válidas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CuentaServiceBenchmark {
+
+    private static final long PRIMER_DNI = 90_000_000L;
+    private static final long PRIMERA_CUENTA = 9_000_000_000L;
+
+    @Param({"1", "2", "4", "8"})
+    public int paralelismo;
+
+    @Param({"5000"})
+    public int clientesPorLote;
+
+    private ForkJoinPool pool;
+    private ClienteDao clienteDao;
+    private CuentaService cuentaService;
+    private long proximoDni = PRIMER_DNI;
+    private List<SolicitudCuenta> lote;
+
+    @Setup(Level.Trial)
+    public void crearServicio() {
+        pool = new ForkJoinPool(paralelismo);
+        CuentaDao cuentaDao = new CuentaDao();
+        clienteDao = new ClienteDao(cuentaDao);
+        cuentaService = new CuentaService(cuentaDao, new ClienteService(clienteDao));
+    }
+
+    @Setup(Level.Iteration)
+    public void armarLote() {
+        lote = new ArrayList<>(clientesPorLote * 3);
+        for (int i = 0; i < clientesPorLote; i++) {
+            long dni = proximoDni++;
+            Cliente cliente = new Cliente();
+            cliente.setDni(dni);
+            cliente.setFechaNacimiento(LocalDate.of(1980, 1, 1));
+            clienteDao.save(cliente);
+            long numero = PRIMERA_CUENTA + (dni - PRIMER_DNI) * 3;
+            lote.add(new SolicitudCuenta(crearCuenta(numero, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS), dni));
+            lote.add(new SolicitudCuenta(crearCuenta(numero + 1, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS), dni));
+            lote.add(new SolicitudCuenta(crearCuenta(numero + 2, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES), dni));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrarPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public ResultadoAltaCuentas darDeAltaCuentas() {
+        return cuentaService.darDeAltaCuentas(lote, pool);
+    }
+
+    private static Cuenta crearCuenta(long numero, TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        Cuenta cuenta = new Cuenta()
+                .setTipoCuenta(tipoCuenta)
+                .setMoneda(moneda);
+        cuenta.setNumeroCuenta(numero);
+        return cuenta;
+    }
+}
@@ -1,9 +1,11 @@
 package ar.edu.utn.frbb.tup.service;
 
+import ar.edu.utn.frbb.tup.model.CatalogoProductos;
 import ar.edu.utn.frbb.tup.model.Cliente;
 import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.model.TipoMoneda;
 import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
 import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
@@ -18,6 +20,19 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,6 +58,7 @@ public class CuentaServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        lenient().when(clienteService.lockTitular(anyLong())).thenReturn(new ReentrantLock());
     }
 
 
@@ -98,6 +114,48 @@ public class CuentaServiceTest {
     }
 
 
+    /**
+     * Testeo que un reintento con la misma clave de idempotencia devuelva la cuenta original, con su número,
+     * en vez de crear una segunda
+     */
+    @Test
+    public void testAltaIdempotente() throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, CuentaNoSoportadaException {
+        Cliente titular = new Cliente();
+        when(clienteService.buscarClientePorDni(dni)).thenReturn(titular);
+
+        Cuenta cuenta = new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS);
+        Cuenta reintento = new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS);
+        assertNotEquals(cuenta.getNumeroCuenta(), reintento.getNumeroCuenta());
+
+        when(cuentaDao.saveIfAbsent(cuenta)).thenReturn(true);
+
+        assertSame(cuenta, cuentaService.darDeAltaCuenta("alta-cuenta-1", cuenta, dni, false));
+        assertSame(cuenta, cuentaService.darDeAltaCuenta("alta-cuenta-1", reintento, dni, false));
+        verify(cuentaDao, times(1)).saveIfAbsent(cuenta);
+        verify(cuentaDao, never()).saveIfAbsent(reintento);
+        assertTrue(titular.getCuentas().contains(cuenta));
+    }
+
+    /**
+     * Testeo que con un número pedido la misma clave con otro número se rechace, y que las excepciones del
+     * dominio lleguen con su tipo también en los reintentos
+     */
+    @Test
+    public void testAltaIdempotenteConNumeroPedido() throws Throwable {
+        Cliente titular = new Cliente();
+        titular.addCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS));
+        when(clienteService.buscarClientePorDni(dni)).thenReturn(titular);
+
+        Cuenta cuenta = Cuenta.conNumero(numeroCuenta).setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS);
+        TipoCuentaAlreadyExistsException primera = assertThrows(TipoCuentaAlreadyExistsException.class,
+                () -> cuentaService.darDeAltaCuenta("alta-cuenta-2", cuenta, dni, true));
+        assertSame(primera, assertThrows(TipoCuentaAlreadyExistsException.class,
+                () -> cuentaService.darDeAltaCuenta("alta-cuenta-2", cuenta, dni, true)));
+
+        Cuenta otroNumero = Cuenta.conNumero(numeroCuenta + 1).setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS);
+        assertThrows(IllegalArgumentException.class, () -> cuentaService.darDeAltaCuenta("alta-cuenta-2", otroNumero, dni, true));
+    }
+
     /**
      *Testeo que la cuenta se cree exitosamente
      */
@@ -117,14 +175,247 @@ public class CuentaServiceTest {
         cuenta.setBalance(77000);
         cuenta.setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE);
         cuenta.setNumeroCuenta(numeroCuenta);
+        when(cuentaDao.saveIfAbsent(cuenta)).thenReturn(true);
 
         // Llamo al método para dar de alta la cuenta
         cuentaService.darDeAltaCuenta(cuenta, dni);
 
         // Verifico que se agregó la cuenta al cliente
-        verify(clienteService, times(1)).agregarCuenta(cuenta, dni);
+        assertSame(clienteMock, cuenta.getTitular());
+        assertTrue(clienteMock.getCuentas().contains(cuenta));
+        assertTrue(clienteMock.tieneCuenta(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
 
         // Verifico que se guardó la cuenta en el dao de cuentas
-        verify(cuentaDao, times(1)).save(cuenta);
+        verify(cuentaDao, times(1)).saveIfAbsent(cuenta);
+    }
+
+    /**
+     * Testeo que si otra alta guardó el mismo numero entre la validación y el guardado se lance CuentaAlreadyExistsException
+     */
+    @Test
+    public void testCuentaGuardadaPorOtraAlta() throws TipoCuentaAlreadyExistsException {
+        Cliente titular = new Cliente();
+        when(clienteService.buscarClientePorDni(dni)).thenReturn(titular);
+        Cuenta cuenta = new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS);
+        cuenta.setNumeroCuenta(numeroCuenta);
+        when(cuentaDao.saveIfAbsent(cuenta)).thenReturn(false);
+
+        assertThrows(CuentaAlreadyExistsException.class, () -> cuentaService.darDeAltaCuenta(cuenta, dni));
+        verify(cuentaDao, never()).save(cuenta);
+        //El titular, que puede estar compartido en el cache, no queda con la cuenta que no se guardó
+        assertTrue(titular.getCuentas().isEmpty());
+        assertFalse(titular.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        verify(clienteService, never()).agregarCuenta(any(), anyLong());
+    }
+
+    /**
+     * Testeo con los DAOs reales que de varias altas simultáneas del mismo tipo y moneda para un titular
+     * se cree una sola cuenta
+     */
+    @Test
+    public void testAltasConcurrentesDelMismoTipo() throws Throwable {
+        CuentaDao cuentas = new CuentaDao();
+        ClienteService clientes = new ClienteService(new ClienteDao(cuentas));
+        CuentaService servicio = new CuentaService(cuentas, clientes);
+        long dniTitular = 53_000_001;
+        Cliente titular = new Cliente();
+        titular.setDni(dniTitular);
+        titular.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        titular.setFechaNacimiento(java.time.LocalDate.of(1985, 4, 2));
+        clientes.darDeAltaCliente(titular);
+
+        int hilos = 8;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        AtomicInteger creadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        try {
+            List<Future<?>> pendientes = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                pendientes.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        servicio.darDeAltaCuenta(new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS), dniTitular);
+                        creadas.incrementAndGet();
+                    } catch (TipoCuentaAlreadyExistsException e) {
+                        rechazadas.incrementAndGet();
+                    } catch (CuentaAlreadyExistsException | CuentaNoSoportadaException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, creadas.get());
+        assertEquals(hilos - 1, rechazadas.get());
+        assertEquals(1, cuentas.getCuentasByCliente(dniTitular).size());
+    }
+
+    /**
+     * Testeo con los DAOs reales que un lote y altas individuales simultáneas del mismo tipo y moneda para
+     * un titular creen una sola cuenta
+     */
+    @Test
+    public void testAltaPorLoteConcurrenteConAltaIndividual() throws Throwable {
+        CuentaDao cuentas = new CuentaDao();
+        ClienteService clientes = new ClienteService(new ClienteDao(cuentas));
+        CuentaService servicio = new CuentaService(cuentas, clientes);
+        long dniTitular = 53_000_002;
+        Cliente titular = new Cliente();
+        titular.setDni(dniTitular);
+        titular.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        titular.setFechaNacimiento(java.time.LocalDate.of(1985, 4, 2));
+        clientes.darDeAltaCliente(titular);
+
+        int hilos = 8;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        AtomicInteger creadas = new AtomicInteger();
+        try {
+            List<Future<?>> pendientes = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                boolean porLote = i % 2 == 0;
+                pendientes.add(executor.submit(() -> {
+                    largada.await();
+                    Cuenta cuenta = new Cuenta().setTipoCuenta(TipoCuenta.CAJA_AHORRO).setMoneda(TipoMoneda.PESOS);
+                    if (porLote) {
+                        creadas.addAndGet(servicio.darDeAltaCuentas(List.of(new SolicitudCuenta(cuenta, dniTitular)), pool).getCreadas().size());
+                    } else {
+                        try {
+                            servicio.darDeAltaCuenta(cuenta, dniTitular);
+                            creadas.incrementAndGet();
+                        } catch (TipoCuentaAlreadyExistsException e) {
+                            //Otra alta ganó
+                        } catch (CuentaAlreadyExistsException | CuentaNoSoportadaException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            pool.shutdownNow();
+        }
+        assertEquals(1, creadas.get());
+        assertEquals(1, cuentas.getCuentasByCliente(dniTitular).size());
+    }
+
+    /**
+     * Testeo el alta por lote: se rechazan las repetidas dentro del lote, las no soportadas y las de
+     * titulares inexistentes, y las válidas se guardan buscando al titular una sola vez
+     */
+    @Test
+    public void testAltaCuentasPorLote() {
+        long otroDni = 29857643;
+        when(clienteService.buscarClientePorDni(dni)).thenReturn(new Cliente());
+        when(cuentaDao.saveIfAbsent(any(Cuenta.class))).thenReturn(true);
+        when(clienteService.buscarClientePorDni(otroDni)).thenThrow(new IllegalArgumentException("El cliente no existe"));
+
+        SolicitudCuenta cajaPesos = new SolicitudCuenta(crearCuenta(1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS), dni);
+        SolicitudCuenta cajaPesosRepetida = new SolicitudCuenta(crearCuenta(2L, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS), dni);
+        SolicitudCuenta corrienteDolares = new SolicitudCuenta(crearCuenta(3L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES), dni);
+        SolicitudCuenta cajaDolares = new SolicitudCuenta(crearCuenta(4L, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES), dni);
+        SolicitudCuenta numeroRepetido = new SolicitudCuenta(crearCuenta(4L, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS), dni);
+        SolicitudCuenta sinTitular = new SolicitudCuenta(crearCuenta(5L, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS), otroDni);
+
+        ResultadoAltaCuentas resultado = cuentaService.darDeAltaCuentas(
+                List.of(cajaPesos, cajaPesosRepetida, corrienteDolares, cajaDolares, numeroRepetido, sinTitular));
+
+        assertEquals(List.of(cajaPesos.getCuenta(), cajaDolares.getCuenta()), resultado.getCreadas());
+        assertEquals(4, resultado.getRechazadas().size());
+        assertInstanceOf(TipoCuentaAlreadyExistsException.class, resultado.getRechazadas().get(cajaPesosRepetida));
+        assertInstanceOf(CuentaNoSoportadaException.class, resultado.getRechazadas().get(corrienteDolares));
+        assertInstanceOf(CuentaAlreadyExistsException.class, resultado.getRechazadas().get(numeroRepetido));
+        assertInstanceOf(IllegalArgumentException.class, resultado.getRechazadas().get(sinTitular));
+        verify(cuentaDao, times(1)).saveIfAbsent(cajaPesos.getCuenta());
+        verify(cuentaDao, times(1)).saveIfAbsent(cajaDolares.getCuenta());
+        verify(cuentaDao, times(2)).saveIfAbsent(any(Cuenta.class));
+        verify(clienteService, times(1)).buscarClientePorDni(dni);
+    }
+
+    /**
+     * Testeo que en el alta por lote se rechace una cuenta que otro guardó entre la validación y la escritura
+     */
+    @Test
+    public void testAltaCuentasPorLoteGuardadaPorOtro() {
+        when(clienteService.buscarClientePorDni(dni)).thenReturn(new Cliente());
+        SolicitudCuenta solicitud = new SolicitudCuenta(crearCuenta(1L, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS), dni);
+        when(cuentaDao.saveIfAbsent(solicitud.getCuenta())).thenReturn(false);
+
+        ResultadoAltaCuentas resultado = cuentaService.darDeAltaCuentas(List.of(solicitud));
+
+        assertTrue(resultado.getCreadas().isEmpty());
+        assertInstanceOf(CuentaAlreadyExistsException.class, resultado.getRechazadas().get(solicitud));
+    }
+
+    /**
+     * Testeo que se rechace una cuenta que el catálogo no habilita para el tipo de persona del titular
+     */
+    @Test
+    public void testCuentaNoHabilitadaParaTipoPersona() throws Exception {
+        Path archivo = Files.createTempFile("catalogo", ".csv");
+        Files.write(archivo, List.of("*,CAJA_AHORRO,PESOS", "F,CUENTA_CORRIENTE,PESOS"));
+        cuentaService.catalogo = new CatalogoProductos();
+        cuentaService.catalogo.cargar(archivo);
+        Files.delete(archivo);
+
+        Cliente empresa = new Cliente();
+        empresa.setTipoPersona(TipoPersona.PERSONA_JURIDICA);
+        when(clienteService.buscarClientePorDni(dni)).thenReturn(empresa);
+
+        Cuenta cuenta = crearCuenta(numeroCuenta, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS);
+
+        assertThrows(CuentaNoSoportadaException.class, () -> cuentaService.darDeAltaCuenta(cuenta, dni));
+        verify(cuentaDao, never()).save(any(Cuenta.class));
+    }
+
+    /**
+     * Testeo que solo una cuenta corriente se pueda dar de alta con descubierto
+     */
+    @Test
+    public void testDescubiertoSoloEnCuentaCorriente() {
+        Cuenta cuenta = crearCuenta(numeroCuenta, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS).setLimiteDescubierto(100_00);
+
+        assertThrows(IllegalArgumentException.class, () -> cuentaService.darDeAltaCuenta(cuenta, dni));
+        verify(cuentaDao, never()).save(any(Cuenta.class));
+    }
+
+    /**
+     * Testeo el cambio de descubierto de una cuenta corriente y su rechazo en una caja de ahorro o una cuenta inexistente
+     */
+    @Test
+    public void testCambiarLimiteDescubierto() {
+        when(cuentaDao.lockFor(anyLong())).thenReturn(new ReentrantLock());
+        Cuenta corriente = crearCuenta(numeroCuenta, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS);
+        when(cuentaDao.find(numeroCuenta)).thenReturn(corriente);
+        when(cuentaDao.find(numeroCuenta + 1)).thenReturn(crearCuenta(numeroCuenta + 1, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+
+        cuentaService.cambiarLimiteDescubierto(numeroCuenta, 5000_00);
+
+        verify(cuentaDao).save(argThat(c -> c.getLimiteDescubierto() == 5000_00));
+        assertThrows(IllegalArgumentException.class, () -> cuentaService.cambiarLimiteDescubierto(numeroCuenta + 1, 5000_00));
+        assertThrows(IllegalArgumentException.class, () -> cuentaService.cambiarLimiteDescubierto(numeroCuenta + 2, 5000_00));
+        assertThrows(IllegalArgumentException.class, () -> cuentaService.cambiarLimiteDescubierto(numeroCuenta, -1));
+        verify(cuentaDao, times(1)).save(any(Cuenta.class));
+    }
+
+    private Cuenta crearCuenta(long numero, TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        Cuenta cuenta = new Cuenta()
+                .setTipoCuenta(tipoCuenta)
+                .setMoneda(moneda);
+        cuenta.setNumeroCuenta(numero);
+        return cuenta;
     }
 }
@@ -0,0 +1,172 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TasasInteres;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.movimientos.HistorialMovimientos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DevengadorInteresesTest {
+
+    //Numeros de cuenta que no usan los otros tests. Las cuentas se crean con fechas del 2000 y se devenga
+    //a fechas del 2001, así las cuentas de otros tests (creadas hoy) no deben intereses
+    private static final long PRIMERA_CUENTA = 4_000_000_000L;
+    private static final LocalDate FECHA = LocalDate.of(2001, 1, 31);
+
+    @TempDir
+    Path directorio;
+
+    private CuentaDao cuentaDao;
+    private DevengadorIntereses devengador;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao();
+        devengador = new DevengadorIntereses(cuentaDao);
+        devengador.tasas = new TasasInteres();
+        //10% anual en pesos y 3.65% en dólares
+        devengador.tasas.setTasaAnual(TipoMoneda.PESOS, 1000);
+        devengador.tasas.setTasaAnual(TipoMoneda.DOLARES, 365);
+        devengador.historial = new HistorialMovimientos(null, 10);
+    }
+
+    /**
+     * Testeo el interés de cajas de ahorro en las dos monedas, que las cuentas corrientes y los saldos en cero
+     * no cobren, que el movimiento quede en el historial y que repetir la fecha no pague dos veces
+     */
+    @Test
+    public void testDevengaCajasDeAhorro() throws Exception {
+        cuentaDao.save(crearCuenta(PRIMERA_CUENTA, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 365_000_00L, FECHA.minusDays(1), null));
+        cuentaDao.save(crearCuenta(PRIMERA_CUENTA + 1, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 1000_00L, FECHA.minusYears(1), FECHA.minusDays(30)));
+        cuentaDao.save(crearCuenta(PRIMERA_CUENTA + 2, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, 1000_00L, FECHA.minusYears(1), null));
+        cuentaDao.save(crearCuenta(PRIMERA_CUENTA + 3, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 0, FECHA.minusYears(1), null));
+
+        ResultadoDevengamiento resultado = devengador.devengar(FECHA, 4);
+
+        //365000 al 10% anual por un día = 100.00; 1000 al 3.65% por 30 días = 3.00
+        assertEquals(365_100_00L, cuentaDao.find(PRIMERA_CUENTA).getBalance());
+        assertEquals(1003_00L, cuentaDao.find(PRIMERA_CUENTA + 1).getBalance());
+        assertEquals(1000_00L, cuentaDao.find(PRIMERA_CUENTA + 2).getBalance());
+        assertNull(cuentaDao.find(PRIMERA_CUENTA + 2).getFechaUltimoInteres());
+        assertEquals(0, cuentaDao.find(PRIMERA_CUENTA + 3).getBalance());
+        assertEquals(FECHA, cuentaDao.find(PRIMERA_CUENTA + 3).getFechaUltimoInteres());
+        assertTrue(resultado.getCuentasConInteres() >= 2);
+        assertTrue(resultado.getIntereses(TipoMoneda.PESOS) >= 100_00L);
+        assertTrue(resultado.getIntereses(TipoMoneda.DOLARES) >= 3_00L);
+        assertTrue(resultado.getCuentasRecorridas() >= 4);
+        assertEquals(cuentaDao.cantidadSegmentos(), resultado.getSegmentosProcesados());
+
+        List<Movimiento> movimientos = devengador.historial.consultar(PRIMERA_CUENTA, Long.MIN_VALUE, Long.MAX_VALUE, 0, 10);
+        assertEquals(1, movimientos.size());
+        assertEquals(100_00L, movimientos.get(0).getMonto());
+        assertEquals(365_100_00L, movimientos.get(0).getSaldo());
+        assertEquals(DevengadorIntereses.CONTRAPARTE_BANCO, movimientos.get(0).getContraparte());
+        assertEquals(FECHA, movimientos.get(0).getFecha().toLocalDate());
+
+        //La fecha del devengamiento sobrevive a un find/save como el de una transferencia
+        cuentaDao.save(cuentaDao.find(PRIMERA_CUENTA));
+        devengador.devengar(FECHA, 4);
+        assertEquals(365_100_00L, cuentaDao.find(PRIMERA_CUENTA).getBalance());
+        assertEquals(1003_00L, cuentaDao.find(PRIMERA_CUENTA + 1).getBalance());
+        assertEquals(1, devengador.historial.contar(PRIMERA_CUENTA, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    /**
+     * Testeo que con checkpoint una fecha ya terminada se saltee entera y que el de otra fecha no se use
+     */
+    @Test
+    public void testCheckpointSalteaSegmentosTerminados() throws Exception {
+        devengador.setArchivoCheckpoint(directorio.resolve("intereses.checkpoint"));
+        LocalDate fecha = FECHA.plusDays(10);
+        cuentaDao.save(crearCuenta(PRIMERA_CUENTA + 10, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 365_000_00L, fecha.minusDays(1), null));
+        devengador.devengar(fecha, 4);
+        assertEquals(365_100_00L, cuentaDao.find(PRIMERA_CUENTA + 10).getBalance());
+
+        //Una cuenta nueva no se ve si la fecha ya está completa en el checkpoint
+        cuentaDao.save(crearCuenta(PRIMERA_CUENTA + 11, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 365_000_00L, fecha.minusDays(1), null));
+        ResultadoDevengamiento repetido = devengador.devengar(fecha, 4);
+        assertEquals(cuentaDao.cantidadSegmentos(), repetido.getSegmentosSalteados());
+        assertEquals(0, repetido.getSegmentosProcesados());
+        assertEquals(0, repetido.getCuentasRecorridas());
+        assertEquals(365_000_00L, cuentaDao.find(PRIMERA_CUENTA + 11).getBalance());
+
+        //Al día siguiente se recorre todo: la cuenta nueva cobra sus dos días y la otra solo uno más
+        ResultadoDevengamiento siguiente = devengador.devengar(fecha.plusDays(1), 4);
+        assertEquals(0, siguiente.getSegmentosSalteados());
+        assertEquals(365_200_00L, cuentaDao.find(PRIMERA_CUENTA + 11).getBalance());
+        assertEquals(365_200_02L, cuentaDao.find(PRIMERA_CUENTA + 10).getBalance());
+    }
+
+    /**
+     * Testeo que si una cuenta hace fallar la corrida, al corregirla y volver a correr se retoma desde el
+     * checkpoint y cada cuenta cobra exactamente una vez
+     */
+    @Test
+    public void testRetomaDespuesDeUnaFalla() throws Exception {
+        devengador.setArchivoCheckpoint(directorio.resolve("intereses.checkpoint"));
+        LocalDate fecha = FECHA.plusDays(20);
+        int cuentas = 200;
+        for (int i = 0; i < cuentas; i++) {
+            cuentaDao.save(crearCuenta(PRIMERA_CUENTA + 100 + i, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 365_000_00L, fecha.minusDays(1), null));
+        }
+        //Con este balance el interés desborda el saldo
+        long problematica = PRIMERA_CUENTA + 100 + cuentas;
+        cuentaDao.save(crearCuenta(problematica, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, Long.MAX_VALUE - 1, fecha.minusDays(1), null));
+
+        assertThrows(IllegalStateException.class, () -> devengador.devengar(fecha, 4));
+
+        cuentaDao.save(crearCuenta(problematica, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 365_000_00L, fecha.minusDays(1), null));
+        ResultadoDevengamiento retomado = devengador.devengar(fecha, 4);
+        assertEquals(cuentaDao.cantidadSegmentos(), retomado.getSegmentosProcesados() + retomado.getSegmentosSalteados());
+        for (int i = 0; i <= cuentas; i++) {
+            assertEquals(365_100_00L, cuentaDao.find(PRIMERA_CUENTA + 100 + i).getBalance());
+        }
+    }
+
+    /**
+     * Testeo que el interés se calcule día por día sobre el saldo al cierre de cada día según el historial,
+     * y no sobre el balance actual por todo el período
+     */
+    @Test
+    public void testDevengaSobreSaldosDiarios() throws Exception {
+        LocalDate fecha = FECHA.plusDays(40);
+        long numero = PRIMERA_CUENTA + 30;
+        //Se creó con 365000, 4 días antes de la fecha depositó otros 365000 y después de la fecha retiró todo
+        cuentaDao.save(crearCuenta(numero, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 0, fecha.minusDays(10), null));
+        devengador.historial.registrar(numero, Movimiento.instante(fecha.minusDays(4).atTime(15, 0)), 365_000_00L, 730_000_00L, 1);
+        devengador.historial.registrar(numero, Movimiento.instante(fecha.minusDays(4).atTime(16, 0)), 0, 730_000_00L, 1);
+        devengador.historial.registrar(numero, Movimiento.instante(fecha.plusDays(2).atTime(9, 0)), -730_000_00L, 0, 1);
+
+        devengador.devengar(fecha, 2);
+
+        //6 días con 365000 al 10% anual (100.00 por día) y 4 días con 730000 (200.00 por día)
+        assertEquals(1400_00L, cuentaDao.find(numero).getBalance());
+    }
+
+    private static Cuenta crearCuenta(long numero, TipoCuenta tipoCuenta, TipoMoneda moneda, long balance,
+                                      LocalDate creacion, LocalDate ultimoInteres) {
+        Cliente titular = new Cliente();
+        titular.setDni(40_000_000L);
+        Cuenta cuenta = new Cuenta()
+                .setTipoCuenta(tipoCuenta)
+                .setMoneda(moneda)
+                .setBalance(balance)
+                .setFechaCreacion(creacion.atTime(12, 0))
+                .setFechaUltimoInteres(ultimoInteres);
+        cuenta.setNumeroCuenta(numero);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+}
@@ -0,0 +1,140 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistroIdempotenciaTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+    private final RegistroIdempotencia registro = new RegistroIdempotencia(1000, 10, reloj::get);
+
+    /** Testeo que un pedido repetido reciba el resultado del primero sin volver a ejecutar */
+    @Test
+    public void testRepetidoDevuelveElPrimerResultado() {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        Object primero = registro.ejecutar("a", 1, () -> new Object[]{ejecuciones.incrementAndGet()});
+        Object segundo = registro.ejecutar("a", 1, () -> new Object[]{ejecuciones.incrementAndGet()});
+
+        assertSame(primero, segundo);
+        assertEquals(1, ejecuciones.get());
+        //Sin clave se ejecuta siempre
+        registro.ejecutar(null, 1, ejecuciones::incrementAndGet);
+        registro.ejecutar(null, 1, ejecuciones::incrementAndGet);
+        assertEquals(3, ejecuciones.get());
+    }
+
+    /** Testeo que los pedidos concurrentes con la misma clave ejecuten una sola vez y reciban el mismo objeto */
+    @Test
+    public void testConcurrentesEjecutanUnaVez() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return registro.ejecutar("concurrente", 7, () -> {
+                        ejecuciones.incrementAndGet();
+                        Thread.sleep(50);
+                        return new Object();
+                    });
+                }));
+            }
+            largada.countDown();
+            Object primero = resultados.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Object> resultado : resultados) {
+                assertSame(primero, resultado.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, ejecuciones.get());
+    }
+
+    /** Testeo que las excepciones del dominio se recuerden y los errores transitorios se vuelvan a intentar */
+    @Test
+    public void testExcepciones() {
+        ClienteAlreadyExistsException existe = new ClienteAlreadyExistsException("ya existe");
+        AtomicInteger ejecuciones = new AtomicInteger();
+        RegistroIdempotencia.Accion<Object, ClienteAlreadyExistsException> falla = () -> {
+            ejecuciones.incrementAndGet();
+            throw existe;
+        };
+        assertSame(existe, assertThrows(ClienteAlreadyExistsException.class, () -> registro.ejecutar("dominio", 1, falla)));
+        assertSame(existe, assertThrows(ClienteAlreadyExistsException.class, () -> registro.ejecutar("dominio", 1, falla)));
+        assertEquals(1, ejecuciones.get());
+
+        assertThrows(IllegalStateException.class, () -> registro.ejecutar("transitorio", 1, () -> {
+            throw new IllegalStateException("se cortó la base");
+        }));
+        assertEquals("ok", registro.ejecutar("transitorio", 1, () -> "ok"));
+    }
+
+    /** Testeo que el resultado relance solo los tipos pedidos y devuelva el valor o las unchecked */
+    @Test
+    public void testResultado() throws Throwable {
+        ClienteAlreadyExistsException existe = new ClienteAlreadyExistsException("ya existe");
+        RegistroIdempotencia.Resultado<Object> fallido = registro.ejecutarConResultado("resultado", 1, () -> {
+            throw existe;
+        });
+        fallido.relanzar(IOException.class);
+        assertSame(existe, assertThrows(ClienteAlreadyExistsException.class, () -> fallido.relanzar(ClienteAlreadyExistsException.class)));
+        assertSame(existe, assertThrows(IllegalStateException.class, fallido::valor).getCause());
+
+        assertEquals("ok", registro.ejecutarConResultado("resultado-ok", 1, () -> "ok")
+                .relanzar(ClienteAlreadyExistsException.class).valor());
+        RegistroIdempotencia.Resultado<Object> unchecked = registro.ejecutarConResultado("resultado-unchecked", 1, () -> {
+            throw new IllegalArgumentException("mal armado");
+        });
+        assertThrows(IllegalArgumentException.class, unchecked::valor);
+    }
+
+    /** Testeo que la misma clave con otro pedido se rechace */
+    @Test
+    public void testHuellaDistinta() {
+        registro.ejecutar("huella", 1, () -> "primero");
+        assertThrows(IllegalArgumentException.class, () -> registro.ejecutar("huella", 2, () -> "segundo"));
+    }
+
+    /** Testeo que las claves venzan después del ttl y que el barrido las quite */
+    @Test
+    public void testVencimiento() {
+        registro.ejecutar("vence", 1, () -> "primero");
+        registro.ejecutar("queda", 1, () -> "primero");
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertEquals("primero", registro.ejecutar("vence", 1, () -> "segundo"));
+        assertEquals(0, registro.barrer());
+
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals("segundo", registro.ejecutar("vence", 1, () -> "segundo"));
+        assertEquals(1, registro.barrer());
+        assertEquals(1, registro.cantidad());
+    }
+
+    /** Testeo que pasado el máximo se desalojen entradas y la memoria quede acotada */
+    @Test
+    public void testMaximo() {
+        Object ultima = null;
+        for (int i = 0; i < 100; i++) {
+            ultima = registro.ejecutar("clave" + i, i, Object::new);
+            //La que se está agregando puede pasar el máximo por una mientras está en curso
+            assertTrue(registro.cantidad() <= 11, "quedaron " + registro.cantidad());
+        }
+        //La última se agregó después de desalojar, así que sigue recordada
+        assertSame(ultima, registro.ejecutar("clave99", 99, Object::new));
+    }
+}
@@ -0,0 +1,70 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide transferencias por segundo entre pares de cuentas al azar, con uno y con todos los hilos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferenciaServiceBenchmark {
+
+    private static final long PRIMERA_CUENTA = 8_000_000_000L;
+
+    @Param({"10000"})
+    public int cantidadCuentas;
+
+    private TransferenciaService transferenciaService;
+
+    @Setup(Level.Trial)
+    public void cargarCuentas() {
+        CuentaDao cuentaDao = new CuentaDao();
+        transferenciaService = new TransferenciaService(cuentaDao);
+        Cliente titular = new Cliente();
+        titular.setDni(40022659);
+        for (int i = 0; i < cantidadCuentas; i++) {
+            Cuenta cuenta = new Cuenta()
+                    .setMoneda(TipoMoneda.PESOS)
+                    .setBalance(1_000_000_000)
+                    .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+            cuenta.setNumeroCuenta(PRIMERA_CUENTA + i);
+            cuenta.setTitular(titular);
+            cuentaDao.save(cuenta);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void transferirUnHilo() throws NoAlcanzaException, CantidadNegativaException {
+        transferir();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void transferirTodosLosHilos() throws NoAlcanzaException, CantidadNegativaException {
+        transferir();
+    }
+
+    private void transferir() throws NoAlcanzaException, CantidadNegativaException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long origen = PRIMERA_CUENTA + random.nextInt(cantidadCuentas);
+        long destino = PRIMERA_CUENTA + random.nextInt(cantidadCuentas);
+        if (origen != destino) {
+            transferenciaService.transferir(origen, destino, 1);
+        }
+    }
+}
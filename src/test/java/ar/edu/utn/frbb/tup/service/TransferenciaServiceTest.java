@@ -0,0 +1,157 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.movimientos.HistorialMovimientos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransferenciaServiceTest {
+
+    //Numeros de cuenta altos para no chocar con otras cuentas guardadas por otros tests
+    private static final long PRIMERA_CUENTA = 7_000_000_000L;
+    private static final int CUENTAS = 50;
+    private static final int BALANCE_INICIAL = 1000;
+
+    private CuentaDao cuentaDao;
+    private TransferenciaService transferenciaService;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao();
+        transferenciaService = new TransferenciaService(cuentaDao);
+        for (int i = 0; i < CUENTAS; i++) {
+            cuentaDao.save(crearCuenta(PRIMERA_CUENTA + i, TipoMoneda.PESOS));
+        }
+    }
+
+    /**
+     * Testeo una transferencia exitosa
+     */
+    @Test
+    public void testTransferenciaExitosa() throws NoAlcanzaException, CantidadNegativaException {
+        transferenciaService.transferir(PRIMERA_CUENTA, PRIMERA_CUENTA + 1, 300);
+
+        assertEquals(BALANCE_INICIAL - 300, cuentaDao.find(PRIMERA_CUENTA).getBalance());
+        assertEquals(BALANCE_INICIAL + 300, cuentaDao.find(PRIMERA_CUENTA + 1).getBalance());
+    }
+
+    /**
+     * Testeo que la transferencia deje un débito y un crédito en el historial de movimientos, y que una fallida no deje nada
+     */
+    @Test
+    public void testTransferenciaRegistraMovimientos() throws NoAlcanzaException, CantidadNegativaException {
+        transferenciaService.historial = new HistorialMovimientos(null, 10);
+        transferenciaService.transferir(PRIMERA_CUENTA, PRIMERA_CUENTA + 1, 300);
+        assertThrows(NoAlcanzaException.class, () -> transferenciaService.transferir(PRIMERA_CUENTA, PRIMERA_CUENTA + 1, BALANCE_INICIAL));
+
+        List<Movimiento> debitos = transferenciaService.historial.consultar(PRIMERA_CUENTA, 0, Long.MAX_VALUE, 0, 10);
+        List<Movimiento> creditos = transferenciaService.historial.consultar(PRIMERA_CUENTA + 1, 0, Long.MAX_VALUE, 0, 10);
+        assertEquals(1, debitos.size());
+        assertEquals(-300, debitos.get(0).getMonto());
+        assertEquals(BALANCE_INICIAL - 300, debitos.get(0).getSaldo());
+        assertEquals(PRIMERA_CUENTA + 1, debitos.get(0).getContraparte());
+        assertEquals(1, creditos.size());
+        assertEquals(300, creditos.get(0).getMonto());
+        assertEquals(BALANCE_INICIAL + 300, creditos.get(0).getSaldo());
+    }
+
+    /**
+     * Testeo que sin saldo suficiente no se modifique ninguna de las dos cuentas
+     */
+    @Test
+    public void testTransferenciaSinSaldo() {
+        assertThrows(NoAlcanzaException.class, () -> transferenciaService.transferir(PRIMERA_CUENTA, PRIMERA_CUENTA + 1, BALANCE_INICIAL + 1));
+
+        assertEquals(BALANCE_INICIAL, cuentaDao.find(PRIMERA_CUENTA).getBalance());
+        assertEquals(BALANCE_INICIAL, cuentaDao.find(PRIMERA_CUENTA + 1).getBalance());
+    }
+
+    /**
+     * Testeo los casos invalidos: monto negativo, misma cuenta, cuenta inexistente y monedas distintas
+     */
+    @Test
+    public void testTransferenciasInvalidas() {
+        cuentaDao.save(crearCuenta(PRIMERA_CUENTA + CUENTAS, TipoMoneda.DOLARES));
+
+        assertThrows(CantidadNegativaException.class, () -> transferenciaService.transferir(PRIMERA_CUENTA, PRIMERA_CUENTA + 1, -1));
+        assertThrows(IllegalArgumentException.class, () -> transferenciaService.transferir(PRIMERA_CUENTA, PRIMERA_CUENTA, 1));
+        assertThrows(IllegalArgumentException.class, () -> transferenciaService.transferir(PRIMERA_CUENTA, PRIMERA_CUENTA - 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> transferenciaService.transferir(PRIMERA_CUENTA, PRIMERA_CUENTA + CUENTAS, 1));
+    }
+
+    /**
+     * Testeo que con muchas transferencias concurrentes entre pares al azar el dinero total se conserve
+     * y ninguna cuenta quede en negativo
+     */
+    @Test
+    public void testConservacionDelDinero() throws Exception {
+        int hilos = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(executor.submit(() -> {
+                largada.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20000; i++) {
+                    long origen = PRIMERA_CUENTA + random.nextInt(CUENTAS);
+                    long destino = PRIMERA_CUENTA + random.nextInt(CUENTAS);
+                    if (origen == destino) {
+                        continue;
+                    }
+                    try {
+                        transferenciaService.transferir(origen, destino, random.nextInt(200));
+                    } catch (NoAlcanzaException e) {
+                        //Se espera cuando la cuenta de origen se quedó sin saldo
+                    } catch (CantidadNegativaException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (int i = 0; i < CUENTAS; i++) {
+            long balance = cuentaDao.find(PRIMERA_CUENTA + i).getBalance();
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        assertEquals((long) CUENTAS * BALANCE_INICIAL, total);
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta, TipoMoneda moneda) {
+        Cliente titular = new Cliente();
+        titular.setDni(40022659);
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(moneda)
+                .setBalance(BALANCE_INICIAL)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+}